@@ -26,11 +26,13 @@ import org.eclipse.swt.graphics.Device;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 
+import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.graphic.ColorGradient;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.graphic.Viewer;
 
@@ -215,6 +217,12 @@ final class GraphicSwt implements Graphic
         drawOval(px, py, width, height, fill);
     }
 
+    @Override
+    public void drawText(Text text, int x, int y, Align align, String value)
+    {
+        text.draw(this, x, y, align, value);
+    }
+
     @Override
     public void setColor(ColorRgba color)
     {
@@ -103,20 +103,17 @@ final class TextSwt implements Text
         color = ColorRgba.WHITE;
     }
 
-    /*
-     * Text
+    /**
+     * Draw the text on the native graphic.
+     * 
+     * @param gc The native graphic.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param alignment The text alignment.
+     * @param text The text string.
      */
-
-    @Override
-    public void draw(Graphic g, int x, int y, String text)
+    private void draw(GC gc, int x, int y, Align alignment, String text)
     {
-        draw(g, x, y, Align.LEFT, text);
-    }
-
-    @Override
-    public void draw(Graphic g, int x, int y, Align alignment, String text)
-    {
-        final GC gc = (GC) g.getGraphic();
         gc.setTextAntialias(SWT.OFF);
         gc.setFont(font);
         final Point textSize = gc.stringExtent(text);
@@ -146,11 +143,35 @@ final class TextSwt implements Text
         c.dispose();
     }
 
+    /*
+     * Text
+     */
+
+    @Override
+    public void draw(Graphic g, int x, int y, String text)
+    {
+        draw(g, x, y, Align.LEFT, text);
+    }
+
+    @Override
+    public void draw(Graphic g, int x, int y, Align alignment, String text)
+    {
+        final GC gc = (GC) g.getGraphic();
+        if (gc == null)
+        {
+            g.drawText(this, x, y, alignment, text);
+        }
+        else
+        {
+            draw(gc, x, y, alignment, text);
+        }
+    }
+
     @Override
     public void render(Graphic g)
     {
         draw(g, x, y, align, txt);
-        if (txtChanged)
+        if (txtChanged && g.getGraphic() != null)
         {
             w = getStringWidth(g, txt);
             h = getStringHeight(g, txt);
@@ -32,6 +32,7 @@ import com.b3dgs.lionengine.graphic.ColorGradient;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.graphic.Viewer;
 
@@ -230,6 +231,12 @@ final class GraphicAndroid implements Graphic
         drawOval(px, py, width, height, fill);
     }
 
+    @Override
+    public void drawText(Text text, int x, int y, Align align, String value)
+    {
+        text.draw(this, x, y, align, value);
+    }
+
     @Override
     public void setColor(ColorRgba color)
     {
@@ -113,8 +113,15 @@ final class TextAndroid implements Text
     @Override
     public void draw(Graphic g, int x, int y, Align alignment, String text)
     {
-        final double ratio = 0.8;
-        ((GraphicAndroid) g).drawString(x, y + (int) (size * ratio), alignment, text, paint);
+        if (g.getGraphic() == null)
+        {
+            g.drawText(this, x, y, alignment, text);
+        }
+        else
+        {
+            final double ratio = 0.8;
+            ((GraphicAndroid) g).drawString(x, y + (int) (size * ratio), alignment, text, paint);
+        }
     }
 
     @Override
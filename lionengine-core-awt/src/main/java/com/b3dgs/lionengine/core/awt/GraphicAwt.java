@@ -24,11 +24,13 @@ import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
 
+import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.graphic.ColorGradient;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.graphic.Viewer;
 import com.b3dgs.lionengine.util.UtilMath;
@@ -188,6 +190,12 @@ final class GraphicAwt implements Graphic
         drawOval(px, py, width, height, fill);
     }
 
+    @Override
+    public void drawText(Text text, int x, int y, Align align, String value)
+    {
+        text.draw(this, x, y, align, value);
+    }
+
     @Override
     public void setColor(ColorRgba color)
     {
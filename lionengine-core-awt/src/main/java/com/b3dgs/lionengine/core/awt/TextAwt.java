@@ -35,6 +35,9 @@ import com.b3dgs.lionengine.graphic.TextStyle;
  */
 final class TextAwt implements Text
 {
+    /** Default font render context, used when native graphic is not available. */
+    private static final FontRenderContext DEFAULT_CONTEXT = new FontRenderContext(null, false, false);
+
     /**
      * Get the style equivalence.
      * 
@@ -61,6 +64,22 @@ final class TextAwt implements Text
         return value;
     }
 
+    /**
+     * Get the font render context of the graphic.
+     * 
+     * @param g The graphic output.
+     * @return The graphic font render context, default one if native graphic not available (recorded drawing).
+     */
+    private static FontRenderContext getContext(Graphic g)
+    {
+        final Graphics2D g2d = (Graphics2D) g.getGraphic();
+        if (g2d == null)
+        {
+            return DEFAULT_CONTEXT;
+        }
+        return g2d.getFontRenderContext();
+    }
+
     /** Text java font. */
     private final Font font;
     /** Text size. */
@@ -97,20 +116,18 @@ final class TextAwt implements Text
         color = ColorRgba.WHITE;
     }
 
-    /*
-     * Text
+    /**
+     * Draw the text on the native graphic.
+     * 
+     * @param g The graphic output.
+     * @param g2d The native graphic.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param alignment The text alignment.
+     * @param text The text string.
      */
-
-    @Override
-    public void draw(Graphic g, int x, int y, String text)
-    {
-        draw(g, x, y, Align.LEFT, text);
-    }
-
-    @Override
-    public void draw(Graphic g, int x, int y, Align alignment, String text)
+    private void draw(Graphic g, Graphics2D g2d, int x, int y, Align alignment, String text)
     {
-        final Graphics2D g2d = (Graphics2D) g.getGraphic();
         final FontRenderContext context = g2d.getFontRenderContext();
         final Rectangle2D textSize = font.getStringBounds(text, context);
         final int tx;
@@ -142,6 +159,30 @@ final class TextAwt implements Text
         g.setColor(colorOld);
     }
 
+    /*
+     * Text
+     */
+
+    @Override
+    public void draw(Graphic g, int x, int y, String text)
+    {
+        draw(g, x, y, Align.LEFT, text);
+    }
+
+    @Override
+    public void draw(Graphic g, int x, int y, Align alignment, String text)
+    {
+        final Graphics2D g2d = (Graphics2D) g.getGraphic();
+        if (g2d == null)
+        {
+            g.drawText(this, x, y, alignment, text);
+        }
+        else
+        {
+            draw(g, g2d, x, y, alignment, text);
+        }
+    }
+
     @Override
     public void render(Graphic g)
     {
@@ -213,12 +254,12 @@ final class TextAwt implements Text
     @Override
     public int getStringWidth(Graphic g, String str)
     {
-        return (int) font.getStringBounds(str, ((Graphics2D) g.getGraphic()).getFontRenderContext()).getWidth();
+        return (int) font.getStringBounds(str, getContext(g)).getWidth();
     }
 
     @Override
     public int getStringHeight(Graphic g, String str)
     {
-        return (int) font.getStringBounds(str, ((Graphics2D) g.getGraphic()).getFontRenderContext()).getHeight();
+        return (int) font.getStringBounds(str, getContext(g)).getHeight();
     }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Process filters rows by bands, in parallel on a shared pool of daemon threads. The caller thread processes the
+ * first band, and waits for the others.
+ */
+final class FilterBands
+{
+    /** Minimum rows per band. */
+    private static final int MIN_ROWS = 16;
+    /** Error filter. */
+    private static final String ERROR_FILTER = "Filter failed !";
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "Filter";
+    /** Available processors. */
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    /** Bands executor, caller thread excluded. */
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    /**
+     * Create the bands executor.
+     * 
+     * @return The created executor.
+     */
+    private static ExecutorService createExecutor()
+    {
+        return Executors.newFixedThreadPool(Math.max(1, THREADS - 1), new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Process all rows, split in bands of consecutive rows. Returns once all rows have been processed.
+     * 
+     * @param rows The total number of rows.
+     * @param band The band processing.
+     * @throws LionEngineException If processing failed.
+     */
+    static void run(int rows, final Band band)
+    {
+        final int bands = Math.max(1, Math.min(THREADS, rows / MIN_ROWS));
+        final int size = (rows + bands - 1) / bands;
+        final List<Future<?>> futures = new ArrayList<Future<?>>(bands - 1);
+        for (int i = 1; i < bands; i++)
+        {
+            final int start = i * size;
+            final int end = Math.min(rows, start + size);
+            futures.add(EXECUTOR.submit(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    band.compute(start, end);
+                }
+            }));
+        }
+        band.compute(0, Math.min(rows, size));
+        await(futures);
+    }
+
+    /**
+     * Wait for bands completion.
+     * 
+     * @param futures The bands in progress.
+     * @throws LionEngineException If processing failed.
+     */
+    private static void await(List<Future<?>> futures)
+    {
+        for (final Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (final InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new LionEngineException(exception, ERROR_FILTER);
+            }
+            catch (final ExecutionException exception)
+            {
+                throw new LionEngineException(exception, ERROR_FILTER);
+            }
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private FilterBands()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+
+    /**
+     * Rows band processing.
+     */
+    interface Band
+    {
+        /**
+         * Process the rows band.
+         * 
+         * @param start The first row included.
+         * @param end The last row excluded.
+         */
+        void compute(int start, int end);
+    }
+}
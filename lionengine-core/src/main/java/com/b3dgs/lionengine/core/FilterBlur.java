@@ -25,6 +25,10 @@ import com.b3dgs.lionengine.util.UtilMath;
 
 /**
  * Blur filter implementation.
+ * <p>
+ * Pixels arrays and output images are reused between calls (see {@link Filter#filter(ImageBuffer)}), and rows are
+ * processed by bands in parallel.
+ * </p>
  */
 public class FilterBlur implements Filter
 {
@@ -35,6 +39,10 @@ public class FilterBlur implements Filter
     /** Default radius. */
     private static final float RADIUS_DEFAULT = 1.5F;
 
+    /** Reused buffers. */
+    private final FilterBuffers buffers = new FilterBuffers();
+    /** Current kernel (<code>null</code> if not computed). */
+    private Kernel kernel;
     /** Current radius. */
     private volatile float radius;
     /** Alpha flag. */
@@ -89,22 +97,22 @@ public class FilterBlur implements Filter
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public synchronized ImageBuffer filter(ImageBuffer source)
     {
         final int width = source.getWidth();
         final int height = source.getHeight();
 
-        final int[] inPixels = new int[width * height];
-        final int[] outPixels = new int[width * height];
-        source.getRgb(0, 0, width, height, inPixels, 0, width);
+        final int[] inPixels = buffers.read(source);
+        final int[] outPixels = buffers.getDestination(width * height);
 
-        final Kernel kernel = createKernel(radius, width, height);
-        compute(kernel, inPixels, outPixels, width, height, alpha, edge);
-        compute(kernel, outPixels, inPixels, height, width, alpha, edge);
+        if (kernel == null || Float.floatToIntBits(kernel.getRadius()) != Float.floatToIntBits(radius))
+        {
+            kernel = createKernel(radius);
+        }
+        FilterBands.run(height, new Pass(kernel, inPixels, outPixels, width, height, alpha, edge));
+        FilterBands.run(width, new Pass(kernel, outPixels, inPixels, height, width, alpha, edge));
 
-        final ImageBuffer dest = Graphics.createImageBuffer(width, height, source.getTransparency());
-        dest.setRgb(0, 0, width, height, inPixels, 0, width);
-        return dest;
+        return buffers.write(inPixels, width, height, source.getTransparency());
     }
 
     @Override
@@ -115,66 +123,6 @@ public class FilterBlur implements Filter
         return transform;
     }
 
-    /**
-     * Compute blur.
-     * 
-     * @param kernel The kernel used.
-     * @param in The source pixels.
-     * @param out The destination pixels.
-     * @param width The image width.
-     * @param height The image height.
-     * @param alpha The alpha flag.
-     * @param edge The edge flag.
-     */
-    private static void compute(Kernel kernel, int[] in, int[] out, int width, int height, boolean alpha, int edge)
-    {
-        final float[] matrix = kernel.getMatrix();
-        final int cols = kernel.getWidth();
-        final int cols2 = cols / 2;
-
-        for (int y = 0; y < height; y++)
-        {
-            int index = y;
-            final int ioffset = y * width;
-            for (int x = 0; x < width; x++)
-            {
-                float r = 0;
-                float g = 0;
-                float b = 0;
-                float a = 0;
-
-                final int moffset = cols2;
-                for (int col = -cols2; col <= cols2; col++)
-                {
-                    final float f = matrix[moffset + col];
-                    if (Double.doubleToRawLongBits(f) != 0L)
-                    {
-                        final int ix = checkEdge(width, x, col, edge);
-                        final int rgb = in[ioffset + ix];
-                        a += f * (rgb >> Constant.BYTE_4 & 0xff);
-                        r += f * (rgb >> Constant.BYTE_3 & 0xff);
-                        g += f * (rgb >> Constant.BYTE_2 & 0xff);
-                        b += f * (rgb & 0xff);
-                    }
-                }
-                final int ia;
-                if (alpha)
-                {
-                    ia = clamp((int) (a + Constant.HALF));
-                }
-                else
-                {
-                    ia = 0xff;
-                }
-                final int ir = clamp((int) (r + 0.5));
-                final int ig = clamp((int) (g + 0.5));
-                final int ib = clamp((int) (b + 0.5));
-                out[index] = ia << Constant.BYTE_4 | ir << Constant.BYTE_3 | ig << Constant.BYTE_2 | ib;
-                index += height;
-            }
-        }
-    }
-
     /**
      * Check the edge value.
      * 
@@ -216,11 +164,9 @@ public class FilterBlur implements Filter
      * Create a blur kernel.
      * 
      * @param radius The blur radius.
-     * @param width The image width.
-     * @param height The image height.
      * @return The blur kernel.
      */
-    private static Kernel createKernel(float radius, int width, int height)
+    private static Kernel createKernel(float radius)
     {
         final int r = (int) Math.ceil(radius);
         final int rows = r * 2 + 1;
@@ -251,10 +197,7 @@ public class FilterBlur implements Filter
             matrix[i] /= total;
         }
 
-        final float[] data = new float[width * height];
-        System.arraycopy(matrix, 0, data, 0, rows);
-
-        return new Kernel(rows, data);
+        return new Kernel(radius, rows, matrix);
     }
 
     /**
@@ -273,6 +216,8 @@ public class FilterBlur implements Filter
      */
     private static class Kernel
     {
+        /** Kernel radius. */
+        private final float radius;
         /** Kernel width. */
         private final int width;
         /** Kernel matrix. */
@@ -281,15 +226,27 @@ public class FilterBlur implements Filter
         /**
          * Create the kernel.
          * 
+         * @param radius The kernel radius.
          * @param width The kernel width.
          * @param matrix The kernel matrix.
          */
-        Kernel(int width, float[] matrix)
+        Kernel(float radius, int width, float[] matrix)
         {
+            this.radius = radius;
             this.width = width;
             this.matrix = matrix;
         }
 
+        /**
+         * Get the kernel radius.
+         * 
+         * @return The kernel radius.
+         */
+        public float getRadius()
+        {
+            return radius;
+        }
+
         /**
          * Get the matrix width.
          * 
@@ -310,4 +267,101 @@ public class FilterBlur implements Filter
             return matrix;
         }
     }
+
+    /**
+     * Blur pass, computing rows of the source to columns of the destination.
+     */
+    private static final class Pass implements FilterBands.Band
+    {
+        /** The kernel used. */
+        private final Kernel kernel;
+        /** The source pixels. */
+        private final int[] in;
+        /** The destination pixels. */
+        private final int[] out;
+        /** The source width. */
+        private final int width;
+        /** The source height. */
+        private final int height;
+        /** The alpha flag. */
+        private final boolean alpha;
+        /** The edge flag. */
+        private final int edge;
+
+        /**
+         * Create the pass.
+         * 
+         * @param kernel The kernel used.
+         * @param in The source pixels.
+         * @param out The destination pixels.
+         * @param width The source width.
+         * @param height The source height.
+         * @param alpha The alpha flag.
+         * @param edge The edge flag.
+         */
+        Pass(Kernel kernel, int[] in, int[] out, int width, int height, boolean alpha, int edge)
+        {
+            this.kernel = kernel;
+            this.in = in;
+            this.out = out;
+            this.width = width;
+            this.height = height;
+            this.alpha = alpha;
+            this.edge = edge;
+        }
+
+        /*
+         * Band
+         */
+
+        @Override
+        public void compute(int start, int end)
+        {
+            final float[] matrix = kernel.getMatrix();
+            final int cols = kernel.getWidth();
+            final int cols2 = cols / 2;
+
+            for (int y = start; y < end; y++)
+            {
+                int index = y;
+                final int ioffset = y * width;
+                for (int x = 0; x < width; x++)
+                {
+                    float r = 0;
+                    float g = 0;
+                    float b = 0;
+                    float a = 0;
+
+                    final int moffset = cols2;
+                    for (int col = -cols2; col <= cols2; col++)
+                    {
+                        final float f = matrix[moffset + col];
+                        if (Double.doubleToRawLongBits(f) != 0L)
+                        {
+                            final int ix = checkEdge(width, x, col, edge);
+                            final int rgb = in[ioffset + ix];
+                            a += f * (rgb >> Constant.BYTE_4 & 0xff);
+                            r += f * (rgb >> Constant.BYTE_3 & 0xff);
+                            g += f * (rgb >> Constant.BYTE_2 & 0xff);
+                            b += f * (rgb & 0xff);
+                        }
+                    }
+                    final int ia;
+                    if (alpha)
+                    {
+                        ia = clamp((int) (a + Constant.HALF));
+                    }
+                    else
+                    {
+                        ia = 0xff;
+                    }
+                    final int ir = clamp((int) (r + 0.5));
+                    final int ig = clamp((int) (g + 0.5));
+                    final int ib = clamp((int) (b + 0.5));
+                    out[index] = ia << Constant.BYTE_4 | ir << Constant.BYTE_3 | ig << Constant.BYTE_2 | ib;
+                    index += height;
+                }
+            }
+        }
+    }
 }
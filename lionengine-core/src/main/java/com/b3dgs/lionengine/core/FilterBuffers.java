@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Transparency;
+
+/**
+ * Filter pixels arrays and output images, reused between calls while the size does not change. Outputs are double
+ * buffered: an output is reused every two calls, so the previous filtered image can still be rendered while the next
+ * one is computed.
+ * <p>
+ * This class is not Thread-Safe.
+ * </p>
+ */
+final class FilterBuffers
+{
+    /** Output images count. */
+    private static final int OUTPUTS = 2;
+
+    /** Output images. */
+    private final ImageBuffer[] outputs = new ImageBuffer[OUTPUTS];
+    /** Source pixels. */
+    private int[] source = new int[0];
+    /** Destination pixels. */
+    private int[] destination = new int[0];
+    /** Last output index. */
+    private int current;
+
+    /**
+     * Create buffers.
+     */
+    FilterBuffers()
+    {
+        super();
+    }
+
+    /**
+     * Read the image pixels in the source array.
+     * 
+     * @param image The image to read.
+     * @return The source array, its length may be greater than image size.
+     */
+    int[] read(ImageBuffer image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        if (source.length < width * height)
+        {
+            source = new int[width * height];
+        }
+        image.getRgb(0, 0, width, height, source, 0, width);
+        return source;
+    }
+
+    /**
+     * Get the destination array.
+     * 
+     * @param length The minimum length.
+     * @return The destination array, its length may be greater than requested.
+     */
+    int[] getDestination(int length)
+    {
+        if (destination.length < length)
+        {
+            destination = new int[length];
+        }
+        return destination;
+    }
+
+    /**
+     * Write pixels to the next output image.
+     * 
+     * @param pixels The pixels to write.
+     * @param width The output width.
+     * @param height The output height.
+     * @param transparency The output transparency.
+     * @return The output image.
+     */
+    ImageBuffer write(int[] pixels, int width, int height, Transparency transparency)
+    {
+        current = (current + 1) % OUTPUTS;
+        ImageBuffer output = outputs[current];
+        if (output == null
+            || output.getWidth() != width
+            || output.getHeight() != height
+            || output.getTransparency() != transparency)
+        {
+            if (output != null)
+            {
+                output.dispose();
+            }
+            output = Graphics.createImageBuffer(width, height, transparency);
+            outputs[current] = output;
+        }
+        output.setRgb(0, 0, width, height, pixels, 0, width);
+        return output;
+    }
+}
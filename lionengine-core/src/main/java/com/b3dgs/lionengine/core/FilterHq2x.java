@@ -25,6 +25,10 @@ import com.b3dgs.lionengine.graphic.Transparency;
 /**
  * HQ2X implementation.
  * <p>
+ * Pixels arrays and output images are reused between calls (see {@link Filter#filter(ImageBuffer)}), and rows are
+ * processed by bands in parallel.
+ * </p>
+ * <p>
  * This class is Thread-Safe.
  * </p>
  */
@@ -33,6 +37,9 @@ public final class FilterHq2x implements Filter
     /** Scale factor. */
     public static final int SCALE = 2;
 
+    /** Reused buffers. */
+    private final FilterBuffers buffers = new FilterBuffers();
+
     /**
      * Create an Hq2x filter.
      */
@@ -46,18 +53,16 @@ public final class FilterHq2x implements Filter
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public synchronized ImageBuffer filter(ImageBuffer source)
     {
         final int width = source.getWidth();
         final int height = source.getHeight();
-        final int[] srcData = new int[width * height];
-        source.getRgb(0, 0, width, height, srcData, 0, width);
+        final int[] srcData = buffers.read(source);
+        final int[] dstData = buffers.getDestination(width * height * SCALE * SCALE);
 
-        final RawScale2x scaler = new RawScale2x(width, height);
-        final ImageBuffer image = Graphics.createImageBuffer(width * SCALE, height * SCALE, Transparency.OPAQUE);
-        image.setRgb(0, 0, width * SCALE, height * SCALE, scaler.getScaledData(srcData), 0, width * SCALE);
+        FilterBands.run(height, new RawScale2x(srcData, dstData, width, height));
 
-        return image;
+        return buffers.write(dstData, width * SCALE, height * SCALE, Transparency.OPAQUE);
     }
 
     @Override
@@ -71,8 +76,12 @@ public final class FilterHq2x implements Filter
     /**
      * The raw scale implementation.
      */
-    private static final class RawScale2x
+    private static final class RawScale2x implements FilterBands.Band
     {
+        /** Source pixels. */
+        private final int[] srcImage;
+        /** Destination pixels. */
+        private final int[] dstImage;
         /** Width. */
         private final int width;
         /** Height. */
@@ -81,11 +90,15 @@ public final class FilterHq2x implements Filter
         /**
          * Internal constructor.
          * 
+         * @param srcImage The image source.
+         * @param dstImage The image destination.
          * @param dataWidth The data width.
          * @param dataHeight The data height.
          */
-        RawScale2x(int dataWidth, int dataHeight)
+        RawScale2x(int[] srcImage, int[] dstImage, int dataWidth, int dataHeight)
         {
+            this.srcImage = srcImage;
+            this.dstImage = dstImage;
             width = dataWidth;
             height = dataHeight;
         }
@@ -103,88 +116,57 @@ public final class FilterHq2x implements Filter
         }
 
         /**
-         * Set destination pixel.
-         * 
-         * @param dstImage The image destination.
-         * @param x The location x.
-         * @param y The location y.
-         * @param p The pixel destination value.
-         */
-        private void setDestPixel(int[] dstImage, int x, int y, int p)
-        {
-            dstImage[x + y * width * SCALE] = p;
-        }
-
-        /**
-         * Get pixel source.
-         * 
-         * @param srcImage The image source.
-         * @param x The location x.
-         * @param y The location y.
-         * @return The pixel value found.
-         */
-        private int getSourcePixel(int[] srcImage, int x, int y)
-        {
-            int x1 = Math.max(0, x);
-            x1 = Math.min(width - 1, x1);
-            int y1 = Math.max(0, y);
-            y1 = Math.min(height - 1, y1);
-
-            return srcImage[x1 + y1 * width];
-        }
-
-        /**
-         * Process filter.
+         * Process filter on a source row.
          * 
-         * @param srcImage The image source.
-         * @param dstImage The image destination.
-         * @param x The location x.
-         * @param y The location y.
+         * @param y The source row.
          */
-        private void process(int[] srcImage, int[] dstImage, int x, int y)
+        private void process(int y)
         {
-            final int b = getSourcePixel(srcImage, x, y - 1);
-            final int d = getSourcePixel(srcImage, x - 1, y);
-            final int e = getSourcePixel(srcImage, x, y);
-            final int f = getSourcePixel(srcImage, x + 1, y);
-            final int h = getSourcePixel(srcImage, x, y + 1);
-            int e0 = e;
-            int e1 = e;
-            int e2 = e;
-            int e3 = e;
-            if (RawScale2x.different(b, h) && RawScale2x.different(d, f))
+            final int above = Math.max(0, y - 1) * width;
+            final int row = y * width;
+            final int below = Math.min(height - 1, y + 1) * width;
+            final int dst = y * SCALE * width * SCALE;
+            final int dstBelow = dst + width * SCALE;
+            final int last = width - 1;
+
+            for (int x = 0; x < width; x++)
             {
-                e0 = !RawScale2x.different(d, b) ? d : e;
-                e1 = !RawScale2x.different(b, f) ? f : e;
-                e2 = !RawScale2x.different(d, h) ? d : e;
-                e3 = !RawScale2x.different(h, f) ? f : e;
-            }
+                final int b = srcImage[above + x];
+                final int d = srcImage[row + Math.max(0, x - 1)];
+                final int e = srcImage[row + x];
+                final int f = srcImage[row + Math.min(last, x + 1)];
+                final int h = srcImage[below + x];
+                int e0 = e;
+                int e1 = e;
+                int e2 = e;
+                int e3 = e;
+                if (RawScale2x.different(b, h) && RawScale2x.different(d, f))
+                {
+                    e0 = !RawScale2x.different(d, b) ? d : e;
+                    e1 = !RawScale2x.different(b, f) ? f : e;
+                    e2 = !RawScale2x.different(d, h) ? d : e;
+                    e3 = !RawScale2x.different(h, f) ? f : e;
+                }
 
-            setDestPixel(dstImage, x * SCALE, y * SCALE, e0);
-            setDestPixel(dstImage, x * SCALE + 1, y * SCALE, e1);
-            setDestPixel(dstImage, x * SCALE, y * SCALE + 1, e2);
-            setDestPixel(dstImage, x * SCALE + 1, y * SCALE + 1, e3);
+                final int dx = x * SCALE;
+                dstImage[dst + dx] = e0;
+                dstImage[dst + dx + 1] = e1;
+                dstImage[dstBelow + dx] = e2;
+                dstImage[dstBelow + dx + 1] = e3;
+            }
         }
 
-        /**
-         * Get the scaled data.
-         * 
-         * @param srcImage The image source.
-         * @return The data array.
+        /*
+         * Band
          */
-        public int[] getScaledData(int[] srcImage)
-        {
-            final int[] dstImage = new int[srcImage.length * SCALE * SCALE];
 
-            for (int y = 0; y < height; y++)
+        @Override
+        public void compute(int start, int end)
+        {
+            for (int y = start; y < end; y++)
             {
-                for (int x = 0; x < width; x++)
-                {
-                    process(srcImage, dstImage, x, y);
-                }
+                process(y);
             }
-
-            return dstImage;
         }
     }
 }
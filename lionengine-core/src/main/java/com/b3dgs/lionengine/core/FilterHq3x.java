@@ -25,6 +25,10 @@ import com.b3dgs.lionengine.graphic.Transparency;
 /**
  * HQ3X implementation.
  * <p>
+ * Pixels arrays and output images are reused between calls (see {@link Filter#filter(ImageBuffer)}), and rows are
+ * processed by bands in parallel.
+ * </p>
+ * <p>
  * This class is Thread-Safe.
  * </p>
  */
@@ -33,6 +37,9 @@ public final class FilterHq3x implements Filter
     /** Scale factor. */
     public static final int SCALE = 3;
 
+    /** Reused buffers. */
+    private final FilterBuffers buffers = new FilterBuffers();
+
     /**
      * Create an Hq3x filter.
      */
@@ -46,17 +53,16 @@ public final class FilterHq3x implements Filter
      */
 
     @Override
-    public ImageBuffer filter(ImageBuffer source)
+    public synchronized ImageBuffer filter(ImageBuffer source)
     {
         final int width = source.getWidth();
         final int height = source.getHeight();
-        final int[] srcData = new int[width * height];
-        source.getRgb(0, 0, width, height, srcData, 0, width);
+        final int[] srcData = buffers.read(source);
+        final int[] dstData = buffers.getDestination(width * height * SCALE * SCALE);
+
+        FilterBands.run(height, new RawScale3x(srcData, dstData, width, height));
 
-        final RawScale3x scaler = new RawScale3x(width, height);
-        final ImageBuffer image = Graphics.createImageBuffer(width * SCALE, height * SCALE, Transparency.OPAQUE);
-        image.setRgb(0, 0, width * SCALE, height * SCALE, scaler.getScaledData(srcData), 0, width * SCALE);
-        return image;
+        return buffers.write(dstData, width * SCALE, height * SCALE, Transparency.OPAQUE);
     }
 
     @Override
@@ -70,7 +76,7 @@ public final class FilterHq3x implements Filter
     /**
      * The raw scale implementation.
      */
-    private static final class RawScale3x
+    private static final class RawScale3x implements FilterBands.Band
     {
         /**
          * Compute E0 pixel.
@@ -224,6 +230,10 @@ public final class FilterHq3x implements Filter
             return e;
         }
 
+        /** Source pixels. */
+        private final int[] srcImage;
+        /** Destination pixels. */
+        private final int[] dstImage;
         /** Width. */
         private final int width;
         /** Height. */
@@ -232,11 +242,15 @@ public final class FilterHq3x implements Filter
         /**
          * Internal constructor.
          * 
+         * @param srcImage The image source.
+         * @param dstImage The image destination.
          * @param dataWidth The data width.
          * @param dataHeight The data height.
          */
-        RawScale3x(int dataWidth, int dataHeight)
+        RawScale3x(int[] srcImage, int[] dstImage, int dataWidth, int dataHeight)
         {
+            this.srcImage = srcImage;
+            this.dstImage = dstImage;
             width = dataWidth;
             height = dataHeight;
         }
@@ -254,108 +268,87 @@ public final class FilterHq3x implements Filter
         }
 
         /**
-         * Set destination pixel.
+         * Process filter on a source row.
          * 
-         * @param dstImage The image destination.
-         * @param x location x.
-         * @param y location y.
-         * @param p pixel destination value.
+         * @param y The source row.
          */
-        private void setDestPixel(int[] dstImage, int x, int y, int p)
+        private void process(int y)
         {
-            dstImage[x + y * width * SCALE] = p;
-        }
+            final int above = Math.max(0, y - 1) * width;
+            final int row = y * width;
+            final int below = Math.min(height - 1, y + 1) * width;
+            final int dstWidth = width * SCALE;
+            final int dst0 = y * SCALE * dstWidth;
+            final int dst1 = dst0 + dstWidth;
+            final int dst2 = dst1 + dstWidth;
+            final int last = width - 1;
 
-        /**
-         * Get pixel source.
-         * 
-         * @param srcImage The image source.
-         * @param x The location x.
-         * @param y The location y.
-         * @return The pixel value found.
-         */
-        private int getSourcePixel(int[] srcImage, int x, int y)
-        {
-            int x1 = Math.max(0, x);
-            x1 = Math.min(width - 1, x1);
-            int y1 = Math.max(0, y);
-            y1 = Math.min(height - 1, y1);
+            for (int x = 0; x < width; x++)
+            {
+                final int left = Math.max(0, x - 1);
+                final int right = Math.min(last, x + 1);
+                final int a = srcImage[above + left];
+                final int b = srcImage[above + x];
+                final int c = srcImage[above + right];
+                final int d = srcImage[row + left];
+                final int e = srcImage[row + x];
+                final int f = srcImage[row + right];
+                final int g = srcImage[below + left];
+                final int h = srcImage[below + x];
+                final int i = srcImage[below + right];
+                final int dx = x * SCALE;
 
-            return srcImage[x1 + y1 * width];
+                if (RawScale3x.different(b, h) && RawScale3x.different(d, f))
+                {
+                    dstImage[dst0 + dx] = RawScale3x.computeE0(b, d, e);
+                    dstImage[dst0 + dx + 1] = RawScale3x.computeE1(a, b, c, d, e, f);
+                    dstImage[dst0 + dx + 2] = RawScale3x.computeE2(b, e, f);
+                    dstImage[dst1 + dx] = RawScale3x.computeE3(a, b, d, e, g, h);
+                    dstImage[dst1 + dx + 1] = e;
+                    dstImage[dst1 + dx + 2] = RawScale3x.computeE5(b, c, e, f, h, i);
+                    dstImage[dst2 + dx] = RawScale3x.computeE6(d, e, h);
+                    dstImage[dst2 + dx + 1] = RawScale3x.computeE7(d, e, f, g, h, i);
+                    dstImage[dst2 + dx + 2] = RawScale3x.computeE8(e, f, h);
+                }
+                else
+                {
+                    fill(dst0 + dx, dst1 + dx, dst2 + dx, e);
+                }
+            }
         }
 
         /**
-         * Process filter.
+         * Fill the destination pixels block with the same value.
          * 
-         * @param srcImage The image source.
-         * @param dstImage The image destination.
-         * @param x The location x.
-         * @param y The location y.
+         * @param dst0 The first row index.
+         * @param dst1 The second row index.
+         * @param dst2 The third row index.
+         * @param e The pixel value.
          */
-        private void process(int[] srcImage, int[] dstImage, int x, int y)
+        private void fill(int dst0, int dst1, int dst2, int e)
         {
-            final int a = getSourcePixel(srcImage, x - 1, y - 1);
-            final int b = getSourcePixel(srcImage, x, y - 1);
-            final int c = getSourcePixel(srcImage, x + 1, y - 1);
-            final int d = getSourcePixel(srcImage, x - 1, y);
-            final int e = getSourcePixel(srcImage, x, y);
-            final int f = getSourcePixel(srcImage, x + 1, y);
-            final int g = getSourcePixel(srcImage, x - 1, y + 1);
-            final int h = getSourcePixel(srcImage, x, y + 1);
-            final int i = getSourcePixel(srcImage, x + 1, y + 1);
-            int e0 = e;
-            int e1 = e;
-            int e2 = e;
-            int e3 = e;
-            int e4 = e;
-            int e5 = e;
-            int e6 = e;
-            int e7 = e;
-            int e8 = e;
-
-            if (RawScale3x.different(b, h) && RawScale3x.different(d, f))
-            {
-                e0 = RawScale3x.computeE0(b, d, e);
-                e1 = RawScale3x.computeE1(a, b, c, d, e, f);
-                e2 = RawScale3x.computeE2(b, e, f);
-                e3 = RawScale3x.computeE3(a, b, d, e, g, h);
-                e4 = e;
-                e5 = RawScale3x.computeE5(b, c, e, f, h, i);
-                e6 = RawScale3x.computeE6(d, e, h);
-                e7 = RawScale3x.computeE7(d, e, f, g, h, i);
-                e8 = RawScale3x.computeE8(e, f, h);
-            }
-
-            setDestPixel(dstImage, x * SCALE, y * SCALE, e0);
-            setDestPixel(dstImage, x * SCALE + 1, y * SCALE, e1);
-            setDestPixel(dstImage, x * SCALE + 2, y * SCALE, e2);
-            setDestPixel(dstImage, x * SCALE, y * SCALE + 1, e3);
-            setDestPixel(dstImage, x * SCALE + 1, y * SCALE + 1, e4);
-            setDestPixel(dstImage, x * SCALE + 2, y * SCALE + 1, e5);
-            setDestPixel(dstImage, x * SCALE, y * SCALE + 2, e6);
-            setDestPixel(dstImage, x * SCALE + 1, y * SCALE + 2, e7);
-            setDestPixel(dstImage, x * SCALE + 2, y * SCALE + 2, e8);
+            dstImage[dst0] = e;
+            dstImage[dst0 + 1] = e;
+            dstImage[dst0 + 2] = e;
+            dstImage[dst1] = e;
+            dstImage[dst1 + 1] = e;
+            dstImage[dst1 + 2] = e;
+            dstImage[dst2] = e;
+            dstImage[dst2 + 1] = e;
+            dstImage[dst2 + 2] = e;
         }
 
-        /**
-         * Get the scaled data.
-         * 
-         * @param srcImage The image source
-         * @return The data array.
+        /*
+         * Band
          */
-        public int[] getScaledData(int[] srcImage)
-        {
-            final int[] dstImage = new int[srcImage.length * SCALE * SCALE];
 
-            for (int y = 0; y < height; y++)
+        @Override
+        public void compute(int start, int end)
+        {
+            for (int y = start; y < end; y++)
             {
-                for (int x = 0; x < width; x++)
-                {
-                    process(srcImage, dstImage, x, y);
-                }
+                process(y);
             }
-
-            return dstImage;
         }
     }
 }
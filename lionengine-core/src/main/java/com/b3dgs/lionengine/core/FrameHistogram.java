@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+/**
+ * Histogram of durations, recorded in nano seconds and read in milli seconds. Durations are counted in buckets of
+ * {@link #BUCKET_MILLI}, the last bucket counting all durations above {@link #MAX_MILLI}.
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ * 
+ * @see FrameMetrics
+ */
+public final class FrameHistogram
+{
+    /** Bucket width in milli seconds. */
+    public static final double BUCKET_MILLI = 0.25;
+    /** Number of buckets. */
+    public static final int BUCKETS = 128;
+    /** Maximum precise duration in milli seconds. */
+    public static final double MAX_MILLI = BUCKET_MILLI * BUCKETS;
+    /** One milli in nano. */
+    private static final double ONE_MILLI_IN_NANO = 1000000.0;
+    /** Percent maximum. */
+    private static final double PERCENT = 100.0;
+
+    /** Durations count per bucket. */
+    private final long[] buckets = new long[BUCKETS];
+    /** Durations count. */
+    private long count;
+    /** Durations total in nano. */
+    private long total;
+    /** Maximum duration in nano. */
+    private long max;
+
+    /**
+     * Create histogram.
+     */
+    FrameHistogram()
+    {
+        super();
+    }
+
+    /**
+     * Record a duration.
+     * 
+     * @param nano The duration in nano seconds (negative duration are considered as zero).
+     */
+    synchronized void record(long nano)
+    {
+        final long duration = Math.max(0L, nano);
+        final int bucket = (int) Math.min(BUCKETS - 1L, (long) (duration / ONE_MILLI_IN_NANO / BUCKET_MILLI));
+        buckets[bucket]++;
+        count++;
+        total += duration;
+        max = Math.max(max, duration);
+    }
+
+    /**
+     * Clear all recorded durations.
+     */
+    public synchronized void reset()
+    {
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            buckets[i] = 0L;
+        }
+        count = 0L;
+        total = 0L;
+        max = 0L;
+    }
+
+    /**
+     * Get the number of recorded durations.
+     * 
+     * @return The recorded durations number.
+     */
+    public synchronized long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Get the number of recorded durations in bucket.
+     * 
+     * @param bucket The bucket index, covering [index * {@link #BUCKET_MILLI}, (index + 1) * {@link #BUCKET_MILLI}[,
+     *            except the last one covering all durations above.
+     * @return The recorded durations number in bucket.
+     * @throws ArrayIndexOutOfBoundsException If invalid bucket.
+     */
+    public synchronized long getCount(int bucket)
+    {
+        return buckets[bucket];
+    }
+
+    /**
+     * Get the mean duration.
+     * 
+     * @return The mean duration in milli seconds, 0 if none.
+     */
+    public synchronized double getMean()
+    {
+        if (count == 0L)
+        {
+            return 0.0;
+        }
+        return total / (double) count / ONE_MILLI_IN_NANO;
+    }
+
+    /**
+     * Get the maximum duration.
+     * 
+     * @return The maximum duration in milli seconds.
+     */
+    public synchronized double getMax()
+    {
+        return max / ONE_MILLI_IN_NANO;
+    }
+
+    /**
+     * Get the duration under which the specified percent of durations are, with the bucket precision.
+     * 
+     * @param percent The percent in [0 - 100].
+     * @return The percentile duration in milli seconds (upper bound of bucket), 0 if none.
+     */
+    public synchronized double getPercentile(double percent)
+    {
+        if (count == 0L)
+        {
+            return 0.0;
+        }
+        final double ratio = Math.min(PERCENT, Math.max(0.0, percent)) / PERCENT;
+        final long rank = Math.max(1L, (long) Math.ceil(count * ratio));
+        long current = 0L;
+        int bucket = 0;
+        while (bucket < BUCKETS - 1 && current + buckets[bucket] < rank)
+        {
+            current += buckets[bucket];
+            bucket++;
+        }
+        return Math.min((bucket + 1) * BUCKET_MILLI, getMax());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+/**
+ * Frame durations recorded by the {@link Sequence} loop, per frame phase:
+ * <ul>
+ * <li>{@link #getUpdate()}: all updates performed during the frame,</li>
+ * <li>{@link #getRender()}: the sequence rendering,</li>
+ * <li>{@link #getFilter()}: the filter applied on the rendered image (zero on direct rendering),</li>
+ * <li>{@link #getPresent()}: the filtered image drawing and the screen update.</li>
+ * </ul>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ * 
+ * @see Sequence#getMetrics()
+ */
+public final class FrameMetrics
+{
+    /** Update durations. */
+    private final FrameHistogram update = new FrameHistogram();
+    /** Render durations. */
+    private final FrameHistogram render = new FrameHistogram();
+    /** Filter durations. */
+    private final FrameHistogram filter = new FrameHistogram();
+    /** Present durations. */
+    private final FrameHistogram present = new FrameHistogram();
+
+    /**
+     * Create metrics.
+     */
+    FrameMetrics()
+    {
+        super();
+    }
+
+    /**
+     * Clear all recorded durations.
+     */
+    public void reset()
+    {
+        update.reset();
+        render.reset();
+        filter.reset();
+        present.reset();
+    }
+
+    /**
+     * Get the update durations.
+     * 
+     * @return The update durations.
+     */
+    public FrameHistogram getUpdate()
+    {
+        return update;
+    }
+
+    /**
+     * Get the render durations.
+     * 
+     * @return The render durations.
+     */
+    public FrameHistogram getRender()
+    {
+        return render;
+    }
+
+    /**
+     * Get the filter durations.
+     * 
+     * @return The filter durations.
+     */
+    public FrameHistogram getFilter()
+    {
+        return filter;
+    }
+
+    /**
+     * Get the present durations.
+     * 
+     * @return The present durations.
+     */
+    public FrameHistogram getPresent()
+    {
+        return present;
+    }
+}
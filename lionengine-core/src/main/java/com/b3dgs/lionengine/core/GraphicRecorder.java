@@ -0,0 +1,504 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Align;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Origin;
+import com.b3dgs.lionengine.graphic.ColorGradient;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Renderable;
+import com.b3dgs.lionengine.graphic.Text;
+import com.b3dgs.lionengine.graphic.Transform;
+import com.b3dgs.lionengine.graphic.Viewer;
+
+/**
+ * Graphic recording drawing commands, in order to replay them later on another graphic with {@link #render(Graphic)},
+ * possibly from another thread.
+ * Viewer based commands are resolved to screen coordinates when recorded. Images, transforms, colors and texts are kept
+ * by reference, and must not be modified until replayed.
+ * <p>
+ * The native graphic is not available ({@link #getGraphic()}), so texts are recorded with
+ * {@link #drawText(Text, int, int, Align, String)} and drawn on replay. Recorded commands are stored in reused arrays,
+ * and {@link #clear()} must be called before recording a new frame.
+ * </p>
+ * <p>
+ * This class is not Thread-Safe: recording and replaying must not overlap.
+ * </p>
+ */
+final class GraphicRecorder implements Graphic, Renderable
+{
+    /** Clear command. */
+    private static final int CLEAR = 0;
+    /** Copy area command. */
+    private static final int COPY_AREA = 1;
+    /** Draw image command. */
+    private static final int IMAGE = 2;
+    /** Draw transformed image command. */
+    private static final int IMAGE_TRANSFORM = 3;
+    /** Draw image region command. */
+    private static final int IMAGE_REGION = 4;
+    /** Draw rectangle command. */
+    private static final int RECT = 5;
+    /** Draw gradient command. */
+    private static final int GRADIENT = 6;
+    /** Draw line command. */
+    private static final int LINE = 7;
+    /** Draw oval command. */
+    private static final int OVAL = 8;
+    /** Set color command. */
+    private static final int COLOR = 9;
+    /** Set color gradient command. */
+    private static final int COLOR_GRADIENT = 10;
+    /** Draw text command. */
+    private static final int TEXT = 11;
+    /** Initial capacity. */
+    private static final int CAPACITY = 64;
+    /** Error native graphic. */
+    private static final String ERROR_NATIVE = "Native graphic not available on recorded rendering !";
+
+    /** Commands. */
+    private int[] commands = new int[CAPACITY];
+    /** Commands integer arguments. */
+    private int[] args = new int[CAPACITY];
+    /** Commands references arguments. */
+    private Object[] refs = new Object[CAPACITY];
+    /** Commands count. */
+    private int commandsCount;
+    /** Integer arguments count. */
+    private int argsCount;
+    /** References count. */
+    private int refsCount;
+    /** Integer arguments read on replay. */
+    private int argsRead;
+    /** References read on replay. */
+    private int refsRead;
+    /** Last color set (<code>null</code> if none). */
+    private ColorRgba color;
+
+    /**
+     * Create recorder.
+     */
+    GraphicRecorder()
+    {
+        super();
+    }
+
+    /**
+     * Remove all recorded commands.
+     */
+    void clear()
+    {
+        Arrays.fill(refs, 0, refsCount, null);
+        commandsCount = 0;
+        argsCount = 0;
+        refsCount = 0;
+        color = null;
+    }
+
+    /**
+     * Get the number of recorded commands.
+     * 
+     * @return The recorded commands number.
+     */
+    int getCount()
+    {
+        return commandsCount;
+    }
+
+    /**
+     * Replay area and image command.
+     * 
+     * @param g The graphic output.
+     * @param command The command.
+     */
+    private void replayArea(Graphic g, int command)
+    {
+        switch (command)
+        {
+            case CLEAR:
+                g.clear(nextArg(), nextArg(), nextArg(), nextArg());
+                break;
+            case COPY_AREA:
+                g.copyArea(nextArg(), nextArg(), nextArg(), nextArg(), nextArg(), nextArg());
+                break;
+            case IMAGE:
+                g.drawImage((ImageSurface) nextRef(), nextArg(), nextArg());
+                break;
+            case IMAGE_TRANSFORM:
+                g.drawImage((ImageSurface) nextRef(), (Transform) nextRef(), nextArg(), nextArg());
+                break;
+            default:
+                g.drawImage((ImageSurface) nextRef(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg(),
+                            nextArg());
+                break;
+        }
+    }
+
+    /**
+     * Replay shape, text and color command.
+     * 
+     * @param g The graphic output.
+     * @param command The command.
+     */
+    private void replayShape(Graphic g, int command)
+    {
+        switch (command)
+        {
+            case RECT:
+                g.drawRect(nextArg(), nextArg(), nextArg(), nextArg(), nextArg() != 0);
+                break;
+            case GRADIENT:
+                g.drawGradient(nextArg(), nextArg(), nextArg(), nextArg());
+                break;
+            case LINE:
+                g.drawLine(nextArg(), nextArg(), nextArg(), nextArg());
+                break;
+            case OVAL:
+                g.drawOval(nextArg(), nextArg(), nextArg(), nextArg(), nextArg() != 0);
+                break;
+            case COLOR:
+                g.setColor((ColorRgba) nextRef());
+                break;
+            case COLOR_GRADIENT:
+                g.setColorGradient((ColorGradient) nextRef());
+                break;
+            default:
+                g.drawText((Text) nextRef(), nextArg(), nextArg(), (Align) nextRef(), (String) nextRef());
+                break;
+        }
+    }
+
+    /**
+     * Read the next integer argument on replay.
+     * 
+     * @return The argument value.
+     */
+    private int nextArg()
+    {
+        return args[argsRead++];
+    }
+
+    /**
+     * Read the next reference argument on replay.
+     * 
+     * @return The argument value.
+     */
+    private Object nextRef()
+    {
+        return refs[refsRead++];
+    }
+
+    /**
+     * Add a command.
+     * 
+     * @param command The command.
+     */
+    private void command(int command)
+    {
+        if (commandsCount == commands.length)
+        {
+            commands = Arrays.copyOf(commands, commands.length * 2);
+        }
+        commands[commandsCount++] = command;
+    }
+
+    /**
+     * Add an integer argument.
+     * 
+     * @param value The argument value.
+     */
+    private void arg(int value)
+    {
+        if (argsCount == args.length)
+        {
+            args = Arrays.copyOf(args, args.length * 2);
+        }
+        args[argsCount++] = value;
+    }
+
+    /**
+     * Add a boolean argument.
+     * 
+     * @param value The argument value.
+     */
+    private void arg(boolean value)
+    {
+        if (value)
+        {
+            arg(1);
+        }
+        else
+        {
+            arg(0);
+        }
+    }
+
+    /**
+     * Add a reference argument.
+     * 
+     * @param value The argument value.
+     */
+    private void ref(Object value)
+    {
+        if (refsCount == refs.length)
+        {
+            refs = Arrays.copyOf(refs, refs.length * 2);
+        }
+        refs[refsCount++] = value;
+    }
+
+    /**
+     * Add four integer arguments.
+     * 
+     * @param a The first argument.
+     * @param b The second argument.
+     * @param c The third argument.
+     * @param d The fourth argument.
+     */
+    private void args(int a, int b, int c, int d)
+    {
+        arg(a);
+        arg(b);
+        arg(c);
+        arg(d);
+    }
+
+    /*
+     * Graphic
+     */
+
+    @Override
+    public void clear(int x, int y, int width, int height)
+    {
+        command(CLEAR);
+        args(x, y, width, height);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Does nothing, as recorder does not own any native graphic.
+     */
+    @Override
+    public void dispose()
+    {
+        // Nothing to do
+    }
+
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy)
+    {
+        command(COPY_AREA);
+        args(x, y, width, height);
+        arg(dx);
+        arg(dy);
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, int x, int y)
+    {
+        command(IMAGE);
+        ref(image);
+        arg(x);
+        arg(y);
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, Transform op, int x, int y)
+    {
+        command(IMAGE_TRANSFORM);
+        ref(image);
+        ref(op);
+        arg(x);
+        arg(y);
+    }
+
+    @Override
+    public void drawImage(ImageSurface image, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2)
+    {
+        command(IMAGE_REGION);
+        ref(image);
+        args(dx1, dy1, dx2, dy2);
+        args(sx1, sy1, sx2, sy2);
+    }
+
+    @Override
+    public void drawRect(int x, int y, int width, int height, boolean fill)
+    {
+        command(RECT);
+        args(x, y, width, height);
+        arg(fill);
+    }
+
+    @Override
+    public void drawRect(Viewer viewer, Origin origin, double x, double y, int width, int height, boolean fill)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawRect(px, py, width, height, fill);
+    }
+
+    @Override
+    public void drawGradient(int x, int y, int width, int height)
+    {
+        command(GRADIENT);
+        args(x, y, width, height);
+    }
+
+    @Override
+    public void drawGradient(Viewer viewer, Origin origin, double x, double y, int width, int height)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawGradient(px, py, width, height);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2)
+    {
+        command(LINE);
+        args(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawLine(Viewer viewer, double x1, double y1, double x2, double y2)
+    {
+        drawLine((int) viewer.getViewpointX(x1),
+                 (int) viewer.getViewpointY(y1),
+                 (int) viewer.getViewpointX(x2),
+                 (int) viewer.getViewpointY(y2));
+    }
+
+    @Override
+    public void drawOval(int x, int y, int width, int height, boolean fill)
+    {
+        command(OVAL);
+        args(x, y, width, height);
+        arg(fill);
+    }
+
+    @Override
+    public void drawOval(Viewer viewer, Origin origin, double x, double y, int width, int height, boolean fill)
+    {
+        final int px = (int) origin.getX(viewer.getViewpointX(x), width);
+        final int py = (int) origin.getY(viewer.getViewpointY(y), height);
+        drawOval(px, py, width, height, fill);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Records the text, drawn on replay.
+     */
+    @Override
+    public void drawText(Text text, int x, int y, Align align, String value)
+    {
+        command(TEXT);
+        ref(text);
+        arg(x);
+        arg(y);
+        ref(align);
+        ref(value);
+    }
+
+    @Override
+    public void setColor(ColorRgba color)
+    {
+        command(COLOR);
+        ref(color);
+        this.color = color;
+    }
+
+    @Override
+    public void setColorGradient(ColorGradient gradientColor)
+    {
+        command(COLOR_GRADIENT);
+        ref(gradientColor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Not supported, as commands are replayed on the graphic given to {@link #render(Graphic)}, so a native graphic set
+     * here would be silently ignored.
+     * 
+     * @throws LionEngineException As not supported.
+     */
+    @Override
+    public void setGraphic(Object graphic)
+    {
+        throw new LionEngineException(ERROR_NATIVE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Always <code>null</code>, as the native graphic only exists on the render thread when the frame is replayed, not
+     * when it is recorded.
+     */
+    @Override
+    public Object getGraphic()
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Returns the last color set since {@link #clear()}, <code>null</code> if none.
+     */
+    @Override
+    public ColorRgba getColor()
+    {
+        return color;
+    }
+
+    /*
+     * Renderable
+     */
+
+    /**
+     * {@inheritDoc}
+     * Replays all recorded commands in order.
+     */
+    @Override
+    public void render(Graphic g)
+    {
+        argsRead = 0;
+        refsRead = 0;
+        for (int i = 0; i < commandsCount; i++)
+        {
+            final int command = commands[i];
+            if (command <= IMAGE_REGION)
+            {
+                replayArea(g, command);
+            }
+            else
+            {
+                replayShape(g, command);
+            }
+        }
+    }
+}
@@ -61,6 +61,25 @@ public interface Sequencable extends Updatable, Renderable
      */
     void setExtrapolated(boolean extrapolated);
 
+    /**
+     * Set the fixed time step flag. When enabled, the simulation is updated at the source rate with a constant
+     * extrapolation value, as many times as needed to follow the elapsed time, and rendered once per frame. Rendering
+     * may use the interpolation between the last two updates. Extrapolation flag is ignored while enabled.
+     * 
+     * @param fixed <code>true</code> will activate it, <code>false</code> will disable it.
+     */
+    void setFixedStep(boolean fixed);
+
+    /**
+     * Set the pipelined rendering flag. When enabled, rendering records the frame drawing commands, which are drawn,
+     * filtered and displayed on a dedicated render thread while the next frame is updated. Rendering must only use
+     * {@link com.b3dgs.lionengine.graphic.Graphic} drawing methods (native graphic is not available), and drawn images
+     * must not be modified before the next frame.
+     * 
+     * @param pipelined <code>true</code> will activate it, <code>false</code> will disable it.
+     */
+    void setPipelined(boolean pipelined);
+
     /**
      * Set the new resolution used by the sequence.
      * 
@@ -90,6 +109,13 @@ public interface Sequencable extends Updatable, Renderable
      */
     int getFps();
 
+    /**
+     * Get the frame durations metrics.
+     * 
+     * @return The frame metrics.
+     */
+    FrameMetrics getMetrics();
+
     /**
      * Get the input device instance from its type.
      * 
@@ -17,11 +17,20 @@
  */
 package com.b3dgs.lionengine.core;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
 import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Timing;
 import com.b3dgs.lionengine.graphic.Filter;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Renderable;
 import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.graphic.Transparency;
 
@@ -30,6 +39,18 @@ import com.b3dgs.lionengine.graphic.Transparency;
  * screen used, the current configuration, input references ({@link #getInputDevice(Class)}), and it includes
  * a standard game loop ({@link #update(double)} and {@link #render(Graphic)}), synchronized to a specified frame rate.
  * <p>
+ * By default, update and render are called once per frame, with an extrapolation value depending of the last frame
+ * duration if {@link #setExtrapolated(boolean)} is enabled. With {@link #setFixedStep(boolean)}, update is called at
+ * the source rate with a constant extrapolation value, and {@link #getAlpha()} can be used to interpolate rendering.
+ * When waiting for the next frame, the loop sleeps instead of spinning. Frame phases durations are available with
+ * {@link #getMetrics()}.
+ * </p>
+ * <p>
+ * With {@link #setPipelined(boolean)}, {@link #render(Graphic)} records the drawing commands of the frame, which are
+ * drawn, filtered and displayed by a dedicated render thread while the next frame is updated. Rendering must then only
+ * rely on {@link Graphic} drawing methods, and drawn images must not be modified before the next frame.
+ * </p>
+ * <p>
  * Here a blank sequence implementation:
  * </p>
  * 
@@ -80,6 +101,18 @@ public abstract class Sequence implements Sequencable, ScreenListener
     private static final long ONE_SECOND_IN_NANO = 1000000000L;
     /** Extrapolation standard. */
     private static final double EXTRP = 1.0;
+    /** Maximum updates per frame on fixed step, late time is dropped beyond. */
+    private static final int MAX_STEPS = 5;
+    /** Minimum sleep overshoot in nano. */
+    private static final long OVERSHOOT_MIN = 50000L;
+    /** Maximum sleep overshoot in nano, used as initial value. */
+    private static final long OVERSHOOT_MAX = 2000000L;
+    /** Sleep overshoot decrease smoothing. */
+    private static final long OVERSHOOT_SMOOTHING = 16L;
+    /** Render thread name. */
+    private static final String THREAD_NAME = "Render";
+    /** Error render. */
+    private static final String ERROR_RENDER = "Rendering failed !";
 
     /** Context reference. */
     private final Context context;
@@ -87,6 +120,13 @@ public abstract class Sequence implements Sequencable, ScreenListener
     private final Resolution resolution;
     /** Config reference. */
     private final Config config;
+    /** Frame metrics. */
+    private final FrameMetrics metrics = new FrameMetrics();
+    /** Pipelined commands, one recorded while the other is rendered. */
+    private final GraphicRecorder[] recorders =
+    {
+        new GraphicRecorder(), new GraphicRecorder()
+    };
     /** Filter graphic. */
     private final Graphic graphic;
     /** Loop time for desired rate. */
@@ -107,6 +147,22 @@ public abstract class Sequence implements Sequencable, ScreenListener
     private boolean isRunning;
     /** Extrapolation flag. */
     private boolean extrapolated;
+    /** Pipelined flag. */
+    private volatile boolean pipelined;
+    /** Next recorder index. */
+    private int recorder;
+    /** Render thread (<code>null</code> if not started). */
+    private ExecutorService renderer;
+    /** Rendering in progress (<code>null</code> if none). */
+    private Future<?> rendering;
+    /** Fixed step flag. */
+    private volatile boolean fixedStep;
+    /** Fixed step interpolation value. */
+    private volatile double alpha = 1.0;
+    /** Fixed step time to simulate in nano. */
+    private long accumulated;
+    /** Expected sleep overshoot in nano. */
+    private long overshoot = OVERSHOOT_MAX;
     /** Current frame rate. */
     private int currentFrameRate;
     /** Image buffer. */
@@ -216,6 +272,19 @@ public abstract class Sequence implements Sequencable, ScreenListener
         return screen.getY();
     }
 
+    /**
+     * Get the interpolation value between the previous update and the last update, to be used by rendering. Always
+     * <code>1.0</code> if not on fixed step, as rendering is done just after update.
+     * 
+     * @return The interpolation value in [0.0 - 1.0] (<code>0.0</code> for the previous update state,
+     *         <code>1.0</code> for the last update state).
+     * @see #setFixedStep(boolean)
+     */
+    protected final double getAlpha()
+    {
+        return alpha;
+    }
+
     /**
      * Called when the sequence has been loaded. Does nothing by default.
      * 
@@ -258,17 +327,159 @@ public abstract class Sequence implements Sequencable, ScreenListener
      * Local render routine.
      */
     private void render()
+    {
+        awaitRendering();
+        screen.preUpdate();
+        draw(this, 0L, directRendering, buf, filter, transform);
+    }
+
+    /**
+     * Pipelined render routine. Records the frame commands, waits for the previous frame and starts the frame
+     * rendering on the render thread.
+     */
+    private void renderPipelined()
+    {
+        final GraphicRecorder commands = recorders[recorder];
+        recorder = (recorder + 1) % recorders.length;
+        commands.clear();
+        final long start = System.nanoTime();
+        render(commands);
+        final long recording = System.nanoTime() - start;
+
+        awaitRendering();
+        if (renderer == null)
+        {
+            renderer = Executors.newSingleThreadExecutor(new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        final boolean direct = directRendering;
+        final ImageBuffer image = buf;
+        final Filter current = filter;
+        final Transform op = transform;
+        rendering = renderer.submit(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                screen.preUpdate();
+                draw(commands, recording, direct, image, current, op);
+            }
+        });
+    }
+
+    /**
+     * Wait for the rendering in progress if pipelined.
+     * 
+     * @throws LionEngineException If rendering failed.
+     */
+    private void awaitRendering()
+    {
+        if (rendering != null)
+        {
+            final Future<?> current = rendering;
+            rendering = null;
+            try
+            {
+                current.get();
+            }
+            catch (final InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new LionEngineException(exception, ERROR_RENDER);
+            }
+            catch (final ExecutionException exception)
+            {
+                throw new LionEngineException(exception, ERROR_RENDER);
+            }
+        }
+    }
+
+    /**
+     * Draw the frame on screen, filter it and display it.
+     * 
+     * @param renderable The frame rendering.
+     * @param recording The frame recording duration in nano, added to the render duration.
+     * @param direct <code>true</code> if direct rendering, <code>false</code> if rendering on filtered buffer.
+     * @param image The filtered buffer, used if not direct.
+     * @param current The filter used, if not direct.
+     * @param op The filter transform, if not direct.
+     */
+    private void draw(Renderable renderable,
+                      long recording,
+                      boolean direct,
+                      ImageBuffer image,
+                      Filter current,
+                      Transform op)
     {
         final Graphic g = screen.getGraphic();
-        if (directRendering)
+        final long start = System.nanoTime();
+        if (direct)
+        {
+            renderable.render(g);
+            final long end = System.nanoTime();
+            metrics.getRender().record(recording + end - start);
+            metrics.getFilter().record(0L);
+            present(end);
+        }
+        else
         {
-            render(g);
+            renderable.render(graphic);
+            final long rendered = System.nanoTime();
+            final ImageBuffer filtered = current.filter(image);
+            final long end = System.nanoTime();
+            g.drawImage(filtered, op, 0, 0);
+            metrics.getRender().record(recording + rendered - start);
+            metrics.getFilter().record(end - rendered);
+            present(end);
+        }
+    }
+
+    /**
+     * Update screen with the rendered frame.
+     * 
+     * @param start The present start time in nano.
+     */
+    private void present(long start)
+    {
+        screen.update();
+        metrics.getPresent().record(System.nanoTime() - start);
+    }
+
+    /**
+     * Update the simulation for the current frame.
+     * 
+     * @param extrp The extrapolation value, used if not on fixed step.
+     */
+    private void updateFrame(double extrp)
+    {
+        final long start = System.nanoTime();
+        if (fixedStep && source.getRate() > 0)
+        {
+            final long step = ONE_SECOND_IN_NANO / source.getRate();
+            accumulated = Math.min(accumulated, step * MAX_STEPS);
+            while (isRunning && accumulated >= step)
+            {
+                update(EXTRP);
+                accumulated -= step;
+            }
+            alpha = accumulated / (double) step;
         }
         else
         {
-            render(graphic);
-            g.drawImage(filter.filter(buf), transform, 0, 0);
+            update(extrp);
+            accumulated = 0L;
+            alpha = 1.0;
         }
+        metrics.getUpdate().record(System.nanoTime() - start);
     }
 
     /**
@@ -280,15 +491,74 @@ public abstract class Sequence implements Sequencable, ScreenListener
     {
         if (sync)
         {
-            final double waitTime = frameDelay - time;
-            if (waitTime > 0.0)
+            final long waitTime = frameDelay - time;
+            if (waitTime > 0L)
             {
-                final long prevTime = System.nanoTime();
-                while (System.nanoTime() - prevTime < waitTime)
+                waitUntil(System.nanoTime() + waitTime);
+            }
+        }
+    }
+
+    /**
+     * Wait until the specified time. Sleeps while the remaining time is greater than the expected sleep overshoot,
+     * measured on previous sleeps, and yields for the rest.
+     * 
+     * @param end The end time in nano.
+     */
+    private void waitUntil(long end)
+    {
+        long remaining = end - System.nanoTime();
+        while (remaining > overshoot && !Thread.currentThread().isInterrupted())
+        {
+            final long request = remaining - overshoot;
+            final long before = System.nanoTime();
+            LockSupport.parkNanos(request);
+            final long late = System.nanoTime() - before - request;
+            overshoot = Math.max(late, overshoot - (overshoot - late) / OVERSHOOT_SMOOTHING);
+            overshoot = Math.min(OVERSHOOT_MAX, Math.max(OVERSHOOT_MIN, overshoot));
+            remaining = end - System.nanoTime();
+        }
+        while (System.nanoTime() < end)
+        {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Main loop, until sequence end.
+     * 
+     * @param initialExtrp The initial extrapolation value.
+     * @param updateFpsTimer The fps update timing.
+     */
+    private void loop(double initialExtrp, Timing updateFpsTimer)
+    {
+        double extrp = initialExtrp;
+        while (isRunning)
+        {
+            final long lastTime = System.nanoTime();
+            if (screen.isReady())
+            {
+                updateFrame(extrp);
+                if (pipelined)
+                {
+                    renderPipelined();
+                }
+                else
                 {
-                    Thread.yield();
+                    render();
                 }
             }
+            sync(System.nanoTime() - lastTime);
+
+            final long currentTime = Math.max(lastTime + 1, System.nanoTime());
+            extrp = computeExtrapolation(lastTime, currentTime);
+            accumulated += currentTime - lastTime;
+            computeFrameRate(lastTime, currentTime, updateFpsTimer);
+
+            if (!Engine.isStarted())
+            {
+                isRunning = false;
+            }
         }
     }
 
@@ -348,30 +618,26 @@ public abstract class Sequence implements Sequencable, ScreenListener
         final Timing updateFpsTimer = new Timing();
         updateFpsTimer.start();
 
-        double extrp = EXTRP;
+        final double extrp = EXTRP;
         onLoaded(extrp, screen.getGraphic());
 
         // Main loop
         isRunning = true;
-        while (isRunning)
+        if (source.getRate() > 0)
         {
-            final long lastTime = System.nanoTime();
-            if (screen.isReady())
-            {
-                update(extrp);
-                screen.preUpdate();
-                render();
-                screen.update();
-            }
-            sync(System.nanoTime() - lastTime);
-
-            final long currentTime = Math.max(lastTime + 1, System.nanoTime());
-            extrp = computeExtrapolation(lastTime, currentTime);
-            computeFrameRate(lastTime, currentTime, updateFpsTimer);
-
-            if (!Engine.isStarted())
+            accumulated = ONE_SECOND_IN_NANO / source.getRate();
+        }
+        try
+        {
+            loop(extrp, updateFpsTimer);
+            awaitRendering();
+        }
+        finally
+        {
+            if (renderer != null)
             {
-                isRunning = false;
+                renderer.shutdownNow();
+                renderer = null;
             }
         }
         screen.removeListener(this);
@@ -404,11 +670,24 @@ public abstract class Sequence implements Sequencable, ScreenListener
         this.extrapolated = extrapolated;
     }
 
+    @Override
+    public final void setFixedStep(boolean fixed)
+    {
+        fixedStep = fixed;
+    }
+
+    @Override
+    public final void setPipelined(boolean pipelined)
+    {
+        this.pipelined = pipelined;
+    }
+
     @Override
     public final void setResolution(Resolution newSource)
     {
         Check.notNull(newSource);
 
+        awaitRendering();
         config.setSource(newSource);
         source = config.getSource();
         screen.onSourceChanged(source);
@@ -472,6 +751,12 @@ public abstract class Sequence implements Sequencable, ScreenListener
         return currentFrameRate;
     }
 
+    @Override
+    public final FrameMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     @Override
     public final <T extends InputDevice> T getInputDevice(Class<T> type)
     {
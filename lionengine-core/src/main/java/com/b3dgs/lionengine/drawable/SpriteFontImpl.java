@@ -67,7 +67,7 @@ final class SpriteFontImpl implements SpriteFont
         lineHeight = surface.getTileHeight();
 
         // Load data for each characters
-        final XmlNode letters = Xml.load(mediaData);
+        final XmlNode letters = Xml.loadLight(mediaData);
         final Collection<XmlNode> children = letters.getChildren();
         int id = 0;
 
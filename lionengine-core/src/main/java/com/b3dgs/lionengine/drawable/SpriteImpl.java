@@ -240,7 +240,7 @@ class SpriteImpl implements Sprite
     public final void filter(Filter filter)
     {
         lazySurfaceBackup();
-        surface = filter.filter(surfaceOriginal);
+        surface = Graphics.getImageBuffer(filter.filter(surfaceOriginal));
         width = surface.getWidth();
         height = surface.getHeight();
     }
@@ -73,7 +73,8 @@ public interface Filter
     };
 
     /**
-     * Apply a filter to the image source.
+     * Apply a filter to the image source. The returned image may be reused by the filter on next calls, and must be
+     * copied to be kept.
      * 
      * @param source The image source.
      * @return The filtered image.
@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.graphic;
 
+import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Origin;
 
 /**
@@ -199,6 +200,18 @@ public interface Graphic
      */
     void drawOval(Viewer viewer, Origin origin, double x, double y, int width, int height, boolean fill);
 
+    /**
+     * Draws a text with its font and color. Called by {@link Text#draw(Graphic, int, int, Align, String)} when the
+     * graphic context is not available, in order to draw it later, else draws the text on the graphic context.
+     * 
+     * @param text The text font.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param align The text alignment.
+     * @param value The text string.
+     */
+    void drawText(Text text, int x, int y, Align align, String value);
+
     /**
      * Set the current graphic color.
      * 
@@ -223,7 +236,7 @@ public interface Graphic
     /**
      * Get the graphic context.
      * 
-     * @return The graphic context.
+     * @return The graphic context, <code>null</code> if not available (when drawing is recorded).
      */
     Object getGraphic();
 
@@ -46,7 +46,7 @@ public final class Raster
     {
         Check.notNull(media);
 
-        final XmlNode root = Xml.load(media);
+        final XmlNode root = Xml.loadLight(media);
         final RasterData dataRed = RasterData.load(root, RED);
         final RasterData dataGreen = RasterData.load(root, GREEN);
         final RasterData dataBlue = RasterData.load(root, BLUE);
@@ -79,6 +79,34 @@ public final class Xml
         }
     }
 
+    /**
+     * Load an XML file as a lightweight tree, without DOM. Much faster and lighter than {@link #load(Media)}, it is
+     * intended for configuration reading. The tree can still be modified and saved, but a DOM based node added to it
+     * is added as a copy.
+     * 
+     * @param media The XML media path.
+     * @return The XML root node.
+     * @throws LionEngineException If error when loading media.
+     */
+    public static XmlNode loadLight(Media media)
+    {
+        Check.notNull(media);
+
+        final InputStream input = media.getInputStream();
+        try
+        {
+            return XmlParser.parse(input);
+        }
+        catch (final IOException exception)
+        {
+            throw new LionEngineException(exception, media, ERROR_READING);
+        }
+        finally
+        {
+            UtilStream.safeClose(input);
+        }
+    }
+
     /**
      * Save an XML tree to a file.
      * 
@@ -95,11 +123,12 @@ public final class Xml
         try
         {
             final Transformer transformer = DocumentFactory.createTransformer();
-            if (root instanceof XmlNodeImpl)
+            final XmlNode dom = toDom(root);
+            if (dom instanceof XmlNodeImpl)
             {
-                final XmlNodeImpl node = (XmlNodeImpl) root;
+                final XmlNodeImpl node = (XmlNodeImpl) dom;
                 node.normalize();
-                root.writeString(HEADER_ATTRIBUTE, HEADER_VALUE);
+                node.writeString(HEADER_ATTRIBUTE, HEADER_VALUE);
                 final DOMSource source = new DOMSource(node.getElement());
                 final StreamResult result = new StreamResult(output);
                 final String yes = "yes";
@@ -131,6 +160,21 @@ public final class Xml
         return new XmlNodeImpl(name);
     }
 
+    /**
+     * Get the DOM based version of the node.
+     * 
+     * @param node The node reference.
+     * @return The DOM based copy if lightweight, the node itself else.
+     */
+    private static XmlNode toDom(XmlNode node)
+    {
+        if (node instanceof XmlNodeLight)
+        {
+            return ((XmlNodeLight) node).toDom();
+        }
+        return node;
+    }
+
     /**
      * Private constructor.
      */
@@ -169,6 +169,10 @@ final class XmlNodeImpl implements XmlNode
         return new XmlNodeImpl(document, element);
     }
 
+    /**
+     * {@inheritDoc}
+     * A lightweight node is added as a copy.
+     */
     @Override
     public void add(XmlNode node)
     {
@@ -178,6 +182,10 @@ final class XmlNodeImpl implements XmlNode
             document.adoptNode(element);
             root.appendChild(element);
         }
+        else if (node instanceof XmlNodeLight)
+        {
+            add(((XmlNodeLight) node).toDom());
+        }
     }
 
     @Override
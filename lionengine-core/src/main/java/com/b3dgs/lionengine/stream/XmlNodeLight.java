@@ -0,0 +1,597 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Lightweight XML node implementation, without DOM. Attributes are stored in arrays, and children are indexed by name.
+ * <p>
+ * Designed for fast reading: modifications are supported but rebuild the node internal arrays and index.
+ * </p>
+ */
+final class XmlNodeLight implements XmlNode
+{
+    /** Node error. */
+    private static final String ERROR_NODE = "Node not found: ";
+    /** Attribute error. */
+    private static final String ERROR_ATTRIBUTE = "The following attribute does not exist: ";
+    /** No attributes. */
+    private static final String[] NO_ATTRIBUTE = new String[0];
+    /** No children. */
+    private static final XmlNodeLight[] NO_CHILD = new XmlNodeLight[0];
+
+    /**
+     * Create a lightweight copy of a DOM element.
+     * 
+     * @param element The element to copy.
+     * @return The lightweight node.
+     */
+    static XmlNodeLight create(Element element)
+    {
+        final NamedNodeMap attributes = element.getAttributes();
+        final String[] keys = new String[attributes.getLength()];
+        final String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++)
+        {
+            final Node attribute = attributes.item(i);
+            keys[i] = attribute.getNodeName();
+            values[i] = attribute.getNodeValue();
+        }
+
+        final List<XmlNodeLight> children = new ArrayList<XmlNodeLight>();
+        final List<String> texts = new ArrayList<String>();
+        final StringBuilder text = new StringBuilder();
+        final NodeList nodes = element.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++)
+        {
+            final Node node = nodes.item(i);
+            if (node instanceof Element)
+            {
+                texts.add(text.toString());
+                text.setLength(0);
+                children.add(create((Element) node));
+            }
+            else if (node.getNodeType() == Node.TEXT_NODE || node.getNodeType() == Node.CDATA_SECTION_NODE)
+            {
+                text.append(node.getNodeValue());
+            }
+        }
+        texts.add(text.toString());
+
+        return new XmlNodeLight(element.getTagName(),
+                                keys,
+                                values,
+                                children.toArray(new XmlNodeLight[children.size()]),
+                                texts.toArray(new String[texts.size()]));
+    }
+
+    /**
+     * Index children by name.
+     * 
+     * @param children The children nodes.
+     * @return The children by name.
+     */
+    private static Map<String, List<XmlNode>> index(XmlNodeLight[] children)
+    {
+        if (children.length == 0)
+        {
+            return Collections.emptyMap();
+        }
+        final Map<String, List<XmlNode>> index = new HashMap<String, List<XmlNode>>();
+        for (final XmlNodeLight child : children)
+        {
+            List<XmlNode> list = index.get(child.name);
+            if (list == null)
+            {
+                list = new ArrayList<XmlNode>(1);
+                index.put(child.name, list);
+            }
+            list.add(child);
+        }
+        return index;
+    }
+
+    /** Node name. */
+    private final String name;
+    /** Attributes names. */
+    private String[] keys;
+    /** Attributes values (same index as names). */
+    private String[] values;
+    /** Children nodes. */
+    private XmlNodeLight[] children;
+    /** Text parts (before each child, and after last one). */
+    private String[] texts;
+    /** Children by name. */
+    private Map<String, List<XmlNode>> indexed;
+    /** Parent node (<code>null</code> if none). */
+    private XmlNodeLight parent;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param name The node name.
+     * @throws LionEngineException If <code>null</code> name.
+     */
+    XmlNodeLight(String name)
+    {
+        this(name, NO_ATTRIBUTE, NO_ATTRIBUTE, NO_CHILD, new String[]
+        {
+            Constant.EMPTY_STRING
+        });
+    }
+
+    /**
+     * Internal constructor.
+     * 
+     * @param name The node name.
+     * @param keys The attributes names.
+     * @param values The attributes values.
+     * @param children The children nodes.
+     * @param texts The text parts (children length + 1).
+     * @throws LionEngineException If <code>null</code> name.
+     */
+    XmlNodeLight(String name, String[] keys, String[] values, XmlNodeLight[] children, String[] texts)
+    {
+        Check.notNull(name);
+
+        this.name = name;
+        this.keys = keys;
+        this.values = values;
+        this.children = children;
+        this.texts = texts;
+        indexed = index(children);
+        for (final XmlNodeLight child : children)
+        {
+            child.parent = this;
+        }
+    }
+
+    /**
+     * Create a DOM based copy of this node.
+     * 
+     * @return The DOM based node.
+     */
+    XmlNodeImpl toDom()
+    {
+        final XmlNodeImpl node = new XmlNodeImpl(name);
+        for (int i = 0; i < keys.length; i++)
+        {
+            node.writeString(keys[i], values[i]);
+        }
+        if (children.length == 0)
+        {
+            node.setText(texts[0]);
+        }
+        for (final XmlNodeLight child : children)
+        {
+            node.add(child.toDom());
+        }
+        return node;
+    }
+
+    /**
+     * Get the attribute value.
+     * 
+     * @param attribute The attribute name.
+     * @return The attribute value.
+     * @throws LionEngineException If attribute is not valid or does not exist.
+     */
+    private String getValue(String attribute)
+    {
+        final int index = indexOf(attribute);
+        if (index < 0)
+        {
+            throw new LionEngineException(ERROR_ATTRIBUTE, attribute);
+        }
+        return values[index];
+    }
+
+    /**
+     * Get the attribute index.
+     * 
+     * @param attribute The attribute name.
+     * @return The attribute index, <code>-1</code> if not found.
+     */
+    private int indexOf(String attribute)
+    {
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (keys[i].equals(attribute))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Write an attribute value.
+     * 
+     * @param attribute The attribute name.
+     * @param content The content value.
+     * @throws LionEngineException If <code>null</code> attribute.
+     */
+    private void write(String attribute, String content)
+    {
+        Check.notNull(attribute);
+
+        final int index = indexOf(attribute);
+        if (index < 0)
+        {
+            keys = Arrays.copyOf(keys, keys.length + 1);
+            values = Arrays.copyOf(values, values.length + 1);
+            keys[keys.length - 1] = attribute;
+            values[values.length - 1] = content;
+        }
+        else
+        {
+            values[index] = content;
+        }
+    }
+
+    /**
+     * Append a child node, after the last text part. Child is first removed from its current parent.
+     * 
+     * @param child The child to append.
+     */
+    private void append(XmlNodeLight child)
+    {
+        if (child.parent != null)
+        {
+            child.parent.removeChild(child);
+        }
+        child.parent = this;
+        children = Arrays.copyOf(children, children.length + 1);
+        children[children.length - 1] = child;
+        texts = Arrays.copyOf(texts, texts.length + 1);
+        texts[texts.length - 1] = Constant.EMPTY_STRING;
+        indexed = index(children);
+    }
+
+    /**
+     * Remove a child node, merging its surrounding text parts.
+     * 
+     * @param index The child index.
+     */
+    private void remove(int index)
+    {
+        children[index].parent = null;
+        final XmlNodeLight[] nodes = new XmlNodeLight[children.length - 1];
+        System.arraycopy(children, 0, nodes, 0, index);
+        System.arraycopy(children, index + 1, nodes, index, nodes.length - index);
+
+        final String[] parts = new String[texts.length - 1];
+        System.arraycopy(texts, 0, parts, 0, index);
+        parts[index] = texts[index] + texts[index + 1];
+        System.arraycopy(texts, index + 2, parts, index + 1, parts.length - index - 1);
+
+        children = nodes;
+        texts = parts;
+        indexed = index(children);
+    }
+
+    /**
+     * Get the child index.
+     * 
+     * @param child The child reference.
+     * @return The child index, <code>-1</code> if not found.
+     */
+    private int indexOf(XmlNode child)
+    {
+        for (int i = 0; i < children.length; i++)
+        {
+            if (children[i] == child)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * XmlNode
+     */
+
+    @Override
+    public XmlNode createChild(String child)
+    {
+        final XmlNodeLight node = new XmlNodeLight(child);
+        append(node);
+        return node;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A DOM based node is added as a copy.
+     */
+    @Override
+    public void add(XmlNode node)
+    {
+        if (node instanceof XmlNodeLight)
+        {
+            append((XmlNodeLight) node);
+        }
+        else if (node instanceof XmlNodeImpl)
+        {
+            append(create(((XmlNodeImpl) node).getElement()));
+        }
+    }
+
+    @Override
+    public void setText(String text)
+    {
+        for (final XmlNodeLight child : children)
+        {
+            child.parent = null;
+        }
+        children = NO_CHILD;
+        indexed = index(children);
+        if (text == null)
+        {
+            texts = new String[]
+            {
+                Constant.EMPTY_STRING
+            };
+        }
+        else
+        {
+            texts = new String[]
+            {
+                text
+            };
+        }
+    }
+
+    @Override
+    public void writeBoolean(String attribute, boolean content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeByte(String attribute, byte content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeShort(String attribute, short content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeInteger(String attribute, int content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeLong(String attribute, long content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeFloat(String attribute, float content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeDouble(String attribute, double content)
+    {
+        write(attribute, String.valueOf(content));
+    }
+
+    @Override
+    public void writeString(String attribute, String content)
+    {
+        if (content == null)
+        {
+            write(attribute, XmlNode.NULL);
+        }
+        else
+        {
+            write(attribute, content);
+        }
+    }
+
+    @Override
+    public boolean readBoolean(String attribute)
+    {
+        return Boolean.parseBoolean(getValue(attribute));
+    }
+
+    @Override
+    public byte readByte(String attribute)
+    {
+        return Byte.parseByte(getValue(attribute));
+    }
+
+    @Override
+    public short readShort(String attribute)
+    {
+        return Short.parseShort(getValue(attribute));
+    }
+
+    @Override
+    public int readInteger(String attribute)
+    {
+        return Integer.parseInt(getValue(attribute));
+    }
+
+    @Override
+    public long readLong(String attribute)
+    {
+        return Long.parseLong(getValue(attribute));
+    }
+
+    @Override
+    public float readFloat(String attribute)
+    {
+        return Float.parseFloat(getValue(attribute));
+    }
+
+    @Override
+    public double readDouble(String attribute)
+    {
+        return Double.parseDouble(getValue(attribute));
+    }
+
+    @Override
+    public String readString(String attribute)
+    {
+        final String value = getValue(attribute);
+        if (XmlNode.NULL.equals(value))
+        {
+            return null;
+        }
+        return value;
+    }
+
+    @Override
+    public void removeAttribute(String attribute)
+    {
+        final int index = indexOf(attribute);
+        if (index > -1)
+        {
+            final String[] newKeys = new String[keys.length - 1];
+            final String[] newValues = new String[newKeys.length];
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, newKeys.length - index);
+            System.arraycopy(values, 0, newValues, 0, index);
+            System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+
+    @Override
+    public void removeChild(String child)
+    {
+        remove(indexOf(getChild(child)));
+    }
+
+    @Override
+    public void removeChild(XmlNode child)
+    {
+        final int index = indexOf(child);
+        if (index > -1)
+        {
+            remove(index);
+        }
+    }
+
+    @Override
+    public void removeChildren(String children)
+    {
+        for (final XmlNode child : getChildren(children))
+        {
+            removeChild(child);
+        }
+    }
+
+    @Override
+    public String getNodeName()
+    {
+        return name;
+    }
+
+    @Override
+    public String getText()
+    {
+        if (children.length == 0)
+        {
+            return texts[0];
+        }
+        final StringBuilder text = new StringBuilder(texts[0]);
+        for (int i = 0; i < children.length; i++)
+        {
+            text.append(children[i].getText()).append(texts[i + 1]);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public XmlNode getChild(String child)
+    {
+        final List<XmlNode> nodes = indexed.get(child);
+        if (nodes == null)
+        {
+            throw new LionEngineException(ERROR_NODE, child);
+        }
+        return nodes.get(0);
+    }
+
+    @Override
+    public Collection<XmlNode> getChildren(String children)
+    {
+        final List<XmlNode> nodes = indexed.get(children);
+        if (nodes == null)
+        {
+            return new ArrayList<XmlNode>(0);
+        }
+        return new ArrayList<XmlNode>(nodes);
+    }
+
+    @Override
+    public Collection<XmlNode> getChildren()
+    {
+        return new ArrayList<XmlNode>(Arrays.asList(children));
+    }
+
+    @Override
+    public Map<String, String> getAttributes()
+    {
+        final Map<String, String> attributes = new HashMap<String, String>(keys.length);
+        for (int i = 0; i < keys.length; i++)
+        {
+            attributes.put(keys[i], values[i]);
+        }
+        return attributes;
+    }
+
+    @Override
+    public boolean hasAttribute(String attribute)
+    {
+        return indexOf(attribute) > -1;
+    }
+
+    @Override
+    public boolean hasChild(String child)
+    {
+        return indexed.containsKey(child);
+    }
+}
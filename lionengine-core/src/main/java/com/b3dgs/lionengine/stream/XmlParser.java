@@ -0,0 +1,900 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Single pass XML parser, building a {@link XmlNodeLight} tree without intermediate DOM.
+ * <p>
+ * It only supports UTF-8 documents without DTD, with predefined and character entities, comments, processing
+ * instructions and CDATA sections, which covers configuration files. Any other document (or malformed one) is parsed
+ * with {@link DocumentFactory} and converted, so result is always the same as the DOM parser.
+ * </p>
+ */
+final class XmlParser
+{
+    /** Declaration start. */
+    private static final String DECLARATION = "<?xml";
+    /** Encoding attribute. */
+    private static final String ENCODING = "encoding";
+    /** Supported encoding. */
+    private static final String UTF_8 = "UTF-8";
+    /** Comment start. */
+    private static final String COMMENT = "<!--";
+    /** Comment end. */
+    private static final String COMMENT_END = "-->";
+    /** Comment forbidden sequence. */
+    private static final String COMMENT_DASHES = "--";
+    /** Processing instruction start. */
+    private static final String INSTRUCTION = "<?";
+    /** Processing instruction end. */
+    private static final String INSTRUCTION_END = "?>";
+    /** CDATA start. */
+    private static final String CDATA = "<![CDATA[";
+    /** CDATA end. */
+    private static final String CDATA_END = "]]>";
+    /** CDATA end, after first character. */
+    private static final String CDATA_END_TAIL = "]>";
+    /** Element end. */
+    private static final String ELEMENT_END = "</";
+    /** Byte order mark length. */
+    private static final int BOM_LENGTH = 3;
+    /** Byte order mark first byte. */
+    private static final int BOM_1 = 0xEF;
+    /** Byte order mark second byte. */
+    private static final int BOM_2 = 0xBB;
+    /** Byte order mark third byte. */
+    private static final int BOM_3 = 0xBF;
+    /** First non character (0xFFFE and 0xFFFF are forbidden). */
+    private static final int NOT_CHARACTER = 0xFFFE;
+    /** Byte mask. */
+    private static final int MASK = 0xFF;
+    /** Maximum entity length. */
+    private static final int ENTITY_MAX = 10;
+    /** Hexadecimal radix. */
+    private static final int HEXA = 16;
+    /** Decimal radix. */
+    private static final int DECIMAL = 10;
+    /** Unsupported error. */
+    private static final String ERROR_UNSUPPORTED = "Unsupported at: ";
+
+    /**
+     * Parse a tree from an input stream.
+     * 
+     * @param input The input stream.
+     * @return The root node.
+     * @throws IOException If malformed document.
+     * @throws LionEngineException If <code>null</code> input.
+     */
+    static XmlNodeLight parse(InputStream input) throws IOException
+    {
+        Check.notNull(input);
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        UtilStream.copy(input, output);
+        return parse(output.toByteArray());
+    }
+
+    /**
+     * Parse a tree from document content.
+     * 
+     * @param data The document content.
+     * @return The root node.
+     * @throws IOException If malformed document.
+     */
+    static XmlNodeLight parse(byte[] data) throws IOException
+    {
+        XmlNodeLight root = null;
+        final char[] chars = decode(data);
+        if (chars != null)
+        {
+            root = new XmlParser(chars).parseDocument();
+        }
+        if (root == null)
+        {
+            root = XmlNodeLight.create(DocumentFactory.createDocument(new ByteArrayInputStream(data))
+                                                      .getDocumentElement());
+        }
+        return root;
+    }
+
+    /**
+     * Decode document content as UTF-8, skipping byte order mark.
+     * 
+     * @param data The document content.
+     * @return The decoded content, <code>null</code> if not UTF-8.
+     */
+    private static char[] decode(byte[] data)
+    {
+        int offset = 0;
+        if (data.length >= BOM_LENGTH && (data[0] & MASK) == BOM_1)
+        {
+            if ((data[1] & MASK) == BOM_2 && (data[2] & MASK) == BOM_3)
+            {
+                offset = BOM_LENGTH;
+            }
+        }
+        try
+        {
+            final CharBuffer buffer = Constant.UTF_8.newDecoder()
+                                                    .decode(ByteBuffer.wrap(data, offset, data.length - offset));
+            final char[] chars = new char[buffer.remaining()];
+            buffer.get(chars);
+            return chars;
+        }
+        catch (final CharacterCodingException exception)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Check if character can start a name. Restricted to common characters, others are left to DOM parser.
+     * 
+     * @param c The character.
+     * @return <code>true</code> if name start, <code>false</code> else.
+     */
+    private static boolean isNameStart(char c)
+    {
+        return Character.isLetter(c) || c == '_' || c == ':';
+    }
+
+    /**
+     * Check if character can be part of a name. Restricted to common characters, others are left to DOM parser.
+     * 
+     * @param c The character.
+     * @return <code>true</code> if name character, <code>false</code> else.
+     */
+    private static boolean isNameChar(char c)
+    {
+        return isNameStart(c) || Character.isDigit(c) || c == '-' || c == '.';
+    }
+
+    /**
+     * Check if character is a white space.
+     * 
+     * @param c The character.
+     * @return <code>true</code> if white space, <code>false</code> else.
+     */
+    private static boolean isSpace(char c)
+    {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+
+    /**
+     * Check if character is forbidden in content.
+     * 
+     * @param c The character.
+     * @return <code>true</code> if forbidden, <code>false</code> else.
+     */
+    private static boolean isForbidden(char c)
+    {
+        final boolean control = c < ' ' && !isSpace(c);
+        return control || c >= NOT_CHARACTER;
+    }
+
+    /** Document content. */
+    private final char[] chars;
+    /** Opened elements. */
+    private final List<Element> stack = new ArrayList<Element>();
+    /** Shared names. */
+    private final Map<String, String> names = new HashMap<String, String>();
+    /** Current position. */
+    private int pos;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param chars The document content.
+     */
+    private XmlParser(char[] chars)
+    {
+        this.chars = chars;
+    }
+
+    /**
+     * Parse the document.
+     * 
+     * @return The root node, <code>null</code> if unsupported or malformed.
+     */
+    private XmlNodeLight parseDocument()
+    {
+        try
+        {
+            if (startsWith(DECLARATION))
+            {
+                parseDeclaration();
+            }
+            skipMisc();
+            final XmlNodeLight root = parseRoot();
+            skipMisc();
+            if (pos != chars.length)
+            {
+                throw unsupported();
+            }
+            return root;
+        }
+        catch (final IOException exception)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Parse the declaration, checking encoding.
+     * 
+     * @throws IOException If unsupported encoding.
+     */
+    private void parseDeclaration() throws IOException
+    {
+        final int end = indexOf(INSTRUCTION_END, pos);
+        final String declaration = new String(chars, pos, end - pos);
+        final int encoding = declaration.indexOf(ENCODING);
+        if (encoding > -1)
+        {
+            final int start = declaration.indexOf('=', encoding) + 1;
+            final String value = declaration.substring(start).trim();
+            if (value.length() < UTF_8.length() + 2 || !value.substring(1, UTF_8.length() + 1).equalsIgnoreCase(UTF_8))
+            {
+                throw unsupported();
+            }
+        }
+        pos = end + INSTRUCTION_END.length();
+    }
+
+    /**
+     * Skip white spaces, comments and processing instructions.
+     * 
+     * @throws IOException If malformed.
+     */
+    private void skipMisc() throws IOException
+    {
+        while (pos < chars.length)
+        {
+            if (isSpace(chars[pos]))
+            {
+                pos++;
+            }
+            else if (!skipComment() && !skipInstruction())
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Skip comment if any.
+     * 
+     * @return <code>true</code> if skipped, <code>false</code> if not a comment.
+     * @throws IOException If malformed.
+     */
+    private boolean skipComment() throws IOException
+    {
+        final boolean comment = startsWith(COMMENT);
+        if (comment)
+        {
+            final int end = indexOf(COMMENT_DASHES, pos + COMMENT.length());
+            if (end != indexOf(COMMENT_END, end))
+            {
+                throw unsupported();
+            }
+            pos = end + COMMENT_END.length();
+        }
+        return comment;
+    }
+
+    /**
+     * Skip processing instruction if any.
+     * 
+     * @return <code>true</code> if skipped, <code>false</code> if not a processing instruction.
+     * @throws IOException If malformed.
+     */
+    private boolean skipInstruction() throws IOException
+    {
+        final boolean instruction = startsWith(INSTRUCTION);
+        if (startsWith(DECLARATION))
+        {
+            throw unsupported();
+        }
+        if (instruction)
+        {
+            pos = indexOf(INSTRUCTION_END, pos + INSTRUCTION.length()) + INSTRUCTION_END.length();
+        }
+        return instruction;
+    }
+
+    /**
+     * Parse the root element and its children.
+     * 
+     * @return The root node.
+     * @throws IOException If unsupported or malformed.
+     */
+    private XmlNodeLight parseRoot() throws IOException
+    {
+        Element current = parseStart();
+        while (true)
+        {
+            if (current.isClosed())
+            {
+                final XmlNodeLight node = current.build();
+                if (stack.isEmpty())
+                {
+                    return node;
+                }
+                current = stack.remove(stack.size() - 1);
+                current.add(node);
+            }
+            else
+            {
+                current = parseContent(current);
+            }
+        }
+    }
+
+    /**
+     * Parse the next content of current element.
+     * 
+     * @param current The current element.
+     * @return The new current element.
+     * @throws IOException If unsupported or malformed.
+     */
+    private Element parseContent(Element current) throws IOException
+    {
+        parseText(current.getText());
+        if (startsWith(ELEMENT_END))
+        {
+            parseEnd(current);
+        }
+        else if (startsWith(CDATA))
+        {
+            parseCdata(current.getText());
+        }
+        else if (!skipComment() && !skipInstruction())
+        {
+            stack.add(current);
+            return parseStart();
+        }
+        return current;
+    }
+
+    /**
+     * Parse element start, with its attributes.
+     * 
+     * @return The started element.
+     * @throws IOException If unsupported or malformed.
+     */
+    private Element parseStart() throws IOException
+    {
+        expect('<');
+        final Element element = new Element(parseName());
+        while (true)
+        {
+            final boolean space = skipSpaces();
+            final char c = next();
+            if (c == '>')
+            {
+                return element;
+            }
+            if (c == '/')
+            {
+                expect('>');
+                element.close();
+                return element;
+            }
+            pos--;
+            if (!space)
+            {
+                throw unsupported();
+            }
+            parseAttribute(element);
+        }
+    }
+
+    /**
+     * Parse an attribute.
+     * 
+     * @param element The current element.
+     * @throws IOException If unsupported or malformed.
+     */
+    private void parseAttribute(Element element) throws IOException
+    {
+        final String key = parseName();
+        skipSpaces();
+        expect('=');
+        skipSpaces();
+        final char quote = next();
+        if (quote != '"' && quote != '\'')
+        {
+            throw unsupported();
+        }
+        final StringBuilder value = new StringBuilder();
+        char c = next();
+        while (c != quote)
+        {
+            if (c == '&')
+            {
+                parseEntity(value);
+            }
+            else if (c == '<' || isForbidden(c))
+            {
+                throw unsupported();
+            }
+            else
+            {
+                appendNormalized(value, c, ' ');
+            }
+            c = next();
+        }
+        element.addAttribute(key, value.toString());
+    }
+
+    /**
+     * Parse element end.
+     * 
+     * @param current The current element.
+     * @throws IOException If malformed.
+     */
+    private void parseEnd(Element current) throws IOException
+    {
+        pos += ELEMENT_END.length();
+        if (!current.getName().equals(parseName()))
+        {
+            throw unsupported();
+        }
+        skipSpaces();
+        expect('>');
+        current.close();
+    }
+
+    /**
+     * Parse text until next markup.
+     * 
+     * @param text The text to append to.
+     * @throws IOException If unsupported or malformed.
+     */
+    private void parseText(StringBuilder text) throws IOException
+    {
+        char c = next();
+        while (c != '<')
+        {
+            if (c == '&')
+            {
+                parseEntity(text);
+            }
+            else if (isForbidden(c) || c == ']' && startsWith(CDATA_END_TAIL))
+            {
+                throw unsupported();
+            }
+            else
+            {
+                appendNormalized(text, c, '\n');
+            }
+            c = next();
+        }
+        pos--;
+    }
+
+    /**
+     * Parse CDATA section.
+     * 
+     * @param text The text to append to.
+     * @throws IOException If malformed.
+     */
+    private void parseCdata(StringBuilder text) throws IOException
+    {
+        final int end = indexOf(CDATA_END, pos + CDATA.length());
+        pos += CDATA.length();
+        while (pos < end)
+        {
+            final char c = next();
+            if (isForbidden(c))
+            {
+                throw unsupported();
+            }
+            appendNormalized(text, c, '\n');
+        }
+        pos = end + CDATA_END.length();
+    }
+
+    /**
+     * Append character, normalizing line ends.
+     * 
+     * @param text The text to append to.
+     * @param c The character.
+     * @param line The line end replacement.
+     */
+    private void appendNormalized(StringBuilder text, char c, char line)
+    {
+        if (c == '\r')
+        {
+            text.append(line);
+            if (pos < chars.length && chars[pos] == '\n')
+            {
+                pos++;
+            }
+        }
+        else if (line == ' ' && (c == '\n' || c == '\t'))
+        {
+            text.append(line);
+        }
+        else
+        {
+            text.append(c);
+        }
+    }
+
+    /**
+     * Parse an entity, after its '&amp;'.
+     * 
+     * @param text The text to append to.
+     * @throws IOException If unsupported or malformed.
+     */
+    private void parseEntity(StringBuilder text) throws IOException
+    {
+        final int end = indexOf(";", pos);
+        if (end - pos > ENTITY_MAX)
+        {
+            throw unsupported();
+        }
+        final String entity = new String(chars, pos, end - pos);
+        pos = end + 1;
+        if (entity.startsWith("#"))
+        {
+            text.appendCodePoint(parseCharacter(entity));
+        }
+        else
+        {
+            text.append(getPredefined(entity));
+        }
+    }
+
+    /**
+     * Parse a character entity.
+     * 
+     * @param entity The entity content.
+     * @return The code point.
+     * @throws IOException If malformed.
+     */
+    private int parseCharacter(String entity) throws IOException
+    {
+        try
+        {
+            final int code;
+            if (entity.startsWith("#x"))
+            {
+                code = Integer.parseInt(entity.substring(2), HEXA);
+            }
+            else
+            {
+                code = Integer.parseInt(entity.substring(1), DECIMAL);
+            }
+            if (!Character.isValidCodePoint(code) || code < Character.MIN_SUPPLEMENTARY_CODE_POINT
+                                                     && isForbidden((char) code))
+            {
+                throw unsupported();
+            }
+            return code;
+        }
+        catch (final NumberFormatException exception)
+        {
+            throw new IOException(exception);
+        }
+    }
+
+    /**
+     * Get a predefined entity.
+     * 
+     * @param entity The entity name.
+     * @return The entity character.
+     * @throws IOException If not a predefined entity.
+     */
+    private char getPredefined(String entity) throws IOException
+    {
+        final char c;
+        if ("lt".equals(entity))
+        {
+            c = '<';
+        }
+        else if ("gt".equals(entity))
+        {
+            c = '>';
+        }
+        else if ("amp".equals(entity))
+        {
+            c = '&';
+        }
+        else if ("quot".equals(entity))
+        {
+            c = '"';
+        }
+        else if ("apos".equals(entity))
+        {
+            c = '\'';
+        }
+        else
+        {
+            throw unsupported();
+        }
+        return c;
+    }
+
+    /**
+     * Parse a name, shared between nodes.
+     * 
+     * @return The name.
+     * @throws IOException If unsupported name.
+     */
+    private String parseName() throws IOException
+    {
+        final int start = pos;
+        if (!isNameStart(next()))
+        {
+            throw unsupported();
+        }
+        while (pos < chars.length && isNameChar(chars[pos]))
+        {
+            pos++;
+        }
+        final String name = new String(chars, start, pos - start);
+        final String shared = names.get(name);
+        if (shared == null)
+        {
+            names.put(name, name);
+            return name;
+        }
+        return shared;
+    }
+
+    /**
+     * Skip white spaces.
+     * 
+     * @return <code>true</code> if at least one skipped, <code>false</code> else.
+     */
+    private boolean skipSpaces()
+    {
+        final int start = pos;
+        while (pos < chars.length && isSpace(chars[pos]))
+        {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    /**
+     * Read the next character.
+     * 
+     * @return The next character.
+     * @throws IOException If end reached.
+     */
+    private char next() throws IOException
+    {
+        if (pos >= chars.length)
+        {
+            throw unsupported();
+        }
+        return chars[pos++];
+    }
+
+    /**
+     * Read the expected character.
+     * 
+     * @param expected The expected character.
+     * @throws IOException If not the expected character.
+     */
+    private void expect(char expected) throws IOException
+    {
+        if (next() != expected)
+        {
+            throw unsupported();
+        }
+    }
+
+    /**
+     * Check if content at current position starts with the sequence.
+     * 
+     * @param sequence The sequence to check.
+     * @return <code>true</code> if starts with, <code>false</code> else.
+     */
+    private boolean startsWith(String sequence)
+    {
+        final int length = sequence.length();
+        boolean match = pos + length <= chars.length;
+        for (int i = 0; match && i < length; i++)
+        {
+            match = chars[pos + i] == sequence.charAt(i);
+        }
+        return match;
+    }
+
+    /**
+     * Find the sequence index.
+     * 
+     * @param sequence The sequence to find.
+     * @param from The starting index.
+     * @return The sequence index.
+     * @throws IOException If sequence not found.
+     */
+    private int indexOf(String sequence, int from) throws IOException
+    {
+        final int old = pos;
+        for (pos = from; pos < chars.length; pos++)
+        {
+            if (startsWith(sequence))
+            {
+                final int index = pos;
+                pos = old;
+                return index;
+            }
+        }
+        throw unsupported();
+    }
+
+    /**
+     * Create the unsupported error, to fall back to DOM parser.
+     * 
+     * @return The unsupported error.
+     */
+    private IOException unsupported()
+    {
+        return new IOException(ERROR_UNSUPPORTED + pos);
+    }
+
+    /**
+     * Element being parsed.
+     */
+    private static final class Element
+    {
+        /** Node name. */
+        private final String name;
+        /** Attributes names. */
+        private final List<String> keys = new ArrayList<String>(0);
+        /** Attributes values. */
+        private final List<String> values = new ArrayList<String>(0);
+        /** Children nodes. */
+        private final List<XmlNodeLight> children = new ArrayList<XmlNodeLight>(0);
+        /** Text parts. */
+        private final List<String> texts = new ArrayList<String>(1);
+        /** Current text part. */
+        private final StringBuilder text = new StringBuilder(0);
+        /** Closed flag. */
+        private boolean closed;
+
+        /**
+         * Create element.
+         * 
+         * @param name The node name.
+         */
+        Element(String name)
+        {
+            this.name = name;
+        }
+
+        /**
+         * Add an attribute.
+         * 
+         * @param key The attribute name.
+         * @param value The attribute value.
+         * @throws IOException If attribute already defined.
+         */
+        void addAttribute(String key, String value) throws IOException
+        {
+            if (keys.contains(key))
+            {
+                throw new IOException(key);
+            }
+            keys.add(key);
+            values.add(value);
+        }
+
+        /**
+         * Add a child node, ending the current text part.
+         * 
+         * @param child The child node.
+         */
+        void add(XmlNodeLight child)
+        {
+            texts.add(flush());
+            children.add(child);
+        }
+
+        /**
+         * Close element.
+         */
+        void close()
+        {
+            closed = true;
+        }
+
+        /**
+         * Check if element is closed.
+         * 
+         * @return <code>true</code> if closed, <code>false</code> else.
+         */
+        boolean isClosed()
+        {
+            return closed;
+        }
+
+        /**
+         * Get the element name.
+         * 
+         * @return The element name.
+         */
+        String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Get the current text part.
+         * 
+         * @return The current text part.
+         */
+        StringBuilder getText()
+        {
+            return text;
+        }
+
+        /**
+         * Build the node.
+         * 
+         * @return The built node.
+         */
+        XmlNodeLight build()
+        {
+            texts.add(flush());
+            return new XmlNodeLight(name,
+                                    keys.toArray(new String[keys.size()]),
+                                    values.toArray(new String[values.size()]),
+                                    children.toArray(new XmlNodeLight[children.size()]),
+                                    texts.toArray(new String[texts.size()]));
+        }
+
+        /**
+         * Get the current text part and reset it.
+         * 
+         * @return The current text part.
+         */
+        private String flush()
+        {
+            if (text.length() == 0)
+            {
+                return Constant.EMPTY_STRING;
+            }
+            final String value = text.toString();
+            text.setLength(0);
+            return value;
+        }
+    }
+}
@@ -47,8 +47,8 @@ public final class UtilChecksum
 {
     /** Instance error message. */
     private static final String ERROR_ALGORITHM = "Unable to create algorithm: ";
-    /** Message digest instance. */
-    private static final MessageDigest SHA256 = create("SHA-256");
+    /** SHA-256 algorithm name. */
+    private static final String SHA256 = "SHA-256";
 
     /**
      * Compare a checksum with its supposed original value.
@@ -84,7 +84,7 @@ public final class UtilChecksum
      */
     public static String getSha256(byte[] bytes)
     {
-        final byte[] v = SHA256.digest(bytes);
+        final byte[] v = create(SHA256).digest(bytes);
         final StringBuilder builder = new StringBuilder(84);
         for (final byte b : v)
         {
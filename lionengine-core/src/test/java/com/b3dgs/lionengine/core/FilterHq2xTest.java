@@ -91,4 +91,20 @@ public class FilterHq2xTest
         Assert.assertEquals(image.getWidth() * 2, filtered.getWidth());
         Assert.assertEquals(image.getHeight() * 2, filtered.getHeight());
     }
+
+    /**
+     * Test the filtered images are double buffered.
+     */
+    @Test
+    public void testReuse()
+    {
+        final ImageBuffer image = Graphics.getImageBuffer(media);
+        final FilterHq2x hq2x = new FilterHq2x();
+        final ImageBuffer first = hq2x.filter(image);
+        final ImageBuffer second = hq2x.filter(image);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(first, hq2x.filter(image));
+        Assert.assertSame(second, hq2x.filter(image));
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the frame histogram class.
+ */
+public class FrameHistogramTest
+{
+    /** One milli in nano. */
+    private static final long MILLI = 1000000L;
+
+    /**
+     * Test the empty histogram.
+     */
+    @Test
+    public void testEmpty()
+    {
+        final FrameHistogram histogram = new FrameHistogram();
+
+        Assert.assertEquals(0L, histogram.getCount());
+        Assert.assertEquals(0.0, histogram.getMean(), 0.0);
+        Assert.assertEquals(0.0, histogram.getMax(), 0.0);
+        Assert.assertEquals(0.0, histogram.getPercentile(99.0), 0.0);
+    }
+
+    /**
+     * Test the recorded values.
+     */
+    @Test
+    public void testRecord()
+    {
+        final FrameHistogram histogram = new FrameHistogram();
+        for (int i = 0; i < 9; i++)
+        {
+            histogram.record(MILLI);
+        }
+        histogram.record(10 * MILLI);
+        histogram.record(-MILLI);
+
+        Assert.assertEquals(11L, histogram.getCount());
+        Assert.assertEquals(1L, histogram.getCount(0));
+        Assert.assertEquals(9L, histogram.getCount(4));
+        Assert.assertEquals(1L, histogram.getCount(40));
+        Assert.assertEquals(19.0 / 11.0, histogram.getMean(), 0.000001);
+        Assert.assertEquals(10.0, histogram.getMax(), 0.0);
+        Assert.assertEquals(1.25, histogram.getPercentile(50.0), 0.0);
+        Assert.assertEquals(10.0, histogram.getPercentile(100.0), 0.0);
+        Assert.assertEquals(0.25, histogram.getPercentile(0.0), 0.0);
+
+        histogram.reset();
+
+        Assert.assertEquals(0L, histogram.getCount());
+        Assert.assertEquals(0L, histogram.getCount(4));
+        Assert.assertEquals(0.0, histogram.getMax(), 0.0);
+    }
+
+    /**
+     * Test the duration over the maximum.
+     */
+    @Test
+    public void testOverflow()
+    {
+        final FrameHistogram histogram = new FrameHistogram();
+        histogram.record(1000 * MILLI);
+
+        Assert.assertEquals(1L, histogram.getCount(FrameHistogram.BUCKETS - 1));
+        Assert.assertEquals(FrameHistogram.MAX_MILLI, histogram.getPercentile(100.0), 0.0);
+        Assert.assertEquals(1000.0, histogram.getMax(), 0.0);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Align;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ColorGradient;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Text;
+import com.b3dgs.lionengine.graphic.TextStyle;
+import com.b3dgs.lionengine.graphic.Transparency;
+import com.b3dgs.lionengine.mock.FactoryGraphicMock;
+import com.b3dgs.lionengine.mock.GraphicMock;
+import com.b3dgs.lionengine.mock.ImageBufferMock;
+import com.b3dgs.lionengine.mock.TransformMock;
+
+/**
+ * Test the graphic recorder class.
+ */
+public class GraphicRecorderTest
+{
+    /**
+     * Record all commands on recorder.
+     * 
+     * @param recorder The recorder.
+     * @param color The color to set.
+     */
+    private static void record(GraphicRecorder recorder, ColorRgba color)
+    {
+        final ImageBuffer image = new ImageBufferMock(1, 1, Transparency.OPAQUE);
+        final Text text = new FactoryGraphicMock().createText("Arial", 8, TextStyle.NORMAL);
+
+        recorder.setColorGradient(new ColorGradient(0, 0, ColorRgba.BLACK, 1, 1, ColorRgba.WHITE));
+        recorder.setColor(color);
+        recorder.clear(0, 0, 1, 1);
+        recorder.copyArea(0, 0, 1, 1, 1, 1);
+        recorder.drawImage(image, 1, 2);
+        recorder.drawImage(image, new TransformMock(), 1, 2);
+        recorder.drawImage(image, 1, 2, 3, 4, 5, 6, 7, 8);
+        recorder.drawRect(1, 2, 3, 4, true);
+        recorder.drawGradient(1, 2, 3, 4);
+        recorder.drawLine(1, 2, 3, 4);
+        recorder.drawOval(1, 2, 3, 4, false);
+        recorder.drawText(text, 1, 2, Align.CENTER, "text");
+    }
+
+    /**
+     * Test the recorded commands replay.
+     */
+    @Test
+    public void testReplay()
+    {
+        final GraphicRecorder recorder = new GraphicRecorder();
+        final ColorRgba color = new ColorRgba(1, 2, 3);
+        for (int i = 0; i < 20; i++)
+        {
+            record(recorder, color);
+        }
+        Assert.assertEquals(240, recorder.getCount());
+        Assert.assertEquals(color, recorder.getColor());
+
+        final GraphicRecorder replay = new GraphicRecorder();
+        recorder.render(replay);
+        recorder.render(new GraphicMock());
+
+        Assert.assertEquals(recorder.getCount(), replay.getCount());
+        Assert.assertEquals(color, replay.getColor());
+
+        recorder.clear();
+
+        Assert.assertEquals(0, recorder.getCount());
+        Assert.assertNull(recorder.getColor());
+    }
+
+    /**
+     * Test the text drawn on replay.
+     */
+    @Test
+    public void testText()
+    {
+        final GraphicRecorder recorder = new GraphicRecorder();
+        final Text text = new FactoryGraphicMock().createText("Arial", 8, TextStyle.NORMAL);
+        recorder.drawText(text, 1, 2, Align.RIGHT, "text");
+
+        Assert.assertEquals(1, recorder.getCount());
+
+        final GraphicRecorder replay = new GraphicRecorder();
+        recorder.render(replay);
+
+        Assert.assertEquals(1, replay.getCount());
+    }
+
+    /**
+     * Test the native graphic access.
+     */
+    @Test
+    public void testNativeGraphic()
+    {
+        Assert.assertNull(new GraphicRecorder().getGraphic());
+    }
+
+    /**
+     * Test the native graphic set.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testSetNativeGraphic()
+    {
+        new GraphicRecorder().setGraphic(new Object());
+    }
+}
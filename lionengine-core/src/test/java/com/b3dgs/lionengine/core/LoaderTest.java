@@ -33,9 +33,11 @@ import com.b3dgs.lionengine.mock.ScreenMock;
 import com.b3dgs.lionengine.mock.SequenceArgumentsMock;
 import com.b3dgs.lionengine.mock.SequenceFailMock;
 import com.b3dgs.lionengine.mock.SequenceFilterMock;
+import com.b3dgs.lionengine.mock.SequenceFixedStepMock;
 import com.b3dgs.lionengine.mock.SequenceInterruptMock;
 import com.b3dgs.lionengine.mock.SequenceMalformedMock;
 import com.b3dgs.lionengine.mock.SequenceNextFailMock;
+import com.b3dgs.lionengine.mock.SequencePipelinedMock;
 import com.b3dgs.lionengine.mock.SequenceSingleMock;
 import com.b3dgs.lionengine.mock.SequenceSlowMock;
 import com.b3dgs.lionengine.test.UtilTests;
@@ -285,6 +287,26 @@ public class LoaderTest
         loader.start(CONFIG, SequenceSlowMock.class).await();
     }
 
+    /**
+     * Test the loader with a fixed step sequence.
+     */
+    @Test
+    public void testFixedStepSequence()
+    {
+        final Loader loader = new Loader();
+        loader.start(CONFIG, SequenceFixedStepMock.class).await();
+    }
+
+    /**
+     * Test the loader with a pipelined sequence.
+     */
+    @Test
+    public void testPipelinedSequence()
+    {
+        final Loader loader = new Loader();
+        loader.start(CONFIG, SequencePipelinedMock.class).await();
+    }
+
     /**
      * Test the loader with a sequence that have arguments.
      */
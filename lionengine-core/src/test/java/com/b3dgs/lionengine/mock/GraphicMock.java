@@ -17,11 +17,13 @@
  */
 package com.b3dgs.lionengine.mock;
 
+import com.b3dgs.lionengine.Align;
 import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.graphic.ColorGradient;
 import com.b3dgs.lionengine.graphic.ColorRgba;
 import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.ImageSurface;
+import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.Transform;
 import com.b3dgs.lionengine.graphic.Viewer;
 
@@ -131,6 +133,12 @@ public class GraphicMock implements Graphic
         // Mock
     }
 
+    @Override
+    public void drawText(Text text, int x, int y, Align align, String value)
+    {
+        // Mock
+    }
+
     @Override
     public void setColor(ColorRgba color)
     {
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.mock;
+
+import org.junit.Assert;
+
+import com.b3dgs.lionengine.core.Context;
+import com.b3dgs.lionengine.core.FrameMetrics;
+import com.b3dgs.lionengine.core.Sequence;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.test.UtilTests;
+
+/**
+ * Pipelined sequence mock.
+ */
+public class SequencePipelinedMock extends Sequence
+{
+    /** Updates before end. */
+    private static final int UPDATES = 20;
+
+    /** Updates count. */
+    private int updates;
+
+    /**
+     * Constructor.
+     * 
+     * @param context The context reference.
+     */
+    public SequencePipelinedMock(Context context)
+    {
+        super(context, UtilTests.RESOLUTION_320_240);
+    }
+
+    /*
+     * Sequence
+     */
+
+    @Override
+    public void load()
+    {
+        setPipelined(true);
+    }
+
+    @Override
+    public void update(double extrp)
+    {
+        updates++;
+        if (updates == UPDATES)
+        {
+            end();
+        }
+        Assert.assertTrue(updates <= UPDATES);
+    }
+
+    @Override
+    public void render(Graphic g)
+    {
+        g.setColor(ColorRgba.RED);
+        g.drawRect(0, 0, updates, updates, true);
+        Assert.assertEquals(ColorRgba.RED, g.getColor());
+    }
+
+    @Override
+    public void onTerminated(boolean hasNextSequence)
+    {
+        final FrameMetrics metrics = getMetrics();
+        Assert.assertTrue(metrics.getRender().getCount() > 0);
+        Assert.assertEquals(metrics.getUpdate().getCount(), metrics.getRender().getCount());
+        Assert.assertEquals(metrics.getRender().getCount(), metrics.getPresent().getCount());
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.mock.XmlNodeMock;
+
+/**
+ * Test the lightweight XML node.
+ */
+public class XmlNodeLightTest
+{
+    /** Float precision. */
+    private static final float FLOAT_PRECISION = 0.00000001f;
+    /** Double precision. */
+    private static final double DOUBLE_PRECISION = 0.000000000000001;
+
+    /**
+     * Parse a string.
+     * 
+     * @param xml The xml content.
+     * @return The root node.
+     * @throws IOException If error.
+     */
+    private static XmlNodeLight parse(String xml) throws IOException
+    {
+        return XmlParser.parse(new ByteArrayInputStream(xml.getBytes(Constant.UTF_8)));
+    }
+
+    /**
+     * Test children in xml node.
+     */
+    @Test
+    public void testXmlnode()
+    {
+        final XmlNode root = new XmlNodeLight("root");
+        final XmlNode child1 = root.createChild("child1");
+        final XmlNode child2 = root.createChild("child2");
+
+        child1.writeString("str", "str");
+
+        root.add(child1);
+        root.add(child2);
+
+        Assert.assertEquals("root", root.getNodeName());
+        Assert.assertEquals(child1, root.getChild("child1"));
+        Assert.assertEquals(child2, root.getChild("child2"));
+        Assert.assertEquals(2, root.getChildren().size());
+        Assert.assertEquals(1, root.getChildren("child1").size());
+        Assert.assertTrue(root.getChildren("void").isEmpty());
+        Assert.assertEquals("str", child1.getAttributes().get("str"));
+        Assert.assertEquals(Constant.EMPTY_STRING, child1.getText());
+
+        final String text = "text";
+        root.setText(text);
+        Assert.assertEquals(text, root.getText());
+        Assert.assertFalse(root.hasChild("child1"));
+    }
+
+    /**
+     * Test the remove element function on node.
+     */
+    @Test
+    public void testXmlNodeRemove()
+    {
+        final XmlNode root = new XmlNodeLight("root");
+        final XmlNode child1 = root.createChild("child1");
+        root.createChild("child2");
+        root.createChild("child2");
+
+        root.writeString("str", "str");
+        root.writeString("str2", "str2");
+
+        root.removeChild("child1");
+        Assert.assertFalse(root.hasChild("child1"));
+        root.removeChild(child1);
+        root.removeChildren("child2");
+        Assert.assertTrue(root.getChildren().isEmpty());
+
+        root.removeAttribute("str");
+        root.removeAttribute("void");
+        Assert.assertFalse(root.hasAttribute("str"));
+        Assert.assertEquals("str2", root.readString("str2"));
+    }
+
+    /**
+     * Test the write read to xml node.
+     */
+    @Test
+    public void testXmlNodeWriteRead()
+    {
+        final XmlNode node = new XmlNodeLight("node");
+        try
+        {
+            node.getChild("void");
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+
+        node.writeBoolean("boolean", XmlNodeMock.BOOL_VALUE);
+        node.writeByte("byte", XmlNodeMock.BYTE_VALUE);
+        node.writeShort("short", XmlNodeMock.SHORT_VALUE);
+        node.writeInteger("integer", XmlNodeMock.INT_VALUE);
+        node.writeFloat("float", XmlNodeMock.FLOAT_VALUE);
+        node.writeLong("long", XmlNodeMock.LONG_VALUE);
+        node.writeDouble("double", XmlNodeMock.DOUBLE_VALUE);
+        node.writeString("string", XmlNodeMock.STRING_VALUE);
+        node.writeString("null", null);
+        node.writeInteger("integer", XmlNodeMock.INT_VALUE + 1);
+
+        Assert.assertEquals(Boolean.valueOf(XmlNodeMock.BOOL_VALUE), Boolean.valueOf(node.readBoolean("boolean")));
+        Assert.assertEquals(XmlNodeMock.BYTE_VALUE, node.readByte("byte"));
+        Assert.assertEquals(XmlNodeMock.SHORT_VALUE, node.readShort("short"));
+        Assert.assertEquals(XmlNodeMock.INT_VALUE + 1, node.readInteger("integer"));
+        Assert.assertEquals(XmlNodeMock.FLOAT_VALUE, node.readFloat("float"), FLOAT_PRECISION);
+        Assert.assertEquals(XmlNodeMock.LONG_VALUE, node.readLong("long"));
+        Assert.assertEquals(XmlNodeMock.DOUBLE_VALUE, node.readDouble("double"), DOUBLE_PRECISION);
+        Assert.assertEquals(XmlNodeMock.STRING_VALUE, node.readString("string"));
+        Assert.assertEquals(null, node.readString("null"));
+        Assert.assertEquals(9, node.getAttributes().size());
+    }
+
+    /**
+     * Test the node read error.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testXmlNodeReadError()
+    {
+        new XmlNodeLight("test").readString("void");
+    }
+
+    /**
+     * Test the parsed node, with qualified names and text.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testParse() throws IOException
+    {
+        final XmlNode root = parse("<?xml version=\"1.0\"?><a:root xmlns:a=\"uri\" a:id=\"1\">"
+                                   + "x<a:child>text</a:child>y<a:child><![CDATA[<data>]]></a:child>z</a:root>");
+
+        Assert.assertEquals("a:root", root.getNodeName());
+        Assert.assertEquals("uri", root.readString("xmlns:a"));
+        Assert.assertEquals(1, root.readInteger("a:id"));
+        Assert.assertEquals("text", root.getChild("a:child").getText());
+        Assert.assertEquals(2, root.getChildren("a:child").size());
+        Assert.assertEquals("xtexty<data>z", root.getText());
+    }
+
+    /**
+     * Test the malformed document.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testParseMalformed() throws IOException
+    {
+        Assert.assertNull(parse("<root><child></root>"));
+    }
+
+    /**
+     * Test the add with a DOM node, and a child moved from another parent.
+     */
+    @Test
+    public void testAdd()
+    {
+        final XmlNode root = new XmlNodeLight("root");
+        final XmlNode dom = Xml.create("dom");
+        dom.createChild("child").setText("text");
+        dom.writeString("attribute", "value");
+        root.add(dom);
+        root.add(new XmlNodeMock());
+
+        Assert.assertEquals("text", root.getChild("dom").getChild("child").getText());
+        Assert.assertEquals("value", root.getChild("dom").readString("attribute"));
+
+        final XmlNode other = new XmlNodeLight("other");
+        final XmlNode child = root.getChild("dom");
+        other.add(child);
+
+        Assert.assertFalse(root.hasChild("dom"));
+        Assert.assertEquals(child, other.getChild("dom"));
+
+        final XmlNode copy = Xml.create("copy");
+        copy.add(other);
+
+        Assert.assertEquals("text", copy.getChild("other").getChild("dom").getChild("child").getText());
+    }
+}
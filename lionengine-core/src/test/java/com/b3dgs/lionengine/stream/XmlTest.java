@@ -18,7 +18,9 @@
 package com.b3dgs.lionengine.stream;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 
 import javax.xml.transform.ErrorListener;
@@ -109,6 +111,47 @@ public class XmlTest
         Assert.assertTrue(output.getFile().delete());
     }
 
+    /**
+     * Test load lightweight tree, same as DOM one.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadLight() throws IOException
+    {
+        final XmlNode dom = Xml.load(Medias.create("type.xml"));
+        final XmlNode light = Xml.loadLight(Medias.create("type.xml"));
+
+        Assert.assertEquals(dom.getNodeName(), light.getNodeName());
+        Assert.assertEquals(dom.getAttributes(), light.getAttributes());
+        Assert.assertEquals(dom.getText(), light.getText());
+        Assert.assertEquals(dom.getChildren().size(), light.getChildren().size());
+        Assert.assertEquals(dom.getChild("lionengine:tileSheet").getText(),
+                            light.getChild("lionengine:tileSheet").getText());
+
+        final Media output = Medias.create("out.xml");
+        Xml.save(light, output);
+        final InputStream input = new FileInputStream(output.getFile());
+        try
+        {
+            Assert.assertEquals("test", XmlParser.parse(input).getChild("lionengine:tileSheet").getText());
+        }
+        finally
+        {
+            input.close();
+        }
+        Assert.assertTrue(output.getFile().delete());
+    }
+
+    /**
+     * Test load lightweight tree with malformed document.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testLoadLightMalformed()
+    {
+        Assert.assertNull(Xml.loadLight(Medias.create("malformed.xml")));
+    }
+
     /**
      * Test the write and read in XML with parser.
      * 
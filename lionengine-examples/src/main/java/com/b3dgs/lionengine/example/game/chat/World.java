@@ -30,6 +30,7 @@ import com.b3dgs.lionengine.graphic.Graphic;
 import com.b3dgs.lionengine.graphic.Text;
 import com.b3dgs.lionengine.graphic.TextStyle;
 import com.b3dgs.lionengine.network.NetworkedWorld;
+import com.b3dgs.lionengine.network.SnapshotSchema;
 import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.purview.Networkable;
 import com.b3dgs.lionengine.network.purview.NetworkableModel;
@@ -150,6 +151,12 @@ abstract class World<N extends NetworkedWorld> extends WorldGame implements Netw
         networkedWorld.addMessages(messages);
     }
 
+    @Override
+    public void setSnapshotSchema(SnapshotSchema schema)
+    {
+        networkedWorld.setSnapshotSchema(schema);
+    }
+
     @Override
     public void sendMessages()
     {
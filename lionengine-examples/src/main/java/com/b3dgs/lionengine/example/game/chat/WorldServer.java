@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.example.game.chat;
 
+import com.b3dgs.lionengine.Localizable;
 import com.b3dgs.lionengine.core.Context;
 import com.b3dgs.lionengine.game.handler.WorldGame;
 import com.b3dgs.lionengine.network.NetworkedWorldModelServer;
@@ -57,4 +58,22 @@ class WorldServer extends World<NetworkedWorldModelServer> implements NetworkedW
     {
         networkedWorld.startServer(name, port, messageOfTheDay);
     }
+
+    @Override
+    public void setFlushWindow(long delay)
+    {
+        networkedWorld.setFlushWindow(delay);
+    }
+
+    @Override
+    public void setInterestRange(double range)
+    {
+        networkedWorld.setInterestRange(range);
+    }
+
+    @Override
+    public void setClientLocation(Byte clientId, Localizable location)
+    {
+        networkedWorld.setClientLocation(clientId, location);
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+/**
+ * Represents the collision broad phase, aimed to reduce the number of {@link Collidable} couples which have to be
+ * checked by {@link Collidable#collide(Collidable)}. Only couples with intersecting areas are notified.
+ * 
+ * @see ComponentCollision
+ * @see BroadphaseSweepAndPrune
+ * @see BroadphaseGrid
+ */
+public interface Broadphase
+{
+    /**
+     * Find the couples of collidables which may be in collision. Each couple is notified once, in any order.
+     * 
+     * @param collidables The collidables to check.
+     * @param listener The listener notified for each candidate couple.
+     */
+    void findCandidates(Iterable<Collidable> collidables, BroadphaseListener listener);
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.geom.Rectangle;
+
+/**
+ * Broad phase area of a {@link Collidable}. Represents the bounding box of all its collision bounds, enlarged by its
+ * last movement, as the narrow phase performs a ray cast from old to current location.
+ * <p>
+ * Area is conservative: bounds touching each other are considered as intersecting.
+ * </p>
+ */
+final class BroadphaseArea
+{
+    /** Collidable reference. */
+    private Collidable collidable;
+    /** Minimum horizontal location. */
+    private double minX;
+    /** Minimum vertical location. */
+    private double minY;
+    /** Maximum horizontal location. */
+    private double maxX;
+    /** Maximum vertical location. */
+    private double maxY;
+
+    /**
+     * Create area.
+     */
+    BroadphaseArea()
+    {
+        super();
+    }
+
+    /**
+     * Compute area of the collidable.
+     * 
+     * @param collidable The collidable reference.
+     * @return <code>true</code> if collidable has at least one collision bound, <code>false</code> else.
+     */
+    boolean compute(Collidable collidable)
+    {
+        this.collidable = collidable;
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+
+        boolean found = false;
+        for (final Rectangle bound : collidable.getCollisionBounds())
+        {
+            minX = Math.min(minX, bound.getMinX());
+            minY = Math.min(minY, bound.getMinY());
+            maxX = Math.max(maxX, bound.getMaxX());
+            maxY = Math.max(maxY, bound.getMaxY());
+            found = true;
+        }
+        if (found)
+        {
+            enlarge();
+        }
+        return found;
+    }
+
+    /**
+     * Check if area intersects the other one.
+     * 
+     * @param other The other area.
+     * @return <code>true</code> if intersect, <code>false</code> else.
+     */
+    boolean intersects(BroadphaseArea other)
+    {
+        return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /**
+     * Get the collidable reference.
+     * 
+     * @return The collidable reference.
+     */
+    Collidable getCollidable()
+    {
+        return collidable;
+    }
+
+    /**
+     * Get the minimum horizontal location.
+     * 
+     * @return The minimum horizontal location.
+     */
+    double getMinX()
+    {
+        return minX;
+    }
+
+    /**
+     * Get the minimum vertical location.
+     * 
+     * @return The minimum vertical location.
+     */
+    double getMinY()
+    {
+        return minY;
+    }
+
+    /**
+     * Get the maximum horizontal location.
+     * 
+     * @return The maximum horizontal location.
+     */
+    double getMaxX()
+    {
+        return maxX;
+    }
+
+    /**
+     * Get the maximum vertical location.
+     * 
+     * @return The maximum vertical location.
+     */
+    double getMaxY()
+    {
+        return maxY;
+    }
+
+    /**
+     * Enlarge area with the last movement and the mirrored offsets, covering the narrow phase ray cast.
+     */
+    private void enlarge()
+    {
+        final Transformable transformable = collidable.getFeature(Transformable.class);
+        double marginX = Math.abs(transformable.getX() - transformable.getOldX());
+        double marginY = Math.abs(transformable.getY() - transformable.getOldY());
+
+        double mirrorX = 0.0;
+        double mirrorY = 0.0;
+        for (final Collision collision : collidable.getCollisions())
+        {
+            if (collision.hasMirror())
+            {
+                mirrorX = Math.max(mirrorX, Math.abs(collision.getOffsetX()) * 2.0);
+                mirrorY = Math.max(mirrorY, Math.abs(collision.getOffsetY()) * 2.0);
+            }
+        }
+        marginX += mirrorX;
+        marginY += mirrorY;
+
+        minX -= marginX;
+        minY -= marginY;
+        maxX += marginX;
+        maxY += marginY;
+    }
+}
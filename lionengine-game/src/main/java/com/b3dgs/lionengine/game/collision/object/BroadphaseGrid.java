@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Uniform grid broad phase implementation. Areas are stored in each cell they cover, and only areas sharing a cell are
+ * checked. Couples sharing more than one cell are notified once, from their first common cell.
+ * <p>
+ * Cells are stored by their packed location, which supports up to 32768 cells on each side of the origin.
+ * </p>
+ */
+public class BroadphaseGrid implements Broadphase
+{
+    /** Default areas capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Packed cell index shift. */
+    private static final int KEY_SHIFT = 16;
+    /** Packed cell index mask. */
+    private static final int KEY_MASK = 0xFFFF;
+
+    /**
+     * Get the packed cell key.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     * @return The cell key.
+     */
+    private static Integer getKey(int cx, int cy)
+    {
+        return Integer.valueOf(cx << KEY_SHIFT | cy & KEY_MASK);
+    }
+
+    /** Cells cache. */
+    private final Map<Integer, Cell> cells = new HashMap<Integer, Cell>();
+    /** Cell width. */
+    private final double cellWidth;
+    /** Cell height. */
+    private final double cellHeight;
+    /** Areas cache. */
+    private BroadphaseArea[] areas = new BroadphaseArea[DEFAULT_CAPACITY];
+    /** Areas minimum horizontal cell index. */
+    private int[] minCx = new int[DEFAULT_CAPACITY];
+    /** Areas minimum vertical cell index. */
+    private int[] minCy = new int[DEFAULT_CAPACITY];
+    /** Areas maximum horizontal cell index. */
+    private int[] maxCx = new int[DEFAULT_CAPACITY];
+    /** Areas maximum vertical cell index. */
+    private int[] maxCy = new int[DEFAULT_CAPACITY];
+
+    /**
+     * Create broad phase.
+     * 
+     * @param cellWidth The cell width (must be strictly positive).
+     * @param cellHeight The cell height (must be strictly positive).
+     * @throws LionEngineException If invalid size.
+     */
+    public BroadphaseGrid(int cellWidth, int cellHeight)
+    {
+        super();
+
+        Check.superiorStrict(cellWidth, 0);
+        Check.superiorStrict(cellHeight, 0);
+
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    /**
+     * Create broad phase, with a cell size equal to the map tile size.
+     * 
+     * @param map The map reference (must be created).
+     * @throws LionEngineException If invalid size.
+     */
+    public BroadphaseGrid(MapTile map)
+    {
+        this(map.getTileWidth(), map.getTileHeight());
+    }
+
+    /**
+     * Compute the areas of collidables and store them in their cells.
+     * 
+     * @param collidables The collidables reference.
+     */
+    private void computeAreas(Iterable<Collidable> collidables)
+    {
+        int count = 0;
+        for (final Collidable collidable : collidables)
+        {
+            if (count == areas.length)
+            {
+                areas = Arrays.copyOf(areas, areas.length * 2);
+                minCx = Arrays.copyOf(minCx, areas.length);
+                minCy = Arrays.copyOf(minCy, areas.length);
+                maxCx = Arrays.copyOf(maxCx, areas.length);
+                maxCy = Arrays.copyOf(maxCy, areas.length);
+            }
+            if (areas[count] == null)
+            {
+                areas[count] = new BroadphaseArea();
+            }
+            final BroadphaseArea area = areas[count];
+            if (area.compute(collidable))
+            {
+                minCx[count] = (int) Math.floor(area.getMinX() / cellWidth);
+                minCy[count] = (int) Math.floor(area.getMinY() / cellHeight);
+                maxCx[count] = (int) Math.floor(area.getMaxX() / cellWidth);
+                maxCy[count] = (int) Math.floor(area.getMaxY() / cellHeight);
+                store(count);
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Store area in all its cells.
+     * 
+     * @param area The area index.
+     */
+    private void store(int area)
+    {
+        for (int cx = minCx[area]; cx <= maxCx[area]; cx++)
+        {
+            for (int cy = minCy[area]; cy <= maxCy[area]; cy++)
+            {
+                final Integer key = getKey(cx, cy);
+                Cell cell = cells.get(key);
+                if (cell == null)
+                {
+                    cell = new Cell();
+                    cells.put(key, cell);
+                }
+                cell.add(area, cx, cy);
+            }
+        }
+    }
+
+    /**
+     * Check the couples of a cell.
+     * 
+     * @param cell The cell to check.
+     * @param listener The listener reference.
+     */
+    private void check(Cell cell, BroadphaseListener listener)
+    {
+        for (int i = 0; i < cell.count; i++)
+        {
+            final int a = cell.areas[i];
+            for (int j = i + 1; j < cell.count; j++)
+            {
+                final int b = cell.areas[j];
+                if (isFirstCell(cell, a, b) && areas[a].intersects(areas[b]))
+                {
+                    listener.notifyCandidates(areas[a].getCollidable(), areas[b].getCollidable());
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if cell is the first one shared by the areas, in order to notify couples once.
+     * 
+     * @param cell The cell reference.
+     * @param a The first area index.
+     * @param b The second area index.
+     * @return <code>true</code> if first shared cell, <code>false</code> else.
+     */
+    private boolean isFirstCell(Cell cell, int a, int b)
+    {
+        return cell.cx == Math.max(minCx[a], minCx[b]) && cell.cy == Math.max(minCy[a], minCy[b]);
+    }
+
+    /*
+     * Broadphase
+     */
+
+    @Override
+    public void findCandidates(Iterable<Collidable> collidables, BroadphaseListener listener)
+    {
+        computeAreas(collidables);
+
+        final Iterator<Cell> iterator = cells.values().iterator();
+        while (iterator.hasNext())
+        {
+            final Cell cell = iterator.next();
+            if (cell.count == 0)
+            {
+                iterator.remove();
+            }
+            else
+            {
+                check(cell, listener);
+                cell.count = 0;
+            }
+        }
+    }
+
+    /**
+     * Grid cell, referencing the areas index it contains.
+     */
+    private static final class Cell
+    {
+        /** Areas index. */
+        private int[] areas = new int[DEFAULT_CAPACITY];
+        /** Areas number. */
+        private int count;
+        /** Horizontal cell index. */
+        private int cx;
+        /** Vertical cell index. */
+        private int cy;
+
+        /**
+         * Create cell.
+         */
+        Cell()
+        {
+            super();
+        }
+
+        /**
+         * Add an area index.
+         * 
+         * @param area The area index.
+         * @param cx The horizontal cell index.
+         * @param cy The vertical cell index.
+         */
+        void add(int area, int cx, int cy)
+        {
+            if (count == areas.length)
+            {
+                areas = Arrays.copyOf(areas, areas.length * 2);
+            }
+            areas[count] = area;
+            count++;
+            this.cx = cx;
+            this.cy = cy;
+        }
+    }
+}
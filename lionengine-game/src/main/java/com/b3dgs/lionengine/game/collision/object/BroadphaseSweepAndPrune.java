@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sweep and prune broad phase implementation. Areas are sorted on the horizontal axis, and only overlapping ones are
+ * checked on the vertical axis. Does not require any configuration, and areas are reused between calls.
+ */
+public class BroadphaseSweepAndPrune implements Broadphase
+{
+    /** Default areas capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Minimum horizontal location comparator. */
+    private static final Comparator<BroadphaseArea> SORTER = new Comparator<BroadphaseArea>()
+    {
+        @Override
+        public int compare(BroadphaseArea a, BroadphaseArea b)
+        {
+            return Double.compare(a.getMinX(), b.getMinX());
+        }
+    };
+
+    /** Areas cache. */
+    private BroadphaseArea[] areas = new BroadphaseArea[DEFAULT_CAPACITY];
+
+    /**
+     * Create broad phase.
+     */
+    public BroadphaseSweepAndPrune()
+    {
+        super();
+    }
+
+    /**
+     * Compute the areas of collidables.
+     * 
+     * @param collidables The collidables reference.
+     * @return The number of computed areas.
+     */
+    private int computeAreas(Iterable<Collidable> collidables)
+    {
+        int count = 0;
+        for (final Collidable collidable : collidables)
+        {
+            if (count == areas.length)
+            {
+                areas = Arrays.copyOf(areas, areas.length * 2);
+            }
+            if (areas[count] == null)
+            {
+                areas[count] = new BroadphaseArea();
+            }
+            if (areas[count].compute(collidable))
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Broadphase
+     */
+
+    @Override
+    public void findCandidates(Iterable<Collidable> collidables, BroadphaseListener listener)
+    {
+        final int count = computeAreas(collidables);
+        Arrays.sort(areas, 0, count, SORTER);
+
+        for (int i = 0; i < count; i++)
+        {
+            final BroadphaseArea current = areas[i];
+            for (int j = i + 1; j < count && areas[j].getMinX() <= current.getMaxX(); j++)
+            {
+                final BroadphaseArea other = areas[j];
+                if (current.intersects(other))
+                {
+                    listener.notifyCandidates(current.getCollidable(), other.getCollidable());
+                }
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.b3dgs.lionengine.Origin;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.mirrorable.Mirrorable;
@@ -40,7 +41,7 @@ import com.b3dgs.lionengine.graphic.Viewer;
 /**
  * Box ray cast collidable model implementation.
  */
-public class CollidableModel extends FeatureModel implements Collidable
+public class CollidableModel extends FeatureModel implements Collidable, Recyclable
 {
     /**
      * Check if current rectangle collides other collidable rectangles.
@@ -63,6 +64,8 @@ public class CollidableModel extends FeatureModel implements Collidable
 
     /** The collision listener reference. */
     private final Collection<CollidableListener> listeners = new ArrayList<CollidableListener>();
+    /** The listeners added on prepare (owner and its features), kept on recycle. */
+    private final Collection<CollidableListener> prepared = new ArrayList<CollidableListener>();
     /** The collisions used. */
     private final Collection<Collision> collisions = new ArrayList<Collision>();
     /** The ignored collidables. */
@@ -155,6 +158,7 @@ public class CollidableModel extends FeatureModel implements Collidable
         if (provider instanceof CollidableListener)
         {
             addListener((CollidableListener) provider);
+            prepared.add((CollidableListener) provider);
         }
     }
 
@@ -166,6 +170,7 @@ public class CollidableModel extends FeatureModel implements Collidable
         if (listener instanceof CollidableListener)
         {
             addListener((CollidableListener) listener);
+            prepared.add((CollidableListener) listener);
         }
     }
 
@@ -312,4 +317,22 @@ public class CollidableModel extends FeatureModel implements Collidable
             listener.notifyCollided(collidable);
         }
     }
+
+    /*
+     * Recyclable
+     */
+
+    /**
+     * {@inheritDoc}
+     * Enable collision, clear ignored collidables and computed bounds, and keep only the listeners added on prepare.
+     */
+    @Override
+    public void recycle()
+    {
+        listeners.clear();
+        listeners.addAll(prepared);
+        ignored.clear();
+        boxs.clear();
+        enabled = true;
+    }
 }
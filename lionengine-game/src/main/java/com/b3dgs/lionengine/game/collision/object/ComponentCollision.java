@@ -17,15 +17,21 @@
  */
 package com.b3dgs.lionengine.game.collision.object;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.handler.ComponentUpdater;
 import com.b3dgs.lionengine.game.handler.Handlables;
 
 /**
  * Default collision component implementation. Designed to check collision between {@link Collidable}.
  * Collision events are notified to {@link CollidableListener}.
+ * <p>
+ * Only couples found by the {@link Broadphase} are checked with {@link Collidable#collide(Collidable)}.
+ * </p>
  * 
  * @see Collidable
  * @see CollidableListener
+ * @see Broadphase
  */
 public class ComponentCollision implements ComponentUpdater
 {
@@ -47,12 +53,40 @@ public class ComponentCollision implements ComponentUpdater
         }
     }
 
+    /** Candidates listener. */
+    private final BroadphaseListener listener = new BroadphaseListener()
+    {
+        @Override
+        public void notifyCandidates(Collidable collidableA, Collidable collidableB)
+        {
+            checkCollision(collidableA, collidableB);
+            checkCollision(collidableB, collidableA);
+        }
+    };
+    /** Broad phase used. */
+    private final Broadphase broadphase;
+
     /**
-     * Create component.
+     * Create component, using a {@link BroadphaseSweepAndPrune}.
      */
     public ComponentCollision()
+    {
+        this(new BroadphaseSweepAndPrune());
+    }
+
+    /**
+     * Create component.
+     * 
+     * @param broadphase The broad phase used to find the collision candidates.
+     * @throws LionEngineException If <code>null</code> broad phase.
+     */
+    public ComponentCollision(Broadphase broadphase)
     {
         super();
+
+        Check.notNull(broadphase);
+
+        this.broadphase = broadphase;
     }
 
     /*
@@ -62,13 +96,6 @@ public class ComponentCollision implements ComponentUpdater
     @Override
     public void update(double extrp, Handlables objects)
     {
-        final Iterable<Collidable> collidables = objects.get(Collidable.class);
-        for (final Collidable objectA : collidables)
-        {
-            for (final Collidable objectB : collidables)
-            {
-                checkCollision(objectA, objectB);
-            }
-        }
+        broadphase.findCandidates(objects.get(Collidable.class), listener);
     }
 }
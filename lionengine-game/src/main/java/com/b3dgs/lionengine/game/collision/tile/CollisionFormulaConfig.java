@@ -52,7 +52,7 @@ public final class CollisionFormulaConfig
      */
     public static CollisionFormulaConfig imports(Media config)
     {
-        final XmlNode root = Xml.load(config);
+        final XmlNode root = Xml.loadLight(config);
         final Map<String, CollisionFormula> collisions = new HashMap<String, CollisionFormula>(0);
         for (final XmlNode node : root.getChildren(FORMULA))
         {
@@ -55,7 +55,7 @@ public final class CollisionGroupConfig
      */
     public static CollisionGroupConfig imports(Media config)
     {
-        final XmlNode root = Xml.load(config);
+        final XmlNode root = Xml.loadLight(config);
         final Map<String, CollisionGroup> groups = new HashMap<String, CollisionGroup>();
         for (final XmlNode node : root.getChildren(COLLISION))
         {
@@ -32,6 +32,7 @@ import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileArray;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
 import com.b3dgs.lionengine.game.tile.Tile;
 import com.b3dgs.lionengine.game.tile.TileRef;
@@ -185,7 +186,7 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         Verbose.info(INFO_LOAD_GROUPS, groupsConfig.getFile().getPath());
 
         this.groupsConfig = groupsConfig;
-        final XmlNode nodeGroups = Xml.load(groupsConfig);
+        final XmlNode nodeGroups = Xml.loadLight(groupsConfig);
         final CollisionGroupConfig config = CollisionGroupConfig.imports(nodeGroups, this);
         loadCollisionGroups(config);
     }
@@ -226,17 +227,12 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
      */
     private void loadTileCollisions(Tile tile)
     {
-        final TileCollision tileCollision;
         if (!tile.hasFeature(TileCollision.class))
         {
-            tileCollision = new TileCollisionModel(tile);
-            tile.addFeature(tileCollision);
+            tile.addFeature(new TileCollisionModel(tile));
             tile.prepareFeatures(services);
         }
-        else
-        {
-            tileCollision = tile.getFeature(TileCollision.class);
-        }
+        final TileCollision tileCollision = tile.getFeature(TileCollision.class);
         tileCollision.removeCollisionFormulas();
         addTileCollisions(tileCollision, tile);
     }
@@ -399,6 +395,10 @@ public class MapTileCollisionModel extends FeatureModel implements MapTileCollis
         this.services = services;
         map = services.get(MapTile.class);
         mapGroup = map.getFeature(MapTileGroup.class);
+        if (map instanceof MapTileArray)
+        {
+            ((MapTileArray) map).addColumn(TileCollision.class, new TileCollisionColumn());
+        }
     }
 
     @Override
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.tile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.b3dgs.lionengine.game.map.MapTileArray;
+import com.b3dgs.lionengine.game.map.TileFeatureColumn;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Tile collision storage for {@link MapTileArray}. Distinct formulas sets are shared, and each tile only stores the
+ * index of its set.
+ */
+final class TileCollisionColumn implements TileFeatureColumn<TileCollision>
+{
+    /** No collision value. */
+    private static final int NONE = -1;
+
+    /** Formulas sets. */
+    private final List<Set<CollisionFormula>> sets = new ArrayList<Set<CollisionFormula>>();
+    /** Formulas set index by content. */
+    private final Map<Set<CollisionFormula>, Integer> indexes = new HashMap<Set<CollisionFormula>, Integer>();
+    /** Formulas set index per tile, {@link #NONE} if no tile collision. */
+    private int[] formulas = new int[0];
+
+    /**
+     * Create column.
+     */
+    TileCollisionColumn()
+    {
+        super();
+    }
+
+    /**
+     * Get the formulas set index, stored if new.
+     * 
+     * @param set The formulas set.
+     * @return The formulas set index.
+     */
+    private int getIndex(Set<CollisionFormula> set)
+    {
+        Integer index = indexes.get(set);
+        if (index == null)
+        {
+            index = Integer.valueOf(sets.size());
+            final Set<CollisionFormula> stored = Collections.unmodifiableSet(new HashSet<CollisionFormula>(set));
+            indexes.put(stored, index);
+            sets.add(stored);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Get the tile formulas.
+     * 
+     * @param index The tile index.
+     * @return The tile formulas.
+     */
+    private Set<CollisionFormula> getFormulas(int index)
+    {
+        return sets.get(formulas[index]);
+    }
+
+    /*
+     * TileFeatureColumn
+     */
+
+    @Override
+    public void create(int size)
+    {
+        formulas = new int[size];
+        Arrays.fill(formulas, NONE);
+    }
+
+    @Override
+    public void grow(int size)
+    {
+        final int old = formulas.length;
+        formulas = Arrays.copyOf(formulas, size);
+        Arrays.fill(formulas, old, size, NONE);
+    }
+
+    @Override
+    public void move(int from, int to)
+    {
+        formulas[to] = formulas[from];
+        formulas[from] = NONE;
+    }
+
+    @Override
+    public void set(int index, TileCollision feature)
+    {
+        formulas[index] = getIndex(new HashSet<CollisionFormula>(feature.getCollisionFormulas()));
+    }
+
+    @Override
+    public void remove(int index)
+    {
+        formulas[index] = NONE;
+    }
+
+    @Override
+    public boolean has(int index)
+    {
+        return formulas[index] != NONE;
+    }
+
+    @Override
+    public TileCollision get(Tile tile, int index)
+    {
+        return new View(tile, index);
+    }
+
+    /**
+     * Tile collision view on column data.
+     */
+    private final class View extends TileCollisionModel
+    {
+        /** The tile index. */
+        private final int index;
+
+        /**
+         * Create view.
+         * 
+         * @param tile The tile reference.
+         * @param index The tile index.
+         */
+        View(Tile tile, int index)
+        {
+            super(tile, Collections.<CollisionFormula>emptySet());
+            this.index = index;
+        }
+
+        /*
+         * TileCollisionModel
+         */
+
+        @Override
+        public void addCollisionFormula(CollisionFormula formula)
+        {
+            final Set<CollisionFormula> set = new HashSet<CollisionFormula>(getFormulas(index));
+            set.add(formula);
+            formulas[index] = getIndex(set);
+        }
+
+        @Override
+        public void removeCollisionFormula(CollisionFormula formula)
+        {
+            final Set<CollisionFormula> set = new HashSet<CollisionFormula>(getFormulas(index));
+            set.remove(formula);
+            formulas[index] = getIndex(set);
+        }
+
+        @Override
+        public void removeCollisionFormulas()
+        {
+            formulas[index] = getIndex(Collections.<CollisionFormula>emptySet());
+        }
+
+        @Override
+        public Collection<CollisionFormula> getCollisionFormulas()
+        {
+            return getFormulas(index);
+        }
+    }
+}
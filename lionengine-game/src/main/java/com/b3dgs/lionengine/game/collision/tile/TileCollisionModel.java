@@ -31,7 +31,7 @@ import com.b3dgs.lionengine.util.UtilMath;
 public class TileCollisionModel extends FeatureModel implements TileCollision
 {
     /** The collision formulas used. */
-    private final Collection<CollisionFormula> formulas = new HashSet<CollisionFormula>();
+    private final Collection<CollisionFormula> formulas;
     /** Tile reference. */
     private final Tile tile;
 
@@ -41,9 +41,21 @@ public class TileCollisionModel extends FeatureModel implements TileCollision
      * @param tile The tile reference.
      */
     public TileCollisionModel(Tile tile)
+    {
+        this(tile, new HashSet<CollisionFormula>());
+    }
+
+    /**
+     * Create a tile collision.
+     * 
+     * @param tile The tile reference.
+     * @param formulas The collision formulas storage.
+     */
+    TileCollisionModel(Tile tile, Collection<CollisionFormula> formulas)
     {
         super();
         this.tile = tile;
+        this.formulas = formulas;
     }
 
     /**
@@ -202,9 +214,10 @@ public class TileCollisionModel extends FeatureModel implements TileCollision
     @Override
     public Double getCollisionX(CollisionCategory category, double ox, double oy, double x, double y)
     {
+        final Collection<CollisionFormula> current = getCollisionFormulas();
         for (final CollisionFormula formula : category.getFormulas())
         {
-            if (formulas.contains(formula) && category.getAxis() == formula.getRange().getOutput())
+            if (current.contains(formula) && category.getAxis() == formula.getRange().getOutput())
             {
                 final Double collisionX = getCollisionX(formula, ox, oy, x, y, category.getOffsetX());
                 if (collisionX != null)
@@ -219,9 +232,10 @@ public class TileCollisionModel extends FeatureModel implements TileCollision
     @Override
     public Double getCollisionY(CollisionCategory category, double ox, double oy, double x, double y)
     {
+        final Collection<CollisionFormula> current = getCollisionFormulas();
         for (final CollisionFormula formula : category.getFormulas())
         {
-            if (formulas.contains(formula) && category.getAxis() == formula.getRange().getOutput())
+            if (current.contains(formula) && category.getAxis() == formula.getRange().getOutput())
             {
                 final Double collisionY = getCollisionY(formula, ox, oy, x, y, category.getOffsetY());
                 if (collisionY != null)
@@ -58,12 +58,32 @@ public class Configurer
      * @throws LionEngineException If error when opening the media.
      */
     public Configurer(Media media)
+    {
+        this(media, false);
+    }
+
+    /**
+     * Load data from configuration media.
+     * 
+     * @param media The xml media.
+     * @param light <code>true</code> to load a lightweight tree, faster for reading (see {@link Xml#loadLight(Media)}),
+     *            <code>false</code> to load a DOM based tree (see {@link Xml#load(Media)}).
+     * @throws LionEngineException If error when opening the media.
+     */
+    public Configurer(Media media, boolean light)
     {
         Check.notNull(media);
 
         this.media = media;
         path = media.getFile().getParent();
-        root = Xml.load(media);
+        if (light)
+        {
+            root = Xml.loadLight(media);
+        }
+        else
+        {
+            root = Xml.load(media);
+        }
     }
 
     /**
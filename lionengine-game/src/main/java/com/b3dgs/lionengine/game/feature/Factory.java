@@ -25,6 +25,7 @@ import com.b3dgs.lionengine.Constant;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableAllocator;
 import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
 import com.b3dgs.lionengine.util.UtilReflection;
 
@@ -40,6 +41,13 @@ import com.b3dgs.lionengine.util.UtilReflection;
  * The factory uses the {@link ClassLoader#getSystemClassLoader()}, but it is possible to set a custom one with
  * {@link #setClassLoader(ClassLoader)}. Should be used in an OSGI environment for example.
  * </p>
+ * <p>
+ * In pooled mode ({@link #setPooled(boolean)}), destroyed featurables are reused by the next creation from the same
+ * {@link Setup} and type, once effectively destroyed (after their removal by the
+ * {@link com.b3dgs.lionengine.game.handler.Handler}), without reflection. Only featurables with all their features
+ * implementing {@link Recyclable} are pooled, others are always created. Features, and the featurable if
+ * {@link Recyclable}, are reset before reuse.
+ * </p>
  */
 public class Factory
 {
@@ -54,19 +62,26 @@ public class Factory
 
     /** Setups list. */
     private final Map<Media, Setup> setups = new HashMap<Media, Setup>();
+    /** Pools by setup and type. */
+    private final Map<Setup, Map<Class<?>, FactoryPool>> pools = new HashMap<Setup, Map<Class<?>, FactoryPool>>();
     /** Services reference. */
     private final Services services;
+    /** Identifiable allocator, resolved once from services. */
+    private final IdentifiableAllocator allocator;
     /** Class loader. */
     private ClassLoader classLoader;
+    /** Pooled flag. */
+    private boolean pooled;
 
     /**
-     * Create a factory.
+     * Create a factory. The {@link IdentifiableAllocator} service, if any, must already be defined.
      * 
      * @param services The services reference.
      */
     public Factory(Services services)
     {
         this.services = services;
+        allocator = IdentifiableAllocator.from(services);
         classLoader = ClassLoader.getSystemClassLoader();
     }
 
@@ -89,14 +104,7 @@ public class Factory
     {
         final Setup setup = getSetup(media);
         final Class<?> type = setup.getConfigClass(classLoader);
-        try
-        {
-            return createFeaturable(type, setup);
-        }
-        catch (final NoSuchMethodException exception)
-        {
-            throw new LionEngineException(exception, ERROR_CONSTRUCTOR_MISSING + media);
-        }
+        return create(media, setup, type);
     }
 
     /**
@@ -118,14 +126,7 @@ public class Factory
     public <O extends Featurable> O create(Media media, Class<O> type)
     {
         final Setup setup = getSetup(media);
-        try
-        {
-            return createFeaturable(type, setup);
-        }
-        catch (final NoSuchMethodException exception)
-        {
-            throw new LionEngineException(exception, ERROR_CONSTRUCTOR_MISSING + media);
-        }
+        return create(media, setup, type);
     }
 
     /**
@@ -138,6 +139,20 @@ public class Factory
         this.classLoader = classLoader;
     }
 
+    /**
+     * Set the pooled mode. Featurables created from now will be reused once destroyed. Disabling it clears the pools.
+     * 
+     * @param pooled <code>true</code> to reuse destroyed featurables, <code>false</code> to always create new ones.
+     */
+    public void setPooled(boolean pooled)
+    {
+        this.pooled = pooled;
+        if (!pooled)
+        {
+            pools.clear();
+        }
+    }
+
     /**
      * Get a setup reference from its media.
      * 
@@ -163,7 +178,7 @@ public class Factory
      */
     private Setup createSetup(Media media)
     {
-        final Configurer configurer = new Configurer(media);
+        final Configurer configurer = new Configurer(media, true);
         try
         {
             final FeaturableConfig config = FeaturableConfig.imports(configurer);
@@ -183,6 +198,68 @@ public class Factory
         }
     }
 
+    /**
+     * Create the featurable, or reuse a pooled one.
+     * 
+     * @param <O> The featurable type.
+     * @param media The featurable media.
+     * @param setup The associated setup.
+     * @param type The featurable type.
+     * @return The featurable instance.
+     * @throws LionEngineException If unable to create featurable.
+     */
+    @SuppressWarnings("unchecked")
+    private <O extends Featurable> O create(Media media, Setup setup, Class<?> type)
+    {
+        FactoryPool pool = null;
+        Featurable featurable = null;
+        if (pooled)
+        {
+            pool = getPool(setup, type);
+            featurable = pool.poll();
+        }
+        if (featurable == null)
+        {
+            try
+            {
+                featurable = createFeaturable(type, setup);
+            }
+            catch (final NoSuchMethodException exception)
+            {
+                throw new LionEngineException(exception, ERROR_CONSTRUCTOR_MISSING + media);
+            }
+            if (pool != null)
+            {
+                pool.track(featurable);
+            }
+        }
+        return (O) featurable;
+    }
+
+    /**
+     * Get the pool of setup and type, created if needed.
+     * 
+     * @param setup The associated setup.
+     * @param type The featurable type.
+     * @return The pool reference.
+     */
+    private FactoryPool getPool(Setup setup, Class<?> type)
+    {
+        Map<Class<?>, FactoryPool> types = pools.get(setup);
+        if (types == null)
+        {
+            types = new HashMap<Class<?>, FactoryPool>();
+            pools.put(setup, types);
+        }
+        FactoryPool pool = types.get(type);
+        if (pool == null)
+        {
+            pool = new FactoryPool();
+            types.put(type, pool);
+        }
+        return pool;
+    }
+
     /**
      * Create the featurable.
      * 
@@ -220,7 +297,7 @@ public class Factory
     {
         if (!featurable.hasFeature(Identifiable.class))
         {
-            featurable.addFeature(new IdentifiableModel());
+            featurable.addFeature(new IdentifiableModel(allocator));
         }
         if (!featurable.isPrepared())
         {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableListener;
+
+/**
+ * Pool of featurables created from the same {@link Setup} and type. Destroyed featurables are released in destruction
+ * order, and can be reused once effectively destroyed ({@link Identifiable#notifyDestroyed()}).
+ * <p>
+ * Only featurables with all their features {@link Recyclable} are tracked. Alive featurables are not referenced by the
+ * pool, only by their own {@link Identifiable} listener, so a featurable never destroyed is not retained.
+ * </p>
+ */
+final class FactoryPool
+{
+    /**
+     * Check if all featurable features are {@link Recyclable}.
+     * 
+     * @param featurable The featurable to check.
+     * @return <code>true</code> if all features are recyclable, <code>false</code> else.
+     */
+    private static boolean isRecyclable(Featurable featurable)
+    {
+        for (final Class<? extends Feature> type : featurable.getFeaturesType())
+        {
+            final Feature feature = featurable.getFeature(type);
+            if (type == feature.getClass() && !(feature instanceof Recyclable))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Recycle featurable and its features, if {@link Recyclable}.
+     * 
+     * @param featurable The featurable to recycle.
+     */
+    private static void recycle(Featurable featurable)
+    {
+        if (featurable instanceof Recyclable)
+        {
+            ((Recyclable) featurable).recycle();
+        }
+        for (final Class<? extends Feature> type : featurable.getFeaturesType())
+        {
+            final Feature feature = featurable.getFeature(type);
+            if (type == feature.getClass() && feature instanceof Recyclable)
+            {
+                ((Recyclable) feature).recycle();
+            }
+        }
+    }
+
+    /** Destroyed featurables, in destruction order. */
+    private final Queue<Featurable> released = new ArrayDeque<Featurable>();
+
+    /**
+     * Create pool.
+     */
+    FactoryPool()
+    {
+        super();
+    }
+
+    /**
+     * Track featurable in order to release it when destroyed. Ignored if not all its features are {@link Recyclable}.
+     * 
+     * @param featurable The featurable to track.
+     */
+    void track(Featurable featurable)
+    {
+        if (isRecyclable(featurable))
+        {
+            featurable.getFeature(Identifiable.class).addListener(new Release(featurable));
+        }
+    }
+
+    /**
+     * Get the oldest released featurable if effectively destroyed, recycled and tracked.
+     * 
+     * @return The recycled featurable, <code>null</code> if none available.
+     */
+    Featurable poll()
+    {
+        final Featurable featurable = released.peek();
+        if (featurable != null && featurable.getFeature(Identifiable.class).getId() == null)
+        {
+            released.poll();
+            recycle(featurable);
+            track(featurable);
+            return featurable;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of released featurables, waiting for reuse.
+     * 
+     * @return The released featurables number.
+     */
+    int getReleased()
+    {
+        return released.size();
+    }
+
+    /**
+     * Release the featurable to the pool when destroyed.
+     */
+    private final class Release implements IdentifiableListener
+    {
+        /** Featurable to release. */
+        private final Featurable featurable;
+
+        /**
+         * Create release.
+         * 
+         * @param featurable The featurable to release.
+         */
+        Release(Featurable featurable)
+        {
+            super();
+
+            this.featurable = featurable;
+        }
+
+        /*
+         * IdentifiableListener
+         */
+
+        @Override
+        public void notifyDestroyed(Integer id)
+        {
+            released.add(featurable);
+        }
+    }
+}
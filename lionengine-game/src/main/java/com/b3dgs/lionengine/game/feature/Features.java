@@ -17,13 +17,19 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import com.b3dgs.lionengine.LionEngineException;
 
 /**
  * Features handler representation. Store features by type, allowing quick access from an interface.
+ * <p>
+ * Types which are not directly stored (such as parent interfaces) are resolved once and cached until the next
+ * {@link #add(Feature)}. The cache is copied on write, so concurrent reads remain safe.
+ * </p>
  */
 public class Features
 {
@@ -32,6 +38,8 @@ public class Features
 
     /** Features handled. */
     private final Map<Class<? extends Feature>, Feature> features;
+    /** Resolved features cache (key is the requested type), replaced on write. */
+    private volatile Map<Class<?>, Feature> resolved = Collections.emptyMap();
 
     /**
      * Create features handler.
@@ -56,6 +64,7 @@ public class Features
                 features.put(type.asSubclass(Feature.class), feature);
             }
         }
+        resolved = Collections.emptyMap();
     }
 
     /**
@@ -68,23 +77,16 @@ public class Features
      */
     public <C extends Feature> C get(Class<C> feature)
     {
-        final C value;
-        if (features.containsKey(feature))
+        Feature value = features.get(feature);
+        if (value == null)
         {
-            value = feature.cast(features.get(feature));
-        }
-        else
-        {
-            for (final Feature current : features.values())
+            value = resolve(feature);
+            if (value == null)
             {
-                if (feature.isAssignableFrom(current.getClass()))
-                {
-                    return feature.cast(current);
-                }
+                throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
             }
-            throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, feature.getName());
         }
-        return value;
+        return feature.cast(value);
     }
 
     /**
@@ -96,23 +98,34 @@ public class Features
      */
     public <C extends Feature> boolean contains(Class<C> feature)
     {
-        final boolean contains;
-        if (features.containsKey(feature))
-        {
-            contains = true;
-        }
-        else
+        return features.containsKey(feature) || resolve(feature) != null;
+    }
+
+    /**
+     * Resolve a feature type not directly stored, by searching the first compatible feature, and cache it.
+     * 
+     * @param feature The feature type.
+     * @return The feature found, <code>null</code> if none.
+     */
+    private Feature resolve(Class<?> feature)
+    {
+        Feature value = resolved.get(feature);
+        if (value == null)
         {
-            for (final Feature current : features.values())
+            final Iterator<Feature> iterator = features.values().iterator();
+            while (value == null && iterator.hasNext())
             {
+                final Feature current = iterator.next();
                 if (feature.isAssignableFrom(current.getClass()))
                 {
-                    return true;
+                    value = current;
+                    final Map<Class<?>, Feature> copy = new HashMap<Class<?>, Feature>(resolved);
+                    copy.put(feature, value);
+                    resolved = copy;
                 }
             }
-            contains = false;
         }
-        return contains;
+        return value;
     }
 
     /**
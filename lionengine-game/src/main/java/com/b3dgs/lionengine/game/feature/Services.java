@@ -18,7 +18,10 @@
 package com.b3dgs.lionengine.game.feature;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
@@ -62,6 +65,8 @@ public class Services
 
     /** Services list. */
     private final Collection<Object> services = new HashSet<Object>();
+    /** Resolved services cache (key is the requested type), cleared on {@link #add(Object)} and replaced on write. */
+    private volatile Map<Class<?>, Object> resolved = Collections.emptyMap();
 
     /**
      * Create a services container.
@@ -167,6 +172,7 @@ public class Services
     {
         Check.notNull(service);
         services.add(service);
+        resolved = Collections.emptyMap();
         return service;
     }
 
@@ -174,7 +180,7 @@ public class Services
      * Get a service from its class.
      * <p>
      * The first instance (previously added with {@link #add(Object)} or {@link #create(Class)}) which fit the required
-     * type is returned.
+     * type is returned. It is cached until the next {@link #add(Object)}.
      * </p>
      * 
      * <pre>
@@ -192,17 +198,69 @@ public class Services
     public <S> S get(Class<S> service)
     {
         Check.notNull(service);
+
+        Object value = resolved.get(service);
+        if (value == null)
+        {
+            value = resolve(service);
+            final Map<Class<?>, Object> copy = new HashMap<Class<?>, Object>(resolved);
+            copy.put(service, value);
+            resolved = copy;
+        }
+        return service.cast(value);
+    }
+
+    /**
+     * Check if a service which fit the required type is defined.
+     * 
+     * @param service The service type.
+     * @return <code>true</code> if service found, <code>false</code> else.
+     * @throws LionEngineException If service is <code>null</code>.
+     */
+    public boolean has(Class<?> service)
+    {
+        Check.notNull(service);
+
+        return resolved.containsKey(service) || find(service) != null;
+    }
+
+    /**
+     * Search the first service which fit the required type.
+     * 
+     * @param service The service type.
+     * @return The service implementation found.
+     * @throws LionEngineException If service not found.
+     */
+    private Object resolve(Class<?> service)
+    {
+        final Object object = find(service);
+        if (object == null)
+        {
+            throw new LionEngineException(ERROR_SERVICE_GET, service.getName());
+        }
+        return object;
+    }
+
+    /**
+     * Search the first service which fit the required type.
+     * 
+     * @param service The service type.
+     * @return The service implementation found, <code>null</code> if none.
+     */
+    private Object find(Class<?> service)
+    {
+        Object found = null;
+        if (service == getClass())
+        {
+            found = this;
+        }
         for (final Object object : services)
         {
             if (service.isAssignableFrom(object.getClass()))
             {
-                return service.cast(object);
+                return object;
             }
         }
-        if (service == getClass())
-        {
-            return service.cast(this);
-        }
-        throw new LionEngineException(ERROR_SERVICE_GET, service.getName());
+        return found;
     }
 }
@@ -32,14 +32,14 @@ public class Setup extends Configurer
     private Class<?> clazz;
 
     /**
-     * Create a setup.
+     * Create a setup, with a lightweight tree (see {@link Configurer#Configurer(Media, boolean)}).
      * 
      * @param config The config media.
      * @throws LionEngineException If error when opening the media.
      */
     public Setup(Media config)
     {
-        super(config);
+        super(config, true);
     }
 
     /**
@@ -22,13 +22,14 @@ import com.b3dgs.lionengine.game.Force;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 
 /**
  * Default body supporting gravity implementation.
  */
-public class BodyModel extends FeatureModel implements Body
+public class BodyModel extends FeatureModel implements Body, Recyclable
 {
     /** Body force. */
     private final Force force = new Force();
@@ -135,4 +136,18 @@ public class BodyModel extends FeatureModel implements Body
     {
         return mass * gravity;
     }
+
+    /*
+     * Recyclable
+     */
+
+    /**
+     * {@inheritDoc}
+     * Reset the current velocity, keep the mass and gravity configuration.
+     */
+    @Override
+    public void recycle()
+    {
+        resetGravity();
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.identifiable;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Unique ID allocator, with constant time {@link #allocate()} and {@link #free(int)}.
+ * <p>
+ * Freed IDs are kept in a lock-free queue, and reused in the order they have been freed, so a freed ID is reused as
+ * late as possible. When the queue is empty, a new ID is taken from a counter.
+ * </p>
+ * <p>
+ * Each allocator is an independent ID space. The {@link #DEFAULT} one is shared, but a world may register its own
+ * allocator in its {@link Services}, which will be used by {@link com.b3dgs.lionengine.game.handler.Handler} and
+ * {@link com.b3dgs.lionengine.game.feature.Factory} created after (see {@link #from(Services)}). They resolve it once
+ * on creation, so featurable creation does not look up services.
+ * </p>
+ * <p>
+ * This class is Thread-Safe.
+ * </p>
+ */
+public final class IdentifiableAllocator
+{
+    /** Default allocator, shared when no allocator service is defined. */
+    public static final IdentifiableAllocator DEFAULT = new IdentifiableAllocator();
+    /** Free ID error. */
+    private static final String ERROR_FREE_ID = "No more free id available !";
+
+    /**
+     * Get the allocator of a world.
+     * 
+     * @param services The services reference (can be <code>null</code>).
+     * @return The allocator service if defined, {@link #DEFAULT} else.
+     */
+    public static IdentifiableAllocator from(Services services)
+    {
+        if (services != null && services.has(IdentifiableAllocator.class))
+        {
+            return services.get(IdentifiableAllocator.class);
+        }
+        return DEFAULT;
+    }
+
+    /** Next never allocated ID. */
+    private final AtomicInteger next = new AtomicInteger();
+    /** Freed IDs, first freed first reused. */
+    private final Queue<Integer> recycle = new ConcurrentLinkedQueue<Integer>();
+
+    /**
+     * Create an allocator, starting from 0.
+     */
+    public IdentifiableAllocator()
+    {
+        super();
+    }
+
+    /**
+     * Allocate a free ID.
+     * 
+     * @return The allocated ID.
+     * @throws LionEngineException If there is more than {@link Integer#MAX_VALUE} at the same time.
+     */
+    public int allocate()
+    {
+        final Integer id = recycle.poll();
+        if (id != null)
+        {
+            return id.intValue();
+        }
+        int current;
+        do
+        {
+            current = next.get();
+            if (current == Integer.MAX_VALUE)
+            {
+                throw new LionEngineException(ERROR_FREE_ID);
+            }
+        }
+        while (!next.compareAndSet(current, current + 1));
+
+        return current;
+    }
+
+    /**
+     * Free an allocated ID, which will be reused after the IDs freed before. Must be called only once per allocated ID.
+     * 
+     * @param id The ID to free.
+     * @throws LionEngineException If invalid ID.
+     */
+    public void free(int id)
+    {
+        Check.superiorOrEqual(id, 0);
+        Check.inferiorStrict(id, next.get());
+
+        recycle.offer(Integer.valueOf(id));
+    }
+}
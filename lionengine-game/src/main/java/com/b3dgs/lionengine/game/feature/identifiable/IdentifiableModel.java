@@ -17,72 +17,55 @@
  */
 package com.b3dgs.lionengine.game.feature.identifiable;
 
-import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Queue;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 
 /**
- * Default identifiable implementation. Handle a list of unique ID, provide the next free ID, and recycle destroyed ID.
+ * Default identifiable implementation. Get a unique ID from an {@link IdentifiableAllocator}, and free it once
+ * destroyed. Once destroyed, {@link #recycle()} provides a new ID.
  */
-public class IdentifiableModel extends FeatureModel implements Identifiable
+public class IdentifiableModel extends FeatureModel implements Identifiable, Recyclable
 {
-    /** ID used (list of active id used). */
-    private static final Collection<Integer> IDS = new HashSet<Integer>();
-    /** Recycle ID (reuse previous removed object ID). */
-    private static final Queue<Integer> RECYCLE = new ArrayDeque<Integer>();
-    /** Free ID error. */
-    private static final String ERROR_FREE_ID = "No more free id available !";
-    /** Last ID used (last maximum id value). */
-    private static int lastId;
-
-    /**
-     * Get the next unused ID.
-     * 
-     * @return The next unused ID.
-     * @throws LionEngineException If there is more than {@link Integer#MAX_VALUE} at the same time.
-     */
-    private static Integer getFreeId()
-    {
-        if (!RECYCLE.isEmpty())
-        {
-            final Integer id = RECYCLE.poll();
-            IDS.add(id);
-            return id;
-        }
-        if (IDS.size() >= Integer.MAX_VALUE)
-        {
-            throw new LionEngineException(ERROR_FREE_ID);
-        }
-        while (IDS.contains(Integer.valueOf(lastId)))
-        {
-            lastId++;
-        }
-        final Integer id = Integer.valueOf(lastId);
-        IDS.add(id);
-        return id;
-    }
-
     /** Listeners. */
     private final Collection<IdentifiableListener> listeners = new HashSet<IdentifiableListener>(1);
+    /** ID allocator. */
+    private final IdentifiableAllocator allocator;
     /** Unique ID. */
-    private final Integer id = getFreeId();
+    private Integer id;
     /** Destroy request flag. */
     private boolean destroy;
     /** Destroyed flag. */
     private boolean destroyed;
 
     /**
-     * Create the identifiable with a unique ID.
+     * Create the identifiable with a unique ID from {@link IdentifiableAllocator#DEFAULT}.
      * 
      * @throws LionEngineException If no free ID available.
      */
     public IdentifiableModel()
+    {
+        this(IdentifiableAllocator.DEFAULT);
+    }
+
+    /**
+     * Create the identifiable with a unique ID from the allocator.
+     * 
+     * @param allocator The ID allocator.
+     * @throws LionEngineException If invalid allocator or no free ID available.
+     */
+    public IdentifiableModel(IdentifiableAllocator allocator)
     {
         super();
+
+        Check.notNull(allocator);
+
+        this.allocator = allocator;
+        id = Integer.valueOf(allocator.allocate());
     }
 
     /*
@@ -127,9 +110,32 @@ public class IdentifiableModel extends FeatureModel implements Identifiable
     @Override
     public void notifyDestroyed()
     {
-        destroyed = true;
-        IDS.remove(id);
-        RECYCLE.add(id);
+        if (!destroyed)
+        {
+            destroyed = true;
+            allocator.free(id.intValue());
+        }
         listeners.clear();
     }
+
+    /*
+     * Recyclable
+     */
+
+    /**
+     * {@inheritDoc}
+     * Get a new ID if destroyed, does nothing else.
+     * 
+     * @throws LionEngineException If no free ID available.
+     */
+    @Override
+    public void recycle()
+    {
+        if (destroyed)
+        {
+            id = Integer.valueOf(allocator.allocate());
+            destroy = false;
+            destroyed = false;
+        }
+    }
 }
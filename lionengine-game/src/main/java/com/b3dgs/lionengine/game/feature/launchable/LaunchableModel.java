@@ -22,13 +22,14 @@ import com.b3dgs.lionengine.game.Force;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 
 /**
  * Default launchable model implementation.
  */
-public class LaunchableModel extends FeatureModel implements Launchable
+public class LaunchableModel extends FeatureModel implements Launchable, Recyclable
 {
     /** Launch timer. */
     private final Timing timer = new Timing();
@@ -98,4 +99,16 @@ public class LaunchableModel extends FeatureModel implements Launchable
     {
         delay = time;
     }
+
+    /*
+     * Recyclable
+     */
+
+    @Override
+    public void recycle()
+    {
+        timer.stop();
+        vector = null;
+        delay = 0L;
+    }
 }
@@ -19,11 +19,12 @@ package com.b3dgs.lionengine.game.feature.mirrorable;
 
 import com.b3dgs.lionengine.Mirror;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 
 /**
  * Default mirrorable implementation.
  */
-public class MirrorableModel extends FeatureModel implements Mirrorable
+public class MirrorableModel extends FeatureModel implements Mirrorable, Recyclable
 {
     /** Mirror state. */
     private Mirror mirror = Mirror.NONE;
@@ -66,4 +67,16 @@ public class MirrorableModel extends FeatureModel implements Mirrorable
     {
         return mirror;
     }
+
+    /*
+     * Recyclable
+     */
+
+    @Override
+    public void recycle()
+    {
+        mirror = Mirror.NONE;
+        nextState = Mirror.NONE;
+        requested = false;
+    }
 }
@@ -21,16 +21,21 @@ import com.b3dgs.lionengine.game.Direction;
 import com.b3dgs.lionengine.game.Mover;
 import com.b3dgs.lionengine.game.MoverModel;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.feature.Recyclable;
 import com.b3dgs.lionengine.game.feature.Setup;
 import com.b3dgs.lionengine.game.feature.SizeConfig;
 
 /**
  * Transformable model implementation.
  */
-public class TransformableModel extends FeatureModel implements Transformable
+public class TransformableModel extends FeatureModel implements Transformable, Recyclable
 {
     /** Mover model. */
     private final Mover mover = new MoverModel();
+    /** Configured width. */
+    private final int initialWidth;
+    /** Configured height. */
+    private final int initialHeight;
     /** Body width. */
     private int width;
     /** Body height. */
@@ -46,6 +51,9 @@ public class TransformableModel extends FeatureModel implements Transformable
     public TransformableModel()
     {
         super();
+
+        initialWidth = 0;
+        initialHeight = 0;
     }
 
     /**
@@ -68,6 +76,8 @@ public class TransformableModel extends FeatureModel implements Transformable
         }
         oldWidth = width;
         oldHeight = height;
+        initialWidth = width;
+        initialHeight = height;
     }
 
     /*
@@ -190,4 +200,22 @@ public class TransformableModel extends FeatureModel implements Transformable
     {
         return oldHeight;
     }
+
+    /*
+     * Recyclable
+     */
+
+    /**
+     * {@inheritDoc}
+     * Teleport to origin and restore the configured size.
+     */
+    @Override
+    public void recycle()
+    {
+        mover.teleport(0.0, 0.0);
+        width = initialWidth;
+        height = initialHeight;
+        oldWidth = width;
+        oldHeight = height;
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Feature;
+
+/**
+ * Types accessed by a {@link ComponentUpdater}, usually {@link Feature} types, declared when added with
+ * {@link Handler#addComponent(ComponentUpdater, ComponentAccess)}.
+ * <p>
+ * Two components conflict if one of them writes a type read or written by the other (types are compared with their
+ * hierarchy). Components which do not conflict may be updated concurrently by the {@link ComponentScheduler}.
+ * </p>
+ * 
+ * @see ComponentScheduler
+ */
+public final class ComponentAccess
+{
+    /** Read types. */
+    private final Class<?>[] reads;
+    /** Written types. */
+    private final Class<?>[] writes;
+
+    /**
+     * Check if one of the types is related to one of the others.
+     * 
+     * @param types The types to check.
+     * @param others The other types.
+     * @return <code>true</code> if at least one type is assignable from or to another, <code>false</code> else.
+     */
+    private static boolean intersects(Class<?>[] types, Class<?>[] others)
+    {
+        for (final Class<?> type : types)
+        {
+            for (final Class<?> other : others)
+            {
+                if (type.isAssignableFrom(other) || other.isAssignableFrom(type))
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create access.
+     * 
+     * @param reads The read only types.
+     * @param writes The written types (written types may also be read).
+     * @throws LionEngineException If <code>null</code> arguments.
+     */
+    public ComponentAccess(Class<?>[] reads, Class<?>[] writes)
+    {
+        Check.notNull(reads);
+        Check.notNull(writes);
+
+        this.reads = Arrays.copyOf(reads, reads.length);
+        this.writes = Arrays.copyOf(writes, writes.length);
+        for (final Class<?> type : this.reads)
+        {
+            Check.notNull(type);
+        }
+        for (final Class<?> type : this.writes)
+        {
+            Check.notNull(type);
+        }
+    }
+
+    /**
+     * Check if access conflicts with another one.
+     * 
+     * @param other The other access.
+     * @return <code>true</code> if conflicting, <code>false</code> if both can be updated concurrently.
+     */
+    public boolean conflicts(ComponentAccess other)
+    {
+        return intersects(writes, other.writes) || intersects(writes, other.reads) || intersects(reads, other.writes);
+    }
+}
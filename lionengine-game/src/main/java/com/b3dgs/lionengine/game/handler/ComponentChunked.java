@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+/**
+ * Updater component updating each object of a type independently from the others, allowing the
+ * {@link ComponentScheduler} to split objects into chunks updated concurrently.
+ * <p>
+ * Chunks are used only if the component has been added with
+ * {@link Handler#addComponent(ComponentUpdater, ComponentAccess)}: each object update must then only access the object
+ * itself and the declared types.
+ * </p>
+ * <p>
+ * The {@link Handler} updates each object with {@link #update(double, Object)}, iterating its objects by index, so
+ * {@link #update(double, Handlables)} must be equivalent to it.
+ * </p>
+ * 
+ * @param <T> The updated objects type.
+ */
+public interface ComponentChunked<T> extends ComponentUpdater
+{
+    /**
+     * Get the type of updated objects.
+     * 
+     * @return The updated objects type.
+     */
+    Class<T> getType();
+
+    /**
+     * Update the object.
+     * 
+     * @param extrp The extrapolation value.
+     * @param object The object to update.
+     */
+    void update(double extrp, T object);
+}
@@ -22,7 +22,7 @@ import com.b3dgs.lionengine.game.feature.refreshable.Refreshable;
 /**
  * Refresher component implementation which refreshes {@link Refreshable} elements.
  */
-public class ComponentRefreshable implements ComponentUpdater
+public class ComponentRefreshable implements ComponentChunked<Refreshable>
 {
     /**
      * Create component.
@@ -32,6 +32,22 @@ public class ComponentRefreshable implements ComponentUpdater
         super();
     }
 
+    /*
+     * ComponentChunked
+     */
+
+    @Override
+    public Class<Refreshable> getType()
+    {
+        return Refreshable.class;
+    }
+
+    @Override
+    public void update(double extrp, Refreshable refreshable)
+    {
+        refreshable.update(extrp);
+    }
+
     /*
      * ComponentUpdater
      */
@@ -0,0 +1,392 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Updater components scheduler, allowing {@link Handler} to update components concurrently. Enabled with
+ * {@link Handler#setScheduler(ComponentScheduler)}.
+ * <p>
+ * Components are updated in their adding order, by phases: consecutive components added with a
+ * {@link ComponentAccess} which do not conflict with each other are updated concurrently, others are updated alone.
+ * Objects of a {@link ComponentChunked} added with a {@link ComponentAccess} are also split into chunks updated
+ * concurrently. The {@link #update(double)} caller thread takes part to the work, and waits for the end of each phase,
+ * so only the other threads are workers.
+ * </p>
+ * <p>
+ * In deterministic mode, the same phases and chunks are updated in order on the caller thread, which must produce the
+ * same result as long as the declared accesses are right.
+ * </p>
+ * 
+ * @see ComponentAccess
+ * @see ComponentChunked
+ */
+public class ComponentScheduler
+{
+    /** Default minimum objects per chunk. */
+    public static final int DEFAULT_CHUNK = 256;
+    /** Error update. */
+    private static final String ERROR_UPDATE = "Component update failed !";
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "ComponentScheduler";
+
+    /**
+     * Get the end of the phase starting at index, which is the first component conflicting with the previous ones.
+     * 
+     * @param accesses The components access (<code>null</code> if not declared).
+     * @param start The phase first component index.
+     * @return The phase end index (excluded).
+     */
+    private static int getPhaseEnd(List<ComponentAccess> accesses, int start)
+    {
+        final int n = accesses.size();
+        int end = start + 1;
+        if (accesses.get(start) != null)
+        {
+            while (end < n && !conflicts(accesses, start, end))
+            {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Check if component conflicts with the phase components.
+     * 
+     * @param accesses The components access (<code>null</code> if not declared).
+     * @param start The phase first component index.
+     * @param index The component index.
+     * @return <code>true</code> if conflicting, <code>false</code> else.
+     */
+    private static boolean conflicts(List<ComponentAccess> accesses, int start, int index)
+    {
+        final ComponentAccess access = accesses.get(index);
+        boolean conflicts = access == null;
+        for (int i = start; i < index && !conflicts; i++)
+        {
+            conflicts = access.conflicts(accesses.get(i));
+        }
+        return conflicts;
+    }
+
+    /** Phase tasks (reused between updates). */
+    private final List<Task> tasks = new ArrayList<Task>();
+    /** Running tasks. */
+    private final List<Future<?>> futures = new ArrayList<Future<?>>();
+    /** Workers (<code>null</code> if caller thread only). */
+    private final ExecutorService executor;
+    /** Maximum chunks per component. */
+    private final int threads;
+    /** Phase tasks number. */
+    private int count;
+    /** Minimum objects per chunk. */
+    private int chunk = DEFAULT_CHUNK;
+    /** Deterministic flag. */
+    private boolean deterministic;
+
+    /**
+     * Create scheduler, with one worker per available processor.
+     */
+    public ComponentScheduler()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create scheduler.
+     * 
+     * @param threads The number of threads, including the caller one (must be strictly positive).
+     * @throws LionEngineException If invalid threads number.
+     */
+    public ComponentScheduler(int threads)
+    {
+        Check.superiorStrict(threads, 0);
+
+        this.threads = threads;
+        if (threads > 1)
+        {
+            executor = Executors.newFixedThreadPool(threads - 1, new ThreadFactory()
+            {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    final Thread thread = new Thread(runnable, THREAD_NAME);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        else
+        {
+            executor = null;
+        }
+    }
+
+    /**
+     * Set the deterministic mode.
+     * 
+     * @param deterministic <code>true</code> to update all components and chunks in order on the caller thread,
+     *            <code>false</code> to update them concurrently.
+     */
+    public void setDeterministic(boolean deterministic)
+    {
+        this.deterministic = deterministic;
+    }
+
+    /**
+     * Set the minimum objects number per chunk.
+     * 
+     * @param chunk The minimum objects per chunk (must be strictly positive).
+     * @throws LionEngineException If invalid chunk size.
+     */
+    public void setChunk(int chunk)
+    {
+        Check.superiorStrict(chunk, 0);
+
+        this.chunk = chunk;
+    }
+
+    /**
+     * Stop workers. Scheduler must not be used anymore.
+     */
+    public void stop()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Update the components.
+     * 
+     * @param extrp The extrapolation value.
+     * @param updaters The components to update.
+     * @param accesses The components access (<code>null</code> if not declared).
+     * @param featurables The featurables reference.
+     * @throws LionEngineException If a component update failed.
+     */
+    void update(double extrp,
+                List<ComponentUpdater> updaters,
+                List<ComponentAccess> accesses,
+                HandlablesImpl featurables)
+    {
+        final int n = updaters.size();
+        int start = 0;
+        while (start < n)
+        {
+            final int end = getPhaseEnd(accesses, start);
+            for (int i = start; i < end; i++)
+            {
+                prepare(extrp, updaters.get(i), accesses.get(i) != null, featurables);
+            }
+            if (deterministic || count == 1 || executor == null)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    tasks.get(i).run();
+                }
+            }
+            else
+            {
+                runConcurrent();
+            }
+            count = 0;
+            start = end;
+        }
+    }
+
+    /**
+     * Prepare the component tasks.
+     * 
+     * @param extrp The extrapolation value.
+     * @param component The component to update.
+     * @param declared <code>true</code> if component access has been declared, <code>false</code> else.
+     * @param featurables The featurables reference.
+     */
+    private void prepare(double extrp, ComponentUpdater component, boolean declared, HandlablesImpl featurables)
+    {
+        HandlableList list = null;
+        if (declared && component instanceof ComponentChunked<?>)
+        {
+            list = featurables.getList(((ComponentChunked<?>) component).getType());
+        }
+        if (list == null)
+        {
+            nextTask().set(extrp, component, featurables, null, 0, 0);
+        }
+        else
+        {
+            final int size = list.size();
+            final int chunks = Math.max(1, Math.min(threads, size / chunk));
+            for (int i = 0; i < chunks; i++)
+            {
+                nextTask().set(extrp, component, featurables, list, i * size / chunks, (i + 1) * size / chunks);
+            }
+        }
+    }
+
+    /**
+     * Get the next available task.
+     * 
+     * @return The task to prepare.
+     */
+    private Task nextTask()
+    {
+        if (count == tasks.size())
+        {
+            tasks.add(new Task());
+        }
+        return tasks.get(count++);
+    }
+
+    /**
+     * Run tasks on workers, and the first one on the caller thread, then wait for all of them.
+     * 
+     * @throws LionEngineException If a task failed.
+     */
+    private void runConcurrent()
+    {
+        for (int i = 1; i < count; i++)
+        {
+            futures.add(executor.submit(tasks.get(i)));
+        }
+        try
+        {
+            tasks.get(0).run();
+        }
+        finally
+        {
+            await();
+        }
+    }
+
+    /**
+     * Wait for all running tasks.
+     * 
+     * @throws LionEngineException If a task failed.
+     */
+    private void await()
+    {
+        try
+        {
+            for (final Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_UPDATE);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception, ERROR_UPDATE);
+        }
+        finally
+        {
+            futures.clear();
+        }
+    }
+
+    /**
+     * Component update task, on all objects or on a chunk of objects.
+     */
+    private static final class Task implements Runnable
+    {
+        /** Extrapolation value. */
+        private double extrp;
+        /** Component reference. */
+        private ComponentUpdater component;
+        /** Featurables reference. */
+        private HandlablesImpl featurables;
+        /** Chunk objects, <code>null</code> for whole component update. */
+        private HandlableList list;
+        /** Chunk start index. */
+        private int start;
+        /** Chunk end index (excluded). */
+        private int end;
+
+        /**
+         * Create task.
+         */
+        Task()
+        {
+            super();
+        }
+
+        /**
+         * Set task data.
+         * 
+         * @param extrp The extrapolation value.
+         * @param component The component reference.
+         * @param featurables The featurables reference.
+         * @param list The chunk objects, <code>null</code> for whole component update.
+         * @param start The chunk start index.
+         * @param end The chunk end index (excluded).
+         */
+        void set(double extrp,
+                 ComponentUpdater component,
+                 HandlablesImpl featurables,
+                 HandlableList list,
+                 int start,
+                 int end)
+        {
+            this.extrp = extrp;
+            this.component = component;
+            this.featurables = featurables;
+            this.list = list;
+            this.start = start;
+            this.end = end;
+        }
+
+        /*
+         * Runnable
+         */
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run()
+        {
+            if (list == null)
+            {
+                featurables.update(extrp, component);
+            }
+            else
+            {
+                final ComponentChunked<Object> chunked = (ComponentChunked<Object>) component;
+                for (int i = start; i < end; i++)
+                {
+                    chunked.update(extrp, list.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,697 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.geom.Rectangle;
+
+/**
+ * Spatial index component, storing the {@link Transformable} featurables location in a uniform grid, allowing to find
+ * them by area instead of checking each of them.
+ * <p>
+ * Locations are indexed on each {@link #update(double, Handlables)}, and only featurables which changed of cell are
+ * moved. Queries use the indexed cells and the current locations, so a featurable moved since the last update may be
+ * missed until the next one. Each query has a variant notifying a {@link QueryListener}, which does not allocate.
+ * </p>
+ * <p>
+ * Cells are stored by their packed location, which supports up to 32768 cells on each side of the origin.
+ * </p>
+ * 
+ * @see Handler#addComponent(ComponentUpdater)
+ */
+public class ComponentSpatialIndex implements ComponentUpdater, HandlerListener
+{
+    /** Default capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Packed cell index shift. */
+    private static final int KEY_SHIFT = 16;
+    /** Packed cell index mask. */
+    private static final int KEY_MASK = 0xFFFF;
+    /** Cell key hash multiplier. */
+    private static final int HASH_MIX = 0x9E3779B9;
+
+    /**
+     * Get the packed cell key.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     * @return The cell key.
+     */
+    private static int getKey(int cx, int cy)
+    {
+        return cx << KEY_SHIFT | cy & KEY_MASK;
+    }
+
+    /**
+     * Get the squared distance between location and entry.
+     * 
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param entry The entry reference.
+     * @return The squared distance.
+     */
+    private static double getDistance(double x, double y, Entry entry)
+    {
+        final double dx = entry.transformable.getX() - x;
+        final double dy = entry.transformable.getY() - y;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Notify listener if entry has the expected feature.
+     * 
+     * @param <I> The feature type.
+     * @param entry The found entry.
+     * @param type The expected feature type.
+     * @param listener The listener to notify.
+     */
+    private static <I extends Feature> void notifyFound(Entry entry,
+                                                        Class<I> type,
+                                                        QueryListener<? super I> listener)
+    {
+        if (entry.featurable.hasFeature(type))
+        {
+            listener.notifyFound(entry.featurable.getFeature(type));
+        }
+    }
+
+    /** Indexed featurables. */
+    private final Map<Featurable, Entry> indexed = new HashMap<Featurable, Entry>();
+    /** Cell width. */
+    private final double cellWidth;
+    /** Cell height. */
+    private final double cellHeight;
+    /** Indexed entries. */
+    private Entry[] entries = new Entry[DEFAULT_CAPACITY];
+    /** Indexed entries number. */
+    private int count;
+    /** Cells keys, by hash. */
+    private int[] keys = new int[DEFAULT_CAPACITY];
+    /** Cells, by hash, <code>null</code> for free slot. */
+    private Cell[] cells = new Cell[DEFAULT_CAPACITY];
+    /** Cells number. */
+    private int cellsCount;
+    /** Minimum horizontal cell index used. */
+    private int minCx = Integer.MAX_VALUE;
+    /** Minimum vertical cell index used. */
+    private int minCy = Integer.MAX_VALUE;
+    /** Maximum horizontal cell index used. */
+    private int maxCx = Integer.MIN_VALUE;
+    /** Maximum vertical cell index used. */
+    private int maxCy = Integer.MIN_VALUE;
+    /** Nearest entry found by last search. */
+    private Entry nearest;
+    /** Nearest entry squared distance. */
+    private double nearestDistance;
+
+    /**
+     * Create the spatial index.
+     * 
+     * @param cellWidth The cell width (must be strictly positive).
+     * @param cellHeight The cell height (must be strictly positive).
+     * @throws LionEngineException If invalid size.
+     */
+    public ComponentSpatialIndex(int cellWidth, int cellHeight)
+    {
+        super();
+
+        Check.superiorStrict(cellWidth, 0);
+        Check.superiorStrict(cellHeight, 0);
+
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+    }
+
+    /**
+     * Get the featurables with the expected feature, located inside area.
+     * 
+     * @param <I> The feature type.
+     * @param area The area to search.
+     * @param type The expected feature type.
+     * @return The found features.
+     */
+    public <I extends Feature> Collection<I> queryRect(Rectangle area, Class<I> type)
+    {
+        final Collection<I> found = new ArrayList<I>();
+        queryRect(area, type, new Collector<I>(found));
+        return found;
+    }
+
+    /**
+     * Notify the featurables with the expected feature, located inside area.
+     * 
+     * @param <I> The feature type.
+     * @param area The area to search.
+     * @param type The expected feature type.
+     * @param listener The listener notified for each found feature.
+     */
+    public <I extends Feature> void queryRect(Rectangle area, Class<I> type, QueryListener<? super I> listener)
+    {
+        final int ex = Math.min(maxCx, getCellX(area.getMaxX()));
+        final int ey = Math.min(maxCy, getCellY(area.getMaxY()));
+        for (int cy = Math.max(minCy, getCellY(area.getMinY())); cy <= ey; cy++)
+        {
+            for (int cx = Math.max(minCx, getCellX(area.getMinX())); cx <= ex; cx++)
+            {
+                queryCell(cells[findSlot(getKey(cx, cy))], area, type, listener);
+            }
+        }
+    }
+
+    /**
+     * Get the featurables with the expected feature, located inside circle.
+     * 
+     * @param <I> The feature type.
+     * @param x The horizontal circle center.
+     * @param y The vertical circle center.
+     * @param radius The circle radius.
+     * @param type The expected feature type.
+     * @return The found features.
+     */
+    public <I extends Feature> Collection<I> queryRadius(double x, double y, double radius, Class<I> type)
+    {
+        final Collection<I> found = new ArrayList<I>();
+        queryRadius(x, y, radius, type, new Collector<I>(found));
+        return found;
+    }
+
+    /**
+     * Notify the featurables with the expected feature, located inside circle.
+     * 
+     * @param <I> The feature type.
+     * @param x The horizontal circle center.
+     * @param y The vertical circle center.
+     * @param radius The circle radius.
+     * @param type The expected feature type.
+     * @param listener The listener notified for each found feature.
+     */
+    public <I extends Feature> void queryRadius(double x,
+                                                double y,
+                                                double radius,
+                                                Class<I> type,
+                                                QueryListener<? super I> listener)
+    {
+        final double squared = radius * radius;
+        final int ex = Math.min(maxCx, getCellX(x + radius));
+        final int ey = Math.min(maxCy, getCellY(y + radius));
+        for (int cy = Math.max(minCy, getCellY(y - radius)); cy <= ey; cy++)
+        {
+            for (int cx = Math.max(minCx, getCellX(x - radius)); cx <= ex; cx++)
+            {
+                queryCell(cells[findSlot(getKey(cx, cy))], x, y, squared, type, listener);
+            }
+        }
+    }
+
+    /**
+     * Notify the cell featurables with the expected feature, located inside area.
+     * 
+     * @param <I> The feature type.
+     * @param cell The cell to search (can be <code>null</code>).
+     * @param area The area to search.
+     * @param type The expected feature type.
+     * @param listener The listener notified for each found feature.
+     */
+    private <I extends Feature> void queryCell(Cell cell,
+                                               Rectangle area,
+                                               Class<I> type,
+                                               QueryListener<? super I> listener)
+    {
+        for (int i = 0; cell != null && i < cell.count; i++)
+        {
+            final Entry entry = cell.entries[i];
+            if (area.contains(entry.transformable.getX(), entry.transformable.getY()))
+            {
+                notifyFound(entry, type, listener);
+            }
+        }
+    }
+
+    /**
+     * Notify the cell featurables with the expected feature, located inside circle.
+     * 
+     * @param <I> The feature type.
+     * @param cell The cell to search (can be <code>null</code>).
+     * @param x The horizontal circle center.
+     * @param y The vertical circle center.
+     * @param squared The squared circle radius.
+     * @param type The expected feature type.
+     * @param listener The listener notified for each found feature.
+     */
+    private <I extends Feature> void queryCell(Cell cell,
+                                               double x,
+                                               double y,
+                                               double squared,
+                                               Class<I> type,
+                                               QueryListener<? super I> listener)
+    {
+        for (int i = 0; cell != null && i < cell.count; i++)
+        {
+            final Entry entry = cell.entries[i];
+            if (getDistance(x, y, entry) <= squared)
+            {
+                notifyFound(entry, type, listener);
+            }
+        }
+    }
+
+    /**
+     * Get the nearest featurable with the expected feature.
+     * 
+     * @param <I> The feature type.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param type The expected feature type.
+     * @return The nearest feature, <code>null</code> if none.
+     */
+    public <I extends Feature> I nearest(double x, double y, Class<I> type)
+    {
+        return findNearest(x, y, type, null);
+    }
+
+    /**
+     * Get the nearest other featurable with the expected feature.
+     * 
+     * @param <I> The feature type.
+     * @param featurable The featurable reference, excluded from search (must be {@link Transformable}).
+     * @param type The expected feature type.
+     * @return The nearest feature, <code>null</code> if none.
+     */
+    public <I extends Feature> I nearest(Featurable featurable, Class<I> type)
+    {
+        final Transformable transformable = featurable.getFeature(Transformable.class);
+        return findNearest(transformable.getX(), transformable.getY(), type, featurable);
+    }
+
+    /**
+     * Find the nearest featurable, searching by cells rings around location, until no closer one can be found.
+     * 
+     * @param <I> The feature type.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param type The expected feature type.
+     * @param ignore The featurable to ignore (can be <code>null</code>).
+     * @return The nearest feature, <code>null</code> if none.
+     */
+    private <I extends Feature> I findNearest(double x, double y, Class<I> type, Featurable ignore)
+    {
+        nearest = null;
+        nearestDistance = Double.MAX_VALUE;
+
+        final int cx = getCellX(x);
+        final int cy = getCellY(y);
+        int rings = -1;
+        if (cellsCount > 0)
+        {
+            rings = Math.max(Math.max(cx - minCx, maxCx - cx), Math.max(cy - minCy, maxCy - cy));
+        }
+        final double size = Math.min(cellWidth, cellHeight);
+        for (int ring = 0; ring <= rings && !isNearestFound(ring, size); ring++)
+        {
+            searchRing(cx, cy, ring, x, y, type, ignore);
+        }
+
+        I found = null;
+        if (nearest != null)
+        {
+            found = nearest.featurable.getFeature(type);
+            nearest = null;
+        }
+        return found;
+    }
+
+    /**
+     * Check if nearest entry is closer than any entry of the ring.
+     * 
+     * @param ring The ring index.
+     * @param size The minimum cell size.
+     * @return <code>true</code> if nearest found, <code>false</code> else.
+     */
+    private boolean isNearestFound(int ring, double size)
+    {
+        final double min = (ring - 1) * size;
+        return nearest != null && ring > 0 && nearestDistance <= min * min;
+    }
+
+    /**
+     * Search the nearest entry in the cells at ring distance from cell.
+     * 
+     * @param cx The horizontal center cell index.
+     * @param cy The vertical center cell index.
+     * @param ring The ring index.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param type The expected feature type.
+     * @param ignore The featurable to ignore (can be <code>null</code>).
+     */
+    private void searchRing(int cx,
+                            int cy,
+                            int ring,
+                            double x,
+                            double y,
+                            Class<? extends Feature> type,
+                            Featurable ignore)
+    {
+        for (int ox = -ring; ox <= ring; ox++)
+        {
+            searchCell(cx + ox, cy - ring, x, y, type, ignore);
+            if (ring > 0)
+            {
+                searchCell(cx + ox, cy + ring, x, y, type, ignore);
+            }
+        }
+        for (int oy = 1 - ring; oy < ring; oy++)
+        {
+            searchCell(cx - ring, cy + oy, x, y, type, ignore);
+            searchCell(cx + ring, cy + oy, x, y, type, ignore);
+        }
+    }
+
+    /**
+     * Search the nearest entry in the cell.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @param type The expected feature type.
+     * @param ignore The featurable to ignore (can be <code>null</code>).
+     */
+    private void searchCell(int cx, int cy, double x, double y, Class<? extends Feature> type, Featurable ignore)
+    {
+        final Cell cell = cells[findSlot(getKey(cx, cy))];
+        for (int i = 0; cell != null && i < cell.count; i++)
+        {
+            final Entry entry = cell.entries[i];
+            final double distance = getDistance(x, y, entry);
+            if (distance < nearestDistance && entry.featurable != ignore && entry.featurable.hasFeature(type))
+            {
+                nearest = entry;
+                nearestDistance = distance;
+            }
+        }
+    }
+
+    /**
+     * Get the horizontal cell index.
+     * 
+     * @param x The horizontal location.
+     * @return The horizontal cell index.
+     */
+    private int getCellX(double x)
+    {
+        return (int) Math.floor(x / cellWidth);
+    }
+
+    /**
+     * Get the vertical cell index.
+     * 
+     * @param y The vertical location.
+     * @return The vertical cell index.
+     */
+    private int getCellY(double y)
+    {
+        return (int) Math.floor(y / cellHeight);
+    }
+
+    /**
+     * Find the slot of the cell key, or the free slot where to store it.
+     * 
+     * @param key The cell key.
+     * @return The slot index.
+     */
+    private int findSlot(int key)
+    {
+        final int mask = cells.length - 1;
+        int slot = (key ^ key >>> KEY_SHIFT) * HASH_MIX & mask;
+        while (cells[slot] != null && keys[slot] != key)
+        {
+            slot = slot + 1 & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Get the cell, create it if not existing.
+     * 
+     * @param cx The horizontal cell index.
+     * @param cy The vertical cell index.
+     * @return The cell reference.
+     */
+    private Cell getCell(int cx, int cy)
+    {
+        final int key = getKey(cx, cy);
+        int slot = findSlot(key);
+        if (cells[slot] == null)
+        {
+            if ((cellsCount + 1) * 2 > cells.length)
+            {
+                grow();
+                slot = findSlot(key);
+            }
+            keys[slot] = key;
+            cells[slot] = new Cell();
+            cellsCount++;
+            minCx = Math.min(minCx, cx);
+            minCy = Math.min(minCy, cy);
+            maxCx = Math.max(maxCx, cx);
+            maxCy = Math.max(maxCy, cy);
+        }
+        return cells[slot];
+    }
+
+    /**
+     * Double the cells capacity, and store them again.
+     */
+    private void grow()
+    {
+        final int[] oldKeys = keys;
+        final Cell[] oldCells = cells;
+        keys = new int[oldKeys.length * 2];
+        cells = new Cell[oldCells.length * 2];
+        for (int i = 0; i < oldCells.length; i++)
+        {
+            if (oldCells[i] != null)
+            {
+                final int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                cells[slot] = oldCells[i];
+            }
+        }
+    }
+
+    /**
+     * Store the entry in the cell of its current location.
+     * 
+     * @param entry The entry to store.
+     */
+    private void store(Entry entry)
+    {
+        entry.cx = getCellX(entry.transformable.getX());
+        entry.cy = getCellY(entry.transformable.getY());
+        entry.cell = getCell(entry.cx, entry.cy);
+        entry.cell.add(entry);
+    }
+
+    /*
+     * ComponentUpdater
+     */
+
+    @Override
+    public void update(double extrp, Handlables featurables)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final Entry entry = entries[i];
+            if (entry.cx != getCellX(entry.transformable.getX()) || entry.cy != getCellY(entry.transformable.getY()))
+            {
+                entry.cell.remove(entry);
+                store(entry);
+            }
+        }
+    }
+
+    /*
+     * HandlerListener
+     */
+
+    @Override
+    public void notifyHandlableAdded(Featurable featurable)
+    {
+        if (featurable.hasFeature(Transformable.class) && !indexed.containsKey(featurable))
+        {
+            final Entry entry = new Entry(featurable, featurable.getFeature(Transformable.class));
+            if (count == entries.length)
+            {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entry.index = count;
+            entries[count] = entry;
+            count++;
+            indexed.put(featurable, entry);
+            store(entry);
+        }
+    }
+
+    @Override
+    public void notifyHandlableRemoved(Featurable featurable)
+    {
+        final Entry entry = indexed.remove(featurable);
+        if (entry != null)
+        {
+            entry.cell.remove(entry);
+            count--;
+            entries[entry.index] = entries[count];
+            entries[entry.index].index = entry.index;
+            entries[count] = null;
+        }
+    }
+
+    /**
+     * Notified for each feature found by a query.
+     * 
+     * @param <I> The feature type.
+     */
+    public interface QueryListener<I>
+    {
+        /**
+         * Notify a feature has been found.
+         * 
+         * @param found The found feature.
+         */
+        void notifyFound(I found);
+    }
+
+    /**
+     * Query listener storing the found features.
+     * 
+     * @param <I> The feature type.
+     */
+    private static final class Collector<I> implements QueryListener<I>
+    {
+        /** Found features. */
+        private final Collection<I> found;
+
+        /**
+         * Create collector.
+         * 
+         * @param found The found features.
+         */
+        Collector(Collection<I> found)
+        {
+            this.found = found;
+        }
+
+        @Override
+        public void notifyFound(I feature)
+        {
+            found.add(feature);
+        }
+    }
+
+    /**
+     * Indexed featurable.
+     */
+    private static final class Entry
+    {
+        /** Featurable reference. */
+        private final Featurable featurable;
+        /** Transformable reference. */
+        private final Transformable transformable;
+        /** Current cell. */
+        private Cell cell;
+        /** Horizontal cell index. */
+        private int cx;
+        /** Vertical cell index. */
+        private int cy;
+        /** Index inside entries. */
+        private int index;
+        /** Index inside cell. */
+        private int slot;
+
+        /**
+         * Create entry.
+         * 
+         * @param featurable The featurable reference.
+         * @param transformable The transformable reference.
+         */
+        Entry(Featurable featurable, Transformable transformable)
+        {
+            this.featurable = featurable;
+            this.transformable = transformable;
+        }
+    }
+
+    /**
+     * Grid cell, referencing the entries it contains.
+     */
+    private static final class Cell
+    {
+        /** Entries. */
+        private Entry[] entries = new Entry[DEFAULT_CAPACITY];
+        /** Entries number. */
+        private int count;
+
+        /**
+         * Create cell.
+         */
+        Cell()
+        {
+            super();
+        }
+
+        /**
+         * Add an entry.
+         * 
+         * @param entry The entry to add.
+         */
+        void add(Entry entry)
+        {
+            if (count == entries.length)
+            {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entry.slot = count;
+            entries[count] = entry;
+            count++;
+        }
+
+        /**
+         * Remove an entry, replaced by the last one.
+         * 
+         * @param entry The entry to remove.
+         */
+        void remove(Entry entry)
+        {
+            count--;
+            entries[entry.slot] = entries[count];
+            entries[entry.slot].slot = entry.slot;
+            entries[count] = null;
+        }
+    }
+}
@@ -23,7 +23,7 @@ import com.b3dgs.lionengine.Updatable;
  * Updater component implementation which updates {@link Updatable} elements with an extrapolation value (
  * {@link Updatable#update(double)}).
  */
-public class ComponentUpdatable implements ComponentUpdater
+public class ComponentUpdatable implements ComponentChunked<Updatable>
 {
     /**
      * Create component.
@@ -33,6 +33,22 @@ public class ComponentUpdatable implements ComponentUpdater
         super();
     }
 
+    /*
+     * ComponentChunked
+     */
+
+    @Override
+    public Class<Updatable> getType()
+    {
+        return Updatable.class;
+    }
+
+    @Override
+    public void update(double extrp, Updatable updatable)
+    {
+        updatable.update(extrp);
+    }
+
     /*
      * ComponentUpdater
      */
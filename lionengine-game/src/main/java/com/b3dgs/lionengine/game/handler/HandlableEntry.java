@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import com.b3dgs.lionengine.game.feature.Featurable;
+
+/**
+ * Handled featurable storage entry, referencing all its objects slots in the typed lists.
+ */
+final class HandlableEntry
+{
+    /** Featurable reference. */
+    private final Featurable featurable;
+    /** Lists containing the featurable objects. */
+    private final HandlableList[] lists;
+    /** Objects indexes in their list. */
+    private final int[] indexes;
+    /** Slots count. */
+    private int count;
+
+    /**
+     * Create entry.
+     * 
+     * @param featurable The featurable reference.
+     * @param capacity The maximum number of slots.
+     */
+    HandlableEntry(Featurable featurable, int capacity)
+    {
+        this.featurable = featurable;
+        lists = new HandlableList[capacity];
+        indexes = new int[capacity];
+    }
+
+    /**
+     * Add the object to each list.
+     * 
+     * @param object The object reference.
+     * @param types The object lists.
+     */
+    void add(Object object, HandlableList[] types)
+    {
+        for (final HandlableList list : types)
+        {
+            add(object, list);
+        }
+    }
+
+    /**
+     * Add the object to the list.
+     * 
+     * @param object The object reference.
+     * @param list The object list.
+     */
+    void add(Object object, HandlableList list)
+    {
+        lists[count] = list;
+        indexes[count] = list.add(object, this, count);
+        count++;
+    }
+
+    /**
+     * Remove all objects from their list.
+     */
+    void remove()
+    {
+        for (int i = count - 1; i >= 0; i--)
+        {
+            lists[i].remove(indexes[i]);
+            lists[i] = null;
+        }
+        count = 0;
+    }
+
+    /**
+     * Update the object index of a slot, after it has been moved in its list.
+     * 
+     * @param slot The slot index.
+     * @param index The new object index.
+     */
+    void setIndex(int slot, int index)
+    {
+        indexes[slot] = index;
+    }
+
+    /**
+     * Get the featurable.
+     * 
+     * @return The featurable reference.
+     */
+    Featurable getFeaturable()
+    {
+        return featurable;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Dense array storage of handled objects of the same type, with a stable iteration order (insertion order, changed
+ * only by removals which move the last object to the removed slot).
+ * <p>
+ * Each stored object is owned by an entry, which keeps its slot index, so removal is done in constant time by
+ * swapping with the last object. Iteration reads the array directly, with a small cursor for each loop, so an
+ * iteration left early (break or return) has no side effect. Handler updates read it by index, without cursor.
+ * </p>
+ * <p>
+ * This class is not Thread-Safe, except for concurrent iterations when not modified.
+ * </p>
+ */
+final class HandlableList implements Iterable<Object>
+{
+    /** Initial capacity. */
+    private static final int CAPACITY = 16;
+
+    /** Stored objects. */
+    private Object[] values = new Object[CAPACITY];
+    /** Entries owning the stored objects. */
+    private HandlableEntry[] owners = new HandlableEntry[CAPACITY];
+    /** Owner slot index of each stored object. */
+    private int[] slots = new int[CAPACITY];
+    /** Stored objects number. */
+    private int size;
+
+    /**
+     * Create list.
+     */
+    HandlableList()
+    {
+        super();
+    }
+
+    /**
+     * Add an object.
+     * 
+     * @param value The object to add.
+     * @param owner The owner entry.
+     * @param slot The owner slot index.
+     * @return The object index in list.
+     */
+    int add(Object value, HandlableEntry owner, int slot)
+    {
+        if (size == values.length)
+        {
+            final int capacity = values.length * 2;
+            values = Arrays.copyOf(values, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        values[size] = value;
+        owners[size] = owner;
+        slots[size] = slot;
+        return size++;
+    }
+
+    /**
+     * Remove the object at index, by moving the last object to its index.
+     * 
+     * @param index The object index.
+     */
+    void remove(int index)
+    {
+        size--;
+        if (index < size)
+        {
+            values[index] = values[size];
+            owners[index] = owners[size];
+            slots[index] = slots[size];
+            owners[index].setIndex(slots[index], index);
+        }
+        values[size] = null;
+        owners[size] = null;
+    }
+
+    /**
+     * Get the stored objects number.
+     * 
+     * @return The stored objects number.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the object at index.
+     * 
+     * @param index The object index.
+     * @return The object reference.
+     */
+    Object get(int index)
+    {
+        return values[index];
+    }
+
+    /*
+     * Iterable
+     */
+
+    @Override
+    public Iterator<Object> iterator()
+    {
+        return new Cursor();
+    }
+
+    /**
+     * List iterator.
+     */
+    private final class Cursor implements Iterator<Object>
+    {
+        /** Next index. */
+        private int next;
+
+        /**
+         * Create cursor.
+         */
+        Cursor()
+        {
+            super();
+        }
+
+        /*
+         * Iterator
+         */
+
+        @Override
+        public boolean hasNext()
+        {
+            return next < size;
+        }
+
+        @Override
+        public Object next()
+        {
+            if (next >= size)
+            {
+                throw new NoSuchElementException();
+            }
+            return values[next++];
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -17,12 +17,13 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.feature.Featurable;
@@ -32,51 +33,82 @@ import com.b3dgs.lionengine.util.UtilReflection;
 
 /**
  * Handlables implementation.
+ * <p>
+ * Objects are stored in dense lists by type. The types of each concrete featurable and feature class are resolved
+ * once, and cached as the list of their typed lists.
+ * </p>
  */
 final class HandlablesImpl implements Handlables
 {
     /** Featurable not found error. */
     private static final String ERROR_FEATURABLE_NOT_FOUND = "Featurable not found: ";
 
-    /** List of featurables (key is the featurable ID). */
-    private final Map<Integer, Featurable> featurables;
-    /** List of typed items (key is the feature type). */
-    private final Map<Class<?>, Set<Object>> items;
+    /** List of featurables entry (key is the featurable ID). */
+    private final Map<Integer, HandlableEntry> entries;
+    /** List of typed items (key is the type). */
+    private final Map<Class<?>, HandlableList> items;
+    /** Cached lists of featurable class (key is the featurable class). */
+    private final Map<Class<?>, HandlableList[]> featurablesTypes;
+    /** Cached lists of feature class (key is the feature class). */
+    private final Map<Class<?>, HandlableList[]> featuresTypes;
+    /** All featurables. */
+    private final HandlableList featurables;
+    /** Current featurable features cache. */
+    private final List<Feature> features;
+    /** Current featurable features lists cache. */
+    private final List<HandlableList[]> types;
 
     /**
      * Create the handlables.
      */
     HandlablesImpl()
     {
-        featurables = new HashMap<Integer, Featurable>();
-        items = new HashMap<Class<?>, Set<Object>>();
+        entries = new HashMap<Integer, HandlableEntry>();
+        items = new HashMap<Class<?>, HandlableList>();
+        featurablesTypes = new HashMap<Class<?>, HandlableList[]>();
+        featuresTypes = new HashMap<Class<?>, HandlableList[]>();
+        featurables = new HandlableList();
+        features = new ArrayList<Feature>();
+        types = new ArrayList<HandlableList[]>();
     }
 
     /**
-     * Add a featurable.
+     * Add a featurable. Does nothing if already added.
      * 
      * @param featurable The featurable to add.
      */
     public void add(Featurable featurable)
     {
-        featurables.put(featurable.getFeature(Identifiable.class).getId(), featurable);
-
-        for (final Class<?> type : featurable.getClass().getInterfaces())
+        final Integer id = featurable.getFeature(Identifiable.class).getId();
+        if (!entries.containsKey(id))
         {
-            addType(type, featurable);
-        }
+            final HandlableList[] featurableTypes = getFeaturableTypes(featurable.getClass());
+            int capacity = 1 + featurableTypes.length;
+            for (final Class<? extends Feature> type : featurable.getFeaturesType())
+            {
+                final Feature feature = featurable.getFeature(type);
+                if (type == feature.getClass())
+                {
+                    final HandlableList[] featureTypes = getFeatureTypes(type);
+                    features.add(feature);
+                    types.add(featureTypes);
+                    capacity += featureTypes.length;
+                }
+            }
 
-        for (final Class<? extends Feature> feature : featurable.getFeaturesType())
-        {
-            final Feature object = featurable.getFeature(feature);
-            addType(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
+            final HandlableEntry entry = new HandlableEntry(featurable, capacity);
+            entry.add(featurable, featurableTypes);
+            final int n = features.size();
+            for (int i = 0; i < n; i++)
             {
-                addType(other, object);
+                entry.add(features.get(i), types.get(i));
             }
+            entry.add(featurable, featurables);
+            entries.put(id, entry);
+
+            features.clear();
+            types.clear();
         }
-        addType(featurable.getClass(), featurable);
-        addSuperClass(featurable, featurable.getClass());
     }
 
     /**
@@ -86,103 +118,166 @@ final class HandlablesImpl implements Handlables
      */
     public void remove(Featurable featurable)
     {
-        for (final Class<?> type : featurable.getClass().getInterfaces())
-        {
-            remove(type, featurable);
-        }
+        remove(featurable.getFeature(Identifiable.class).getId());
+    }
 
-        for (final Class<? extends Feature> feature : featurable.getFeaturesType())
+    /**
+     * Remove the featurable and all its references. Does nothing if not found.
+     * 
+     * @param id The featurable ID.
+     */
+    public void remove(Integer id)
+    {
+        final HandlableEntry entry = entries.remove(id);
+        if (entry != null)
         {
-            final Feature object = featurable.getFeature(feature);
-            remove(feature, object);
-            for (final Class<?> other : UtilReflection.getInterfaces(feature, Feature.class))
-            {
-                remove(other, object);
-            }
-
+            entry.remove();
         }
-        remove(featurable.getClass(), featurable);
-        removeSuperClass(featurable, featurable.getClass());
+    }
 
-        featurables.remove(featurable.getFeature(Identifiable.class).getId());
+    /**
+     * Check if featurable is handled.
+     * 
+     * @param id The featurable ID.
+     * @return <code>true</code> if handled, <code>false</code> else.
+     */
+    public boolean contains(Integer id)
+    {
+        return entries.containsKey(id);
     }
 
     /**
-     * Get all featurables ID.
+     * Get the number of handled featurables.
      * 
-     * @return The IDs list.
+     * @return The featurables number.
      */
-    public Collection<Integer> getIds()
+    public int size()
     {
-        return featurables.keySet();
+        return featurables.size();
     }
 
     /**
-     * Add a type from its interface.
+     * Get the list of a type.
      * 
-     * @param type The type interface.
-     * @param object The type value.
+     * @param type The expected type.
+     * @return The type list, <code>null</code> if none.
      */
-    private void addType(Class<?> type, Object object)
+    HandlableList getList(Class<?> type)
     {
-        if (!items.containsKey(type))
-        {
-            items.put(type, new HashSet<Object>());
-        }
-        items.get(type).add(object);
+        return items.get(type);
     }
 
     /**
-     * Add object parent super type.
+     * Update the component. Objects of a {@link ComponentChunked} are updated by index, without iterator.
      * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
+     * @param extrp The extrapolation value.
+     * @param component The component to update.
      */
-    private void addSuperClass(Object object, Class<?> type)
+    @SuppressWarnings("unchecked")
+    void update(double extrp, ComponentUpdater component)
     {
-        for (final Class<?> types : type.getInterfaces())
+        if (component instanceof ComponentChunked<?>)
         {
-            addType(types, object);
+            final ComponentChunked<Object> chunked = (ComponentChunked<Object>) component;
+            final HandlableList list = items.get(chunked.getType());
+            final int n;
+            if (list == null)
+            {
+                n = 0;
+            }
+            else
+            {
+                n = list.size();
+            }
+            for (int i = 0; i < n; i++)
+            {
+                chunked.update(extrp, list.get(i));
+            }
         }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
+        else
         {
-            addSuperClass(object, parent);
+            component.update(extrp, this);
         }
     }
 
     /**
-     * Remove object parent super type.
+     * Get all featurables ID.
+     * 
+     * @return The IDs list.
+     */
+    public Collection<Integer> getIds()
+    {
+        return entries.keySet();
+    }
+
+    /**
+     * Get the lists of a featurable class: its interfaces, itself and its parents interfaces.
      * 
-     * @param object The current object to check.
-     * @param type The current class level to check.
+     * @param featurable The featurable class.
+     * @return The featurable lists.
      */
-    private void removeSuperClass(Object object, Class<?> type)
+    private HandlableList[] getFeaturableTypes(Class<?> featurable)
     {
-        for (final Class<?> types : type.getInterfaces())
+        HandlableList[] lists = featurablesTypes.get(featurable);
+        if (lists == null)
         {
-            remove(types, object);
+            final Collection<Class<?>> found = new LinkedHashSet<Class<?>>();
+            Collections.addAll(found, featurable.getInterfaces());
+            found.add(featurable);
+            Class<?> current = featurable;
+            while (current != null)
+            {
+                Collections.addAll(found, current.getInterfaces());
+                current = current.getSuperclass();
+            }
+            lists = getLists(found);
+            featurablesTypes.put(featurable, lists);
         }
-        final Class<?> parent = type.getSuperclass();
-        if (parent != null)
+        return lists;
+    }
+
+    /**
+     * Get the lists of a feature class: itself and its feature interfaces.
+     * 
+     * @param feature The feature class.
+     * @return The feature lists.
+     */
+    private HandlableList[] getFeatureTypes(Class<?> feature)
+    {
+        HandlableList[] lists = featuresTypes.get(feature);
+        if (lists == null)
         {
-            removeSuperClass(object, parent);
+            final Collection<Class<?>> found = new LinkedHashSet<Class<?>>();
+            found.add(feature);
+            found.addAll(UtilReflection.getInterfaces(feature, Feature.class));
+            lists = getLists(found);
+            featuresTypes.put(feature, lists);
         }
+        return lists;
     }
 
     /**
-     * Remove the object from its type list.
+     * Get the lists of types, created if needed.
      * 
-     * @param type The type reference.
-     * @param object The object reference.
+     * @param found The types.
+     * @return The types lists.
      */
-    private void remove(Class<?> type, Object object)
+    private HandlableList[] getLists(Collection<Class<?>> found)
     {
-        final Set<?> set = items.get(type);
-        if (set != null)
+        final HandlableList[] lists = new HandlableList[found.size()];
+        int i = 0;
+        for (final Class<?> type : found)
         {
-            set.remove(object);
+            HandlableList list = items.get(type);
+            if (list == null)
+            {
+                list = new HandlableList();
+                items.put(type, list);
+            }
+            lists[i] = list;
+            i++;
         }
+        return lists;
     }
 
     /*
@@ -192,10 +287,10 @@ final class HandlablesImpl implements Handlables
     @Override
     public Featurable get(Integer id)
     {
-        final Featurable featurable = featurables.get(id);
-        if (featurable != null)
+        final HandlableEntry entry = entries.get(id);
+        if (entry != null)
         {
-            return featurable;
+            return entry.getFeaturable();
         }
         throw new LionEngineException(ERROR_FEATURABLE_NOT_FOUND, String.valueOf(id));
     }
@@ -204,17 +299,18 @@ final class HandlablesImpl implements Handlables
     @SuppressWarnings("unchecked")
     public <I> Iterable<I> get(Class<I> type)
     {
-        final Set<?> featurables = items.get(type);
-        if (featurables != null)
+        final HandlableList list = items.get(type);
+        if (list != null)
         {
-            return (Iterable<I>) featurables;
+            return (Iterable<I>) list;
         }
         return Collections.emptySet();
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Iterable<Featurable> values()
     {
-        return featurables.values();
+        return (Iterable<Featurable>) (Iterable<?>) featurables;
     }
 }
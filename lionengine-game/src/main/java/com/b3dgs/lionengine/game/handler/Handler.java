@@ -20,11 +20,15 @@ package com.b3dgs.lionengine.game.handler;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Updatable;
 import com.b3dgs.lionengine.game.feature.Featurable;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableAllocator;
 import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableListener;
 import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
 import com.b3dgs.lionengine.graphic.Graphic;
@@ -33,6 +37,9 @@ import com.b3dgs.lionengine.graphic.Renderable;
 /**
  * Designed to handle {@link Featurable}, updating and rendering a set of components.
  * Modifications on the list can be done at any time because they are applied at the beginning of the next update.
+ * <p>
+ * Updater components are updated sequentially, or by the {@link ComponentScheduler} if set.
+ * </p>
  * 
  * @see HandlerListener
  * @see ComponentUpdater
@@ -41,26 +48,36 @@ import com.b3dgs.lionengine.graphic.Renderable;
 public class Handler implements Handlables, Updatable, Renderable, IdentifiableListener
 {
     /** Handler listeners. */
-    private final Collection<HandlerListener> listeners = new HashSet<HandlerListener>();
+    private final List<HandlerListener> listeners = new ArrayList<HandlerListener>();
     /** List of components. */
-    private final Collection<ComponentUpdater> updaters = new ArrayList<ComponentUpdater>();
+    private final List<ComponentUpdater> updaters = new ArrayList<ComponentUpdater>();
+    /** Components access (<code>null</code> if not declared). */
+    private final List<ComponentAccess> accesses = new ArrayList<ComponentAccess>();
     /** List of components. */
     private final Collection<ComponentRenderer> renderers = new ArrayList<ComponentRenderer>();
     /** List of items. */
     private final HandlablesImpl featurables = new HandlablesImpl();
     /** To add list. */
-    private final Collection<Featurable> toAdd = new HashSet<Featurable>();
+    private final List<Featurable> toAdd = new ArrayList<Featurable>();
     /** To delete list. */
-    private final Collection<Integer> toDelete = new HashSet<Integer>();
+    private final List<Integer> toDelete = new ArrayList<Integer>();
+    /** To delete IDs, to ignore an ID already in to delete list (removed and destroyed). */
+    private final Collection<Integer> toDeleteIds = new HashSet<Integer>();
+    /** To delete list not found, removed after add (when removed before being added). */
+    private final List<Integer> toDeleteAdded = new ArrayList<Integer>();
     /** Services reference. */
     private final Services services;
+    /** Identifiable allocator, resolved once from services. */
+    private final IdentifiableAllocator allocator;
+    /** Components scheduler (<code>null</code> for sequential update). */
+    private ComponentScheduler scheduler;
     /** Will delete flag. */
     private boolean willDelete;
     /** Will add flag. */
     private boolean willAdd;
 
     /**
-     * Create a handler.
+     * Create a handler. The {@link IdentifiableAllocator} service, if any, must already be defined.
      * 
      * @param services The services reference.
      */
@@ -68,6 +85,7 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     {
         super();
         this.services = services;
+        allocator = IdentifiableAllocator.from(services);
     }
 
     /**
@@ -77,7 +95,10 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
      */
     public final void addListener(HandlerListener listener)
     {
-        listeners.add(listener);
+        if (!listeners.contains(listener))
+        {
+            listeners.add(listener);
+        }
     }
 
     /**
@@ -99,6 +120,7 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     public final void addComponent(ComponentUpdater component)
     {
         updaters.add(component);
+        accesses.add(null);
         services.add(component);
         if (component instanceof HandlerListener)
         {
@@ -106,6 +128,33 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
         }
     }
 
+    /**
+     * Add an updater component with its declared access, allowing the {@link ComponentScheduler} to update it
+     * concurrently with non conflicting components, and by chunks if {@link ComponentChunked}. Automatically added to
+     * {@link Services} and {@link #addListener(HandlerListener)} if interface compatible.
+     * 
+     * @param component The component to add.
+     * @param access The types accessed by the component update.
+     * @throws LionEngineException If <code>null</code> access.
+     */
+    public final void addComponent(ComponentUpdater component, ComponentAccess access)
+    {
+        Check.notNull(access);
+
+        addComponent(component);
+        accesses.set(accesses.size() - 1, access);
+    }
+
+    /**
+     * Set the updater components scheduler.
+     * 
+     * @param scheduler The scheduler reference, <code>null</code> to update components sequentially.
+     */
+    public final void setScheduler(ComponentScheduler scheduler)
+    {
+        this.scheduler = scheduler;
+    }
+
     /**
      * Add a renderer component. Automatically added to {@link Services} and {@link #addListener(HandlerListener)} if
      * interface compatible.
@@ -139,7 +188,7 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     {
         if (!featurable.hasFeature(Identifiable.class))
         {
-            featurable.addFeature(new IdentifiableModel());
+            featurable.addFeature(new IdentifiableModel(allocator));
         }
         if (!featurable.isPrepared())
         {
@@ -159,8 +208,7 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
      */
     public final void remove(Featurable featurable)
     {
-        toDelete.add(featurable.getFeature(Identifiable.class).getId());
-        willDelete = true;
+        delete(featurable.getFeature(Identifiable.class).getId());
     }
 
     /**
@@ -170,8 +218,10 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
      */
     public final void removeAll()
     {
-        toDelete.addAll(featurables.getIds());
-        willDelete = true;
+        for (final Integer id : featurables.getIds())
+        {
+            delete(id);
+        }
     }
 
     /**
@@ -181,7 +231,41 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
      */
     public final int size()
     {
-        return featurables.getIds().size();
+        return featurables.size();
+    }
+
+    /**
+     * Add the featurable ID to the delete list, if not already in it. An ID is removed once per update, so a duplicate
+     * cannot remove a featurable added during the same update with the recycled ID.
+     * 
+     * @param id The featurable ID.
+     */
+    private void delete(Integer id)
+    {
+        if (toDeleteIds.add(id))
+        {
+            toDelete.add(id);
+            willDelete = true;
+        }
+    }
+
+    /**
+     * Check if the featurable ID belongs to a featurable waiting to be added.
+     * 
+     * @param id The featurable ID.
+     * @return <code>true</code> if waiting to be added, <code>false</code> else.
+     */
+    private boolean isAdding(Integer id)
+    {
+        final int n = toAdd.size();
+        for (int i = 0; i < n; i++)
+        {
+            if (id.equals(toAdd.get(i).getFeature(Identifiable.class).getId()))
+            {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -191,12 +275,13 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     {
         if (willAdd)
         {
-            for (final Featurable featurable : toAdd)
+            for (int i = 0; i < toAdd.size(); i++)
             {
-                featurables.add(featurable);
-                for (final HandlerListener listener : listeners)
+                final Featurable featurable = toAdd.get(i);
+                if (!featurables.contains(featurable.getFeature(Identifiable.class).getId()))
                 {
-                    listener.notifyHandlableAdded(featurable);
+                    featurables.add(featurable);
+                    notifyAdded(featurable);
                 }
             }
             toAdd.clear();
@@ -206,26 +291,88 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
 
     /**
      * Update the remove list. Remove from main list and notify listeners. Notify featurable destroyed.
+     * Featurables not found but waiting to be added are kept to be removed after {@link #updateAdd()}.
      */
     private void updateRemove()
     {
         if (willDelete)
         {
-            for (final Integer id : toDelete)
+            for (int i = 0; i < toDelete.size(); i++)
             {
-                final Featurable featurable = featurables.get(id);
-                featurables.remove(featurable);
-                for (final HandlerListener listener : listeners)
+                final Integer id = toDelete.get(i);
+                if (featurables.contains(id))
                 {
-                    listener.notifyHandlableRemoved(featurable);
+                    removeFeaturable(id);
+                }
+                else if (isAdding(id))
+                {
+                    toDeleteAdded.add(id);
                 }
-                featurable.getFeature(Identifiable.class).notifyDestroyed();
             }
             toDelete.clear();
+            toDeleteIds.clear();
             willDelete = false;
         }
     }
 
+    /**
+     * Remove featurables which were not found by {@link #updateRemove()}, as they may have been added since.
+     */
+    private void updateRemoveAdded()
+    {
+        final int n = toDeleteAdded.size();
+        for (int i = 0; i < n; i++)
+        {
+            final Integer id = toDeleteAdded.get(i);
+            if (featurables.contains(id))
+            {
+                removeFeaturable(id);
+            }
+        }
+        toDeleteAdded.clear();
+    }
+
+    /**
+     * Remove featurable from main list and notify listeners. Notify featurable destroyed.
+     * 
+     * @param id The featurable ID.
+     */
+    private void removeFeaturable(Integer id)
+    {
+        final Featurable featurable = featurables.get(id);
+        featurables.remove(id);
+        notifyRemoved(featurable);
+        featurable.getFeature(Identifiable.class).notifyDestroyed();
+    }
+
+    /**
+     * Notify listeners that featurable has been added.
+     * 
+     * @param featurable The added featurable.
+     */
+    private void notifyAdded(Featurable featurable)
+    {
+        final int n = listeners.size();
+        for (int i = 0; i < n; i++)
+        {
+            listeners.get(i).notifyHandlableAdded(featurable);
+        }
+    }
+
+    /**
+     * Notify listeners that featurable has been removed.
+     * 
+     * @param featurable The removed featurable.
+     */
+    private void notifyRemoved(Featurable featurable)
+    {
+        final int n = listeners.size();
+        for (int i = 0; i < n; i++)
+        {
+            listeners.get(i).notifyHandlableRemoved(featurable);
+        }
+    }
+
     /*
      * Handlables
      */
@@ -257,9 +404,18 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     {
         updateRemove();
         updateAdd();
-        for (final ComponentUpdater component : updaters)
+        updateRemoveAdded();
+        if (scheduler == null)
+        {
+            final int n = updaters.size();
+            for (int i = 0; i < n; i++)
+            {
+                featurables.update(extrp, updaters.get(i));
+            }
+        }
+        else
         {
-            component.update(extrp, featurables);
+            scheduler.update(extrp, updaters, accesses, featurables);
         }
     }
 
@@ -283,7 +439,6 @@ public class Handler implements Handlables, Updatable, Renderable, IdentifiableL
     @Override
     public final void notifyDestroyed(Integer id)
     {
-        toDelete.add(id);
-        willDelete = true;
+        delete(id);
     }
 }
@@ -21,8 +21,9 @@ import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.drawable.Drawable;
 import com.b3dgs.lionengine.drawable.Sprite;
-import com.b3dgs.lionengine.drawable.SpriteTiled;
 import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.game.tile.TileHashIndex;
+import com.b3dgs.lionengine.game.tile.TileRows;
 import com.b3dgs.lionengine.game.tile.TilesExtractor;
 import com.b3dgs.lionengine.graphic.ImageBuffer;
 
@@ -30,6 +31,10 @@ import com.b3dgs.lionengine.graphic.ImageBuffer;
  * This class allows to convert a map image to a map level format.
  * The color [0-128-128] ({@link TilesExtractor#IGNORED_COLOR_VALUE}) is ignored (can be used to skip tile, in order to
  * improve performance).
+ * <p>
+ * Sheets tiles are indexed by content with a {@link TileHashIndex}, and level rip rows are read in parallel with
+ * {@link TileRows}. Tiles are set, and progress notified, on the caller thread in the level rip order.
+ * </p>
  */
 public final class LevelRipConverter
 {
@@ -85,129 +90,123 @@ public final class LevelRipConverter
         int lastPercent = 0;
         int errors = 0;
 
+        final TileHashIndex<Tile> index = createIndex(map);
         final ImageBuffer tileRef = imageMap.getSurface();
-        for (int progressTileY = 0; progressTileY < imageTilesInY; progressTileY++)
+        final TileRows rows = new TileRows(tileRef, index);
+        try
         {
-            for (int progressTileX = 0; progressTileX < imageTilesInX; progressTileX++)
+            for (int progressTileY = 0; progressTileY < imageTilesInY; progressTileY++)
             {
-                if (!checkPixel(map, tileRef, progressTileX, progressTileY))
+                final TileRows.Row row = rows.get(progressTileY);
+                for (int progressTileX = 0; progressTileX < imageTilesInX; progressTileX++)
                 {
-                    errors++;
-                }
-
-                final int percent = (int) Math.round(progress / progressMax * 100);
-                if (listener != null && percent != lastPercent)
-                {
-                    listener.notifyProgress(percent, progressTileX, progressTileY);
-                }
-                lastPercent = percent;
-                progress++;
-
-                if (canceler != null && canceler.isCanceled())
-                {
-                    tileRef.dispose();
-                    return errors;
+                    if (!checkPixel(map, index, row, progressTileX, progressTileY))
+                    {
+                        errors++;
+                    }
+
+                    final int percent = (int) Math.round(progress / progressMax * 100);
+                    if (listener != null && percent != lastPercent)
+                    {
+                        listener.notifyProgress(percent, progressTileX, progressTileY);
+                    }
+                    lastPercent = percent;
+                    progress++;
+
+                    if (canceler != null && canceler.isCanceled())
+                    {
+                        return errors;
+                    }
                 }
             }
         }
-
-        tileRef.dispose();
+        finally
+        {
+            rows.close();
+            tileRef.dispose();
+        }
         return errors;
     }
 
     /**
-     * Check the pixel by searching tile on sheet.
+     * Index all sheets tiles, in sheets order. A tile present several times is only indexed for its first occurrence.
      * 
-     * @param map The destination map reference.
-     * @param tileRef The tile sheet.
-     * @param progressTileX The progress on horizontal tiles.
-     * @param progressTileY The progress on vertical tiles.
-     * @return <code>true</code> if tile found, <code>false</code> else.
+     * @param map The map reference.
+     * @return The tiles index, with tiles location set to 0.
      */
-    private static boolean checkPixel(MapTile map, ImageBuffer tileRef, int progressTileX, int progressTileY)
+    private static TileHashIndex<Tile> createIndex(MapTile map)
     {
-        final int x = progressTileX * map.getTileWidth();
-        final int y = progressTileY * map.getTileHeight();
-        final int pixel = tileRef.getRgb(x, y);
-
-        // Skip blank tile of image map
-        if (TilesExtractor.IGNORED_COLOR_VALUE != pixel)
+        final TileHashIndex<Tile> index = new TileHashIndex<Tile>(map.getTileWidth(), map.getTileHeight());
+        for (final Integer sheet : map.getSheets())
         {
-            // Search if tile is on sheet and get it
-            final Tile tile = searchForTile(map, tileRef, progressTileX, progressTileY);
-            if (tile == null)
-            {
-                return false;
-            }
-            map.setTile(tile);
+            indexSheet(map, index, sheet);
         }
-        return true;
+        return index;
     }
 
     /**
-     * Search current tile of image map by checking all surfaces.
+     * Index the sheet tiles, in tile number order.
      * 
-     * @param map The destination map reference.
-     * @param tileSprite The tiled sprite
-     * @param x The location x.
-     * @param y The location y.
-     * @return The tile found.
+     * @param map The map reference.
+     * @param index The tiles index.
+     * @param sheet The sheet number.
      */
-    private static Tile searchForTile(MapTile map, ImageBuffer tileSprite, int x, int y)
+    private static void indexSheet(MapTile map, TileHashIndex<Tile> index, Integer sheet)
     {
-        // Check each tile on each sheet
-        for (final Integer sheet : map.getSheets())
+        final TileRows rows = new TileRows(map.getSheet(sheet).getSurface(), index);
+        try
         {
-            final Tile tile = checkTile(map, tileSprite, sheet, x, y);
-            if (tile != null)
+            final int tilesInX = rows.getTilesHorizontal();
+            for (int ty = 0; ty < rows.getTilesVertical(); ty++)
             {
-                return tile;
+                final TileRows.Row row = rows.get(ty);
+                for (int tx = 0; tx < tilesInX; tx++)
+                {
+                    final Tile tile = map.createTile(sheet, tx + ty * tilesInX, 0.0, 0.0);
+                    index.add(row.getPixels(), row.getOffset(tx), row.getScansize(), row.getHash(tx), tile);
+                }
             }
         }
-
-        // No tile found
-        return null;
+        finally
+        {
+            rows.close();
+        }
     }
 
     /**
-     * Check tile of sheet.
+     * Check the pixel by searching tile on sheet.
      * 
      * @param map The destination map reference.
-     * @param tileSprite The tiled sprite
-     * @param sheet The sheet number.
-     * @param x The location x.
-     * @param y The location y.
-     * @return The tile found.
+     * @param index The sheets tiles index.
+     * @param row The current level rip tiles row.
+     * @param progressTileX The progress on horizontal tiles.
+     * @param progressTileY The progress on vertical tiles.
+     * @return <code>true</code> if tile found, <code>false</code> else.
      */
-    private static Tile checkTile(MapTile map, ImageBuffer tileSprite, Integer sheet, int x, int y)
+    private static boolean checkPixel(MapTile map,
+                                      TileHashIndex<Tile> index,
+                                      TileRows.Row row,
+                                      int progressTileX,
+                                      int progressTileY)
     {
-        final int tw = map.getTileWidth();
-        final int th = map.getTileHeight();
-        final SpriteTiled tileSheet = map.getSheet(sheet);
-        final ImageBuffer sheetImage = tileSheet.getSurface();
-        final int tilesInX = tileSheet.getWidth() / tw;
-        final int tilesInY = tileSheet.getHeight() / th;
-
-        for (int surfaceCurrentTileY = 0; surfaceCurrentTileY < tilesInY; surfaceCurrentTileY++)
+        // Skip blank tile of image map
+        if (TilesExtractor.IGNORED_COLOR_VALUE != row.getPixel(progressTileX))
         {
-            for (int surfaceCurrentTileX = 0; surfaceCurrentTileX < tilesInX; surfaceCurrentTileX++)
+            // Search if tile is on sheet and get it
+            final Tile found = index.get(row.getPixels(),
+                                         row.getOffset(progressTileX),
+                                         row.getScansize(),
+                                         row.getHash(progressTileX));
+            if (found == null)
             {
-                // Tile number on tile sheet
-                final int number = surfaceCurrentTileX + surfaceCurrentTileY * tilesInX;
-
-                // Compare tiles between sheet and image map
-                final int xa = x * tw;
-                final int ya = y * th;
-                final int xb = surfaceCurrentTileX * tw;
-                final int yb = surfaceCurrentTileY * th;
-
-                if (TilesExtractor.compareTile(tw, th, tileSprite, xa, ya, sheetImage, xb, yb))
-                {
-                    return map.createTile(sheet, number, xa, (map.getInTileHeight() - 1.0 - y) * th);
-                }
+                return false;
             }
+            final int th = map.getTileHeight();
+            final double x = progressTileX * (double) map.getTileWidth();
+            final double y = (map.getInTileHeight() - 1.0 - progressTileY) * th;
+            map.setTile(map.createTile(found.getSheet(), found.getNumber(), x, y));
         }
-        return null;
+        return true;
     }
 
     /**
@@ -150,6 +150,20 @@ public interface MapTile extends Surface, Featurable
      */
     void clear();
 
+    /**
+     * Add a tile set listener, notified on each {@link #setTile(Tile)}.
+     * 
+     * @param listener The listener to add.
+     */
+    void addListener(TileSetListener listener);
+
+    /**
+     * Remove a tile set listener.
+     * 
+     * @param listener The listener to remove.
+     */
+    void removeListener(TileSetListener listener);
+
     /**
      * Set a tile at specified map location.
      * <p>
@@ -158,6 +172,9 @@ public interface MapTile extends Surface, Featurable
      * <p>
      * If a tile exists at the tile location, it will be removed.
      * </p>
+     * <p>
+     * Listeners added with {@link #addListener(TileSetListener)} are notified.
+     * </p>
      * 
      * @param tile The tile reference.
      * @throws LionEngineException If outside map range.
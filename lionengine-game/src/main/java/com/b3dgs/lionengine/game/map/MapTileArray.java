@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Tile based map stored in flat primitive arrays, instead of one {@link Tile} instance per location. Designed for large
+ * maps, where {@link MapTileGame} would create millions of objects.
+ * <p>
+ * Only the sheet and the number of each tile are stored. Tiles returned by {@link #getTile(int, int)} are lightweight
+ * views, created on demand: they must not be compared by reference, and a view is not updated if its tile is replaced.
+ * Their features are stored by the map, in a {@link TileFeatureColumn} when one has been added for the feature type,
+ * else in a per tile {@link Featurable}.
+ * </p>
+ * <p>
+ * Features must be added on tiles returned by {@link #getTile(int, int)}, as {@link #setTile(Tile)} only copies the
+ * given tile data.
+ * </p>
+ * 
+ * @see TileFeatureColumn
+ */
+public class MapTileArray extends MapTileGame
+{
+    /** Feature not found error. */
+    private static final String ERROR_FEATURE_NOT_FOUND = "Feature not found: ";
+    /** No tile value. */
+    private static final short NO_TILE = -1;
+
+    /** Features columns. */
+    private final Map<Class<? extends Feature>, Column<?>> columns = new HashMap<Class<? extends Feature>, Column<?>>();
+    /** Features not stored in column, by tile index. */
+    private final Map<Integer, Featurable> featurables = new HashMap<Integer, Featurable>();
+    /** Tiles sheet, {@link #NO_TILE} if no tile. */
+    private short[] sheets;
+    /** Tiles number. */
+    private int[] numbers;
+
+    /**
+     * Create a map tile.
+     */
+    public MapTileArray()
+    {
+        super();
+    }
+
+    /**
+     * Add a feature storage. All tiles features of this type will be stored by the column. Previous features of this
+     * type are lost.
+     * 
+     * @param <F> The feature type.
+     * @param type The feature type.
+     * @param column The feature column.
+     * @throws LionEngineException If invalid arguments.
+     */
+    public <F extends Feature> void addColumn(Class<F> type, TileFeatureColumn<F> column)
+    {
+        Check.notNull(type);
+        Check.notNull(column);
+
+        if (sheets != null)
+        {
+            column.create(sheets.length);
+        }
+        columns.put(type, new Column<F>(type, column));
+    }
+
+    /**
+     * Add a feature to tile.
+     * 
+     * @param index The tile index.
+     * @param feature The feature to add.
+     */
+    void addFeature(int index, Feature feature)
+    {
+        boolean stored = false;
+        for (final Column<?> column : columns.values())
+        {
+            if (column.set(index, feature))
+            {
+                stored = true;
+            }
+        }
+        if (!stored)
+        {
+            final Integer key = Integer.valueOf(index);
+            Featurable featurable = featurables.get(key);
+            if (featurable == null)
+            {
+                featurable = new FeaturableModel();
+                featurables.put(key, featurable);
+            }
+            featurable.addFeature(feature);
+        }
+    }
+
+    /**
+     * Get a tile feature.
+     * 
+     * @param <C> The feature type.
+     * @param tile The tile reference.
+     * @param index The tile index.
+     * @param type The feature type.
+     * @return The feature found.
+     * @throws LionEngineException If feature not found.
+     */
+    <C extends Feature> C getFeature(Tile tile, int index, Class<C> type)
+    {
+        final Column<?> column = getColumn(index, type);
+        final C feature;
+        if (column != null)
+        {
+            feature = type.cast(column.get(tile, index));
+        }
+        else
+        {
+            final Featurable featurable = featurables.get(Integer.valueOf(index));
+            if (featurable == null)
+            {
+                throw new LionEngineException(ERROR_FEATURE_NOT_FOUND, type.getName());
+            }
+            feature = featurable.getFeature(type);
+        }
+        return feature;
+    }
+
+    /**
+     * Get the tile features.
+     * 
+     * @param tile The tile reference.
+     * @param index The tile index.
+     * @return The features found.
+     */
+    Iterable<Feature> getFeatures(Tile tile, int index)
+    {
+        final List<Feature> features = new ArrayList<Feature>();
+        for (final Column<?> column : columns.values())
+        {
+            if (column.has(index))
+            {
+                features.add(column.get(tile, index));
+            }
+        }
+        final Featurable featurable = featurables.get(Integer.valueOf(index));
+        if (featurable != null)
+        {
+            for (final Feature feature : featurable.getFeatures())
+            {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Get the tile features type.
+     * 
+     * @param index The tile index.
+     * @return The features type found.
+     */
+    Iterable<Class<? extends Feature>> getFeaturesType(int index)
+    {
+        final List<Class<? extends Feature>> types = new ArrayList<Class<? extends Feature>>();
+        for (final Column<?> column : columns.values())
+        {
+            if (column.has(index))
+            {
+                types.add(column.type);
+            }
+        }
+        final Featurable featurable = featurables.get(Integer.valueOf(index));
+        if (featurable != null)
+        {
+            for (final Class<? extends Feature> type : featurable.getFeaturesType())
+            {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Check if tile has feature.
+     * 
+     * @param index The tile index.
+     * @param type The feature type.
+     * @return <code>true</code> if has feature, <code>false</code> else.
+     */
+    boolean hasFeature(int index, Class<? extends Feature> type)
+    {
+        final Featurable featurable = featurables.get(Integer.valueOf(index));
+        return getColumn(index, type) != null || featurable != null && featurable.hasFeature(type);
+    }
+
+    /**
+     * Prepare the tile features not stored in column.
+     * 
+     * @param index The tile index.
+     * @param services The services reference.
+     */
+    void prepareFeatures(int index, Services services)
+    {
+        final Featurable featurable = featurables.get(Integer.valueOf(index));
+        if (featurable != null)
+        {
+            featurable.prepareFeatures(services);
+        }
+    }
+
+    /**
+     * Check if tile features are prepared.
+     * 
+     * @param index The tile index.
+     * @return <code>true</code> if prepared, <code>false</code> else.
+     */
+    boolean isPrepared(int index)
+    {
+        final Featurable featurable = featurables.get(Integer.valueOf(index));
+        return featurable == null || featurable.isPrepared();
+    }
+
+    /**
+     * Get the column storing the tile feature.
+     * 
+     * @param index The tile index.
+     * @param type The feature type.
+     * @return The column found, <code>null</code> if none.
+     */
+    private Column<?> getColumn(int index, Class<? extends Feature> type)
+    {
+        final Column<?> column = columns.get(type);
+        if (column != null && column.has(index))
+        {
+            return column;
+        }
+        return findColumn(index, type);
+    }
+
+    /**
+     * Find the column storing a feature assignable to type.
+     * 
+     * @param index The tile index.
+     * @param type The feature type.
+     * @return The column found, <code>null</code> if none.
+     */
+    private Column<?> findColumn(int index, Class<? extends Feature> type)
+    {
+        for (final Column<?> current : columns.values())
+        {
+            if (type.isAssignableFrom(current.type) && current.has(index))
+            {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remove all tile features.
+     * 
+     * @param index The tile index.
+     */
+    private void removeFeatures(int index)
+    {
+        for (final Column<?> column : columns.values())
+        {
+            column.column.remove(index);
+        }
+        featurables.remove(Integer.valueOf(index));
+    }
+
+    /*
+     * MapTileGame
+     */
+
+    @Override
+    protected void createTiles(int widthInTile, int heightInTile)
+    {
+        final int size = widthInTile * heightInTile;
+        sheets = new short[size];
+        numbers = new int[size];
+        Arrays.fill(sheets, NO_TILE);
+        for (final Column<?> column : columns.values())
+        {
+            column.column.create(size);
+        }
+        featurables.clear();
+    }
+
+    @Override
+    protected void resizeTiles(int oldWidth, int oldHeight, int newWidth, int newHeight)
+    {
+        final int size = newWidth * newHeight;
+        final short[] newSheets = new short[size];
+        final int[] newNumbers = new int[size];
+        Arrays.fill(newSheets, NO_TILE);
+        for (int v = 0; v < oldHeight; v++)
+        {
+            System.arraycopy(sheets, v * oldWidth, newSheets, v * newWidth, oldWidth);
+            System.arraycopy(numbers, v * oldWidth, newNumbers, v * newWidth, oldWidth);
+        }
+        sheets = newSheets;
+        numbers = newNumbers;
+
+        for (final Column<?> column : columns.values())
+        {
+            column.column.grow(size);
+        }
+        final Map<Integer, Featurable> old = new HashMap<Integer, Featurable>(featurables);
+        featurables.clear();
+
+        // Moved from the end, as new index is always greater or equal
+        for (int index = oldWidth * oldHeight - 1; index >= 0; index--)
+        {
+            final int to = index / oldWidth * newWidth + index % oldWidth;
+            if (to != index)
+            {
+                for (final Column<?> column : columns.values())
+                {
+                    column.column.move(index, to);
+                }
+            }
+            final Featurable featurable = old.get(Integer.valueOf(index));
+            if (featurable != null)
+            {
+                featurables.put(Integer.valueOf(to), featurable);
+            }
+        }
+    }
+
+    /*
+     * MapTile
+     */
+
+    @Override
+    public void clear()
+    {
+        if (sheets != null)
+        {
+            Arrays.fill(sheets, NO_TILE);
+            for (final Column<?> column : columns.values())
+            {
+                column.column.create(sheets.length);
+            }
+        }
+        featurables.clear();
+    }
+
+    @Override
+    public void setTile(Tile tile)
+    {
+        final int tx = tile.getInTileX();
+        final int ty = tile.getInTileY();
+        Check.inferiorStrict(tx, getInTileWidth());
+        Check.inferiorStrict(ty, getInTileHeight());
+
+        final int index = ty * getInTileWidth() + tx;
+        final int sheet = tile.getSheet().intValue();
+        Check.superiorOrEqual(sheet, 0);
+        Check.inferiorOrEqual(sheet, Short.MAX_VALUE);
+        sheets[index] = (short) sheet;
+        numbers[index] = tile.getNumber();
+
+        // Features of the tile already stored at this location are kept
+        if (!(tile instanceof TileArray) || !((TileArray) tile).isStored(this, index))
+        {
+            final Collection<Feature> features = new ArrayList<Feature>();
+            for (final Feature feature : tile.getFeatures())
+            {
+                features.add(feature);
+            }
+            removeFeatures(index);
+            for (final Feature feature : features)
+            {
+                addFeature(index, feature);
+            }
+        }
+        notifyTileSet(tile);
+    }
+
+    @Override
+    public Tile getTile(int tx, int ty)
+    {
+        final int width = getInTileWidth();
+        if (tx >= 0 && ty >= 0 && tx < width && ty < getInTileHeight())
+        {
+            final int index = ty * width + tx;
+            final short sheet = sheets[index];
+            if (sheet != NO_TILE)
+            {
+                return new TileArray(this, index, tx, ty, Integer.valueOf(sheet), numbers[index]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int getTilesNumber()
+    {
+        int tilesNumber = 0;
+        if (sheets != null)
+        {
+            for (final short sheet : sheets)
+            {
+                if (sheet != NO_TILE)
+                {
+                    tilesNumber++;
+                }
+            }
+        }
+        return tilesNumber;
+    }
+
+    @Override
+    public boolean isCreated()
+    {
+        return sheets != null;
+    }
+
+    /**
+     * Feature column with its type.
+     * 
+     * @param <F> The feature type.
+     */
+    private static final class Column<F extends Feature>
+    {
+        /** The feature type. */
+        private final Class<F> type;
+        /** The feature column. */
+        private final TileFeatureColumn<F> column;
+
+        /**
+         * Create column.
+         * 
+         * @param type The feature type.
+         * @param column The feature column.
+         */
+        Column(Class<F> type, TileFeatureColumn<F> column)
+        {
+            this.type = type;
+            this.column = column;
+        }
+
+        /**
+         * Store the feature if of column type.
+         * 
+         * @param index The tile index.
+         * @param feature The feature to store.
+         * @return <code>true</code> if stored, <code>false</code> if not of column type.
+         */
+        boolean set(int index, Feature feature)
+        {
+            final boolean stored = type.isInstance(feature);
+            if (stored)
+            {
+                column.set(index, type.cast(feature));
+            }
+            return stored;
+        }
+
+        /**
+         * Check if tile has data stored.
+         * 
+         * @param index The tile index.
+         * @return <code>true</code> if data stored, <code>false</code> else.
+         */
+        boolean has(int index)
+        {
+            return column.has(index);
+        }
+
+        /**
+         * Get the feature view on tile data.
+         * 
+         * @param tile The tile reference.
+         * @param index The tile index.
+         * @return The feature view.
+         */
+        F get(Tile tile, int index)
+        {
+            return column.get(tile, index);
+        }
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -66,6 +67,8 @@ public class MapTileGame extends FeaturableModel implements MapTile
     /** Inconsistent tile size. */
     private static final String ERROR_TILE_SIZE = "Tile size is inconsistent between sheets !";
 
+    /** Tile set listeners. */
+    private final Collection<TileSetListener> listeners = new LinkedHashSet<TileSetListener>();
     /** Sheets list. */
     private final Map<Integer, SpriteTiled> sheets = new HashMap<Integer, SpriteTiled>();
     /** Sheet configuration file. */
@@ -99,9 +102,56 @@ public class MapTileGame extends FeaturableModel implements MapTile
      */
     private void resize(int newWidth, int newHeight)
     {
-        final int oldWidth = widthInTile;
-        final int oldheight = heightInTile;
+        resizeTiles(widthInTile, heightInTile, newWidth, newHeight);
 
+        widthInTile = newWidth;
+        heightInTile = newHeight;
+        radius = (int) Math.ceil(StrictMath.sqrt(newWidth * (double) newWidth + newHeight * (double) newHeight));
+    }
+
+    /**
+     * Notify listeners that a tile has been set.
+     * 
+     * @param tile The new tile.
+     */
+    protected void notifyTileSet(Tile tile)
+    {
+        for (final TileSetListener listener : listeners)
+        {
+            listener.notifyTileSet(tile);
+        }
+    }
+
+    /**
+     * Create the tiles storage. All tiles are empty.
+     * 
+     * @param widthInTile The horizontal tiles number.
+     * @param heightInTile The vertical tiles number.
+     */
+    protected void createTiles(int widthInTile, int heightInTile)
+    {
+        tiles = new ArrayList<List<Tile>>(heightInTile);
+
+        for (int v = 0; v < heightInTile; v++)
+        {
+            tiles.add(v, new ArrayList<Tile>(widthInTile));
+            for (int h = 0; h < widthInTile; h++)
+            {
+                tiles.get(v).add(h, null);
+            }
+        }
+    }
+
+    /**
+     * Resize the tiles storage, keeping existing tiles at their location. New tiles are empty.
+     * 
+     * @param oldWidth The current horizontal tiles number.
+     * @param oldheight The current vertical tiles number.
+     * @param newWidth The new horizontal tiles number.
+     * @param newHeight The new vertical tiles number.
+     */
+    protected void resizeTiles(int oldWidth, int oldheight, int newWidth, int newHeight)
+    {
         // Adjust height
         for (int v = 0; v < newHeight - oldheight; v++)
         {
@@ -124,10 +174,6 @@ public class MapTileGame extends FeaturableModel implements MapTile
                 tiles.get(v).add(null);
             }
         }
-
-        widthInTile = newWidth;
-        heightInTile = newHeight;
-        radius = (int) Math.ceil(StrictMath.sqrt(newWidth * (double) newWidth + newHeight * (double) newHeight));
     }
 
     /*
@@ -149,16 +195,7 @@ public class MapTileGame extends FeaturableModel implements MapTile
 
         radius = (int) Math.ceil(StrictMath.sqrt(widthInTile * widthInTile + heightInTile * (double) heightInTile));
         clear();
-        tiles = new ArrayList<List<Tile>>(heightInTile);
-
-        for (int v = 0; v < heightInTile; v++)
-        {
-            tiles.add(v, new ArrayList<Tile>(widthInTile));
-            for (int h = 0; h < widthInTile; h++)
-            {
-                tiles.get(v).add(h, null);
-            }
-        }
+        createTiles(widthInTile, heightInTile);
     }
 
     @Override
@@ -290,6 +327,18 @@ public class MapTileGame extends FeaturableModel implements MapTile
         }
     }
 
+    @Override
+    public void addListener(TileSetListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(TileSetListener listener)
+    {
+        listeners.remove(listener);
+    }
+
     @Override
     public void setTile(Tile tile)
     {
@@ -299,6 +348,7 @@ public class MapTileGame extends FeaturableModel implements MapTile
         Check.inferiorStrict(ty, getInTileHeight());
 
         tiles.get(ty).set(tx, tile);
+        notifyTileSet(tile);
     }
 
     @Override
@@ -64,7 +64,7 @@ public final class MinimapConfig
         Check.notNull(configMinimap);
 
         final Map<TileRef, ColorRgba> colors = new HashMap<TileRef, ColorRgba>();
-        final XmlNode nodeMinimap = Xml.load(configMinimap);
+        final XmlNode nodeMinimap = Xml.loadLight(configMinimap);
 
         for (final XmlNode nodeColor : nodeMinimap.getChildren(NODE_COLOR))
         {
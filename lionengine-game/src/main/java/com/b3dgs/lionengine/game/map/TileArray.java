@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Tile view on a {@link MapTileArray} location. Features are stored by the map.
+ */
+final class TileArray implements Tile
+{
+    /** The map reference. */
+    private final MapTileArray map;
+    /** Tile index on map. */
+    private final int index;
+    /** In tile x. */
+    private final int inTileX;
+    /** In tile y. */
+    private final int inTileY;
+    /** Tile sheet number where tile is contained. */
+    private final Integer sheet;
+    /** Position number in the tilesheet. */
+    private final int number;
+
+    /**
+     * Create a tile view.
+     * 
+     * @param map The map reference.
+     * @param index The tile index on map.
+     * @param inTileX The horizontal location in tile.
+     * @param inTileY The vertical location in tile.
+     * @param sheet The sheet number.
+     * @param number The tile number on sheet.
+     */
+    TileArray(MapTileArray map, int index, int inTileX, int inTileY, Integer sheet, int number)
+    {
+        this.map = map;
+        this.index = index;
+        this.inTileX = inTileX;
+        this.inTileY = inTileY;
+        this.sheet = sheet;
+        this.number = number;
+    }
+
+    /**
+     * Check if tile is a view on the map location.
+     * 
+     * @param map The map reference.
+     * @param index The tile index on map.
+     * @return <code>true</code> if view on this location, <code>false</code> else.
+     */
+    boolean isStored(MapTileArray map, int index)
+    {
+        return this.map == map && this.index == index;
+    }
+
+    /*
+     * Tile
+     */
+
+    @Override
+    public Integer getSheet()
+    {
+        return sheet;
+    }
+
+    @Override
+    public int getNumber()
+    {
+        return number;
+    }
+
+    @Override
+    public double getX()
+    {
+        return inTileX * (double) map.getTileWidth();
+    }
+
+    @Override
+    public double getY()
+    {
+        return inTileY * (double) map.getTileHeight();
+    }
+
+    @Override
+    public int getWidth()
+    {
+        return map.getTileWidth();
+    }
+
+    @Override
+    public int getHeight()
+    {
+        return map.getTileHeight();
+    }
+
+    @Override
+    public int getInTileX()
+    {
+        return inTileX;
+    }
+
+    @Override
+    public int getInTileY()
+    {
+        return inTileY;
+    }
+
+    @Override
+    public int getInTileWidth()
+    {
+        return 1;
+    }
+
+    @Override
+    public int getInTileHeight()
+    {
+        return 1;
+    }
+
+    /*
+     * Featurable
+     */
+
+    @Override
+    public void prepareFeatures(Services services)
+    {
+        map.prepareFeatures(index, services);
+    }
+
+    @Override
+    public void addFeature(Feature feature)
+    {
+        map.addFeature(index, feature);
+    }
+
+    @Override
+    public <T extends Feature> T addFeatureAndGet(T feature)
+    {
+        addFeature(feature);
+        return feature;
+    }
+
+    @Override
+    public <C extends Feature> C getFeature(Class<C> feature)
+    {
+        return map.getFeature(this, index, feature);
+    }
+
+    @Override
+    public Iterable<Feature> getFeatures()
+    {
+        return map.getFeatures(this, index);
+    }
+
+    @Override
+    public Iterable<Class<? extends Feature>> getFeaturesType()
+    {
+        return map.getFeaturesType(index);
+    }
+
+    @Override
+    public boolean hasFeature(Class<? extends Feature> feature)
+    {
+        return map.hasFeature(index, feature);
+    }
+
+    @Override
+    public boolean isPrepared()
+    {
+        return map.isPrepared(index);
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + inTileX;
+        result = prime * result + inTileY;
+        result = prime * result + sheet.hashCode();
+        result = prime * result + number;
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof TileArray))
+        {
+            return false;
+        }
+        final TileArray other = (TileArray) obj;
+        return map == other.map
+               && index == other.index
+               && sheet.equals(other.sheet)
+               && number == other.number;
+    }
+}
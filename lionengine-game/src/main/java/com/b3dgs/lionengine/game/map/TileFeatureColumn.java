@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Storage of a tile feature for all tiles of a {@link MapTileArray}, instead of one feature instance per tile. Tiles
+ * are referenced by their index on map (<code>ty * widthInTile + tx</code>).
+ * 
+ * @param <F> The feature type.
+ * @see MapTileArray#addColumn(Class, TileFeatureColumn)
+ */
+public interface TileFeatureColumn<F extends Feature>
+{
+    /**
+     * Create the storage. All previous data are cleared.
+     * 
+     * @param size The tiles number.
+     */
+    void create(int size);
+
+    /**
+     * Grow the storage, keeping existing data.
+     * 
+     * @param size The new tiles number.
+     */
+    void grow(int size);
+
+    /**
+     * Move the tile data to another index. Source data are cleared.
+     * 
+     * @param from The source tile index.
+     * @param to The destination tile index.
+     */
+    void move(int from, int to);
+
+    /**
+     * Store the feature data of a tile.
+     * 
+     * @param index The tile index.
+     * @param feature The feature to store.
+     */
+    void set(int index, F feature);
+
+    /**
+     * Clear the tile data.
+     * 
+     * @param index The tile index.
+     */
+    void remove(int index);
+
+    /**
+     * Check if tile has data stored.
+     * 
+     * @param index The tile index.
+     * @return <code>true</code> if data stored, <code>false</code> else.
+     */
+    boolean has(int index);
+
+    /**
+     * Get the feature view on tile data. View reads and writes the stored data.
+     * 
+     * @param tile The tile reference.
+     * @param index The tile index.
+     * @return The feature view.
+     */
+    F get(Tile tile, int index);
+}
@@ -55,7 +55,7 @@ public final class TileSheetsConfig
      */
     public static TileSheetsConfig imports(Media configSheets)
     {
-        final XmlNode nodeSheets = Xml.load(configSheets);
+        final XmlNode nodeSheets = Xml.loadLight(configSheets);
 
         final XmlNode nodeTileSize = nodeSheets.getChild(NODE_TILE_SIZE);
         final int tileWidth = nodeTileSize.readInteger(ATTRIBUTE_TILE_WIDTH);
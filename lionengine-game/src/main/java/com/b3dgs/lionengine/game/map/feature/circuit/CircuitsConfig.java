@@ -60,7 +60,7 @@ public final class CircuitsConfig
      */
     public static Map<Circuit, Collection<TileRef>> imports(Media circuitsConfig)
     {
-        final XmlNode root = Xml.load(circuitsConfig);
+        final XmlNode root = Xml.loadLight(circuitsConfig);
         final Collection<XmlNode> nodesCircuit = root.getChildren(NODE_CIRCUIT);
         final Map<Circuit, Collection<TileRef>> circuits;
         circuits = new HashMap<Circuit, Collection<TileRef>>();
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.persister;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.graphic.Viewer;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Load a map saved with {@link MapTilePersister#saveChunked(com.b3dgs.lionengine.stream.FileWriting)}, chunk by chunk.
+ * <p>
+ * The level file is memory mapped when possible, and only the header and the chunks index are read on opening. Each
+ * {@link #update(double)} loads the chunks in the {@link Viewer} area, then streams a budget of remaining chunks,
+ * starting from the closest to the initial view. Any chunk can also be loaded on demand with {@link #load(int, int)}.
+ * </p>
+ * <p>
+ * The first rendered frame only depends on the view size, not on the map size.
+ * </p>
+ * 
+ * @see MapTilePersister#loadChunked(Media)
+ */
+public class MapTileChunkLoader implements Updatable
+{
+    /** Default number of chunks streamed per update. */
+    public static final int DEFAULT_BUDGET = 4;
+    /** Chunked format marker, never a valid tile width, neither the compact format marker. */
+    static final int MARKER = 0xB3D60001;
+    /** Chunked format version. */
+    static final byte VERSION = 1;
+    /** Chunk header size in bytes: <code>(short)</code> tiles number. */
+    static final int CHUNK_HEADER_BYTES = 2;
+    /** Tile size in bytes: <code>(int)</code> sheet, <code>(int)</code> number, <code>(byte)</code> location. */
+    static final int TILE_BYTES = 9;
+    /** Error sheet missing message. */
+    private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
+    /** Error not chunked format message. */
+    private static final String ERROR_FORMAT = "Not a chunked map: ";
+    /** Error unsupported version message. */
+    private static final String ERROR_VERSION = "Unsupported chunked map version: ";
+    /** Unsigned byte mask. */
+    private static final int MASK_BYTE = 0xFF;
+    /** Unsigned short mask. */
+    private static final int MASK_SHORT = 0xFFFF;
+    /** Perimeter sides number. */
+    private static final int SIDES = 4;
+
+    /**
+     * Get the level file content, memory mapped if possible.
+     * 
+     * @param level The level file.
+     * @return The level content.
+     * @throws IOException If error on reading.
+     */
+    static ByteBuffer open(Media level) throws IOException
+    {
+        final File file = level.getFile();
+        if (file.isFile())
+        {
+            final RandomAccessFile access = new RandomAccessFile(file, "r");
+            try
+            {
+                final FileChannel channel = access.getChannel();
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+            }
+            finally
+            {
+                access.close();
+            }
+        }
+        final InputStream input = level.getInputStream();
+        try
+        {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            UtilStream.copy(input, output);
+            return ByteBuffer.wrap(output.toByteArray());
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+
+    /**
+     * Check the chunked format marker and version.
+     * 
+     * @param buffer The level content.
+     * @throws IOException If not a chunked map, or unsupported version.
+     */
+    private static void checkFormat(ByteBuffer buffer) throws IOException
+    {
+        if (buffer.remaining() < Integer.SIZE / Byte.SIZE + 1)
+        {
+            throw new IOException(ERROR_FORMAT + buffer.remaining());
+        }
+        final int marker = buffer.getInt();
+        if (marker != MARKER)
+        {
+            throw new IOException(ERROR_FORMAT + marker);
+        }
+        final byte version = buffer.get();
+        if (version != VERSION)
+        {
+            throw new IOException(ERROR_VERSION + version);
+        }
+    }
+
+    /**
+     * Read a string written with {@link java.io.DataOutput#writeUTF(String)}.
+     * 
+     * @param buffer The buffer to read.
+     * @return The string read.
+     */
+    private static String readString(ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getShort() & MASK_SHORT];
+        buffer.get(bytes);
+        return new String(bytes, Constant.UTF_8);
+    }
+
+    /** Map reference. */
+    private final MapTile map;
+    /** Viewer reference. */
+    private final Viewer viewer;
+    /** Level content. */
+    private final ByteBuffer buffer;
+    /** Chunk size in tile. */
+    private final int chunkSize;
+    /** Horizontal chunks number. */
+    private final int chunksX;
+    /** Vertical chunks number. */
+    private final int chunksY;
+    /** Chunks data offset. */
+    private final int[] offsets;
+    /** Chunks loaded flag. */
+    private final boolean[] loaded;
+    /** Streaming center horizontal chunk. */
+    private final int centerX;
+    /** Streaming center vertical chunk. */
+    private final int centerY;
+    /** Chunks loaded number. */
+    private int count;
+    /** Streaming ring distance. */
+    private int ring;
+    /** Streaming step on ring. */
+    private int step;
+    /** Chunks streamed per update. */
+    private int budget = DEFAULT_BUDGET;
+
+    /**
+     * Create the loader, read the header and create the map.
+     * 
+     * @param map The map reference.
+     * @param viewer The viewer reference.
+     * @param buffer The level content.
+     * @throws IOException If not a chunked map, or unsupported version.
+     */
+    MapTileChunkLoader(MapTile map, Viewer viewer, ByteBuffer buffer) throws IOException
+    {
+        this.map = map;
+        this.viewer = viewer;
+        this.buffer = buffer;
+
+        checkFormat(buffer);
+        map.create(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+        if (buffer.get() != 0)
+        {
+            map.loadSheets(Medias.create(readString(buffer)));
+        }
+        chunkSize = buffer.getInt();
+        chunksX = (int) Math.ceil(map.getInTileWidth() / (double) chunkSize);
+        chunksY = (int) Math.ceil(map.getInTileHeight() / (double) chunkSize);
+        offsets = new int[chunksX * chunksY];
+        loaded = new boolean[offsets.length];
+        for (int i = 0; i < offsets.length; i++)
+        {
+            offsets[i] = buffer.getInt();
+        }
+        final int start = buffer.position();
+        for (int i = 0; i < offsets.length; i++)
+        {
+            offsets[i] += start;
+        }
+        final int x = getChunkX(viewer.getX() + viewer.getViewX() + viewer.getWidth() / 2.0);
+        final int y = getChunkY(viewer.getY() - viewer.getViewY() + viewer.getHeight() / 2.0);
+        centerX = Math.max(0, Math.min(chunksX - 1, x));
+        centerY = Math.max(0, Math.min(chunksY - 1, y));
+    }
+
+    /**
+     * Set the number of chunks streamed on each update, in addition to the visible ones.
+     * 
+     * @param budget The chunks number (must be positive or equal to 0).
+     * @throws LionEngineException If invalid budget.
+     */
+    public void setBudget(int budget)
+    {
+        Check.superiorOrEqual(budget, 0);
+
+        this.budget = budget;
+    }
+
+    /**
+     * Load the chunk containing the tile if not already loaded.
+     * 
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @throws LionEngineException If invalid tile sheet.
+     */
+    public void load(int tx, int ty)
+    {
+        if (tx >= 0 && ty >= 0 && tx < map.getInTileWidth() && ty < map.getInTileHeight())
+        {
+            loadChunk(tx / chunkSize, ty / chunkSize);
+        }
+    }
+
+    /**
+     * Load the chunks in the viewer area.
+     * 
+     * @throws LionEngineException If invalid tile sheet.
+     */
+    public void loadVisible()
+    {
+        final int sx = getChunkX(viewer.getX() + viewer.getViewX());
+        final int sy = getChunkY(viewer.getY() - viewer.getViewY());
+        final int ex = getChunkX(viewer.getX() + viewer.getViewX() + viewer.getWidth());
+        final int ey = getChunkY(viewer.getY() - viewer.getViewY() + viewer.getHeight());
+        for (int cy = Math.max(0, sy); cy <= Math.min(chunksY - 1, ey); cy++)
+        {
+            for (int cx = Math.max(0, sx); cx <= Math.min(chunksX - 1, ex); cx++)
+            {
+                loadChunk(cx, cy);
+            }
+        }
+    }
+
+    /**
+     * Load all remaining chunks.
+     * 
+     * @throws LionEngineException If invalid tile sheet.
+     */
+    public void loadAll()
+    {
+        for (int cy = 0; cy < chunksY; cy++)
+        {
+            for (int cx = 0; cx < chunksX; cx++)
+            {
+                loadChunk(cx, cy);
+            }
+        }
+    }
+
+    /**
+     * Check if all chunks are loaded.
+     * 
+     * @return <code>true</code> if fully loaded, <code>false</code> else.
+     */
+    public boolean isLoaded()
+    {
+        return count == offsets.length;
+    }
+
+    /**
+     * Get the number of chunks not loaded yet.
+     * 
+     * @return The remaining chunks number.
+     */
+    public int getRemaining()
+    {
+        return offsets.length - count;
+    }
+
+    /**
+     * Get horizontal chunk index from horizontal location.
+     * 
+     * @param x The horizontal location.
+     * @return The chunk index.
+     */
+    private int getChunkX(double x)
+    {
+        return (int) Math.floor(x / map.getTileWidth()) / chunkSize;
+    }
+
+    /**
+     * Get vertical chunk index from vertical location.
+     * 
+     * @param y The vertical location.
+     * @return The chunk index.
+     */
+    private int getChunkY(double y)
+    {
+        return (int) Math.floor(y / map.getTileHeight()) / chunkSize;
+    }
+
+    /**
+     * Load the next chunk not loaded, by increasing ring distance from streaming center.
+     */
+    private void loadNext()
+    {
+        final int rings = Math.max(chunksX, chunksY);
+        boolean found = false;
+        while (!found && ring <= rings)
+        {
+            final int perimeter = Math.max(1, SIDES * 2 * ring);
+            if (step < perimeter)
+            {
+                found = loadRing(step);
+                step++;
+            }
+            else
+            {
+                ring++;
+                step = 0;
+            }
+        }
+    }
+
+    /**
+     * Load the chunk at step on current ring if not loaded.
+     * 
+     * @param index The step on ring, clockwise from top left corner.
+     * @return <code>true</code> if chunk has been loaded, <code>false</code> else.
+     */
+    private boolean loadRing(int index)
+    {
+        final int side = 2 * ring;
+        final int cx;
+        final int cy;
+        if (ring == 0)
+        {
+            cx = centerX;
+            cy = centerY;
+        }
+        else
+        {
+            final int edge = index / side;
+            final int offset = index % side;
+            if (edge == 0)
+            {
+                cx = centerX - ring + offset;
+                cy = centerY - ring;
+            }
+            else if (edge == 1)
+            {
+                cx = centerX + ring;
+                cy = centerY - ring + offset;
+            }
+            else if (edge == 2)
+            {
+                cx = centerX + ring - offset;
+                cy = centerY + ring;
+            }
+            else
+            {
+                cx = centerX - ring;
+                cy = centerY + ring - offset;
+            }
+        }
+        final boolean inside = cx >= 0 && cy >= 0 && cx < chunksX && cy < chunksY;
+        return inside && loadChunk(cx, cy);
+    }
+
+    /**
+     * Load the chunk tiles if not already loaded.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return <code>true</code> if chunk has been loaded, <code>false</code> if already loaded.
+     * @throws LionEngineException If invalid tile sheet.
+     */
+    private boolean loadChunk(int cx, int cy)
+    {
+        final int chunk = cy * chunksX + cx;
+        if (loaded[chunk])
+        {
+            return false;
+        }
+        final ByteBuffer data = buffer.duplicate();
+        data.position(offsets[chunk]);
+        final int n = data.getShort() & MASK_SHORT;
+        for (int i = 0; i < n; i++)
+        {
+            final Integer sheet = Integer.valueOf(data.getInt());
+            final int number = data.getInt();
+            final int location = data.get() & MASK_BYTE;
+            if (sheet.intValue() > map.getSheetsNumber())
+            {
+                throw new LionEngineException(ERROR_SHEET_MISSING, sheet.toString());
+            }
+            final int tx = cx * chunkSize + location % chunkSize;
+            final int ty = cy * chunkSize + location / chunkSize;
+            map.setTile(map.createTile(sheet, number, tx * map.getTileWidth(), ty * map.getTileHeight()));
+        }
+        loaded[chunk] = true;
+        count++;
+        return true;
+    }
+
+    /*
+     * Updatable
+     */
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Load the visible chunks, then the streaming budget.
+     * </p>
+     * 
+     * @throws LionEngineException If invalid tile sheet.
+     */
+    @Override
+    public void update(double extrp)
+    {
+        loadVisible();
+        for (int i = 0; i < budget && !isLoaded(); i++)
+        {
+            loadNext();
+        }
+    }
+}
@@ -17,13 +17,36 @@
  */
 package com.b3dgs.lionengine.game.map.feature.persister;
 
+import java.io.IOException;
+
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.game.Persistable;
 import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.stream.FileWriting;
 
 /**
  * Handle the map persistence by providing saving and loading functions.
+ * <p>
+ * Maps can also be saved in a chunked format, split in blocks indexed by their location, allowing to load the visible
+ * blocks first and to stream the others with a {@link MapTileChunkLoader}.
+ * </p>
  */
 public interface MapTilePersister extends Feature, Persistable
 {
-    // Marker
+    /**
+     * Save map in chunked format.
+     * 
+     * @param output The output level file.
+     * @throws IOException If error on writing.
+     */
+    void saveChunked(FileWriting output) throws IOException;
+
+    /**
+     * Open a map saved in chunked format. Map is created, and blocks are loaded by the returned loader.
+     * 
+     * @param level The level file.
+     * @return The chunks loader.
+     * @throws IOException If error on reading, not a chunked map, or unsupported version.
+     */
+    MapTileChunkLoader loadChunked(Media level) throws IOException;
 }
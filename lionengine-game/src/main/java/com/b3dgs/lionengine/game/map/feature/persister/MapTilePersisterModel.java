@@ -21,12 +21,14 @@ import java.io.IOException;
 
 import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.graphic.Viewer;
 import com.b3dgs.lionengine.stream.FileReading;
 import com.b3dgs.lionengine.stream.FileWriting;
 
@@ -39,8 +41,110 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     private static final String ERROR_SHEET_MISSING = "Sheet missing: ";
     /** Number of horizontal tiles to make a bloc. Used to reduce saved map file size. */
     private static final int BLOC_SIZE = 256;
+    /** Number of tiles on each side of a chunk, making chunks of chunk size * chunk size tiles. */
+    private static final int CHUNK_SIZE = 16;
+    /** Compact format marker, never a valid tile width, used to recognize it from the legacy format. */
+    private static final int COMPACT = 0xB3D60000;
+    /** Compact format version. */
+    private static final byte VERSION = 1;
+    /** Error unsupported version message. */
+    private static final String ERROR_VERSION = "Unsupported map format version: ";
+    /** Error chunked format message. */
+    private static final String ERROR_CHUNKED = "Chunked map format, must be loaded with loadChunked";
+    /** Error invalid run message. */
+    private static final String ERROR_RUN = "Invalid tiles run length: ";
+    /** Variable length integer value bits per byte. */
+    private static final int VARINT_BITS = 7;
+    /** Variable length integer value mask. */
+    private static final int VARINT_MASK = 0x7F;
+    /** Variable length integer continuation flag. */
+    private static final int VARINT_NEXT = 0x80;
+
+    /**
+     * Write an unsigned variable length integer, using one byte for each {@value #VARINT_BITS} bits.
+     * 
+     * @param file The output file.
+     * @param value The value to write.
+     * @throws IOException If error on writing.
+     */
+    private static void writeVarInt(FileWriting file, int value) throws IOException
+    {
+        int remaining = value;
+        while ((remaining & ~VARINT_MASK) != 0)
+        {
+            file.writeByte((byte) (remaining & VARINT_MASK | VARINT_NEXT));
+            remaining >>>= VARINT_BITS;
+        }
+        file.writeByte((byte) remaining);
+    }
+
+    /**
+     * Read an unsigned variable length integer.
+     * 
+     * @param file The input file.
+     * @return The read value.
+     * @throws IOException If error on reading, or value is malformed.
+     */
+    private static int readVarInt(FileReading file) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do
+        {
+            if (shift >= Integer.SIZE)
+            {
+                throw new IOException(ERROR_RUN + value);
+            }
+            current = file.readByte();
+            value |= (current & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        }
+        while ((current & VARINT_NEXT) != 0);
+        return value;
+    }
+
+    /**
+     * Encode a signed value so that small negative values are also stored on few bytes.
+     * 
+     * @param value The signed value.
+     * @return The encoded value.
+     */
+    private static int zigzag(int value)
+    {
+        return value << 1 ^ value >> Integer.SIZE - 1;
+    }
+
+    /**
+     * Decode a value encoded with {@link #zigzag(int)}.
+     * 
+     * @param value The encoded value.
+     * @return The signed value.
+     */
+    private static int unzigzag(int value)
+    {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /**
+     * Check if tiles are the same, or both empty.
+     * 
+     * @param tile The first tile (can be <code>null</code>).
+     * @param other The other tile (can be <code>null</code>).
+     * @return <code>true</code> if same sheet and number, or both empty, <code>false</code> else.
+     */
+    private static boolean isSame(Tile tile, Tile other)
+    {
+        if (tile == null || other == null)
+        {
+            return tile == other;
+        }
+        return tile.getNumber() == other.getNumber() && tile.getSheet().equals(other.getSheet());
+    }
 
     /** The services reference. */
+    private Services services;
+    /** The map reference. */
     private MapTile map;
 
     /**
@@ -50,6 +154,7 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
      * </p>
      * <ul>
      * <li>{@link MapTile}</li>
+     * <li>{@link Viewer} (only for {@link #loadChunked(Media)})</li>
      * </ul>
      */
     public MapTilePersisterModel()
@@ -58,21 +163,27 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     }
 
     /**
-     * Save tile. Data are saved this way:
+     * Save tile in the legacy format. Data are saved this way:
      * 
      * <pre>
      * (integer) sheet number
      * (integer) index number inside sheet
-     * (integer) tile location x % MapTile.BLOC_SIZE
-     * (integer tile location y
+     * (integer) tile location x % {@value #BLOC_SIZE}
+     * (integer) tile location y
      * </pre>
      * 
      * @param file The file writer reference.
      * @param tile The tile to save.
      * @throws IOException If error on writing.
+     * @deprecated The legacy format is no longer written, {@link #save(FileWriting)} stores runs of tiles and does not
+     *             call this method anymore. Kept as the counterpart of {@link #loadTile(FileReading, int)}.
      */
+    @Deprecated
     protected void saveTile(FileWriting file, Tile tile) throws IOException
     {
+        Check.notNull(file);
+        Check.notNull(tile);
+
         file.writeInteger(tile.getSheet().intValue());
         file.writeInteger(tile.getNumber());
         file.writeInteger(tile.getInTileX() % BLOC_SIZE);
@@ -80,17 +191,17 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     }
 
     /**
-     * Load tile. Data are loaded this way:
+     * Load tile from the legacy format. Data are loaded this way:
      * 
      * <pre>
      * (integer) sheet number
      * (integer) index number inside sheet
-     * (integer) tile location x
-     * (integer tile location y
+     * (integer) tile location x % {@value #BLOC_SIZE}
+     * (integer) tile location y
      * </pre>
      * 
      * @param file The file reader reference.
-     * @param i The last loaded tile number.
+     * @param i The current bloc index.
      * @return The loaded tile.
      * @throws IOException If error on reading.
      */
@@ -106,21 +217,185 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     }
 
     /**
-     * Count the active tiles.
+     * Save the map header.
+     * 
+     * @param output The output file.
+     * @throws IOException If error on saving.
+     */
+    private void saveHeader(FileWriting output) throws IOException
+    {
+        output.writeInteger(map.getTileWidth());
+        output.writeInteger(map.getTileHeight());
+        output.writeInteger(map.getInTileWidth());
+        output.writeInteger(map.getInTileHeight());
+
+        final boolean hasConfig = map.getSheetsConfig() != null;
+        output.writeBoolean(hasConfig);
+        if (hasConfig)
+        {
+            output.writeString(map.getSheetsConfig().getPath());
+        }
+    }
+
+    /**
+     * Load the map header, and create the map.
+     * 
+     * @param input The input file.
+     * @param tileWidth The already read tile width.
+     * @throws IOException If error on reading.
+     */
+    private void loadHeader(FileReading input, int tileWidth) throws IOException
+    {
+        map.create(tileWidth, input.readInteger(), input.readInteger(), input.readInteger());
+        if (input.readBoolean())
+        {
+            map.loadSheets(Medias.create(input.readString()));
+        }
+    }
+
+    /**
+     * Count the tiles equal to the first one, starting from index, line by line.
+     * 
+     * @param first The first tile (can be <code>null</code>).
+     * @param start The first tile index.
+     * @param total The total number of tiles.
+     * @return The run length.
+     */
+    private int countRun(Tile first, int start, int total)
+    {
+        final int width = map.getInTileWidth();
+        int end = start + 1;
+        while (end < total && isSame(first, map.getTile(end % width, end / width)))
+        {
+            end++;
+        }
+        return end - start;
+    }
+
+    /**
+     * Save the tiles as runs of equal tiles, line by line.
+     * 
+     * @param file The output file.
+     * @throws IOException If error on saving.
+     */
+    private void saveRuns(FileWriting file) throws IOException
+    {
+        final int width = map.getInTileWidth();
+        final int total = width * map.getInTileHeight();
+        int number = 0;
+        int index = 0;
+        while (index < total)
+        {
+            final Tile tile = map.getTile(index % width, index / width);
+            final int length = countRun(tile, index, total);
+            writeVarInt(file, length);
+            if (tile == null)
+            {
+                writeVarInt(file, 0);
+            }
+            else
+            {
+                writeVarInt(file, tile.getSheet().intValue() + 1);
+                writeVarInt(file, zigzag(tile.getNumber() - number));
+                number = tile.getNumber();
+            }
+            index += length;
+        }
+    }
+
+    /**
+     * Load the tiles saved by {@link #saveRuns(FileWriting)}.
+     * 
+     * @param file The input file.
+     * @throws IOException If error on loading.
+     */
+    private void loadRuns(FileReading file) throws IOException
+    {
+        final int width = map.getInTileWidth();
+        final int total = width * map.getInTileHeight();
+        int number = 0;
+        int index = 0;
+        while (index < total)
+        {
+            final int length = readVarInt(file);
+            if (length < 1 || length > total - index)
+            {
+                throw new IOException(ERROR_RUN + length);
+            }
+            final int sheet = readVarInt(file) - 1;
+            if (sheet > map.getSheetsNumber())
+            {
+                throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + sheet);
+            }
+            if (sheet > -1)
+            {
+                number += unzigzag(readVarInt(file));
+                loadRun(Integer.valueOf(sheet), number, index, length);
+            }
+            index += length;
+        }
+    }
+
+    /**
+     * Set a run of tiles.
      * 
-     * @param widthInTile The horizontal tiles.
-     * @param step The step number.
-     * @param s The s value.
+     * @param sheet The tiles sheet.
+     * @param number The tiles number.
+     * @param start The first tile index.
+     * @param length The run length.
+     */
+    private void loadRun(Integer sheet, int number, int start, int length)
+    {
+        final int width = map.getInTileWidth();
+        for (int index = start; index < start + length; index++)
+        {
+            final int x = index % width * map.getTileWidth();
+            final int y = index / width * map.getTileHeight();
+            map.setTile(map.createTile(sheet, number, x, y));
+        }
+    }
+
+    /**
+     * Load the tiles saved in the legacy format, by blocs of {@value #BLOC_SIZE} horizontal tiles.
+     * 
+     * @param input The input file.
+     * @throws IOException If error on loading.
+     */
+    private void loadBlocs(FileReading input) throws IOException
+    {
+        final int t = input.readShort();
+        for (int v = 0; v < t; v++)
+        {
+            final int n = input.readShort();
+            for (int h = 0; h < n; h++)
+            {
+                final Tile tile = loadTile(input, v);
+                if (tile.getSheet().intValue() > map.getSheetsNumber())
+                {
+                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
+                }
+                map.setTile(tile);
+            }
+        }
+    }
+
+    /**
+     * Count the active tiles of a chunk.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
      * @return The active tiles.
      */
-    private int countTiles(int widthInTile, int step, int s)
+    private int countChunkTiles(int cx, int cy)
     {
         int count = 0;
-        for (int tx = 0; tx < widthInTile; tx++)
+        final int ex = Math.min(map.getInTileWidth(), (cx + 1) * CHUNK_SIZE);
+        final int ey = Math.min(map.getInTileHeight(), (cy + 1) * CHUNK_SIZE);
+        for (int ty = cy * CHUNK_SIZE; ty < ey; ty++)
         {
-            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            for (int tx = cx * CHUNK_SIZE; tx < ex; tx++)
             {
-                if (map.getTile(tx + s * step, ty) != null)
+                if (map.getTile(tx, ty) != null)
                 {
                     count++;
                 }
@@ -130,24 +405,27 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     }
 
     /**
-     * Save the active tiles.
+     * Save the active tiles of a chunk.
      * 
      * @param file The output file.
-     * @param widthInTile The horizontal tiles.
-     * @param step The step number.
-     * @param s The s value.
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
      * @throws IOException If error on saving.
      */
-    private void saveTiles(FileWriting file, int widthInTile, int step, int s) throws IOException
+    private void saveChunkTiles(FileWriting file, int cx, int cy) throws IOException
     {
-        for (int tx = 0; tx < widthInTile; tx++)
+        final int ex = Math.min(map.getInTileWidth(), (cx + 1) * CHUNK_SIZE);
+        final int ey = Math.min(map.getInTileHeight(), (cy + 1) * CHUNK_SIZE);
+        for (int ty = cy * CHUNK_SIZE; ty < ey; ty++)
         {
-            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            for (int tx = cx * CHUNK_SIZE; tx < ex; tx++)
             {
-                final Tile tile = map.getTile(tx + s * step, ty);
+                final Tile tile = map.getTile(tx, ty);
                 if (tile != null)
                 {
-                    saveTile(file, tile);
+                    file.writeInteger(tile.getSheet().intValue());
+                    file.writeInteger(tile.getNumber());
+                    file.writeByte((byte) (tx % CHUNK_SIZE + ty % CHUNK_SIZE * CHUNK_SIZE));
                 }
             }
         }
@@ -162,24 +440,31 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     {
         super.prepare(provider, services);
 
+        this.services = services;
         map = services.get(MapTile.class);
     }
 
     /**
-     * Save map to specified file as binary data. Data are saved this way (using specific types to save space):
+     * Save map to specified file as binary data, in a compact format. Data are saved this way:
      * 
      * <pre>
-     * <code>(String)</code> sheets configuration file
-     * <code>(short)</code> width in tiles
-     * <code>(short)</code> height in tiles
-     * <code>(byte)</code> tile width (use of byte because tile width &lt; 255)
-     * <code>(byte)</code> tile height (use of byte because tile height &lt; 255)
-     * <code>(short)</code> number of {@value #BLOC_SIZE} horizontal blocs (widthInTile / {@value #BLOC_SIZE})
-     * for each blocs tile
-     *   <code>(short)</code> number of tiles in this bloc
-     *   for each tile in this bloc
-     *     call tile.save(file)
+     * <code>(int)</code> compact format marker
+     * <code>(byte)</code> format version
+     * <code>(int)</code> tile width
+     * <code>(int)</code> tile height
+     * <code>(int)</code> width in tiles
+     * <code>(int)</code> height in tiles
+     * <code>(boolean)</code> has sheets configuration
+     * <code>(String)</code> sheets configuration file (if has one)
+     * for each run of equal tiles, line by line
+     *   <code>(varint)</code> run length
+     *   <code>(varint)</code> sheet number + 1, 0 if no tile
+     *   <code>(varint)</code> zigzag encoded difference with previous run number (if has tile)
      * </pre>
+     * <p>
+     * Variable length integers use one byte for each {@value #VARINT_BITS} bits, so tiles location is implicit, and
+     * repeated tiles are stored once.
+     * </p>
      * 
      * @param output The output level file.
      * @throws IOException If error on writing.
@@ -187,80 +472,135 @@ public class MapTilePersisterModel extends FeatureModel implements MapTilePersis
     @Override
     public void save(FileWriting output) throws IOException
     {
-        final int widthInTile = map.getInTileWidth();
-
-        // Header
-        output.writeInteger(map.getTileWidth());
-        output.writeInteger(map.getTileHeight());
-        output.writeInteger(widthInTile);
-        output.writeInteger(map.getInTileHeight());
-
-        final boolean hasConfig = map.getSheetsConfig() != null;
-        output.writeBoolean(hasConfig);
-        if (hasConfig)
-        {
-            output.writeString(map.getSheetsConfig().getPath());
-        }
-
-        final int step = BLOC_SIZE;
-        final int x = Math.min(step, widthInTile);
-        final int t = (int) Math.ceil(widthInTile / (double) step);
-
-        output.writeShort((short) t);
-        for (int s = 0; s < t; s++)
-        {
-            final int count = countTiles(x, step, s);
-            output.writeShort((short) count);
-            saveTiles(output, Math.min(widthInTile, BLOC_SIZE), step, s);
-        }
+        output.writeInteger(COMPACT);
+        output.writeByte(VERSION);
+        saveHeader(output);
+        saveRuns(output);
     }
 
     /**
      * Load a map from a specified file as binary data.
      * <p>
-     * Data are loaded this way (see {@link #save(FileWriting)} order):
+     * Compact format is read as saved by {@link #save(FileWriting)}. Legacy format is still supported, read this way:
      * </p>
      * 
      * <pre>
-     * <code>(String)</code> sheets file configuration
-     * <code>(short)</code> width in tiles
-     * <code>(short)</code> height in tiles
-     * <code>(byte)</code> tile width
-     * <code>(byte)</code> tile height
+     * <code>(int)</code> tile width
+     * <code>(int)</code> tile height
+     * <code>(int)</code> width in tiles
+     * <code>(int)</code> height in tiles
+     * <code>(boolean)</code> has sheets configuration
+     * <code>(String)</code> sheets configuration file (if has one)
      * <code>(short)</code> number of {@value #BLOC_SIZE} horizontal blocs (widthInTile / {@value #BLOC_SIZE})
      * for each blocs tile
      *   <code>(short)</code> number of tiles in this bloc
      *   for each tile in this bloc
-     *     create blank tile
-     *     call load(file)
+     *     call loadTile(file, bloc)
      *     call setTile(...) to update map with this new tile
      * </pre>
      * 
+     * <p>
+     * Chunked format must be loaded with {@link #loadChunked(Media)}.
+     * </p>
+     * 
      * @param input The input level file.
-     * @throws IOException If error on reading.
+     * @throws IOException If error on reading, unsupported format version, or chunked format.
      */
     @Override
     public void load(FileReading input) throws IOException
     {
-        map.create(input.readInteger(), input.readInteger(), input.readInteger(), input.readInteger());
-        if (input.readBoolean())
+        final int first = input.readInteger();
+        if (first == MapTileChunkLoader.MARKER)
         {
-            map.loadSheets(Medias.create(input.readString()));
+            throw new IOException(ERROR_CHUNKED);
+        }
+        if (first == COMPACT)
+        {
+            final byte version = input.readByte();
+            if (version != VERSION)
+            {
+                throw new IOException(ERROR_VERSION + version);
+            }
+            loadHeader(input, input.readInteger());
+            loadRuns(input);
+        }
+        else
+        {
+            loadHeader(input, first);
+            loadBlocs(input);
         }
+    }
 
-        final int t = input.readShort();
-        for (int v = 0; v < t; v++)
+    /**
+     * Save map in chunked format. Data are saved this way:
+     * 
+     * <pre>
+     * <code>(int)</code> chunked format marker
+     * <code>(byte)</code> format version
+     * <code>(int)</code> tile width
+     * <code>(int)</code> tile height
+     * <code>(int)</code> width in tiles
+     * <code>(int)</code> height in tiles
+     * <code>(boolean)</code> has sheets configuration
+     * <code>(String)</code> sheets configuration file (if has one)
+     * <code>(int)</code> chunk size, making chunks of chunk size * chunk size tiles
+     * for each chunk, line by line
+     *   <code>(int)</code> chunk data offset, relative to the first chunk data
+     * for each chunk, line by line
+     *   <code>(short)</code> number of tiles in this chunk
+     *   for each tile in this chunk
+     *     <code>(int)</code> sheet number
+     *     <code>(int)</code> index number inside sheet
+     *     <code>(byte)</code> tile location inside chunk (x + y * chunk size)
+     * </pre>
+     * 
+     * @param output The output level file.
+     * @throws IOException If error on writing.
+     */
+    @Override
+    public void saveChunked(FileWriting output) throws IOException
+    {
+        output.writeInteger(MapTileChunkLoader.MARKER);
+        output.writeByte(MapTileChunkLoader.VERSION);
+        saveHeader(output);
+        output.writeInteger(CHUNK_SIZE);
+
+        final int chunksX = (int) Math.ceil(map.getInTileWidth() / (double) CHUNK_SIZE);
+        final int chunksY = (int) Math.ceil(map.getInTileHeight() / (double) CHUNK_SIZE);
+        final int[] counts = new int[chunksX * chunksY];
+        for (int cy = 0; cy < chunksY; cy++)
         {
-            final int n = input.readShort();
-            for (int h = 0; h < n; h++)
+            for (int cx = 0; cx < chunksX; cx++)
             {
-                final Tile tile = loadTile(input, v);
-                if (tile.getSheet().intValue() > map.getSheetsNumber())
-                {
-                    throw new IOException(ERROR_SHEET_MISSING + Constant.DOUBLE_DOT + tile.getSheet());
-                }
-                map.setTile(tile);
+                counts[cy * chunksX + cx] = countChunkTiles(cx, cy);
             }
         }
+
+        int offset = 0;
+        for (final int count : counts)
+        {
+            output.writeInteger(offset);
+            offset += MapTileChunkLoader.CHUNK_HEADER_BYTES + count * MapTileChunkLoader.TILE_BYTES;
+        }
+        for (int cy = 0; cy < chunksY; cy++)
+        {
+            for (int cx = 0; cx < chunksX; cx++)
+            {
+                output.writeShort((short) counts[cy * chunksX + cx]);
+                saveChunkTiles(output, cx, cy);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The {@link Services} must provide a {@link Viewer}, used to load the visible chunks first.
+     * </p>
+     */
+    @Override
+    public MapTileChunkLoader loadChunked(Media level) throws IOException
+    {
+        return new MapTileChunkLoader(map, services.get(Viewer.class), MapTileChunkLoader.open(level));
     }
 }
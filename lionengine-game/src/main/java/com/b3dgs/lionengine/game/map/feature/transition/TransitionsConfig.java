@@ -60,7 +60,7 @@ public final class TransitionsConfig
      */
     public static Map<Transition, Collection<TileRef>> imports(Media config)
     {
-        final XmlNode root = Xml.load(config);
+        final XmlNode root = Xml.loadLight(config);
         final Collection<XmlNode> nodesTransition = root.getChildren(NODE_TRANSITION);
         final Map<Transition, Collection<TileRef>> transitions;
         transitions = new HashMap<Transition, Collection<TileRef>>();
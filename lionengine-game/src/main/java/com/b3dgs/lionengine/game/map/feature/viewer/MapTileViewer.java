@@ -26,12 +26,22 @@ import com.b3dgs.lionengine.game.map.MapTileRenderer;
 public interface MapTileViewer extends Displayable
 {
     /**
-     * Add a map tile renderer.
+     * Add a map tile renderer. It is never cached, so it can render tiles differently on each frame.
      * 
      * @param renderer The map tile renderer reference.
      */
     void addRenderer(MapTileRenderer renderer);
 
+    /**
+     * Add a map tile renderer. Renderers are drawn in the order they have been added, so a cached renderer added after
+     * a renderer not cached is not pre-rendered, but rendered on each frame over the previous ones.
+     * 
+     * @param renderer The map tile renderer reference.
+     * @param cached <code>true</code> if renderer output only depends on the tile, allowing to cache it (see
+     *            {@link #setCacheBudget(long)}), <code>false</code> if it must be rendered on each frame.
+     */
+    void addRenderer(MapTileRenderer renderer, boolean cached);
+
     /**
      * Remove a map tile renderer.
      * 
@@ -43,4 +53,14 @@ public interface MapTileViewer extends Displayable
      * Remove all renderers.
      */
     void clear();
+
+    /**
+     * Set the memory budget of the cached renderers chunks. When enabled, cached renderers pre-render the map by chunks
+     * of tiles, and only the visible part of chunks are drawn, instead of each tile. A chunk is rendered again when one
+     * of its tiles is set, and least recently used chunks are released when above the budget. Renderers not cached are
+     * then rendered over the chunks. Disabled by default.
+     * 
+     * @param budget The memory budget in bytes, 0 to disable cache.
+     */
+    void setCacheBudget(long budget);
 }
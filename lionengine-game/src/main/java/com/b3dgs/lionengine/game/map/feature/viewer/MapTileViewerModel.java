@@ -19,6 +19,7 @@ package com.b3dgs.lionengine.game.map.feature.viewer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
@@ -32,15 +33,33 @@ import com.b3dgs.lionengine.graphic.Viewer;
 
 /**
  * Map tile renderer default implementation.
+ * <p>
+ * Cached renderers can be pre-rendered by chunks of {@value #CHUNK_SIZE} * {@value #CHUNK_SIZE} tiles, see
+ * {@link #setCacheBudget(long)}. Only the cached renderers added before any renderer not cached are pre-rendered, so
+ * that renderers are always drawn in the order they have been added.
+ * </p>
  */
 public class MapTileViewerModel extends FeatureModel implements MapTileViewer
 {
-    /** Map tiles renderers. */
+    /** Number of tiles on each side of a cached chunk. */
+    private static final int CHUNK_SIZE = 16;
+
+    /** Map tiles renderers, in rendering order. */
     private final Collection<MapTileRenderer> renderers = new ArrayList<MapTileRenderer>();
+    /** Map tiles renderers allowed to be cached. */
+    private final Collection<MapTileRenderer> cacheable = new ArrayList<MapTileRenderer>();
+    /** Map tiles renderers pre-rendered, the cacheable ones added before any other. */
+    private final List<MapTileRenderer> cached = new ArrayList<MapTileRenderer>();
+    /** Map tiles renderers rendered on each frame, over the cached ones. */
+    private final Collection<MapTileRenderer> uncached = new ArrayList<MapTileRenderer>();
     /** Map reference. */
     private MapTile map;
     /** Viewer reference. */
     private Viewer viewer;
+    /** Chunks cache. */
+    private TileChunkCache cache;
+    /** Chunks cache memory budget. */
+    private long budget;
 
     /**
      * Create the viewer. It is shipped with a default renderer if no one defined: {@link MapTileRendererModel}.
@@ -51,6 +70,9 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
      * <li>{@link MapTile}</li>
      * <li>{@link Viewer}</li>
      * </ul>
+     * <p>
+     * The default renderer is cached.
+     * </p>
      */
     public MapTileViewerModel()
     {
@@ -61,12 +83,18 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
      * Render the tile from location.
      * 
      * @param g The graphic output.
+     * @param renderers The renderers to use.
      * @param tx The horizontal tile location.
      * @param ty The vertical tile location.
      * @param viewX The horizontal view offset.
      * @param viewY The vertical view offset.
      */
-    private void renderTile(Graphic g, int tx, int ty, double viewX, double viewY)
+    private void renderTile(Graphic g,
+                            Collection<MapTileRenderer> renderers,
+                            int tx,
+                            int ty,
+                            double viewX,
+                            double viewY)
     {
         final Tile tile = map.getTile(tx, ty);
         if (tile != null)
@@ -82,26 +110,77 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
     }
 
     /**
-     * Render horizontal tiles.
+     * Render the visible tiles, line by line. Nothing is done if there is no renderer.
      * 
      * @param g The graphic output.
-     * @param ty The current vertical tile location.
-     * @param viewY The vertical view offset.
+     * @param renderers The renderers to use.
+     * @param stx The first horizontal visible tile.
+     * @param sty The first vertical visible tile.
+     * @param etx The last horizontal visible tile.
+     * @param ety The last vertical visible tile.
      */
-    private void renderHorizontal(Graphic g, int ty, double viewY)
+    private void renderTiles(Graphic g, Collection<MapTileRenderer> renderers, int stx, int sty, int etx, int ety)
     {
-        final int inTileWidth = (int) Math.ceil(viewer.getWidth() / (double) map.getTileWidth());
-        final int sx = (int) Math.floor((viewer.getX() + viewer.getViewX()) / map.getTileWidth());
-        final double viewX = viewer.getX();
+        if (!renderers.isEmpty())
+        {
+            final double viewX = viewer.getX();
+            final double viewY = getViewY();
+            for (int ty = sty; ty <= ety; ty++)
+            {
+                for (int tx = stx; tx <= etx; tx++)
+                {
+                    renderTile(g, renderers, tx, ty, viewX, viewY);
+                }
+            }
+        }
+    }
 
-        for (int h = 0; h <= inTileWidth; h++)
+    /**
+     * Split the renderers between the cached and the uncached ones, keeping the rendering order. Cached chunks are
+     * released if the cached renderers changed.
+     */
+    private void split()
+    {
+        final List<MapTileRenderer> prefix = new ArrayList<MapTileRenderer>();
+        uncached.clear();
+        for (final MapTileRenderer renderer : renderers)
         {
-            final int tx = h + sx;
-            if (!(tx < 0 || tx >= map.getInTileWidth()))
+            if (uncached.isEmpty() && cacheable.contains(renderer))
+            {
+                prefix.add(renderer);
+            }
+            else
             {
-                renderTile(g, tx, ty, viewX, viewY);
+                uncached.add(renderer);
             }
         }
+        if (!prefix.equals(cached))
+        {
+            cached.clear();
+            cached.addAll(prefix);
+            invalidate();
+        }
+    }
+
+    /**
+     * Release the cached chunks, if cache is prepared.
+     */
+    private void invalidate()
+    {
+        if (cache != null)
+        {
+            cache.invalidate();
+        }
+    }
+
+    /**
+     * Get the vertical view offset.
+     * 
+     * @return The vertical view offset.
+     */
+    private double getViewY()
+    {
+        return viewer.getY() - viewer.getViewY() + viewer.getScreenHeight() - viewer.getViewY();
     }
 
     /*
@@ -113,45 +192,89 @@ public class MapTileViewerModel extends FeatureModel implements MapTileViewer
     {
         super.prepare(provider, services);
 
+        if (cache != null)
+        {
+            cache.invalidate();
+            map.removeListener(cache);
+        }
         map = services.get(MapTile.class);
         viewer = services.get(Viewer.class);
         if (renderers.isEmpty())
         {
-            renderers.add(new MapTileRendererModel());
+            addRenderer(new MapTileRendererModel(), true);
         }
+        cache = new TileChunkCache(map, cached, CHUNK_SIZE);
+        cache.setBudget(budget);
+        map.addListener(cache);
     }
 
     @Override
     public void addRenderer(MapTileRenderer renderer)
+    {
+        addRenderer(renderer, false);
+    }
+
+    @Override
+    public void addRenderer(MapTileRenderer renderer, boolean cached)
     {
         renderers.add(renderer);
+        if (cached)
+        {
+            cacheable.add(renderer);
+        }
+        split();
     }
 
     @Override
     public void removeRenderer(MapTileRenderer renderer)
     {
         renderers.remove(renderer);
+        cacheable.remove(renderer);
+        split();
     }
 
     @Override
     public void clear()
     {
         renderers.clear();
+        cacheable.clear();
+        cached.clear();
+        uncached.clear();
+        invalidate();
+    }
+
+    @Override
+    public void setCacheBudget(long budget)
+    {
+        this.budget = budget;
+        if (cache != null)
+        {
+            cache.setBudget(budget);
+        }
     }
 
     @Override
     public void render(Graphic g)
     {
-        final int inTileHeight = (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight());
+        final int sx = (int) Math.floor((viewer.getX() + viewer.getViewX()) / map.getTileWidth());
         final int sy = (int) Math.floor((viewer.getY() - viewer.getViewY()) / map.getTileHeight());
-        final double viewY = viewer.getY() - viewer.getViewY() + viewer.getScreenHeight() - viewer.getViewY();
+        final int stx = Math.max(0, sx);
+        final int sty = Math.max(0, sy);
+        final int etx = Math.min(map.getInTileWidth() - 1,
+                                 sx + (int) Math.ceil(viewer.getWidth() / (double) map.getTileWidth()));
+        final int ety = Math.min(map.getInTileHeight() - 1,
+                                 sy + (int) Math.ceil(viewer.getHeight() / (double) map.getTileHeight()));
 
-        for (int v = 0; v <= inTileHeight; v++)
+        if (stx <= etx && sty <= ety)
         {
-            final int ty = v + sy;
-            if (!(ty < 0 || ty >= map.getInTileHeight()))
+            if (cache.isEnabled())
+            {
+                cache.render(g, stx, sty, etx, ety, viewer.getX(), getViewY());
+                renderTiles(g, uncached, stx, sty, etx, ety);
+            }
+            else
             {
-                renderHorizontal(g, ty, viewY);
+                renderTiles(g, renderers, stx, sty, etx, ety);
             }
         }
     }
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.viewer;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.core.Graphics;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileRenderer;
+import com.b3dgs.lionengine.game.map.TileSetListener;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+import com.b3dgs.lionengine.graphic.Transparency;
+
+/**
+ * Cache of tiles pre-rendered by square chunks. A chunk is rendered again when one of its tiles is set, and least
+ * recently used chunks are released when above the memory budget.
+ */
+final class TileChunkCache implements TileSetListener
+{
+    /** Chunks initial capacity. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Chunks load factor. */
+    private static final float LOAD_FACTOR = 0.75F;
+    /** Bytes used by a chunk pixel. */
+    private static final int PIXEL_BYTES = 4;
+
+    /** Rendered chunks by index, in access order. */
+    private final Map<Integer, ImageBuffer> chunks = new LinkedHashMap<Integer, ImageBuffer>(INITIAL_CAPACITY,
+                                                                                             LOAD_FACTOR,
+                                                                                             true);
+    /** Map reference. */
+    private final MapTile map;
+    /** Cached renderers, in rendering order. */
+    private final Collection<MapTileRenderer> renderers;
+    /** Number of tiles on each side of a chunk. */
+    private final int chunkSize;
+    /** Memory budget in bytes, chunks are disabled if not strictly positive. */
+    private long budget;
+    /** Horizontal tiles of the cached map. */
+    private int widthInTile;
+    /** Vertical tiles of the cached map. */
+    private int heightInTile;
+
+    /**
+     * Create the cache.
+     * 
+     * @param map The map reference.
+     * @param renderers The cached renderers reference, in rendering order.
+     * @param chunkSize The number of tiles on each side of a chunk.
+     */
+    TileChunkCache(MapTile map, Collection<MapTileRenderer> renderers, int chunkSize)
+    {
+        this.map = map;
+        this.renderers = renderers;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the memory budget. Chunks above are released.
+     * 
+     * @param budget The memory budget in bytes, 0 to disable cache.
+     */
+    void setBudget(long budget)
+    {
+        this.budget = budget;
+        evict(0);
+    }
+
+    /**
+     * Check if cache is enabled.
+     * 
+     * @return <code>true</code> if has a memory budget, <code>false</code> else.
+     */
+    boolean isEnabled()
+    {
+        return budget > 0L;
+    }
+
+    /**
+     * Release all chunks, they will be rendered again when visible.
+     */
+    void invalidate()
+    {
+        for (final ImageBuffer chunk : chunks.values())
+        {
+            chunk.dispose();
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Render the visible tiles range, by drawing the intersecting part of their chunks.
+     * 
+     * @param g The graphic output.
+     * @param stx The first horizontal visible tile.
+     * @param sty The first vertical visible tile.
+     * @param etx The last horizontal visible tile.
+     * @param ety The last vertical visible tile.
+     * @param viewX The horizontal view offset.
+     * @param viewY The vertical view offset.
+     */
+    void render(Graphic g, int stx, int sty, int etx, int ety, double viewX, double viewY)
+    {
+        if (widthInTile != map.getInTileWidth() || heightInTile != map.getInTileHeight())
+        {
+            invalidate();
+            widthInTile = map.getInTileWidth();
+            heightInTile = map.getInTileHeight();
+        }
+        final int offsetX = (int) Math.floor(-viewX);
+        final int offsetY = (int) Math.floor(viewY);
+        int used = 0;
+        for (int cy = sty / chunkSize; cy <= ety / chunkSize; cy++)
+        {
+            for (int cx = stx / chunkSize; cx <= etx / chunkSize; cx++)
+            {
+                final ImageBuffer chunk = getChunk(cx, cy);
+                final int ftx = Math.max(stx, cx * chunkSize);
+                final int fty = Math.max(sty, cy * chunkSize);
+                final int ltx = Math.min(etx, (cx + 1) * chunkSize - 1);
+                final int lty = Math.min(ety, (cy + 1) * chunkSize - 1);
+
+                final int sx = (ftx - cx * chunkSize) * map.getTileWidth();
+                final int sy = ((cy + 1) * chunkSize - 1 - lty) * map.getTileHeight();
+                final int width = (ltx - ftx + 1) * map.getTileWidth();
+                final int height = (lty - fty + 1) * map.getTileHeight();
+                final int dx = offsetX + ftx * map.getTileWidth();
+                final int dy = offsetY - (lty + 1) * map.getTileHeight();
+
+                g.drawImage(chunk, dx, dy, dx + width, dy + height, sx, sy, sx + width, sy + height);
+                used++;
+            }
+        }
+        evict(used);
+    }
+
+    /**
+     * Get the chunk, render it if not cached.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The rendered chunk.
+     */
+    private ImageBuffer getChunk(int cx, int cy)
+    {
+        final Integer key = Integer.valueOf(getKey(cx, cy));
+        ImageBuffer chunk = chunks.get(key);
+        if (chunk == null)
+        {
+            chunk = renderChunk(cx, cy);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Render the chunk tiles with the cached renderers.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The rendered chunk.
+     */
+    private ImageBuffer renderChunk(int cx, int cy)
+    {
+        final int tw = map.getTileWidth();
+        final int th = map.getTileHeight();
+        final ImageBuffer chunk = Graphics.createImageBuffer(chunkSize * tw, chunkSize * th, Transparency.TRANSLUCENT);
+        final Graphic g = chunk.createGraphic();
+
+        final int ex = Math.min(map.getInTileWidth(), (cx + 1) * chunkSize);
+        final int ey = Math.min(map.getInTileHeight(), (cy + 1) * chunkSize);
+        for (int ty = cy * chunkSize; ty < ey; ty++)
+        {
+            final int y = ((cy + 1) * chunkSize - 1 - ty) * th;
+            for (int tx = cx * chunkSize; tx < ex; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                if (tile != null)
+                {
+                    renderTile(g, tile, (tx - cx * chunkSize) * tw, y);
+                }
+            }
+        }
+        g.dispose();
+        return chunk;
+    }
+
+    /**
+     * Render the tile with the cached renderers.
+     * 
+     * @param g The chunk graphic output.
+     * @param tile The tile to render.
+     * @param x The horizontal location inside chunk.
+     * @param y The vertical location inside chunk.
+     */
+    private void renderTile(Graphic g, Tile tile, int x, int y)
+    {
+        for (final MapTileRenderer renderer : renderers)
+        {
+            renderer.renderTile(g, map, tile, x, y);
+        }
+    }
+
+    /**
+     * Release the least recently used chunks above the memory budget. The chunks used by the last frame are kept.
+     * 
+     * @param used The number of chunks used by the last frame.
+     */
+    private void evict(int used)
+    {
+        final long chunkBytes = (long) chunkSize * chunkSize * map.getTileWidth() * map.getTileHeight() * PIXEL_BYTES;
+        final long limit = Math.max(used, budget / Math.max(1L, chunkBytes));
+        final Iterator<ImageBuffer> iterator = chunks.values().iterator();
+        while (chunks.size() > limit)
+        {
+            iterator.next().dispose();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Get the chunk key.
+     * 
+     * @param cx The horizontal chunk index.
+     * @param cy The vertical chunk index.
+     * @return The chunk key.
+     */
+    private int getKey(int cx, int cy)
+    {
+        final int chunksX = (int) Math.ceil(map.getInTileWidth() / (double) chunkSize);
+        return cx + cy * chunksX;
+    }
+
+    /*
+     * TileSetListener
+     */
+
+    @Override
+    public void notifyTileSet(Tile tile)
+    {
+        final ImageBuffer chunk = chunks.remove(Integer.valueOf(getKey(tile.getInTileX() / chunkSize,
+                                                                      tile.getInTileY() / chunkSize)));
+        if (chunk != null)
+        {
+            chunk.dispose();
+        }
+    }
+}
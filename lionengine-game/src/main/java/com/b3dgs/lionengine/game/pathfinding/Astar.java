@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.game.pathfinding;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.map.MapTile;
 
@@ -39,6 +40,66 @@ public final class Astar
         return new PathFinderImpl(map, maxSearchDistance, heuristic);
     }
 
+    /**
+     * Create a path finder storing its nodes in primitive arrays, with a binary heap as open list. Searches do not
+     * allocate, except for the returned path.
+     * 
+     * @param map The map to be searched. Must have the {@link com.b3dgs.lionengine.game.pathfinding.MapTilePath}
+     *            feature.
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     * @return The path finder instance.
+     */
+    public static PathFinder createPathFinderHeap(MapTile map, int maxSearchDistance, Heuristic heuristic)
+    {
+        return new PathFinderHeap(map, maxSearchDistance, heuristic);
+    }
+
+    /**
+     * Create a hierarchical path finder. The map is split into clusters linked by their borders entrances. Long
+     * searches are performed on clusters graph, and then refined locally. The graph is computed lazily, and updated
+     * when objects ID on map path change.
+     * <p>
+     * The clusters graph depends on the pathfindable categories, so the path finder must be shared only between
+     * pathfindables with the same configuration (see {@link Pathfindable#setPathFinder(PathFinder)}).
+     * </p>
+     * 
+     * @param map The map to be searched. Must have the {@link com.b3dgs.lionengine.game.pathfinding.MapTilePath}
+     *            feature.
+     * @param clusterSize The cluster size in tile (must be strictly positive).
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     * @return The path finder instance.
+     * @throws LionEngineException If invalid cluster size.
+     */
+    public static PathFinder createPathFinderHierarchical(MapTile map,
+                                                          int clusterSize,
+                                                          int maxSearchDistance,
+                                                          Heuristic heuristic)
+    {
+        Check.superiorStrict(clusterSize, 0);
+
+        return new PathFinderHierarchical(map, clusterSize, maxSearchDistance, heuristic);
+    }
+
+    /**
+     * Create a flow field path finder. A field is computed once per destination and pathfindable configuration, and
+     * followed by all pathfindables sharing them (see {@link Pathfindable#setPathFinder(PathFinder)}). Fields are
+     * cached, and invalidated when impacted by objects ID changes on map path.
+     * 
+     * @param map The map to be searched. Must have the {@link com.b3dgs.lionengine.game.pathfinding.MapTilePath}
+     *            feature.
+     * @param cacheSize The maximum number of cached fields (must be strictly positive).
+     * @return The path finder instance.
+     * @throws LionEngineException If invalid cache size.
+     */
+    public static PathFinder createPathFinderFlowField(MapTile map, int cacheSize)
+    {
+        Check.superiorStrict(cacheSize, 0);
+
+        return new PathFinderFlowField(map, cacheSize);
+    }
+
     /**
      * Create the closest heuristic.
      * 
@@ -36,6 +36,20 @@ public interface MapTilePath extends Feature
      */
     void loadPathfinding(Media pathfindingConfig);
 
+    /**
+     * Add a map tile path listener.
+     * 
+     * @param listener The listener reference.
+     */
+    void addListener(MapTilePathListener listener);
+
+    /**
+     * Remove a map tile path listener.
+     * 
+     * @param listener The listener reference.
+     */
+    void removeListener(MapTilePathListener listener);
+
     /**
      * Add object ID at this location.
      * 
@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.game.pathfinding;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,6 +29,7 @@ import com.b3dgs.lionengine.game.feature.FeatureModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileArray;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
 import com.b3dgs.lionengine.game.tile.Tile;
@@ -41,6 +43,8 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
 {
     /** Categories list. */
     private final Map<String, PathCategory> categories = new HashMap<String, PathCategory>();
+    /** Listeners list. */
+    private final Collection<MapTilePathListener> listeners = new ArrayList<MapTilePathListener>();
     /** Map reference. */
     private MapTile map;
     /** Map group reference. */
@@ -121,6 +125,20 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         return new CoordTile(closestX, closestY);
     }
 
+    /**
+     * Notify listeners that tile objects ID changed.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    private void notifyTileChanged(int tx, int ty)
+    {
+        for (final MapTilePathListener listener : listeners)
+        {
+            listener.notifyTileChanged(tx, ty);
+        }
+    }
+
     /**
      * Get the group category.
      * 
@@ -150,6 +168,10 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
 
         map = services.get(MapTile.class);
         mapGroup = map.getFeature(MapTileGroupModel.class);
+        if (map instanceof MapTileArray)
+        {
+            ((MapTileArray) map).addColumn(TilePath.class, new TilePathColumn());
+        }
     }
 
     @Override
@@ -177,6 +199,18 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         }
     }
 
+    @Override
+    public void addListener(MapTilePathListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(MapTilePathListener listener)
+    {
+        listeners.remove(listener);
+    }
+
     @Override
     public void addObjectId(int tx, int ty, Integer id)
     {
@@ -185,6 +219,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         {
             final TilePath tilePath = tile.getFeature(TilePath.class);
             tilePath.addObjectId(id);
+            notifyTileChanged(tx, ty);
         }
     }
 
@@ -196,6 +231,7 @@ public class MapTilePathModel extends FeatureModel implements MapTilePath
         {
             final TilePath tilePath = tile.getFeature(TilePath.class);
             tilePath.removeObjectId(id);
+            notifyTileChanged(tx, ty);
         }
     }
 
@@ -0,0 +1,591 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Flow field path finder implementation. A flow field stores, for each tile of the map, the next tile to take to
+ * reach the destination, computed by a single search from the destination. All pathfindables sharing the same
+ * destination and categories configuration follow the same field, turning one search per pathfindable into one
+ * search per destination, paths being read from the field.
+ * <p>
+ * Fields are cached, the least recently used being evicted when cache is full. Fields computed with objects ID
+ * (<code>ignoreRef</code> set to <code>false</code>) consider objects not ignored by the pathfindable as blocking, and
+ * are invalidated only when an objects ID change impacts them ({@link MapTilePathListener}). Fields ignoring objects
+ * ID are not impacted by them.
+ * </p>
+ */
+final class PathFinderFlowField implements PathFinder, MapTilePathListener
+{
+    /** Not reached. */
+    private static final int NONE = -1;
+
+    /** Cached fields. */
+    private final Cache fields;
+    /** Categories name found on map. */
+    private final List<String> names = new ArrayList<String>();
+    /** Categories index found on map. */
+    private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param cacheSize The maximum number of cached fields.
+     */
+    PathFinderFlowField(MapTile map, int cacheSize)
+    {
+        this.map = map;
+        fields = new Cache(cacheSize);
+        mapPath = map.getFeature(MapTilePath.class);
+        mapPath.addListener(this);
+    }
+
+    /**
+     * Get the field from cache, or create it.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile.
+     * @param dty The vertical destination tile.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The field reference.
+     */
+    private Field getField(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int destination = dty * map.getInTileWidth() + dtx;
+        Key key = new Key(getProfile(mover, ignoreRef), destination, ignoreRef);
+        Field field = fields.get(key);
+        if (field == null)
+        {
+            final int known = names.size();
+            final int[] tiles = getTiles(key.profile, ignoreRef);
+            if (names.size() > known)
+            {
+                // Tiles category not defined by map, unknown by profile
+                key = new Key(getProfile(mover, ignoreRef), destination, ignoreRef);
+            }
+            field = createField(key.profile, tiles, destination);
+            fields.put(key, field);
+        }
+        return field;
+    }
+
+    /**
+     * Get the mover profile for the categories defined by map, and the ones found on map.
+     * 
+     * @param mover The mover reference.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The mover profile.
+     */
+    private PathProfile getProfile(Pathfindable mover, boolean ignoreRef)
+    {
+        for (final String category : mapPath.getCategories())
+        {
+            getIndex(category);
+        }
+        return new PathProfile(mover, names.toArray(new String[names.size()]), ignoreRef);
+    }
+
+    /**
+     * Get the category index of each tile, {@link #NONE} if no tile or occupied by an object not ignored. New
+     * categories found are stored.
+     * 
+     * @param profile The pathfindable profile.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The category index per tile.
+     */
+    private int[] getTiles(PathProfile profile, boolean ignoreRef)
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        final int[] tiles = new int[width * height];
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                int category = NONE;
+                if (tile != null && (ignoreRef || profile.isIgnored(mapPath.getObjectsId(tx, ty))))
+                {
+                    category = getIndex(tile.getFeature(TilePath.class).getCategory());
+                }
+                tiles[ty * width + tx] = category;
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Get the category index, stored if new.
+     * 
+     * @param name The category name.
+     * @return The category index.
+     */
+    private int getIndex(String name)
+    {
+        Integer index = indexes.get(name);
+        if (index == null)
+        {
+            index = Integer.valueOf(names.size());
+            indexes.put(name, index);
+            names.add(name);
+        }
+        return index.intValue();
+    }
+
+    /**
+     * Create the field by searching from destination to all tiles.
+     * 
+     * @param profile The pathfindable profile.
+     * @param tiles The category index per tile.
+     * @param destination The destination tile index.
+     * @return The created field.
+     */
+    private Field createField(PathProfile profile, int[] tiles, int destination)
+    {
+        final Field field = new Field(tiles.length, destination);
+        final PriorityQueue<Entry> open = new PriorityQueue<Entry>();
+        open.add(new Entry(destination, 0.0));
+
+        Entry entry = open.poll();
+        while (entry != null)
+        {
+            if (entry.cost <= field.costs[entry.node])
+            {
+                expand(profile, tiles, field, open, entry.node);
+            }
+            entry = open.poll();
+        }
+        return field;
+    }
+
+    /**
+     * Expand the tiles which can move to the current one.
+     * 
+     * @param profile The pathfindable profile.
+     * @param tiles The category index per tile.
+     * @param field The field to fill.
+     * @param open The open entries.
+     * @param current The current node.
+     */
+    private void expand(PathProfile profile, int[] tiles, Field field, PriorityQueue<Entry> open, int current)
+    {
+        final int width = map.getInTileWidth();
+        final int cx = current % width;
+        final int cy = current / width;
+        for (int i = 0; i < PathFinderHeap.MOVEMENTS.length; i++)
+        {
+            final int xp = cx - PathFinderHeap.NEIGHBOURS_X[i];
+            final int yp = cy - PathFinderHeap.NEIGHBOURS_Y[i];
+            final int neighbour = yp * width + xp;
+            if (isInside(xp, yp) && isWalkable(profile, tiles[neighbour], i))
+            {
+                final double cost = field.costs[current] + profile.getCost(tiles[neighbour]);
+                if (cost < field.costs[neighbour])
+                {
+                    field.nexts[neighbour] = current;
+                    field.costs[neighbour] = cost;
+                    open.add(new Entry(neighbour, cost));
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if tile can be walked with movement.
+     * 
+     * @param profile The pathfindable profile.
+     * @param category The tile category index, {@link #NONE} if no tile or occupied.
+     * @param movement The movement index.
+     * @return <code>true</code> if walkable, <code>false</code> else.
+     */
+    private static boolean isWalkable(PathProfile profile, int category, int movement)
+    {
+        return category != NONE && !profile.isBlocking(category) && profile.isMovementAllowed(category, movement);
+    }
+
+    /**
+     * Get the tile category.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The tile category.
+     */
+    private String getCategory(int tx, int ty)
+    {
+        return map.getTile(tx, ty).getFeature(TilePath.class).getCategory();
+    }
+
+    /**
+     * Create the path by following the field from start.
+     * 
+     * @param field The field to follow.
+     * @param mover The mover reference.
+     * @param stx The horizontal start tile.
+     * @param sty The vertical start tile.
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path createPath(Field field, Pathfindable mover, int stx, int sty)
+    {
+        final int width = map.getInTileWidth();
+        final int start = sty * width + stx;
+        int node = NONE;
+        if (start != field.destination && map.getTile(stx, sty) != null)
+        {
+            node = getFirstStep(field, mover, stx, sty);
+        }
+        if (node == NONE)
+        {
+            return null;
+        }
+
+        final Path path = new Path();
+        path.appendStep(stx, sty);
+        path.appendStep(node % width, node / width);
+        while (node != field.destination)
+        {
+            node = field.nexts[node];
+            path.appendStep(node % width, node / width);
+        }
+        return path;
+    }
+
+    /**
+     * Get the first step from start. Start tile may be blocked (by the mover itself), in this case the best reached
+     * neighbour is used.
+     * 
+     * @param field The field to follow.
+     * @param mover The mover reference.
+     * @param stx The horizontal start tile.
+     * @param sty The vertical start tile.
+     * @return The first step node, {@link #NONE} if none.
+     */
+    private int getFirstStep(Field field, Pathfindable mover, int stx, int sty)
+    {
+        final int width = map.getInTileWidth();
+        final int start = sty * width + stx;
+        if (field.nexts[start] != NONE)
+        {
+            return field.nexts[start];
+        }
+        final String category = getCategory(stx, sty);
+        int first = NONE;
+        for (int i = 0; i < PathFinderHeap.MOVEMENTS.length; i++)
+        {
+            final int xp = stx + PathFinderHeap.NEIGHBOURS_X[i];
+            final int yp = sty + PathFinderHeap.NEIGHBOURS_Y[i];
+            final int neighbour = yp * width + xp;
+            if (isInside(xp, yp)
+                && mover.isMovementAllowed(category, PathFinderHeap.MOVEMENTS[i])
+                && isBetter(field, neighbour, first))
+            {
+                first = neighbour;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Check if reached node is better than current one. The destination is reached.
+     * 
+     * @param field The field reference.
+     * @param node The node to check.
+     * @param current The current best node, {@link #NONE} if none.
+     * @return <code>true</code> if node is reached and better, <code>false</code> else.
+     */
+    private static boolean isBetter(Field field, int node, int current)
+    {
+        final boolean reached = node == field.destination || field.nexts[node] != NONE;
+        return reached && (current == NONE || field.costs[node] < field.costs[current]);
+    }
+
+    /**
+     * Check if tile is inside map.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if inside, <code>false</code> else.
+     */
+    private boolean isInside(int tx, int ty)
+    {
+        return tx >= 0 && ty >= 0 && tx < map.getInTileWidth() && ty < map.getInTileHeight();
+    }
+
+    /**
+     * Find a path to the closest available tile around the blocked destination.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findClosestPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+        if (tile == null)
+        {
+            return null;
+        }
+        return findPath(mover, tile.getX(), tile.getY(), ignoreRef);
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+
+        final Path path;
+        if (!isInside(stx, sty)
+            || mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            path = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            path = findClosestPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = createPath(getField(mover, dtx, dty, ignoreRef), mover, stx, sty);
+        }
+        return path;
+    }
+
+    /*
+     * MapTilePathListener
+     */
+
+    @Override
+    public void notifyTileChanged(int tx, int ty)
+    {
+        if (isInside(tx, ty))
+        {
+            final int node = ty * map.getInTileWidth() + tx;
+            final Collection<Integer> ids = mapPath.getObjectsId(tx, ty);
+            final Iterator<Map.Entry<Key, Field>> iterator = fields.entrySet().iterator();
+            while (iterator.hasNext())
+            {
+                final Map.Entry<Key, Field> entry = iterator.next();
+                final Key key = entry.getKey();
+                if (!key.ignoreRef && isAffected(entry.getValue(), tx, ty, node, !key.profile.isIgnored(ids)))
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if field is affected by a tile objects ID change. A blocked tile affects field if reached, a free tile
+     * affects field if not reached but next to a reached one.
+     * 
+     * @param field The field to check.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param node The tile index.
+     * @param blocked <code>true</code> if tile is now blocked by objects not ignored, <code>false</code> else.
+     * @return <code>true</code> if affected, <code>false</code> else.
+     */
+    private boolean isAffected(Field field, int tx, int ty, int node, boolean blocked)
+    {
+        final boolean reached = field.nexts[node] != NONE || node == field.destination;
+        if (blocked || reached)
+        {
+            return reached;
+        }
+        boolean affected = false;
+        for (int i = 0; i < PathFinderHeap.MOVEMENTS.length && !affected; i++)
+        {
+            final int xp = tx + PathFinderHeap.NEIGHBOURS_X[i];
+            final int yp = ty + PathFinderHeap.NEIGHBOURS_Y[i];
+            affected = isInside(xp, yp) && field.costs[yp * map.getInTileWidth() + xp] < Double.POSITIVE_INFINITY;
+        }
+        return affected;
+    }
+
+    /**
+     * Flow field data.
+     */
+    private static final class Field
+    {
+        /** Next tile index to destination, {@link PathFinderFlowField#NONE} if not reached. */
+        private final int[] nexts;
+        /** Cost to destination. */
+        private final double[] costs;
+        /** Destination tile index. */
+        private final int destination;
+
+        /**
+         * Create field.
+         * 
+         * @param size The map size in tile.
+         * @param destination The destination tile index.
+         */
+        Field(int size, int destination)
+        {
+            this.destination = destination;
+            nexts = new int[size];
+            costs = new double[size];
+            Arrays.fill(nexts, NONE);
+            Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            costs[destination] = 0.0;
+        }
+    }
+
+    /**
+     * Field key.
+     */
+    private static final class Key
+    {
+        /** Pathfindable profile. */
+        private final PathProfile profile;
+        /** Destination tile index. */
+        private final int destination;
+        /** Ignore references flag. */
+        private final boolean ignoreRef;
+
+        /**
+         * Create key.
+         * 
+         * @param profile The pathfindable profile.
+         * @param destination The destination tile index.
+         * @param ignoreRef The ignore references flag.
+         */
+        Key(PathProfile profile, int destination, boolean ignoreRef)
+        {
+            this.profile = profile;
+            this.destination = destination;
+            this.ignoreRef = ignoreRef;
+        }
+
+        /*
+         * Object
+         */
+
+        @Override
+        public int hashCode()
+        {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + destination;
+            result = prime * result + Boolean.valueOf(ignoreRef).hashCode();
+            result = prime * result + profile.hashCode();
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return destination == other.destination && ignoreRef == other.ignoreRef && profile.equals(other.profile);
+        }
+    }
+
+    /**
+     * Least recently used fields cache.
+     */
+    private static final class Cache extends LinkedHashMap<Key, Field>
+    {
+        /** Serial UID. */
+        private static final long serialVersionUID = 1L;
+        /** Default load factor. */
+        private static final float LOAD_FACTOR = 0.75F;
+
+        /** Maximum cached fields. */
+        private final int max;
+
+        /**
+         * Create cache.
+         * 
+         * @param max The maximum cached fields.
+         */
+        Cache(int max)
+        {
+            super(max + 1, LOAD_FACTOR, true);
+            this.max = max;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Field> eldest)
+        {
+            return size() > max;
+        }
+    }
+
+    /**
+     * Field search open entry.
+     */
+    private static final class Entry implements Comparable<Entry>
+    {
+        /** Node tile index. */
+        private final int node;
+        /** Cost to destination. */
+        private final double cost;
+
+        /**
+         * Create entry.
+         * 
+         * @param node The node tile index.
+         * @param cost The cost to destination.
+         */
+        Entry(int node, double cost)
+        {
+            this.node = node;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Entry other)
+        {
+            return Double.compare(cost, other.cost);
+        }
+    }
+}
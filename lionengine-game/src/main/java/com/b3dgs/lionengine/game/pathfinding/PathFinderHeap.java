@@ -0,0 +1,565 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * A path finder implementation that uses the AStar heuristic based algorithm to determine a path.
+ * <p>
+ * Nodes are stored in primitive arrays indexed by tile, the open list is an indexed binary heap, and each search
+ * increments a generation stamp instead of clearing the nodes, so a search does not allocate until the path is built.
+ * Arrays are allocated on first search.
+ * </p>
+ * <p>
+ * Search can also be limited to an area, in order to be used as a local search by {@link PathFinderHierarchical}.
+ * </p>
+ */
+final class PathFinderHeap implements PathFinder
+{
+    /** Neighbours horizontal offsets. */
+    static final int[] NEIGHBOURS_X =
+    {
+        -1, 0, 1, -1, 1, -1, 0, 1
+    };
+    /** Neighbours vertical offsets. */
+    static final int[] NEIGHBOURS_Y =
+    {
+        -1, -1, -1, 0, 0, 1, 1, 1
+    };
+    /** Neighbours movements. */
+    static final MovementTile[] MOVEMENTS = new MovementTile[NEIGHBOURS_X.length];
+    /** Not in open list index. */
+    private static final int NONE = -1;
+
+    static
+    {
+        for (int i = 0; i < MOVEMENTS.length; i++)
+        {
+            MOVEMENTS[i] = MovementTile.from(NEIGHBOURS_X[i], NEIGHBOURS_Y[i]);
+        }
+    }
+
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Max distance to search. */
+    private final int maxSearchDistance;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Map width in tile. */
+    private final int width;
+    /** Map height in tile. */
+    private final int height;
+    /** Nodes generation when reached. */
+    private int[] reached;
+    /** Nodes cost from start. */
+    private double[] costs;
+    /** Nodes total cost (cost and heuristic). */
+    private double[] totals;
+    /** Nodes parent index. */
+    private int[] parents;
+    /** Nodes depth. */
+    private int[] depths;
+    /** Nodes index in open heap ({@link #NONE} if not in open list). */
+    private int[] positions;
+    /** Open heap (nodes index). */
+    private int[] open;
+    /** Path steps buffer (nodes index). */
+    private int[] steps;
+    /** Open heap size. */
+    private int openSize;
+    /** Current search generation. */
+    private int generation;
+    /** Search area minimum horizontal tile. */
+    private int minTx;
+    /** Search area minimum vertical tile. */
+    private int minTy;
+    /** Search area maximum horizontal tile (inclusive). */
+    private int maxTx;
+    /** Search area maximum vertical tile (inclusive). */
+    private int maxTy;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     */
+    PathFinderHeap(MapTile map, int maxSearchDistance, Heuristic heuristic)
+    {
+        this.map = map;
+        this.maxSearchDistance = maxSearchDistance;
+        this.heuristic = heuristic;
+        mapPath = map.getFeature(MapTilePath.class);
+        width = map.getInTileWidth();
+        height = map.getInTileHeight();
+    }
+
+    /**
+     * Start a new search generation.
+     */
+    private void nextGeneration()
+    {
+        if (reached == null)
+        {
+            final int size = width * height;
+            reached = new int[size];
+            costs = new double[size];
+            totals = new double[size];
+            parents = new int[size];
+            depths = new int[size];
+            positions = new int[size];
+            open = new int[size];
+            steps = new int[size];
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(reached, 0);
+            generation = 1;
+        }
+        openSize = 0;
+    }
+
+    /**
+     * Check if a given location is valid for the supplied mover.
+     * 
+     * @param mover The mover that would hold a given location.
+     * @param stx The starting x coordinate.
+     * @param sty The starting y coordinate.
+     * @param dtx The x coordinate of the location to check.
+     * @param dty The y coordinate of the location to check.
+     * @param ignoreRef The ignore map reference array checking.
+     * @return <code>true</code> if the location is valid for the given mover, <code>false</code> else.
+     */
+    private boolean isValidLocation(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        boolean invalid = dtx < minTx || dty < minTy || dtx > maxTx || dty > maxTy;
+
+        if (!invalid && (stx != dtx || sty != dty))
+        {
+            invalid = mapPath.isBlocked(mover, dtx, dty, ignoreRef);
+        }
+
+        return !invalid;
+    }
+
+    /**
+     * Get the heuristic cost, which is zero when searching without destination.
+     * 
+     * @param stx The x coordinate of the tile whose cost is being determined
+     * @param sty The y coordinate of the tile whose cost is being determined
+     * @param dtx The x coordinate of the target location
+     * @param dty The y coordinate of the target location
+     * @return The heuristic cost assigned to the tile
+     */
+    private double getHeuristicCost(int stx, int sty, int dtx, int dty)
+    {
+        if (dtx < 0 || dty < 0)
+        {
+            return 0.0;
+        }
+        return heuristic.getCost(stx, sty, dtx, dty);
+    }
+
+    /**
+     * Reach a node, storing its search data.
+     * 
+     * @param node The node index.
+     * @param parent The parent node index ({@link #NONE} if none).
+     * @param depth The node depth.
+     * @param cost The cost from start.
+     * @param total The total cost.
+     */
+    private void reach(int node, int parent, int depth, double cost, double total)
+    {
+        reached[node] = generation;
+        parents[node] = parent;
+        depths[node] = depth;
+        costs[node] = cost;
+        totals[node] = total;
+    }
+
+    /**
+     * Update the neighbours of the current node.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param current The current node index.
+     * @param maxDepth The last max depth.
+     * @return The next max depth.
+     */
+    private int updateNeighbours(Pathfindable mover,
+                                 int stx,
+                                 int sty,
+                                 int dtx,
+                                 int dty,
+                                 boolean ignoreRef,
+                                 int current,
+                                 int maxDepth)
+    {
+        int depth = maxDepth;
+        final int cx = current % width;
+        final int cy = current / width;
+        final Tile tile = map.getTile(cx, cy);
+        final String category = tile.getFeature(TilePath.class).getCategory();
+        final double nextStepCost = costs[current] + mapPath.getCost(mover, cx, cy);
+
+        for (int i = 0; i < MOVEMENTS.length; i++)
+        {
+            final int xp = cx + NEIGHBOURS_X[i];
+            final int yp = cy + NEIGHBOURS_Y[i];
+            if (mover.isMovementAllowed(category, MOVEMENTS[i])
+                && isValidLocation(mover, stx, sty, xp, yp, ignoreRef))
+            {
+                final int neighbour = yp * width + xp;
+                if (reached[neighbour] != generation)
+                {
+                    final double total = nextStepCost + getHeuristicCost(xp, yp, dtx, dty);
+                    reach(neighbour, current, depths[current] + 1, nextStepCost, total);
+                    push(neighbour);
+                    depth = Math.max(depth, depths[neighbour]);
+                }
+                else if (nextStepCost < costs[neighbour])
+                {
+                    improve(neighbour, current, nextStepCost);
+                    depth = Math.max(depth, depths[neighbour]);
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Improve an already reached node with a lower cost, and reopen it if closed.
+     * 
+     * @param node The node index.
+     * @param parent The new parent node index.
+     * @param cost The new cost from start.
+     */
+    private void improve(int node, int parent, double cost)
+    {
+        final double total = totals[node] - costs[node] + cost;
+        reach(node, parent, depths[parent] + 1, cost, total);
+        if (positions[node] == NONE)
+        {
+            push(node);
+        }
+        else
+        {
+            up(positions[node]);
+        }
+    }
+
+    /**
+     * Add a node to the open heap.
+     * 
+     * @param node The node index.
+     */
+    private void push(int node)
+    {
+        open[openSize] = node;
+        positions[node] = openSize;
+        openSize++;
+        up(openSize - 1);
+    }
+
+    /**
+     * Remove the first node of the open heap.
+     * 
+     * @return The removed node index.
+     */
+    private int pop()
+    {
+        final int first = open[0];
+        openSize--;
+        if (openSize > 0)
+        {
+            set(0, open[openSize]);
+            down(0);
+        }
+        positions[first] = NONE;
+        return first;
+    }
+
+    /**
+     * Move up heap element until its parent is lower.
+     * 
+     * @param index The heap index.
+     */
+    private void up(int index)
+    {
+        final int node = open[index];
+        int current = index;
+        while (current > 0)
+        {
+            final int parent = (current - 1) / 2;
+            if (totals[open[parent]] <= totals[node])
+            {
+                break;
+            }
+            set(current, open[parent]);
+            current = parent;
+        }
+        set(current, node);
+    }
+
+    /**
+     * Move down heap element until its children are greater.
+     * 
+     * @param index The heap index.
+     */
+    private void down(int index)
+    {
+        final int node = open[index];
+        int current = index;
+        int child = current * 2 + 1;
+        while (child < openSize)
+        {
+            if (child + 1 < openSize && totals[open[child + 1]] < totals[open[child]])
+            {
+                child++;
+            }
+            if (totals[node] <= totals[open[child]])
+            {
+                break;
+            }
+            set(current, open[child]);
+            current = child;
+            child = current * 2 + 1;
+        }
+        set(current, node);
+    }
+
+    /**
+     * Set heap element.
+     * 
+     * @param index The heap index.
+     * @param node The node index.
+     */
+    private void set(int index, int node)
+    {
+        open[index] = node;
+        positions[node] = index;
+    }
+
+    /**
+     * Create the path from destination node.
+     * 
+     * @param start The start node index.
+     * @param destination The destination node index.
+     * @return The created path.
+     */
+    private Path createPath(int start, int destination)
+    {
+        final Path path = new Path();
+        path.appendStep(start % width, start / width);
+        appendSteps(path, destination);
+        return path;
+    }
+
+    /**
+     * Find a path to the closest available tile around the blocked destination.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findClosestPath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final CoordTile tile = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+        if (tile == null)
+        {
+            return null;
+        }
+        return findPath(mover, tile.getX(), tile.getY(), ignoreRef);
+    }
+
+    /**
+     * Search the path to an available destination.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path search(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        if (!searchArea(mover, stx, sty, dtx, dty, ignoreRef, 0, 0, width - 1, height - 1)
+            || stx == dtx && sty == dty)
+        {
+            return null;
+        }
+        return createPath(sty * width + stx, dty * width + dtx);
+    }
+
+    /**
+     * Search from start location inside an area. The whole reachable area is searched if destination is negative.
+     * Results are available with {@link #isReached(int, int)}, {@link #getCost(int, int)} and
+     * {@link #appendSteps(Path, int, int)} until the next search.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location (negative to search whole area).
+     * @param dty The y coordinate of the destination location (negative to search whole area).
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param minX The area minimum horizontal tile.
+     * @param minY The area minimum vertical tile.
+     * @param maxX The area maximum horizontal tile (inclusive).
+     * @param maxY The area maximum vertical tile (inclusive).
+     * @return <code>true</code> if destination reached (or area searched), <code>false</code> else.
+     */
+    boolean searchArea(Pathfindable mover,
+                       int stx,
+                       int sty,
+                       int dtx,
+                       int dty,
+                       boolean ignoreRef,
+                       int minX,
+                       int minY,
+                       int maxX,
+                       int maxY)
+    {
+        nextGeneration();
+        minTx = Math.max(0, minX);
+        minTy = Math.max(0, minY);
+        maxTx = Math.min(width - 1, maxX);
+        maxTy = Math.min(height - 1, maxY);
+
+        final int start = sty * width + stx;
+        int destination = NONE;
+        if (dtx >= 0 && dty >= 0)
+        {
+            destination = dty * width + dtx;
+        }
+        reach(start, NONE, 0, 0.0, getHeuristicCost(stx, sty, dtx, dty));
+        push(start);
+
+        int maxDepth = 0;
+        while (maxDepth < maxSearchDistance && openSize > 0 && open[0] != destination)
+        {
+            final int current = pop();
+            maxDepth = updateNeighbours(mover, stx, sty, dtx, dty, ignoreRef, current, maxDepth);
+        }
+        return destination == NONE || reached[destination] == generation;
+    }
+
+    /**
+     * Check if tile has been reached by the last search.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if reached, <code>false</code> else.
+     */
+    boolean isReached(int tx, int ty)
+    {
+        return reached != null && reached[ty * width + tx] == generation;
+    }
+
+    /**
+     * Get the cost from start to tile found by the last search. Tile must have been reached.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cost from start.
+     */
+    double getCost(int tx, int ty)
+    {
+        return costs[ty * width + tx];
+    }
+
+    /**
+     * Append the steps found by the last search to reach the tile, start location excluded. Tile must have been
+     * reached.
+     * 
+     * @param path The path to fill.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    void appendSteps(Path path, int tx, int ty)
+    {
+        appendSteps(path, ty * width + tx);
+    }
+
+    /**
+     * Append the steps found by the last search to reach the node, start location excluded.
+     * 
+     * @param path The path to fill.
+     * @param destination The destination node index.
+     */
+    private void appendSteps(Path path, int destination)
+    {
+        int count = 0;
+        int node = destination;
+        while (parents[node] != NONE)
+        {
+            steps[count] = node;
+            count++;
+            node = parents[node];
+        }
+        for (int i = count - 1; i >= 0; i--)
+        {
+            path.appendStep(steps[i] % width, steps[i] / width);
+        }
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+
+        final Path path;
+        if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            path = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            path = findClosestPath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = search(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,763 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Hierarchical path finder implementation (HPA*). The map is split into square clusters, and entrances are computed
+ * on clusters borders, where both sides are not blocked. Entrances of a cluster are linked together with their local
+ * path cost, forming an abstract graph.
+ * <p>
+ * Long queries are answered by searching the abstract graph first, and then refined cluster by cluster with a local
+ * search. Short queries (start and destination closer than a cluster size) are performed with a local search only.
+ * If refinement fails, a complete search is performed.
+ * </p>
+ * <p>
+ * The abstract graph is computed lazily, only for the clusters reached by a query. It only depends on the tiles
+ * category, objects ID being checked by the local searches, so the graph is the same for all pathfindables whatever
+ * their ignored objects ID. As blocking depends on the pathfindable categories, a path finder must be shared only by
+ * pathfindables with the same categories configuration.
+ * </p>
+ */
+final class PathFinderHierarchical implements PathFinder
+{
+    /** Minimum entrance length to use two transitions instead of one. */
+    private static final int LONG_ENTRANCE = 6;
+    /** Start node parent. */
+    private static final int START = -1;
+    /** Maximum partners per node (one per side). */
+    private static final int PARTNERS_MAX = 4;
+
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Local path finder. */
+    private final PathFinderHeap local;
+    /** Cluster size in tile. */
+    private final int clusterSize;
+    /** Map width in tile. */
+    private final int width;
+    /** Horizontal clusters number. */
+    private final int clustersH;
+    /** Clusters list. */
+    private final Cluster[] clusters;
+    /** Partners buffer. */
+    private final int[] partners = new int[PARTNERS_MAX];
+
+    /**
+     * Internal constructor.
+     * 
+     * @param map The map to be searched. Must have the {@link MapTilePath} feature.
+     * @param clusterSize The cluster size in tile.
+     * @param maxSearchDistance The maximum depth we'll search before giving up.
+     * @param heuristic The heuristic used to determine the search order of the map.
+     */
+    PathFinderHierarchical(MapTile map, int clusterSize, int maxSearchDistance, Heuristic heuristic)
+    {
+        this.map = map;
+        this.clusterSize = clusterSize;
+        this.heuristic = heuristic;
+        mapPath = map.getFeature(MapTilePath.class);
+        local = new PathFinderHeap(map, maxSearchDistance, heuristic);
+        width = map.getInTileWidth();
+
+        clustersH = (int) Math.ceil(width / (double) clusterSize);
+        final int clustersV = (int) Math.ceil(map.getInTileHeight() / (double) clusterSize);
+        clusters = new Cluster[clustersH * clustersV];
+        for (int cy = 0; cy < clustersV; cy++)
+        {
+            for (int cx = 0; cx < clustersH; cx++)
+            {
+                final int minX = cx * clusterSize;
+                final int minY = cy * clusterSize;
+                final int maxX = Math.min(width, minX + clusterSize) - 1;
+                final int maxY = Math.min(map.getInTileHeight(), minY + clusterSize) - 1;
+                clusters[cy * clustersH + cx] = new Cluster(minX, minY, maxX, maxY);
+            }
+        }
+    }
+
+    /**
+     * Get the cluster containing the tile.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return The cluster index.
+     */
+    private int getCluster(int tx, int ty)
+    {
+        return ty / clusterSize * clustersH + tx / clusterSize;
+    }
+
+    /**
+     * Get the cluster containing the node.
+     * 
+     * @param node The node tile index.
+     * @return The cluster index.
+     */
+    private int getCluster(int node)
+    {
+        return getCluster(node % width, node / width);
+    }
+
+    /**
+     * Check if the tile is free for the abstract graph, only its category being checked.
+     * 
+     * @param mover The mover reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if free, <code>false</code> if blocked.
+     */
+    private boolean isFree(Pathfindable mover, int tx, int ty)
+    {
+        return !mapPath.isBlocked(mover, tx, ty, true);
+    }
+
+    /**
+     * Check if the movement from a node to its partner in the next cluster is allowed.
+     * 
+     * @param mover The mover reference.
+     * @param node The node tile index.
+     * @param partner The partner tile index.
+     * @return <code>true</code> if allowed, <code>false</code> else.
+     */
+    private boolean isCrossingAllowed(Pathfindable mover, int node, int partner)
+    {
+        final int tx = node % width;
+        final int ty = node / width;
+        final String category = map.getTile(tx, ty).getFeature(TilePath.class).getCategory();
+        return mover.isMovementAllowed(category, MovementTile.from(partner % width - tx, partner / width - ty));
+    }
+
+    /**
+     * Ensure the cluster abstract data are up to date.
+     * 
+     * @param mover The mover reference.
+     * @param index The cluster index.
+     */
+    private void ensure(Pathfindable mover, int index)
+    {
+        final Cluster cluster = clusters[index];
+        updateBorders(mover, index);
+        if (cluster.minX > 0)
+        {
+            updateBorders(mover, index - 1);
+        }
+        if (cluster.minY > 0)
+        {
+            updateBorders(mover, index - clustersH);
+        }
+        if (cluster.edgesDirty)
+        {
+            computeNodes(index);
+            computeEdges(mover, cluster);
+            cluster.edgesDirty = false;
+        }
+    }
+
+    /**
+     * Update the right and bottom borders of the cluster if needed.
+     * 
+     * @param mover The mover reference.
+     * @param index The cluster index.
+     */
+    private void updateBorders(Pathfindable mover, int index)
+    {
+        final Cluster cluster = clusters[index];
+        if (cluster.rightDirty)
+        {
+            cluster.right.clear();
+            if (cluster.maxX + 1 < width)
+            {
+                computeBorder(mover, cluster.right, cluster.maxX, cluster.minY, 0, 1, cluster.maxY - cluster.minY);
+                clusters[index + 1].edgesDirty = true;
+            }
+            cluster.rightDirty = false;
+            cluster.edgesDirty = true;
+        }
+        if (cluster.bottomDirty)
+        {
+            cluster.bottom.clear();
+            if (cluster.maxY + 1 < map.getInTileHeight())
+            {
+                computeBorder(mover, cluster.bottom, cluster.minX, cluster.maxY, 1, 0, cluster.maxX - cluster.minX);
+                clusters[index + clustersH].edgesDirty = true;
+            }
+            cluster.bottomDirty = false;
+            cluster.edgesDirty = true;
+        }
+    }
+
+    /**
+     * Compute the transitions of a border. Transition is stored as the tile index on the cluster side, the other side
+     * is the next tile on the right (vertical border) or below (horizontal border).
+     * 
+     * @param mover The mover reference.
+     * @param transitions The transitions found.
+     * @param sx The border first horizontal tile.
+     * @param sy The border first vertical tile.
+     * @param dx The border horizontal direction.
+     * @param dy The border vertical direction.
+     * @param length The border length minus one.
+     */
+    private void computeBorder(Pathfindable mover,
+                               List<Integer> transitions,
+                               int sx,
+                               int sy,
+                               int dx,
+                               int dy,
+                               int length)
+    {
+        int run = 0;
+        for (int i = 0; i <= length + 1; i++)
+        {
+            final int tx = sx + dx * i;
+            final int ty = sy + dy * i;
+            if (i <= length && isFree(mover, tx, ty) && isFree(mover, tx + dy, ty + dx))
+            {
+                run++;
+            }
+            else if (run > 0)
+            {
+                final int end = i - 1;
+                final int begin = end - run + 1;
+                if (run >= LONG_ENTRANCE)
+                {
+                    transitions.add(Integer.valueOf((sy + dy * begin) * width + sx + dx * begin));
+                    transitions.add(Integer.valueOf((sy + dy * end) * width + sx + dx * end));
+                }
+                else
+                {
+                    final int middle = (begin + end) / 2;
+                    transitions.add(Integer.valueOf((sy + dy * middle) * width + sx + dx * middle));
+                }
+                run = 0;
+            }
+        }
+    }
+
+    /**
+     * Compute the cluster nodes from its borders and its neighbours borders.
+     * 
+     * @param index The cluster index.
+     */
+    private void computeNodes(int index)
+    {
+        final Cluster cluster = clusters[index];
+        final List<Integer> nodes = new ArrayList<Integer>(cluster.right);
+        nodes.addAll(cluster.bottom);
+        if (cluster.minX > 0)
+        {
+            for (final Integer node : clusters[index - 1].right)
+            {
+                nodes.add(Integer.valueOf(node.intValue() + 1));
+            }
+        }
+        if (cluster.minY > 0)
+        {
+            for (final Integer node : clusters[index - clustersH].bottom)
+            {
+                nodes.add(Integer.valueOf(node.intValue() + width));
+            }
+        }
+
+        final int[] sorted = new int[nodes.size()];
+        for (int i = 0; i < sorted.length; i++)
+        {
+            sorted[i] = nodes.get(i).intValue();
+        }
+        Arrays.sort(sorted);
+
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++)
+        {
+            if (count == 0 || sorted[count - 1] != sorted[i])
+            {
+                sorted[count] = sorted[i];
+                count++;
+            }
+        }
+        cluster.nodes = Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Compute the local costs between cluster nodes.
+     * 
+     * @param mover The mover reference.
+     * @param cluster The cluster reference.
+     */
+    private void computeEdges(Pathfindable mover, Cluster cluster)
+    {
+        final int count = cluster.nodes.length;
+        cluster.costs = new double[count][count];
+        for (int i = 0; i < count; i++)
+        {
+            final int sx = cluster.nodes[i] % width;
+            final int sy = cluster.nodes[i] / width;
+            local.searchArea(mover, sx, sy, -1, -1, true, cluster.minX, cluster.minY, cluster.maxX, cluster.maxY);
+            for (int j = 0; j < count; j++)
+            {
+                final int dx = cluster.nodes[j] % width;
+                final int dy = cluster.nodes[j] / width;
+                if (local.isReached(dx, dy))
+                {
+                    cluster.costs[i][j] = local.getCost(dx, dy);
+                }
+                else
+                {
+                    cluster.costs[i][j] = Double.POSITIVE_INFINITY;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the partners of a node, which are the nodes on the other side of its borders.
+     * 
+     * @param index The cluster index.
+     * @param node The node tile index.
+     * @return The number of partners stored in {@link #partners}.
+     */
+    private int getPartners(int index, int node)
+    {
+        final Cluster cluster = clusters[index];
+        final Integer key = Integer.valueOf(node);
+        int count = 0;
+        if (cluster.right.contains(key))
+        {
+            partners[count] = node + 1;
+            count++;
+        }
+        if (cluster.bottom.contains(key))
+        {
+            partners[count] = node + width;
+            count++;
+        }
+        if (cluster.minX > 0 && clusters[index - 1].right.contains(Integer.valueOf(node - 1)))
+        {
+            partners[count] = node - 1;
+            count++;
+        }
+        if (cluster.minY > 0 && clusters[index - clustersH].bottom.contains(Integer.valueOf(node - width)))
+        {
+            partners[count] = node - width;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Search the abstract graph and refine the found path.
+     * 
+     * @param mover The mover reference.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path searchAbstract(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        final int start = getCluster(stx, sty);
+        final int destination = getCluster(dtx, dty);
+        ensure(mover, start);
+        ensure(mover, destination);
+
+        final Cluster last = clusters[destination];
+        final Map<Integer, Double> goals = new HashMap<Integer, Double>();
+        local.searchArea(mover, dtx, dty, -1, -1, ignoreRef, last.minX, last.minY, last.maxX, last.maxY);
+        for (final int node : last.nodes)
+        {
+            if (local.isReached(node % width, node / width))
+            {
+                goals.put(Integer.valueOf(node), Double.valueOf(local.getCost(node % width, node / width)));
+            }
+        }
+
+        final Search search = new Search();
+        final Cluster first = clusters[start];
+        local.searchArea(mover, stx, sty, -1, -1, ignoreRef, first.minX, first.minY, first.maxX, first.maxY);
+        for (final int node : first.nodes)
+        {
+            if (local.isReached(node % width, node / width))
+            {
+                search.relax(node, START, local.getCost(node % width, node / width), getHeuristic(node, dtx, dty));
+            }
+        }
+
+        final int found = search(mover, search, goals, dtx, dty);
+        if (found == START)
+        {
+            return null;
+        }
+        return refine(mover, search.getWaypoints(found), stx, sty, dtx, dty, ignoreRef);
+    }
+
+    /**
+     * Search the abstract graph until the best goal node is found.
+     * 
+     * @param mover The mover reference.
+     * @param search The search data.
+     * @param goals The goal nodes with their cost to destination.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @return The best goal node found, {@link #START} if none.
+     */
+    private int search(Pathfindable mover, Search search, Map<Integer, Double> goals, int dtx, int dty)
+    {
+        double best = Double.POSITIVE_INFINITY;
+        int found = START;
+        Entry entry = search.poll();
+        while (entry != null && entry.total < best)
+        {
+            final int node = entry.node;
+            final Double goal = goals.get(Integer.valueOf(node));
+            if (goal != null && entry.cost + goal.doubleValue() < best)
+            {
+                best = entry.cost + goal.doubleValue();
+                found = node;
+            }
+            expand(mover, search, entry, dtx, dty);
+            entry = search.poll();
+        }
+        return found;
+    }
+
+    /**
+     * Expand the node neighbours in abstract graph.
+     * 
+     * @param mover The mover reference.
+     * @param search The search data.
+     * @param entry The node entry.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     */
+    private void expand(Pathfindable mover, Search search, Entry entry, int dtx, int dty)
+    {
+        final int node = entry.node;
+        final int index = getCluster(node);
+        ensure(mover, index);
+        final Cluster cluster = clusters[index];
+        final int i = Arrays.binarySearch(cluster.nodes, node);
+        if (i >= 0)
+        {
+            for (int j = 0; j < cluster.nodes.length; j++)
+            {
+                final double cost = cluster.costs[i][j];
+                if (i != j && cost < Double.POSITIVE_INFINITY)
+                {
+                    final int other = cluster.nodes[j];
+                    search.relax(other, node, entry.cost + cost, getHeuristic(other, dtx, dty));
+                }
+            }
+            final double cost = entry.cost + mapPath.getCost(mover, node % width, node / width);
+            final int count = getPartners(index, node);
+            for (int p = 0; p < count; p++)
+            {
+                final int partner = partners[p];
+                if (isCrossingAllowed(mover, node, partner))
+                {
+                    search.relax(partner, node, cost, getHeuristic(partner, dtx, dty));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the heuristic cost from node to destination.
+     * 
+     * @param node The node tile index.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @return The heuristic cost.
+     */
+    private double getHeuristic(int node, int dtx, int dty)
+    {
+        return heuristic.getCost(node % width, node / width, dtx, dty);
+    }
+
+    /**
+     * Refine the abstract path with local searches between waypoints, the objects ID being checked only here.
+     * 
+     * @param mover The mover reference.
+     * @param waypoints The abstract path nodes.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The refined path, <code>null</code> if refinement failed.
+     */
+    private Path refine(Pathfindable mover,
+                        List<Integer> waypoints,
+                        int stx,
+                        int sty,
+                        int dtx,
+                        int dty,
+                        boolean ignoreRef)
+    {
+        waypoints.add(Integer.valueOf(dty * width + dtx));
+
+        final Path path = new Path();
+        path.appendStep(stx, sty);
+        int px = stx;
+        int py = sty;
+        for (final Integer waypoint : waypoints)
+        {
+            final int wx = waypoint.intValue() % width;
+            final int wy = waypoint.intValue() / width;
+            final Cluster cluster = clusters[getCluster(wx, wy)];
+            final boolean crossing = getCluster(px, py) != getCluster(wx, wy);
+            if (crossing
+                && isCrossingAllowed(mover, py * width + px, waypoint.intValue())
+                && (ignoreRef || !mapPath.isBlocked(mover, wx, wy, false)))
+            {
+                path.appendStep(wx, wy);
+            }
+            else if (!crossing
+                     && local.searchArea(mover, px, py, wx, wy, ignoreRef, cluster.minX, cluster.minY, cluster.maxX,
+                                         cluster.maxY))
+            {
+                local.appendSteps(path, wx, wy);
+            }
+            else
+            {
+                return null;
+            }
+            px = wx;
+            py = wy;
+        }
+        return path;
+    }
+
+    /**
+     * Find a path to an available destination.
+     * 
+     * @param mover The entity that will be moving along the path.
+     * @param stx The x coordinate of the start location.
+     * @param sty The y coordinate of the start location.
+     * @param dtx The x coordinate of the destination location.
+     * @param dty The y coordinate of the destination location.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @return The path found, <code>null</code> if none.
+     */
+    private Path findAvailablePath(Pathfindable mover, int stx, int sty, int dtx, int dty, boolean ignoreRef)
+    {
+        Path path = null;
+        if (Math.abs(dtx - stx) > clusterSize || Math.abs(dty - sty) > clusterSize)
+        {
+            path = searchAbstract(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        if (path == null)
+        {
+            path = local.findPath(mover, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+
+    /*
+     * PathFinder
+     */
+
+    @Override
+    public Path findPath(Pathfindable mover, int dtx, int dty, boolean ignoreRef)
+    {
+        final int stx = mover.getInTileX();
+        final int sty = mover.getInTileY();
+
+        final Path path;
+        if (mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            path = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, ignoreRef))
+        {
+            path = local.findPath(mover, dtx, dty, ignoreRef);
+        }
+        else
+        {
+            path = findAvailablePath(mover, stx, sty, dtx, dty, ignoreRef);
+        }
+        return path;
+    }
+
+    /**
+     * Cluster data.
+     */
+    private static final class Cluster
+    {
+        /** Right border transitions (tile index on this side). */
+        private final List<Integer> right = new ArrayList<Integer>();
+        /** Bottom border transitions (tile index on this side). */
+        private final List<Integer> bottom = new ArrayList<Integer>();
+        /** Minimum horizontal tile. */
+        private final int minX;
+        /** Minimum vertical tile. */
+        private final int minY;
+        /** Maximum horizontal tile (inclusive). */
+        private final int maxX;
+        /** Maximum vertical tile (inclusive). */
+        private final int maxY;
+        /** Sorted nodes tile index. */
+        private int[] nodes = new int[0];
+        /** Local costs between nodes. */
+        private double[][] costs = new double[0][0];
+        /** Right border needs update. */
+        private boolean rightDirty = true;
+        /** Bottom border needs update. */
+        private boolean bottomDirty = true;
+        /** Nodes and costs need update. */
+        private boolean edgesDirty = true;
+
+        /**
+         * Create cluster.
+         * 
+         * @param minX The minimum horizontal tile.
+         * @param minY The minimum vertical tile.
+         * @param maxX The maximum horizontal tile (inclusive).
+         * @param maxY The maximum vertical tile (inclusive).
+         */
+        Cluster(int minX, int minY, int maxX, int maxY)
+        {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    /**
+     * Abstract search data.
+     */
+    private static final class Search
+    {
+        /** Open entries. */
+        private final PriorityQueue<Entry> open = new PriorityQueue<Entry>();
+        /** Best cost per node. */
+        private final Map<Integer, Double> costs = new HashMap<Integer, Double>();
+        /** Parent per node. */
+        private final Map<Integer, Integer> parents = new HashMap<Integer, Integer>();
+
+        /**
+         * Create search.
+         */
+        Search()
+        {
+            super();
+        }
+
+        /**
+         * Relax node with a new cost, if lower than the current one.
+         * 
+         * @param node The node tile index.
+         * @param parent The parent node tile index.
+         * @param cost The cost from start.
+         * @param heuristic The heuristic cost to destination.
+         */
+        void relax(int node, int parent, double cost, double heuristic)
+        {
+            final Integer key = Integer.valueOf(node);
+            final Double current = costs.get(key);
+            if (current == null || cost < current.doubleValue())
+            {
+                costs.put(key, Double.valueOf(cost));
+                parents.put(key, Integer.valueOf(parent));
+                open.add(new Entry(node, cost, cost + heuristic));
+            }
+        }
+
+        /**
+         * Get the next open entry, skipping outdated ones.
+         * 
+         * @return The next entry, <code>null</code> if none.
+         */
+        Entry poll()
+        {
+            Entry entry = open.poll();
+            while (entry != null && costs.get(Integer.valueOf(entry.node)).doubleValue() < entry.cost)
+            {
+                entry = open.poll();
+            }
+            return entry;
+        }
+
+        /**
+         * Get the waypoints from start to node.
+         * 
+         * @param node The last node.
+         * @return The waypoints.
+         */
+        List<Integer> getWaypoints(int node)
+        {
+            final List<Integer> waypoints = new ArrayList<Integer>();
+            Integer current = Integer.valueOf(node);
+            while (current.intValue() != START)
+            {
+                waypoints.add(0, current);
+                current = parents.get(current);
+            }
+            return waypoints;
+        }
+    }
+
+    /**
+     * Abstract search open entry.
+     */
+    private static final class Entry implements Comparable<Entry>
+    {
+        /** Node tile index. */
+        private final int node;
+        /** Cost from start. */
+        private final double cost;
+        /** Total cost (cost and heuristic). */
+        private final double total;
+
+        /**
+         * Create entry.
+         * 
+         * @param node The node tile index.
+         * @param cost The cost from start.
+         * @param total The total cost.
+         */
+        Entry(int node, double cost, double total)
+        {
+            this.node = node;
+            this.cost = cost;
+            this.total = total;
+        }
+
+        @Override
+        public int compareTo(Entry other)
+        {
+            return Double.compare(total, other.total);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Copy of the pathfindable configuration for a list of categories. Profiles are equal when pathfindables would
+ * find the same paths, which allows to share searches between them.
+ */
+final class PathProfile
+{
+    /** Movements number. */
+    private static final int MOVEMENTS = PathFinderHeap.MOVEMENTS.length;
+
+    /** Cost per category. */
+    private final double[] costs;
+    /** Blocking per category. */
+    private final boolean[] blocking;
+    /** Allowed movements per category. */
+    private final boolean[] movements;
+    /** Ignored objects ID. */
+    private final Set<Integer> ignored = new HashSet<Integer>();
+
+    /**
+     * Internal constructor, with the pathfindable ignored objects ID.
+     * 
+     * @param mover The pathfindable reference.
+     * @param snapshot The snapshot reference.
+     * @param ignoreRef <code>true</code> to ignore objects ID, <code>false</code> else.
+     */
+    PathProfile(Pathfindable mover, PathSnapshot snapshot, boolean ignoreRef)
+    {
+        this(mover, snapshot.getCategoryNames(), ignoreRef);
+    }
+
+    /**
+     * Internal constructor, with the pathfindable ignored objects ID.
+     * 
+     * @param mover The pathfindable reference.
+     * @param categories The categories name, category index being the array index.
+     * @param ignoreRef <code>true</code> to ignore objects ID, <code>false</code> else.
+     */
+    PathProfile(Pathfindable mover, String[] categories, boolean ignoreRef)
+    {
+        if (!ignoreRef)
+        {
+            ignored.addAll(mover.getIgnoredIds());
+        }
+
+        final int count = categories.length;
+        costs = new double[count];
+        blocking = new boolean[count];
+        movements = new boolean[count * MOVEMENTS];
+        for (int category = 0; category < count; category++)
+        {
+            final String name = categories[category];
+            if (mover.hasCategory(name))
+            {
+                costs[category] = mover.getCost(name);
+                blocking[category] = mover.isBlocking(name);
+                for (int i = 0; i < MOVEMENTS; i++)
+                {
+                    movements[category * MOVEMENTS + i] = mover.isMovementAllowed(name, PathFinderHeap.MOVEMENTS[i]);
+                }
+            }
+            else
+            {
+                // Category not supported by the pathfindable, cannot be walked
+                blocking[category] = true;
+            }
+        }
+    }
+
+    /**
+     * Get the category cost.
+     * 
+     * @param category The category index.
+     * @return The category cost.
+     */
+    double getCost(int category)
+    {
+        return costs[category];
+    }
+
+    /**
+     * Check if category is blocking.
+     * 
+     * @param category The category index.
+     * @return <code>true</code> if blocking, <code>false</code> else.
+     */
+    boolean isBlocking(int category)
+    {
+        return blocking[category];
+    }
+
+    /**
+     * Check if movement is allowed from category.
+     * 
+     * @param category The category index.
+     * @param movement The movement index (see {@link PathFinderHeap#MOVEMENTS}).
+     * @return <code>true</code> if allowed, <code>false</code> else.
+     */
+    boolean isMovementAllowed(int category, int movement)
+    {
+        return movements[category * MOVEMENTS + movement];
+    }
+
+    /**
+     * Check if tile is blocked.
+     * 
+     * @param snapshot The snapshot reference.
+     * @param node The tile index.
+     * @param ignoreRef <code>true</code> to ignore objects ID, <code>false</code> else.
+     * @return <code>true</code> if blocked, <code>false</code> else.
+     */
+    boolean isBlocked(PathSnapshot snapshot, int node, boolean ignoreRef)
+    {
+        final int category = snapshot.getTile(node);
+        boolean blocked = category == PathSnapshot.NO_CATEGORY || blocking[category];
+        if (!blocked && !ignoreRef)
+        {
+            final Integer[] ids = snapshot.getIds(node);
+            if (ids != null)
+            {
+                blocked = !isIgnored(Arrays.asList(ids));
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Check if all objects ID are ignored.
+     * 
+     * @param ids The objects ID.
+     * @return <code>true</code> if all ignored, <code>false</code> else.
+     */
+    boolean isIgnored(Collection<Integer> ids)
+    {
+        return ignored.containsAll(ids);
+    }
+
+    /*
+     * Object
+     */
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Arrays.hashCode(costs);
+        result = prime * result + Arrays.hashCode(blocking);
+        result = prime * result + Arrays.hashCode(movements);
+        result = prime * result + ignored.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        if (!(obj instanceof PathProfile))
+        {
+            return false;
+        }
+        final PathProfile other = (PathProfile) obj;
+        return Arrays.equals(costs, other.costs)
+               && Arrays.equals(blocking, other.blocking)
+               && Arrays.equals(movements, other.movements)
+               && ignored.equals(other.ignored);
+    }
+}
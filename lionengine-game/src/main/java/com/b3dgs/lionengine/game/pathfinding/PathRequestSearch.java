@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Path search performed on a {@link PathSnapshot}, from the destination to all starts at once. Pathfindables sharing
+ * the same destination and {@link PathProfile} are resolved with a single search, each path following the search
+ * tree from its start to the destination.
+ * <p>
+ * Movement cost is the cost of the tile left, as for {@link PathFinderHeap}. Arrays are kept between searches of the
+ * same map size, so an instance must be used by one thread at a time.
+ * </p>
+ */
+final class PathRequestSearch
+{
+    /** Not in open list index. */
+    private static final int NONE = -1;
+    /** Maximum starts number for the heuristic (plain search beyond, as heuristic cost grows with starts). */
+    private static final int HEURISTIC_STARTS_MAX = 8;
+
+    /** Heuristic used. */
+    private final Heuristic heuristic;
+    /** Current search generation. */
+    private int generation;
+    /** Node reached generation. */
+    private int[] reached;
+    /** Node start generation. */
+    private int[] starts;
+    /** Node closed generation. */
+    private int[] closed;
+    /** Node cost to destination. */
+    private double[] costs;
+    /** Node cost with heuristic. */
+    private double[] totals;
+    /** Next node to destination. */
+    private int[] nexts;
+    /** Node depth. */
+    private int[] depths;
+    /** Node index in open heap. */
+    private int[] positions;
+    /** Open heap. */
+    private int[] open;
+    /** Open heap size. */
+    private int openSize;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param heuristic The heuristic used to determine the search order of the map.
+     */
+    PathRequestSearch(Heuristic heuristic)
+    {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Search the paths from each start to the destination. Search depth is limited to the map diagonal.
+     * 
+     * @param snapshot The snapshot to search on.
+     * @param profile The pathfindables profile.
+     * @param dtx The horizontal destination tile.
+     * @param dty The vertical destination tile.
+     * @param ignoreRef <code>true</code> to ignore objects ID, <code>false</code> else.
+     * @param sources The starts tile index.
+     * @return The paths found for each start, <code>null</code> element if none.
+     */
+    Path[] search(PathSnapshot snapshot, PathProfile profile, int dtx, int dty, boolean ignoreRef, int[] sources)
+    {
+        nextGeneration(snapshot.getWidth() * snapshot.getHeight());
+
+        final int width = snapshot.getWidth();
+        final int height = snapshot.getHeight();
+        final int maxSearchDistance = (int) Math.sqrt(width * width + height * (double) height);
+        final int destination = dty * width + dtx;
+        int remaining = markStarts(destination, sources);
+
+        reach(destination, NONE, 0, 0.0, getHeuristicCost(width, destination, sources));
+        push(destination);
+        while (openSize > 0 && remaining > 0)
+        {
+            final int current = pop();
+            if (closed[current] != generation)
+            {
+                closed[current] = generation;
+                remaining = close(current, remaining);
+            }
+            if (depths[current] < maxSearchDistance)
+            {
+                expand(snapshot, profile, ignoreRef, current, sources);
+            }
+        }
+
+        return createPaths(width, destination, sources);
+    }
+
+    /**
+     * Start a new search generation.
+     * 
+     * @param size The map size in tile.
+     */
+    private void nextGeneration(int size)
+    {
+        if (reached == null || reached.length != size)
+        {
+            reached = new int[size];
+            starts = new int[size];
+            closed = new int[size];
+            costs = new double[size];
+            totals = new double[size];
+            nexts = new int[size];
+            depths = new int[size];
+            positions = new int[size];
+            open = new int[size];
+            generation = 0;
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(reached, 0);
+            Arrays.fill(starts, 0);
+            Arrays.fill(closed, 0);
+            generation = 1;
+        }
+        openSize = 0;
+    }
+
+    /**
+     * Mark the starts to reach.
+     * 
+     * @param destination The destination node.
+     * @param sources The starts tile index.
+     * @return The number of distinct starts to reach.
+     */
+    private int markStarts(int destination, int[] sources)
+    {
+        int remaining = 0;
+        for (final int source : sources)
+        {
+            if (source != destination && starts[source] != generation)
+            {
+                starts[source] = generation;
+                remaining++;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Create the paths of each reached start.
+     * 
+     * @param width The map width in tile.
+     * @param destination The destination node.
+     * @param sources The starts tile index.
+     * @return The paths found for each start, <code>null</code> element if none.
+     */
+    private Path[] createPaths(int width, int destination, int[] sources)
+    {
+        final Path[] paths = new Path[sources.length];
+        for (int i = 0; i < sources.length; i++)
+        {
+            if (sources[i] != destination && reached[sources[i]] == generation)
+            {
+                paths[i] = createPath(width, sources[i], destination);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Update the remaining starts number on node first closing.
+     * 
+     * @param node The closed node.
+     * @param remaining The current remaining starts.
+     * @return The updated remaining starts.
+     */
+    private int close(int node, int remaining)
+    {
+        if (starts[node] == generation)
+        {
+            return remaining - 1;
+        }
+        return remaining;
+    }
+
+    /**
+     * Expand the tiles which can move to the current one.
+     * 
+     * @param snapshot The snapshot to search on.
+     * @param profile The pathfindables profile.
+     * @param ignoreRef <code>true</code> to ignore objects ID, <code>false</code> else.
+     * @param current The current node.
+     * @param sources The starts tile index.
+     */
+    private void expand(PathSnapshot snapshot, PathProfile profile, boolean ignoreRef, int current, int[] sources)
+    {
+        final int width = snapshot.getWidth();
+        final int cx = current % width;
+        final int cy = current / width;
+        for (int i = 0; i < PathFinderHeap.MOVEMENTS.length; i++)
+        {
+            final int xp = cx - PathFinderHeap.NEIGHBOURS_X[i];
+            final int yp = cy - PathFinderHeap.NEIGHBOURS_Y[i];
+            if (xp >= 0 && yp >= 0 && xp < width && yp < snapshot.getHeight())
+            {
+                final int neighbour = yp * width + xp;
+                final int category = snapshot.getTile(neighbour);
+                if (category != PathSnapshot.NO_CATEGORY
+                    && profile.isMovementAllowed(category, i)
+                    && (starts[neighbour] == generation || !profile.isBlocked(snapshot, neighbour, ignoreRef)))
+                {
+                    relax(neighbour, current, costs[current] + profile.getCost(category), width, sources);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update node if not reached or reached with a greater cost.
+     * 
+     * @param node The node index.
+     * @param next The next node to destination.
+     * @param cost The node cost to destination.
+     * @param width The map width in tile.
+     * @param sources The starts tile index.
+     */
+    private void relax(int node, int next, double cost, int width, int[] sources)
+    {
+        if (reached[node] != generation)
+        {
+            reach(node, next, depths[next] + 1, cost, cost + getHeuristicCost(width, node, sources));
+            push(node);
+        }
+        else if (cost < costs[node])
+        {
+            reach(node, next, depths[next] + 1, cost, cost + totals[node] - costs[node]);
+            if (positions[node] == NONE)
+            {
+                push(node);
+            }
+            else
+            {
+                up(positions[node]);
+            }
+        }
+    }
+
+    /**
+     * Get the heuristic cost, as the lowest cost to the starts.
+     * 
+     * @param width The map width in tile.
+     * @param node The node index.
+     * @param sources The starts tile index.
+     * @return The heuristic cost.
+     */
+    private double getHeuristicCost(int width, int node, int[] sources)
+    {
+        double cost = 0.0;
+        if (sources.length <= HEURISTIC_STARTS_MAX)
+        {
+            cost = Double.MAX_VALUE;
+            for (final int source : sources)
+            {
+                final double value = heuristic.getCost(node % width, node / width, source % width, source / width);
+                cost = Math.min(cost, value);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Reach a node with the specified data.
+     * 
+     * @param node The node index.
+     * @param next The next node to destination.
+     * @param depth The node depth.
+     * @param cost The node cost to destination.
+     * @param total The node cost with heuristic.
+     */
+    private void reach(int node, int next, int depth, double cost, double total)
+    {
+        if (reached[node] != generation)
+        {
+            reached[node] = generation;
+            positions[node] = NONE;
+        }
+        nexts[node] = next;
+        depths[node] = depth;
+        costs[node] = cost;
+        totals[node] = total;
+    }
+
+    /**
+     * Add a node to the open heap.
+     * 
+     * @param node The node index.
+     */
+    private void push(int node)
+    {
+        open[openSize] = node;
+        positions[node] = openSize;
+        openSize++;
+        up(openSize - 1);
+    }
+
+    /**
+     * Remove the first node of the open heap.
+     * 
+     * @return The removed node index.
+     */
+    private int pop()
+    {
+        final int first = open[0];
+        openSize--;
+        if (openSize > 0)
+        {
+            set(0, open[openSize]);
+            down(0);
+        }
+        positions[first] = NONE;
+        return first;
+    }
+
+    /**
+     * Move up heap element until its parent is lower.
+     * 
+     * @param index The heap index.
+     */
+    private void up(int index)
+    {
+        final int node = open[index];
+        int current = index;
+        while (current > 0)
+        {
+            final int parent = (current - 1) / 2;
+            if (totals[open[parent]] <= totals[node])
+            {
+                break;
+            }
+            set(current, open[parent]);
+            current = parent;
+        }
+        set(current, node);
+    }
+
+    /**
+     * Move down heap element until its children are greater.
+     * 
+     * @param index The heap index.
+     */
+    private void down(int index)
+    {
+        final int node = open[index];
+        int current = index;
+        int child = current * 2 + 1;
+        while (child < openSize)
+        {
+            if (child + 1 < openSize && totals[open[child + 1]] < totals[open[child]])
+            {
+                child++;
+            }
+            if (totals[node] <= totals[open[child]])
+            {
+                break;
+            }
+            set(current, open[child]);
+            current = child;
+            child = current * 2 + 1;
+        }
+        set(current, node);
+    }
+
+    /**
+     * Set heap element.
+     * 
+     * @param index The heap index.
+     * @param node The node index.
+     */
+    private void set(int index, int node)
+    {
+        open[index] = node;
+        positions[node] = index;
+    }
+
+    /**
+     * Create the path from start to destination by following the search tree.
+     * 
+     * @param width The map width in tile.
+     * @param start The start node index.
+     * @param destination The destination node index.
+     * @return The created path.
+     */
+    private Path createPath(int width, int start, int destination)
+    {
+        final Path path = new Path();
+        int node = start;
+        path.appendStep(node % width, node / width);
+        while (node != destination)
+        {
+            node = nexts[node];
+            path.appendStep(node % width, node / width);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,674 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.util.UtilMath;
+
+/**
+ * Asynchronous path requests service. Requests are queued, and resolved on worker threads against an immutable
+ * snapshot of the {@link MapTilePath}, so the main loop is not blocked by searches.
+ * <p>
+ * Requests sharing the same destination and pathfindable configuration are coalesced in a single search. At most
+ * {@link #setBudget(int)} requests are dispatched, and at most the same number of results are delivered, per
+ * {@link #update(double)}, which must be called once per frame (typically at its start). Results are delivered on the
+ * {@link #update(double)} caller thread.
+ * </p>
+ * <p>
+ * Objects ID changes are tracked as a {@link MapTilePathListener}. Tiles changes (such as {@link MapTile#setTile})
+ * must be notified with {@link #invalidate()}.
+ * </p>
+ * <p>
+ * The {@link Services} must provide the following services:
+ * </p>
+ * <ul>
+ * <li>{@link MapTile}, with {@link MapTilePath} feature</li>
+ * </ul>
+ * 
+ * @see Pathfindable#setPathRequests(PathRequests)
+ */
+public class PathRequests implements Updatable, MapTilePathListener
+{
+    /** Default maximum requests per frame. */
+    public static final int DEFAULT_BUDGET = 64;
+    /** Error search. */
+    private static final String ERROR_SEARCH = "Path search failed !";
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "PathRequests";
+
+    /** Pending requests. */
+    private final List<Request> pending = new ArrayList<Request>();
+    /** Dispatched groups, in dispatch order. */
+    private final List<Group> running = new LinkedList<Group>();
+    /** Objects ID per occupied tile. */
+    private final Map<Integer, Integer[]> ids = new HashMap<Integer, Integer[]>();
+    /** Searches per worker thread. */
+    private final ThreadLocal<PathRequestSearch> searches = new ThreadLocal<PathRequestSearch>()
+    {
+        @Override
+        protected PathRequestSearch initialValue()
+        {
+            return new PathRequestSearch(Astar.createHeuristicClosest());
+        }
+    };
+    /** Workers. */
+    private final ExecutorService executor;
+    /** Map reference. */
+    private final MapTile map;
+    /** Map path reference. */
+    private final MapTilePath mapPath;
+    /** Maximum requests per frame. */
+    private int budget = DEFAULT_BUDGET;
+    /** Categories name, <code>null</code> if invalidated. */
+    private String[] categories;
+    /** Category index per tile, <code>null</code> if invalidated. */
+    private int[] tiles;
+    /** Objects ID copy for snapshot, <code>null</code> if changed. */
+    private Map<Integer, Integer[]> idsCopy;
+
+    /**
+     * Create service, with one worker per available processor.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}, with {@link MapTilePath} feature</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @throws LionEngineException If services not found.
+     */
+    public PathRequests(Services services)
+    {
+        this(services, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create service.
+     * <p>
+     * The {@link Services} must provide the following services:
+     * </p>
+     * <ul>
+     * <li>{@link MapTile}, with {@link MapTilePath} feature</li>
+     * </ul>
+     * 
+     * @param services The services reference.
+     * @param threads The number of workers (must be strictly positive).
+     * @throws LionEngineException If services not found or invalid workers number.
+     */
+    public PathRequests(Services services, int threads)
+    {
+        Check.superiorStrict(threads, 0);
+
+        map = services.get(MapTile.class);
+        mapPath = map.getFeature(MapTilePath.class);
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        mapPath.addListener(this);
+    }
+
+    /**
+     * Request a path search. Mover location is the one at request time.
+     * 
+     * @param mover The mover reference.
+     * @param dtx The horizontal destination tile.
+     * @param dty The vertical destination tile.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param listener The listener notified with search result.
+     * @throws LionEngineException If <code>null</code> arguments.
+     */
+    public void request(Pathfindable mover, int dtx, int dty, boolean ignoreRef, PathRequestListener listener)
+    {
+        Check.notNull(mover);
+        Check.notNull(listener);
+
+        pending.add(new Request(mover, dtx, dty, ignoreRef, listener));
+    }
+
+    /**
+     * Invalidate the tiles snapshot. Must be called when map tiles changed.
+     */
+    public void invalidate()
+    {
+        categories = null;
+        tiles = null;
+    }
+
+    /**
+     * Stop workers. Pending and running requests are discarded.
+     */
+    public void stop()
+    {
+        executor.shutdownNow();
+        mapPath.removeListener(this);
+        pending.clear();
+        running.clear();
+    }
+
+    /**
+     * Set the maximum requests dispatched and delivered per frame.
+     * 
+     * @param budget The maximum requests per frame (must be strictly positive).
+     * @throws LionEngineException If invalid budget.
+     */
+    public void setBudget(int budget)
+    {
+        Check.superiorStrict(budget, 0);
+
+        this.budget = budget;
+    }
+
+    /**
+     * Get the number of requests not yet delivered.
+     * 
+     * @return The number of requests waiting for their result.
+     */
+    public int getWaiting()
+    {
+        int waiting = pending.size();
+        for (final Group group : running)
+        {
+            waiting += group.getRemaining();
+        }
+        return waiting;
+    }
+
+    /**
+     * Deliver results of finished searches, in dispatch order, up to the budget.
+     */
+    private void deliver()
+    {
+        int delivered = 0;
+        final Iterator<Group> iterator = running.iterator();
+        while (iterator.hasNext() && delivered < budget)
+        {
+            final Group group = iterator.next();
+            if (group.isDone())
+            {
+                delivered += group.deliver(budget - delivered);
+                if (group.getRemaining() == 0)
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatch pending requests, up to the budget.
+     */
+    private void dispatch()
+    {
+        final PathSnapshot snapshot = createSnapshot();
+        final Map<Key, Group> groups = new LinkedHashMap<Key, Group>();
+        final Group unavailable = new Group(null, null);
+
+        final int count = Math.min(budget, pending.size());
+        for (int i = 0; i < count; i++)
+        {
+            final Request request = pending.get(i);
+            final CoordTile destination = getDestination(request);
+            if (destination == null)
+            {
+                unavailable.add(request);
+            }
+            else
+            {
+                final PathProfile profile = new PathProfile(request.mover, snapshot, request.ignoreRef);
+                final Key key = new Key(profile, destination, request.ignoreRef);
+                Group group = groups.get(key);
+                if (group == null)
+                {
+                    group = new Group(key, snapshot);
+                    groups.put(key, group);
+                }
+                group.add(request);
+            }
+        }
+        pending.subList(0, count).clear();
+
+        if (unavailable.getRemaining() > 0)
+        {
+            unavailable.complete();
+            running.add(unavailable);
+        }
+        for (final Group group : groups.values())
+        {
+            group.submit(executor, searches);
+            running.add(group);
+        }
+    }
+
+    /**
+     * Get the available destination of the request, as the closest available tile if blocked.
+     * 
+     * @param request The request reference.
+     * @return The available destination, <code>null</code> if none.
+     */
+    private CoordTile getDestination(Request request)
+    {
+        final Pathfindable mover = request.mover;
+        final int stx = request.stx;
+        final int sty = request.sty;
+        final int dtx = request.dtx;
+        final int dty = request.dty;
+
+        final CoordTile destination;
+        if (isOutside(stx, sty)
+            || mapPath.isBlocked(mover, dtx, dty, false) && UtilMath.getDistance(stx, sty, dtx, dty) <= 1)
+        {
+            destination = null;
+        }
+        else if (mapPath.isBlocked(mover, dtx, dty, request.ignoreRef))
+        {
+            destination = mapPath.getClosestAvailableTile(mover, dtx, dty, stx, sty, map.getInTileRadius());
+        }
+        else
+        {
+            destination = new CoordTile(dtx, dty);
+        }
+        return destination;
+    }
+
+    /**
+     * Check if tile is outside map.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @return <code>true</code> if outside, <code>false</code> else.
+     */
+    private boolean isOutside(int tx, int ty)
+    {
+        return tx < 0 || ty < 0 || tx >= map.getInTileWidth() || ty >= map.getInTileHeight();
+    }
+
+    /**
+     * Create the snapshot of current map path state.
+     * 
+     * @return The snapshot instance.
+     */
+    private PathSnapshot createSnapshot()
+    {
+        if (tiles == null)
+        {
+            createTiles();
+        }
+        if (idsCopy == null)
+        {
+            idsCopy = new HashMap<Integer, Integer[]>(ids);
+        }
+        return new PathSnapshot(map.getInTileWidth(), map.getInTileHeight(), categories, tiles, idsCopy);
+    }
+
+    /**
+     * Create the category index per tile, and objects ID.
+     */
+    private void createTiles()
+    {
+        final int width = map.getInTileWidth();
+        final int height = map.getInTileHeight();
+        final List<String> names = new ArrayList<String>();
+        final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        tiles = new int[width * height];
+        ids.clear();
+
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                int category = PathSnapshot.NO_CATEGORY;
+                if (tile != null)
+                {
+                    final String name = tile.getFeature(TilePath.class).getCategory();
+                    Integer index = indexes.get(name);
+                    if (index == null)
+                    {
+                        index = Integer.valueOf(names.size());
+                        indexes.put(name, index);
+                        names.add(name);
+                    }
+                    category = index.intValue();
+                    updateIds(tx, ty);
+                }
+                tiles[ty * width + tx] = category;
+            }
+        }
+        categories = names.toArray(new String[names.size()]);
+        idsCopy = null;
+    }
+
+    /**
+     * Update the tile objects ID.
+     * 
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     */
+    private void updateIds(int tx, int ty)
+    {
+        final Integer node = Integer.valueOf(ty * map.getInTileWidth() + tx);
+        final Collection<Integer> current = mapPath.getObjectsId(tx, ty);
+        if (current.isEmpty())
+        {
+            ids.remove(node);
+        }
+        else
+        {
+            ids.put(node, current.toArray(new Integer[current.size()]));
+        }
+    }
+
+    /*
+     * Updatable
+     */
+
+    @Override
+    public void update(double extrp)
+    {
+        deliver();
+        if (!pending.isEmpty())
+        {
+            dispatch();
+        }
+    }
+
+    /*
+     * MapTilePathListener
+     */
+
+    @Override
+    public void notifyTileChanged(int tx, int ty)
+    {
+        if (tiles != null)
+        {
+            updateIds(tx, ty);
+            idsCopy = null;
+        }
+    }
+
+    /**
+     * Path request data.
+     */
+    private static final class Request
+    {
+        /** Mover reference. */
+        private final Pathfindable mover;
+        /** Start horizontal tile. */
+        private final int stx;
+        /** Start vertical tile. */
+        private final int sty;
+        /** Destination horizontal tile. */
+        private final int dtx;
+        /** Destination vertical tile. */
+        private final int dty;
+        /** Ignore references flag. */
+        private final boolean ignoreRef;
+        /** Result listener. */
+        private final PathRequestListener listener;
+
+        /**
+         * Create request.
+         * 
+         * @param mover The mover reference.
+         * @param dtx The horizontal destination tile.
+         * @param dty The vertical destination tile.
+         * @param ignoreRef The ignore references flag.
+         * @param listener The result listener.
+         */
+        Request(Pathfindable mover, int dtx, int dty, boolean ignoreRef, PathRequestListener listener)
+        {
+            this.mover = mover;
+            stx = mover.getInTileX();
+            sty = mover.getInTileY();
+            this.dtx = dtx;
+            this.dty = dty;
+            this.ignoreRef = ignoreRef;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Coalesced requests key.
+     */
+    private static final class Key
+    {
+        /** Pathfindable profile. */
+        private final PathProfile profile;
+        /** Destination horizontal tile. */
+        private final int dtx;
+        /** Destination vertical tile. */
+        private final int dty;
+        /** Ignore references flag. */
+        private final boolean ignoreRef;
+
+        /**
+         * Create key.
+         * 
+         * @param profile The pathfindable profile.
+         * @param destination The destination tile.
+         * @param ignoreRef The ignore references flag.
+         */
+        Key(PathProfile profile, CoordTile destination, boolean ignoreRef)
+        {
+            this.profile = profile;
+            dtx = destination.getX();
+            dty = destination.getY();
+            this.ignoreRef = ignoreRef;
+        }
+
+        /*
+         * Object
+         */
+
+        @Override
+        public int hashCode()
+        {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + dtx;
+            result = prime * result + dty;
+            result = prime * result + Boolean.valueOf(ignoreRef).hashCode();
+            result = prime * result + profile.hashCode();
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+            {
+                return true;
+            }
+            if (!(obj instanceof Key))
+            {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return dtx == other.dtx
+                   && dty == other.dty
+                   && ignoreRef == other.ignoreRef
+                   && profile.equals(other.profile);
+        }
+    }
+
+    /**
+     * Coalesced requests, resolved by a single search.
+     */
+    private static final class Group
+    {
+        /** Requests. */
+        private final List<Request> requests = new ArrayList<Request>();
+        /** Group key, <code>null</code> if no search. */
+        private final Key key;
+        /** Snapshot searched on. */
+        private final PathSnapshot snapshot;
+        /** Search result. */
+        private Future<Path[]> future;
+        /** Paths found. */
+        private Path[] paths;
+        /** Next request to deliver. */
+        private int next;
+
+        /**
+         * Create group.
+         * 
+         * @param key The group key, <code>null</code> if no search.
+         * @param snapshot The snapshot to search on.
+         */
+        Group(Key key, PathSnapshot snapshot)
+        {
+            this.key = key;
+            this.snapshot = snapshot;
+        }
+
+        /**
+         * Add request to group.
+         * 
+         * @param request The request to add.
+         */
+        void add(Request request)
+        {
+            requests.add(request);
+        }
+
+        /**
+         * Complete group without search, all requests will receive a <code>null</code> path.
+         */
+        void complete()
+        {
+            paths = new Path[requests.size()];
+        }
+
+        /**
+         * Submit the group search.
+         * 
+         * @param executor The executor to use.
+         * @param searches The searches per thread.
+         */
+        void submit(ExecutorService executor, final ThreadLocal<PathRequestSearch> searches)
+        {
+            final int[] sources = new int[requests.size()];
+            for (int i = 0; i < sources.length; i++)
+            {
+                final Request request = requests.get(i);
+                sources[i] = request.sty * snapshot.getWidth() + request.stx;
+            }
+            future = executor.submit(new Callable<Path[]>()
+            {
+                @Override
+                public Path[] call()
+                {
+                    return searches.get().search(snapshot, key.profile, key.dtx, key.dty, key.ignoreRef, sources);
+                }
+            });
+        }
+
+        /**
+         * Check if search is done.
+         * 
+         * @return <code>true</code> if results are available, <code>false</code> else.
+         */
+        boolean isDone()
+        {
+            return paths != null || future.isDone();
+        }
+
+        /**
+         * Deliver the available results.
+         * 
+         * @param max The maximum results to deliver.
+         * @return The number of delivered results.
+         * @throws LionEngineException If search failed.
+         */
+        int deliver(int max)
+        {
+            if (paths == null)
+            {
+                paths = getPaths();
+            }
+            final int count = Math.min(max, getRemaining());
+            for (int i = 0; i < count; i++)
+            {
+                requests.get(next).listener.notifyPathFound(paths[next]);
+                next++;
+            }
+            return count;
+        }
+
+        /**
+         * Get the number of requests not yet delivered.
+         * 
+         * @return The remaining requests.
+         */
+        int getRemaining()
+        {
+            return requests.size() - next;
+        }
+
+        /**
+         * Get the search result.
+         * 
+         * @return The paths found.
+         * @throws LionEngineException If search failed.
+         */
+        private Path[] getPaths()
+        {
+            try
+            {
+                return future.get();
+            }
+            catch (final InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new LionEngineException(exception, ERROR_SEARCH);
+            }
+            catch (final ExecutionException exception)
+            {
+                throw new LionEngineException(exception, ERROR_SEARCH);
+            }
+        }
+    }
+}
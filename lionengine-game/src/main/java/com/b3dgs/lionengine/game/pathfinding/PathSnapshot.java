@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Map;
+
+/**
+ * Immutable copy of the map path data, which can be read by any thread. Tiles are stored as an index in the
+ * categories array (<code>-1</code> if no tile), and objects ID are stored only for occupied tiles.
+ */
+final class PathSnapshot
+{
+    /** No category index. */
+    static final int NO_CATEGORY = -1;
+
+    /** Categories name. */
+    private final String[] categories;
+    /** Category index per tile. */
+    private final int[] tiles;
+    /** Objects ID per occupied tile. */
+    private final Map<Integer, Integer[]> ids;
+    /** Map width in tile. */
+    private final int width;
+    /** Map height in tile. */
+    private final int height;
+
+    /**
+     * Internal constructor. Arguments must not be modified after call.
+     * 
+     * @param width The map width in tile.
+     * @param height The map height in tile.
+     * @param categories The categories name.
+     * @param tiles The category index per tile.
+     * @param ids The objects ID per occupied tile.
+     */
+    PathSnapshot(int width, int height, String[] categories, int[] tiles, Map<Integer, Integer[]> ids)
+    {
+        this.width = width;
+        this.height = height;
+        this.categories = categories;
+        this.tiles = tiles;
+        this.ids = ids;
+    }
+
+    /**
+     * Get the map width.
+     * 
+     * @return The map width in tile.
+     */
+    int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Get the map height.
+     * 
+     * @return The map height in tile.
+     */
+    int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Get the categories name.
+     * 
+     * @return The categories name, category index being the array index (must not be modified).
+     */
+    String[] getCategoryNames()
+    {
+        return categories;
+    }
+
+    /**
+     * Get the tile category.
+     * 
+     * @param node The tile index.
+     * @return The category index, {@link #NO_CATEGORY} if no tile.
+     */
+    int getTile(int node)
+    {
+        return tiles[node];
+    }
+
+    /**
+     * Get the tile objects ID.
+     * 
+     * @param node The tile index.
+     * @return The objects ID, <code>null</code> if none.
+     */
+    Integer[] getIds(int node)
+    {
+        return ids.get(Integer.valueOf(node));
+    }
+}
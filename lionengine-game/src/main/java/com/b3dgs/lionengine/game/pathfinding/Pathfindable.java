@@ -71,6 +71,24 @@ public interface Pathfindable extends Feature, Tiled, Orientable, Updatable, Ren
      */
     void setSpeed(double speedX, double speedY);
 
+    /**
+     * Set the path finder used for searches, replacing the default one. Allows to share a path finder (such as
+     * {@link Astar#createPathFinderHierarchical(com.b3dgs.lionengine.game.map.MapTile, int, int, Heuristic)}) between
+     * pathfindables with the same configuration.
+     * 
+     * @param pathfinder The path finder reference.
+     * @throws LionEngineException If <code>null</code> path finder.
+     */
+    void setPathFinder(PathFinder pathfinder);
+
+    /**
+     * Set the path requests service used for destination searches. Searches are then resolved asynchronously, and
+     * movement starts (or changes) when the path is delivered by {@link PathRequests#update(double)}.
+     * 
+     * @param requests The path requests service, <code>null</code> for synchronous searches (default).
+     */
+    void setPathRequests(PathRequests requests);
+
     /**
      * Ignore an object ID while searching pathfinding. It allows to not be blocked by this ID.
      * 
@@ -164,6 +182,21 @@ public interface Pathfindable extends Feature, Tiled, Orientable, Updatable, Ren
      */
     double getCost(String category);
 
+    /**
+     * Get the ignored objects ID.
+     * 
+     * @return The ignored objects ID.
+     */
+    Collection<Integer> getIgnoredIds();
+
+    /**
+     * Check if the category is defined in the pathfindable configuration.
+     * 
+     * @param category The category to check.
+     * @return <code>true</code> if defined, <code>false</code> else.
+     */
+    boolean hasCategory(String category);
+
     /**
      * Check if movement is allowed for the specified tile.
      * 
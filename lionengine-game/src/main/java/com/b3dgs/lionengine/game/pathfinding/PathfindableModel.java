@@ -19,9 +19,11 @@ package com.b3dgs.lionengine.game.pathfinding;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Localizable;
 import com.b3dgs.lionengine.core.Graphics;
@@ -73,6 +75,12 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
     private MapTilePath mapPath;
     /** Pathfinder reference. */
     private PathFinder pathfinder;
+    /** Path requests reference, <code>null</code> for synchronous searches. */
+    private PathRequests requests;
+    /** Last path request ticket, older results are ignored. */
+    private int ticket;
+    /** Waiting for a path request result. */
+    private boolean waiting;
     /** List of categories. */
     private final Map<String, PathData> categories;
     /** Transformable model. */
@@ -391,17 +399,75 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
             {
                 removeObjectId(path.getX(currentStep), path.getY(currentStep));
             }
-            path = pathfinder.findPath(this, destX, destY, false);
             pathFoundChanged = false;
-            currentStep = 0;
-            skip = false;
-            reCheckRef = false;
-
-            if (path == null)
+            if (requests == null)
             {
-                pathStoppedRequested = true;
+                changePath(pathfinder.findPath(this, destX, destY, false));
             }
+            else
+            {
+                waiting = true;
+                requestPath(destX, destY, false, false);
+            }
+        }
+        checkPathStopped();
+    }
+
+    /**
+     * Change the current path with the new one found while moving.
+     * 
+     * @param found The new path found, <code>null</code> if none.
+     */
+    private void changePath(Path found)
+    {
+        path = found;
+        currentStep = 0;
+        skip = false;
+        reCheckRef = false;
+
+        if (path == null)
+        {
+            pathStoppedRequested = true;
+        }
+    }
+
+    /**
+     * Start the first path found.
+     * 
+     * @param found The path found, <code>null</code> if none.
+     */
+    private void startPath(Path found)
+    {
+        path = found;
+        for (final PathfindableListener listener : listeners)
+        {
+            listener.notifyStartMove();
+        }
+    }
+
+    /**
+     * Search the first path, synchronously or with path requests.
+     * 
+     * @param tx The horizontal tile destination.
+     * @param ty The vertical tile destination.
+     */
+    private void searchFirstPath(int tx, int ty)
+    {
+        if (requests == null)
+        {
+            startPath(pathfinder.findPath(this, tx, ty, true));
+        }
+        else
+        {
+            requestPath(tx, ty, true, true);
         }
+    }
+
+    /**
+     * Check if path stop has been requested, and stop if needed.
+     */
+    private void checkPathStopped()
+    {
         if (pathStoppedRequested)
         {
             pathStopped = true;
@@ -410,6 +476,51 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         }
     }
 
+    /**
+     * Request path to the service. Only the last request result is used.
+     * 
+     * @param tx The horizontal tile destination.
+     * @param ty The vertical tile destination.
+     * @param ignoreRef The ignore map array reference checking (<code>true</code> to ignore references).
+     * @param start <code>true</code> if first path, <code>false</code> if path change while moving.
+     */
+    private void requestPath(int tx, int ty, boolean ignoreRef, final boolean start)
+    {
+        ticket++;
+        final int current = ticket;
+        requests.request(this, tx, ty, ignoreRef, new PathRequestListener()
+        {
+            @Override
+            public void notifyPathFound(Path found)
+            {
+                if (current == ticket)
+                {
+                    onPathFound(found, start);
+                }
+            }
+        });
+    }
+
+    /**
+     * Called when requested path has been delivered.
+     * 
+     * @param found The path found, <code>null</code> if none.
+     * @param start <code>true</code> if first path, <code>false</code> if path change while moving.
+     */
+    private void onPathFound(Path found, boolean start)
+    {
+        waiting = false;
+        if (start)
+        {
+            startPath(found);
+        }
+        else
+        {
+            changePath(found);
+            checkPathStopped();
+        }
+    }
+
     /**
      * Check if the object id location is available for the pathfindable.
      * 
@@ -440,6 +551,8 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
      */
     private void onArrived()
     {
+        ticket++;
+        waiting = false;
         destinationReached = true;
         moving = false;
         path = null;
@@ -532,7 +645,10 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         id = provider.getFeature(Identifiable.class).getId();
         final int range = (int) Math.sqrt(map.getInTileWidth() * map.getInTileWidth()
                                           + map.getInTileHeight() * (double) map.getInTileHeight());
-        pathfinder = Astar.createPathFinder(map, range, Astar.createHeuristicClosest());
+        if (pathfinder == null)
+        {
+            pathfinder = Astar.createPathFinderHeap(map, range, Astar.createHeuristicClosest());
+        }
 
         transformable = provider.getFeature(Transformable.class);
         final OrientableModel orientableModel = new OrientableModel();
@@ -583,7 +699,7 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
             reCheckRef = true;
             return;
         }
-        if (path != null)
+        if (path != null && !waiting)
         {
             // Continue until max step
             if (currentStep < getMaxStep())
@@ -646,6 +762,20 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         this.speedY = speedY;
     }
 
+    @Override
+    public void setPathFinder(PathFinder pathfinder)
+    {
+        Check.notNull(pathfinder);
+
+        this.pathfinder = pathfinder;
+    }
+
+    @Override
+    public void setPathRequests(PathRequests requests)
+    {
+        this.requests = requests;
+    }
+
     @Override
     public void setIgnoreId(Integer id, boolean state)
     {
@@ -688,13 +818,9 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
             if (path == null)
             {
                 currentStep = 0;
-                path = pathfinder.findPath(this, tx, ty, true);
                 pathFoundChanged = false;
-                for (final PathfindableListener listener : listeners)
-                {
-                    listener.notifyStartMove();
-                }
                 prepareDestination(tx, ty);
+                searchFirstPath(tx, ty);
                 return true;
             }
             // Next path, while object is moving, change takes effect when the object reached a step point
@@ -796,6 +922,18 @@ public class PathfindableModel extends FeatureModel implements Pathfindable
         throw new LionEngineException(ERROR_CATEGORY, category);
     }
 
+    @Override
+    public Collection<Integer> getIgnoredIds()
+    {
+        return Collections.unmodifiableCollection(ignoredIds);
+    }
+
+    @Override
+    public boolean hasCategory(String category)
+    {
+        return categories.containsKey(category);
+    }
+
     @Override
     public boolean isMovementAllowed(String category, MovementTile movement)
     {
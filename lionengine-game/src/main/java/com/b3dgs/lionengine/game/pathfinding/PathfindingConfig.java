@@ -53,7 +53,7 @@ public final class PathfindingConfig
     public static Collection<PathCategory> imports(Media configPathfinding)
     {
         final Collection<PathCategory> categories = new HashSet<PathCategory>();
-        final XmlNode nodeCategories = Xml.load(configPathfinding);
+        final XmlNode nodeCategories = Xml.loadLight(configPathfinding);
         for (final XmlNode node : nodeCategories.getChildren(TILE_PATH))
         {
             final String name = node.readString(CATEGORY);
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.map.MapTileArray;
+import com.b3dgs.lionengine.game.map.TileFeatureColumn;
+import com.b3dgs.lionengine.game.tile.Tile;
+
+/**
+ * Tile path storage for {@link MapTileArray}. Categories are stored as an index per tile, and objects ID only for
+ * occupied tiles.
+ */
+final class TilePathColumn implements TileFeatureColumn<TilePath>
+{
+    /** No category value. */
+    private static final int NONE = -1;
+
+    /** Categories name. */
+    private final List<String> names = new ArrayList<String>();
+    /** Categories index by name. */
+    private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+    /** Objects ID by tile index. */
+    private final Map<Integer, Set<Integer>> ids = new HashMap<Integer, Set<Integer>>();
+    /** Category index per tile, {@link #NONE} if no tile path. */
+    private int[] categories = new int[0];
+
+    /**
+     * Create column.
+     */
+    TilePathColumn()
+    {
+        super();
+    }
+
+    /**
+     * Get the category index, stored if new.
+     * 
+     * @param name The category name.
+     * @return The category index.
+     */
+    private int getIndex(String name)
+    {
+        Integer index = indexes.get(name);
+        if (index == null)
+        {
+            index = Integer.valueOf(names.size());
+            indexes.put(name, index);
+            names.add(name);
+        }
+        return index.intValue();
+    }
+
+    /*
+     * TileFeatureColumn
+     */
+
+    @Override
+    public void create(int size)
+    {
+        categories = new int[size];
+        Arrays.fill(categories, NONE);
+        ids.clear();
+    }
+
+    @Override
+    public void grow(int size)
+    {
+        final int old = categories.length;
+        categories = Arrays.copyOf(categories, size);
+        Arrays.fill(categories, old, size, NONE);
+    }
+
+    @Override
+    public void move(int from, int to)
+    {
+        categories[to] = categories[from];
+        categories[from] = NONE;
+        final Set<Integer> objects = ids.remove(Integer.valueOf(from));
+        if (objects != null)
+        {
+            ids.put(Integer.valueOf(to), objects);
+        }
+    }
+
+    @Override
+    public void set(int index, TilePath feature)
+    {
+        categories[index] = getIndex(feature.getCategory());
+        final Collection<Integer> objects = feature.getObjectsId();
+        if (objects.isEmpty())
+        {
+            ids.remove(Integer.valueOf(index));
+        }
+        else
+        {
+            ids.put(Integer.valueOf(index), new HashSet<Integer>(objects));
+        }
+    }
+
+    @Override
+    public void remove(int index)
+    {
+        categories[index] = NONE;
+        ids.remove(Integer.valueOf(index));
+    }
+
+    @Override
+    public boolean has(int index)
+    {
+        return categories[index] != NONE;
+    }
+
+    @Override
+    public TilePath get(Tile tile, int index)
+    {
+        return new View(index);
+    }
+
+    /**
+     * Tile path view on column data.
+     */
+    private final class View extends FeatureModel implements TilePath
+    {
+        /** The tile index. */
+        private final Integer index;
+
+        /**
+         * Create view.
+         * 
+         * @param index The tile index.
+         */
+        View(int index)
+        {
+            super();
+            this.index = Integer.valueOf(index);
+        }
+
+        /*
+         * TilePath
+         */
+
+        @Override
+        public void addObjectId(Integer id)
+        {
+            Set<Integer> objects = ids.get(index);
+            if (objects == null)
+            {
+                objects = new HashSet<Integer>();
+                ids.put(index, objects);
+            }
+            objects.add(id);
+        }
+
+        @Override
+        public void removeObjectId(Integer id)
+        {
+            final Set<Integer> objects = ids.get(index);
+            if (objects != null)
+            {
+                objects.remove(id);
+                if (objects.isEmpty())
+                {
+                    ids.remove(index);
+                }
+            }
+        }
+
+        @Override
+        public Collection<Integer> getObjectsId()
+        {
+            final Set<Integer> objects = ids.get(index);
+            if (objects == null)
+            {
+                return Collections.emptySet();
+            }
+            return objects;
+        }
+
+        @Override
+        public String getCategory()
+        {
+            return names.get(categories[index.intValue()]);
+        }
+    }
+}
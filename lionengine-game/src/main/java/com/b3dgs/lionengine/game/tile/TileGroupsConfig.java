@@ -56,7 +56,7 @@ public final class TileGroupsConfig
      */
     public static Collection<TileGroup> imports(Media groupsConfig)
     {
-        final XmlNode nodeGroups = Xml.load(groupsConfig);
+        final XmlNode nodeGroups = Xml.loadLight(groupsConfig);
         final Collection<TileGroup> groups = new ArrayList<TileGroup>();
 
         for (final XmlNode nodeGroup : nodeGroups.getChildren(NODE_GROUP))
@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.tile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Index tiles images by their pixels content, in order to find an identical tile without comparing it against all
+ * known tiles. Tiles are compared the same way as {@link TilesExtractor#compareTile}: {@link ColorRgba#OPAQUE} and
+ * {@link ColorRgba#TRANSPARENT} are considered as equal.
+ * <p>
+ * Pixels are provided as an array region, as returned by
+ * {@link ImageBuffer#getRgb(int, int, int, int, int[], int, int)}. Only hash collisions are fully compared.
+ * </p>
+ * 
+ * @param <T> The indexed value type.
+ */
+public final class TileHashIndex<T>
+{
+    /** Hash multiplier. */
+    private static final int HASH_PRIME = 31;
+    /** Opaque value. */
+    private static final int OPAQUE = ColorRgba.OPAQUE.getRgba();
+    /** Transparent value. */
+    private static final int TRANSPARENT = ColorRgba.TRANSPARENT.getRgba();
+
+    /**
+     * Get the pixel value used for comparison, where {@link ColorRgba#OPAQUE} is considered as
+     * {@link ColorRgba#TRANSPARENT}.
+     * 
+     * @param pixel The pixel value.
+     * @return The comparable pixel value.
+     */
+    private static int canonical(int pixel)
+    {
+        if (OPAQUE == pixel)
+        {
+            return TRANSPARENT;
+        }
+        return pixel;
+    }
+
+    /** Indexed tiles by hash. */
+    private final Map<Integer, Entry<T>> entries = new HashMap<Integer, Entry<T>>();
+    /** Tile width. */
+    private final int tw;
+    /** Tile height. */
+    private final int th;
+    /** Indexed tiles number. */
+    private int size;
+
+    /**
+     * Create the index.
+     * 
+     * @param tw The tile width (strictly positive).
+     * @param th The tile height (strictly positive).
+     * @throws LionEngineException If invalid size.
+     */
+    public TileHashIndex(int tw, int th)
+    {
+        Check.superiorStrict(tw, 0);
+        Check.superiorStrict(th, 0);
+
+        this.tw = tw;
+        this.th = th;
+    }
+
+    /**
+     * Compute the tile hash.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @return The tile hash.
+     */
+    public int hash(int[] pixels, int offset, int scansize)
+    {
+        int hash = 1;
+        for (int y = 0; y < th; y++)
+        {
+            final int line = offset + y * scansize;
+            for (int x = 0; x < tw; x++)
+            {
+                hash = HASH_PRIME * hash + canonical(pixels[line + x]);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Add a tile if not already indexed. Pixels are copied.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @param value The associated value.
+     * @return <code>true</code> if added, <code>false</code> if already indexed.
+     */
+    public boolean add(int[] pixels, int offset, int scansize, T value)
+    {
+        return add(pixels, offset, scansize, hash(pixels, offset, scansize), value);
+    }
+
+    /**
+     * Add a tile if not already indexed. Pixels are copied.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @param hash The tile hash, as computed by {@link #hash(int[], int, int)}.
+     * @param value The associated value.
+     * @return <code>true</code> if added, <code>false</code> if already indexed.
+     */
+    public boolean add(int[] pixels, int offset, int scansize, int hash, T value)
+    {
+        final Integer key = Integer.valueOf(hash);
+        final Entry<T> first = entries.get(key);
+        if (find(first, pixels, offset, scansize) != null)
+        {
+            return false;
+        }
+
+        final int[] copy = new int[tw * th];
+        for (int y = 0; y < th; y++)
+        {
+            System.arraycopy(pixels, offset + y * scansize, copy, y * tw, tw);
+        }
+        entries.put(key, new Entry<T>(copy, value, first));
+        size++;
+        return true;
+    }
+
+    /**
+     * Get the value of an identical tile.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @return The indexed value, <code>null</code> if none.
+     */
+    public T get(int[] pixels, int offset, int scansize)
+    {
+        return get(pixels, offset, scansize, hash(pixels, offset, scansize));
+    }
+
+    /**
+     * Get the value of an identical tile.
+     * 
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @param hash The tile hash, as computed by {@link #hash(int[], int, int)}.
+     * @return The indexed value, <code>null</code> if none.
+     */
+    public T get(int[] pixels, int offset, int scansize, int hash)
+    {
+        final Entry<T> entry = find(entries.get(Integer.valueOf(hash)), pixels, offset, scansize);
+        if (entry == null)
+        {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Get the tile width.
+     * 
+     * @return The tile width.
+     */
+    public int getTileWidth()
+    {
+        return tw;
+    }
+
+    /**
+     * Get the tile height.
+     * 
+     * @return The tile height.
+     */
+    public int getTileHeight()
+    {
+        return th;
+    }
+
+    /**
+     * Get the indexed tiles number.
+     * 
+     * @return The indexed tiles number.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Find the identical tile in the hash chain.
+     * 
+     * @param first The first chain entry (can be <code>null</code>).
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @return The identical entry, <code>null</code> if none.
+     */
+    private Entry<T> find(Entry<T> first, int[] pixels, int offset, int scansize)
+    {
+        Entry<T> entry = first;
+        while (entry != null && !equals(entry.pixels, pixels, offset, scansize))
+        {
+            entry = entry.next;
+        }
+        return entry;
+    }
+
+    /**
+     * Compare indexed tile pixels with a pixels array region.
+     * 
+     * @param tile The indexed tile pixels.
+     * @param pixels The pixels array.
+     * @param offset The tile first pixel index.
+     * @param scansize The pixels array line length.
+     * @return <code>true</code> if equals, <code>false</code> else.
+     */
+    private boolean equals(int[] tile, int[] pixels, int offset, int scansize)
+    {
+        for (int y = 0; y < th; y++)
+        {
+            final int line = offset + y * scansize;
+            final int start = y * tw;
+            for (int x = 0; x < tw; x++)
+            {
+                if (canonical(tile[start + x]) != canonical(pixels[line + x]))
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indexed tile, chained by hash.
+     * 
+     * @param <T> The indexed value type.
+     */
+    private static final class Entry<T>
+    {
+        /** Tile pixels. */
+        private final int[] pixels;
+        /** Associated value. */
+        private final T value;
+        /** Next entry with same hash (can be <code>null</code>). */
+        private final Entry<T> next;
+
+        /**
+         * Create entry.
+         * 
+         * @param pixels The tile pixels.
+         * @param value The associated value.
+         * @param next The next entry with same hash (can be <code>null</code>).
+         */
+        Entry(int[] pixels, T value, Entry<T> next)
+        {
+            this.pixels = pixels;
+            this.value = value;
+            this.next = next;
+        }
+    }
+}
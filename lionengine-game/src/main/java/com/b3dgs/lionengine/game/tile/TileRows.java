@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.tile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ImageBuffer;
+
+/**
+ * Read the tiles rows of an image on worker threads, with their pixels and their {@link TileHashIndex} hashes.
+ * Rows are read ahead in parallel, and must be retrieved in order with {@link #get(int)}, from a single thread.
+ * Only a few rows are kept ahead, so a large image is never fully copied at once.
+ * {@link #close()} must be called once reading is done.
+ */
+public final class TileRows
+{
+    /** Rows read ahead per thread. */
+    private static final int READ_AHEAD = 2;
+    /** Error read. */
+    private static final String ERROR_READ = "Tile rows read failed !";
+    /** Worker thread name. */
+    private static final String THREAD_NAME = "TileRows";
+
+    /** Rows in reading, by tile row. */
+    private final List<Future<Row>> rows;
+    /** Reading executor. */
+    private final ExecutorService executor;
+    /** The image reference. */
+    private final ImageBuffer image;
+    /** The index used for hashes. */
+    private final TileHashIndex<?> index;
+    /** Horizontal tiles. */
+    private final int tilesInX;
+    /** Vertical tiles. */
+    private final int tilesInY;
+    /** Maximum rows read ahead. */
+    private final int window;
+    /** Next row to submit. */
+    private int submitted;
+
+    /**
+     * Create the reader, using one thread per available processor.
+     * 
+     * @param image The image to read.
+     * @param index The index defining tile size and hash.
+     * @throws LionEngineException If invalid arguments.
+     */
+    public TileRows(ImageBuffer image, TileHashIndex<?> index)
+    {
+        this(image, index, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create the reader.
+     * 
+     * @param image The image to read.
+     * @param index The index defining tile size and hash.
+     * @param threads The threads number (strictly positive).
+     * @throws LionEngineException If invalid arguments.
+     */
+    public TileRows(ImageBuffer image, TileHashIndex<?> index, int threads)
+    {
+        Check.notNull(image);
+        Check.notNull(index);
+        Check.superiorStrict(threads, 0);
+
+        this.image = image;
+        this.index = index;
+        tilesInX = image.getWidth() / index.getTileWidth();
+        tilesInY = image.getHeight() / index.getTileHeight();
+        window = threads * READ_AHEAD;
+        rows = new ArrayList<Future<Row>>(tilesInY);
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                final Thread thread = new Thread(runnable, THREAD_NAME);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        submit(window);
+    }
+
+    /**
+     * Get the tiles row, waiting for its reading if needed. Rows must be retrieved in increasing order.
+     * 
+     * @param ty The tile row index.
+     * @return The row read.
+     * @throws LionEngineException If invalid row or reading failed.
+     */
+    public Row get(int ty)
+    {
+        Check.superiorOrEqual(ty, 0);
+        Check.inferiorStrict(ty, tilesInY);
+
+        submit(ty + window);
+        final Future<Row> future = rows.get(ty);
+        Check.notNull(future);
+        rows.set(ty, null);
+        try
+        {
+            return future.get();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new LionEngineException(exception, ERROR_READ);
+        }
+        catch (final ExecutionException exception)
+        {
+            throw new LionEngineException(exception, ERROR_READ);
+        }
+    }
+
+    /**
+     * Stop reading. Pending rows are discarded.
+     */
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the number of horizontal tiles.
+     * 
+     * @return The number of horizontal tiles.
+     */
+    public int getTilesHorizontal()
+    {
+        return tilesInX;
+    }
+
+    /**
+     * Get the number of vertical tiles.
+     * 
+     * @return The number of vertical tiles.
+     */
+    public int getTilesVertical()
+    {
+        return tilesInY;
+    }
+
+    /**
+     * Submit rows reading until the specified row (excluded).
+     * 
+     * @param end The last row excluded.
+     */
+    private void submit(int end)
+    {
+        final int last = Math.min(end, tilesInY);
+        while (submitted < last)
+        {
+            final int ty = submitted;
+            rows.add(executor.submit(new Callable<Row>()
+            {
+                @Override
+                public Row call()
+                {
+                    return read(ty);
+                }
+            }));
+            submitted++;
+        }
+    }
+
+    /**
+     * Read the tiles row.
+     * 
+     * @param ty The tile row index.
+     * @return The row read.
+     */
+    private Row read(int ty)
+    {
+        final int tw = index.getTileWidth();
+        final int th = index.getTileHeight();
+        final int scansize = tilesInX * tw;
+        final int[] pixels = new int[scansize * th];
+        for (int y = 0; y < th; y++)
+        {
+            image.getRgb(0, ty * th + y, scansize, 1, pixels, y * scansize, scansize);
+        }
+        final int[] hashes = new int[tilesInX];
+        for (int tx = 0; tx < tilesInX; tx++)
+        {
+            hashes[tx] = index.hash(pixels, tx * tw, scansize);
+        }
+        return new Row(pixels, hashes, tw, scansize);
+    }
+
+    /**
+     * Tiles row read.
+     */
+    public static final class Row
+    {
+        /** Row pixels. */
+        private final int[] pixels;
+        /** Tiles hash. */
+        private final int[] hashes;
+        /** Tile width. */
+        private final int tw;
+        /** Pixels line length. */
+        private final int scansize;
+
+        /**
+         * Create row.
+         * 
+         * @param pixels The row pixels.
+         * @param hashes The tiles hash.
+         * @param tw The tile width.
+         * @param scansize The pixels line length.
+         */
+        Row(int[] pixels, int[] hashes, int tw, int scansize)
+        {
+            this.pixels = pixels;
+            this.hashes = hashes;
+            this.tw = tw;
+            this.scansize = scansize;
+        }
+
+        /**
+         * Get the row pixels.
+         * 
+         * @return The row pixels.
+         */
+        public int[] getPixels()
+        {
+            return pixels;
+        }
+
+        /**
+         * Get the tile first pixel index in {@link #getPixels()}.
+         * 
+         * @param tx The horizontal tile index.
+         * @return The tile first pixel index.
+         */
+        public int getOffset(int tx)
+        {
+            return tx * tw;
+        }
+
+        /**
+         * Get the tile top left pixel.
+         * 
+         * @param tx The horizontal tile index.
+         * @return The tile top left pixel.
+         */
+        public int getPixel(int tx)
+        {
+            return pixels[tx * tw];
+        }
+
+        /**
+         * Get the tile hash.
+         * 
+         * @param tx The horizontal tile index.
+         * @return The tile hash.
+         */
+        public int getHash(int tx)
+        {
+            return hashes[tx];
+        }
+
+        /**
+         * Get the pixels line length.
+         * 
+         * @return The pixels line length.
+         */
+        public int getScansize()
+        {
+            return scansize;
+        }
+    }
+}
@@ -37,6 +37,10 @@ import com.b3dgs.lionengine.graphic.UtilColor;
  * This class allows to extract unique tiles from a level rip.
  * The color [0-128-128] ({@link #IGNORED_COLOR_VALUE}) is ignored (can be used to skip tile, in order to improve
  * performance).
+ * <p>
+ * Extracted tiles are indexed by content with a {@link TileHashIndex}, and level rips rows are read in parallel with
+ * {@link TileRows}. Tiles are extracted, and progress notified, on the caller thread in the level rip order.
+ * </p>
  */
 public final class TilesExtractor
 {
@@ -77,29 +81,16 @@ public final class TilesExtractor
     }
 
     /**
-     * Check if tile has already been extracted regarding the current tile on level rip.
+     * Check if tile has not already been extracted regarding the current tile on level rip.
      * 
-     * @param level The level rip reference.
-     * @param x The current level rip horizontal location.
-     * @param y The current level rip vertical location.
-     * @param tiles The current extracted tiles.
-     * @return <code>true</code> if already extracted, <code>false</code> else.
+     * @param index The extracted tiles index.
+     * @param row The current level rip tiles row.
+     * @param h The current level rip horizontal tile.
+     * @return <code>true</code> if not already extracted, <code>false</code> else.
      */
-    private static boolean isExtracted(SpriteTiled level, int x, int y, Collection<ImageBuffer> tiles)
+    private static boolean isNew(TileHashIndex<ImageBuffer> index, TileRows.Row row, int h)
     {
-        final int tw = level.getTileWidth();
-        final int th = level.getTileHeight();
-        final ImageBuffer surface = level.getSurface();
-
-        for (final ImageBuffer tile : tiles)
-        {
-
-            if (compareTile(tw, th, surface, x, y, tile, 0, 0))
-            {
-                return true;
-            }
-        }
-        return false;
+        return index.get(row.getPixels(), row.getOffset(h), row.getScansize(), row.getHash(h)) == null;
     }
 
     /**
@@ -202,6 +193,7 @@ public final class TilesExtractor
     {
         final int tilesNumber = getTilesNumber(tw, th, levelRips);
         final Collection<ImageBuffer> tiles = new ArrayList<ImageBuffer>();
+        final TileHashIndex<ImageBuffer> index = new TileHashIndex<ImageBuffer>(tw, th);
         int checkedTiles = 0;
         for (final Media levelRip : levelRips)
         {
@@ -209,7 +201,7 @@ public final class TilesExtractor
             level.load();
             level.prepare();
 
-            checkedTiles = extract(canceler, level, tilesNumber, tiles, checkedTiles);
+            checkedTiles = extract(canceler, level, tilesNumber, tiles, index, checkedTiles);
             level.getSurface().dispose();
             if (checkedTiles < 0)
             {
@@ -228,6 +220,7 @@ public final class TilesExtractor
      * @param level The level rip.
      * @param tilesNumber The total tiles number to extract.
      * @param tiles The current extracted tiles.
+     * @param index The extracted tiles index.
      * @param checkedTiles The last number of checked tiles.
      * @return The current number of checked tiles, or -1 if canceled.
      * @throws LionEngineException If an error occurred when proceeding the image.
@@ -236,35 +229,41 @@ public final class TilesExtractor
                         SpriteTiled level,
                         int tilesNumber,
                         Collection<ImageBuffer> tiles,
+                        TileHashIndex<ImageBuffer> index,
                         int checkedTiles)
     {
+        final TileRows rows = new TileRows(level.getSurface(), index);
         final int horizontalTiles = level.getTilesHorizontal();
         final int verticalTiles = level.getTilesVertical();
-        final ImageBuffer surface = level.getSurface();
 
-        final int tw = level.getTileWidth();
-        final int th = level.getTileHeight();
         int checked = checkedTiles;
         int oldPercent = 0;
-        for (int v = 0; v < verticalTiles; v++)
+        try
         {
-            for (int h = 0; h < horizontalTiles; h++)
+            for (int v = 0; v < verticalTiles; v++)
             {
-                final int x = h * tw;
-                final int y = v * th;
-                if (IGNORED_COLOR_VALUE != surface.getRgb(x, y) && !isExtracted(level, x, y, tiles))
-                {
-                    final ImageBuffer tile = extract(level, h + v * horizontalTiles);
-                    tiles.add(tile);
-                }
-                checked++;
-                oldPercent = updateProgress(checked, tilesNumber, oldPercent, tiles);
-                if (canceler != null && canceler.isCanceled())
+                final TileRows.Row row = rows.get(v);
+                for (int h = 0; h < horizontalTiles; h++)
                 {
-                    return -1;
+                    if (IGNORED_COLOR_VALUE != row.getPixel(h) && isNew(index, row, h))
+                    {
+                        final ImageBuffer tile = extract(level, h + v * horizontalTiles);
+                        tiles.add(tile);
+                        index.add(row.getPixels(), row.getOffset(h), row.getScansize(), row.getHash(h), tile);
+                    }
+                    checked++;
+                    oldPercent = updateProgress(checked, tilesNumber, oldPercent, tiles);
+                    if (canceler != null && canceler.isCanceled())
+                    {
+                        return -1;
+                    }
                 }
             }
         }
+        finally
+        {
+            rows.close();
+        }
         return checked;
     }
 
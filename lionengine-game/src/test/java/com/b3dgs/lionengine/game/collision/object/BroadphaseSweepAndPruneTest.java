@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.collision.object;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Graphics;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.UtilSetup;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.mock.FactoryGraphicMock;
+
+/**
+ * Test the sweep and prune broad phase class.
+ */
+public class BroadphaseSweepAndPruneTest
+{
+    /** Test configuration. */
+    private static Media config;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+        config = UtilSetup.createConfig();
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Assert.assertTrue(config.getFile().delete());
+        Graphics.setFactoryGraphic(null);
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Create a collidable at location.
+     * 
+     * @param services The services reference.
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     * @return The created collidable.
+     */
+    private static Collidable createCollidable(Services services, double x, double y)
+    {
+        final Featurable featurable = CollidableModelTest.createFeaturable(config, services);
+        featurable.getFeature(Transformable.class).teleport(x, y);
+
+        final Collidable collidable = featurable.getFeature(Collidable.class);
+        collidable.addCollision(new Collision("test", 0, 0, 3, 3, false));
+        collidable.update(1.0);
+
+        return collidable;
+    }
+
+    /**
+     * Find candidates.
+     * 
+     * @param broadphase The broad phase to test.
+     * @param collidables The collidables to check.
+     * @return The found candidates.
+     */
+    private static List<Collection<Collidable>> find(Broadphase broadphase, Collidable... collidables)
+    {
+        final List<Collection<Collidable>> candidates = new ArrayList<Collection<Collidable>>();
+        broadphase.findCandidates(Arrays.asList(collidables), new BroadphaseListener()
+        {
+            @Override
+            public void notifyCandidates(Collidable collidableA, Collidable collidableB)
+            {
+                candidates.add(Arrays.asList(collidableA, collidableB));
+            }
+        });
+        return candidates;
+    }
+
+    /**
+     * Test broad phase candidates.
+     */
+    @Test
+    public void testCandidates()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+
+        final Collidable collidable1 = createCollidable(services, 0.0, 0.0);
+        final Collidable collidable2 = createCollidable(services, 2.0, 2.0);
+        final Collidable collidable3 = createCollidable(services, 100.0, 100.0);
+        final Collidable collidable4 = createCollidable(services, -100.0, 101.0);
+
+        final Broadphase broadphase = new BroadphaseSweepAndPrune();
+        final List<Collection<Collidable>> candidates = find(broadphase,
+                                                             collidable1,
+                                                             collidable2,
+                                                             collidable3,
+                                                             collidable4);
+
+        Assert.assertEquals(1, candidates.size());
+        Assert.assertTrue(candidates.get(0).contains(collidable1));
+        Assert.assertTrue(candidates.get(0).contains(collidable2));
+
+        Assert.assertEquals(0, find(broadphase, collidable1, collidable3, collidable4).size());
+        Assert.assertEquals(0, find(broadphase).size());
+    }
+
+    /**
+     * Test broad phase with a collidable without any collision.
+     */
+    @Test
+    public void testNoCollision()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+
+        final Collidable collidable1 = createCollidable(services, 0.0, 0.0);
+        final Collidable collidable2 = CollidableModelTest.createFeaturable(config, services)
+                                                          .getFeature(Collidable.class);
+
+        Assert.assertEquals(0, find(new BroadphaseSweepAndPrune(), collidable1, collidable2).size());
+    }
+
+    /**
+     * Test broad phase with a moving collidable, area must cover its ray cast.
+     */
+    @Test
+    public void testMovement()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+
+        final Collidable collidable1 = createCollidable(services, 0.0, 0.0);
+        final Collidable collidable2 = createCollidable(services, 20.0, 0.0);
+
+        collidable1.getFeature(Transformable.class).moveLocation(1.0, 30.0, 0.0);
+
+        Assert.assertEquals(1, find(new BroadphaseSweepAndPrune(), collidable1, collidable2).size());
+    }
+}
@@ -272,6 +272,44 @@ public class CollidableModelTest
         Assert.assertNull(collidable.collide(collidable));
     }
 
+    /**
+     * Test collidable recycle.
+     */
+    @Test
+    public void testRecycle()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+
+        final Featurable featurable = createFeaturable(config, services);
+        final CollidableModel collidable = featurable.getFeature(CollidableModel.class);
+        final AtomicBoolean collided = new AtomicBoolean();
+        collidable.addListener(new CollidableListener()
+        {
+            @Override
+            public void notifyCollided(Collidable collidable)
+            {
+                collided.set(true);
+            }
+        });
+
+        final Collision collision = new Collision("test", 0, 0, 3, 3, false);
+        collidable.addCollision(collision);
+        collidable.update(1.0);
+        collidable.addIgnore(collidable);
+        collidable.setEnabled(false);
+
+        collidable.recycle();
+
+        Assert.assertFalse(collidable.getCollisionBounds().iterator().hasNext());
+
+        collidable.update(1.0);
+        collidable.notifyCollided(collidable);
+
+        Assert.assertEquals(collision, collidable.collide(collidable));
+        Assert.assertFalse(collided.get());
+    }
+
     /**
      * Test collidable rendering.
      */
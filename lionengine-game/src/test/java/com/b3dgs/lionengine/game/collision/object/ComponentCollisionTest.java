@@ -25,6 +25,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Graphics;
 import com.b3dgs.lionengine.core.Medias;
@@ -71,6 +72,34 @@ public class ComponentCollisionTest
      */
     @Test
     public void testCollidable()
+    {
+        check(new ComponentCollision());
+    }
+
+    /**
+     * Test collidable class with grid broad phase.
+     */
+    @Test
+    public void testCollidableGrid()
+    {
+        check(new ComponentCollision(new BroadphaseGrid(2, 2)));
+    }
+
+    /**
+     * Test with <code>null</code> broad phase.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testNullBroadphase()
+    {
+        Assert.assertNotNull(new ComponentCollision(null));
+    }
+
+    /**
+     * Check the collision component.
+     * 
+     * @param component The component to test.
+     */
+    private void check(ComponentCollision component)
     {
         final Services services = new Services();
         services.add(new Camera());
@@ -87,7 +116,6 @@ public class ComponentCollisionTest
         final Collision collision2 = new Collision("test2", 0, 0, 3, 3, false);
         collidable2.addCollision(collision2);
 
-        final ComponentCollision component = new ComponentCollision();
         final Handler handler = new Handler(services);
         handler.addComponent(component);
         handler.add(featurable1);
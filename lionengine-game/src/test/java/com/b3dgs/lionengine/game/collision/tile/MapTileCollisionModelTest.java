@@ -17,6 +17,7 @@
  */
 package com.b3dgs.lionengine.game.collision.tile;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 
 import org.junit.After;
@@ -38,6 +39,7 @@ import com.b3dgs.lionengine.game.feature.UtilSetup;
 import com.b3dgs.lionengine.game.feature.transformable.Transformable;
 import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
 import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileArray;
 import com.b3dgs.lionengine.game.map.MapTileGame;
 import com.b3dgs.lionengine.game.map.UtilMap;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
@@ -118,7 +120,7 @@ public class MapTileCollisionModelTest
         groupsConfig = UtilConfig.createGroupsConfig(group);
         mapCollision.loadCollisions(formulasConfig, groupsConfig);
 
-        transformable = createObject();
+        transformable = createObject(services);
     }
 
     /**
@@ -200,6 +202,43 @@ public class MapTileCollisionModelTest
         Assert.assertNull(result);
     }
 
+    /**
+     * Test the map tile collision with a map tile array.
+     */
+    @Test
+    public void testMapTileArray()
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = services.create(MapTileArray.class);
+        map.addFeature(new MapTileGroupModel());
+        map.prepareFeatures(services);
+        map.create(1, 1, 3, 3);
+        UtilMap.setGroups(map);
+        UtilMap.fill(map, UtilMap.TILE_GROUND);
+        final MapTileCollision mapCollision = map.addFeatureAndGet(new MapTileCollisionModel());
+        mapCollision.prepare(map, services);
+        // Overwritten by map groups
+        groupsConfig = UtilConfig.createGroupsConfig(group);
+        mapCollision.loadCollisions(formulasConfig, groupsConfig);
+
+        final TileCollision tile = map.getTile(1, 1).getFeature(TileCollision.class);
+        Assert.assertFalse(TileCollisionModel.class.equals(tile.getClass()));
+        Assert.assertTrue(tile.getCollisionFormulas().containsAll(Arrays.asList(formulaV, formulaH)));
+
+        final Transformable transformable = createObject(services);
+        transformable.teleport(0.0, 6.0);
+        transformable.moveLocation(1.0, 0.0, -5.0);
+        final CollisionResult result = mapCollision.computeCollision(transformable, categoryY);
+
+        Assert.assertNull(result.getX());
+        Assert.assertEquals(Double.valueOf(3.0), result.getY());
+
+        tile.removeCollisionFormula(formulaV);
+        Assert.assertEquals(Arrays.asList(formulaH), new ArrayList<CollisionFormula>(tile.getCollisionFormulas()));
+        Assert.assertEquals(2, map.getTile(0, 0).getFeature(TileCollision.class).getCollisionFormulas().size());
+    }
+
     /**
      * Test the map tile collision getters.
      */
@@ -265,9 +304,10 @@ public class MapTileCollisionModelTest
     /**
      * Create object test.
      * 
+     * @param services The services reference.
      * @return The object test.
      */
-    private Transformable createObject()
+    private Transformable createObject(Services services)
     {
         final Setup setup = new Setup(config);
         CollisionCategoryConfig.exports(setup.getRoot(), categoryY);
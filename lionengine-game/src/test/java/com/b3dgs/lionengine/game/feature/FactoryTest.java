@@ -17,13 +17,22 @@
  */
 package com.b3dgs.lionengine.game.feature;
 
+import java.lang.ref.WeakReference;
+
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Mirror;
 import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableAllocator;
+import com.b3dgs.lionengine.game.feature.mirrorable.Mirrorable;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.handler.Handler;
+import com.b3dgs.lionengine.test.UtilTests;
 
 /**
  * Test the factory class.
@@ -32,6 +41,8 @@ public class FactoryTest
 {
     /** Object configuration file name. */
     private static final String OBJECT_XML = "object.xml";
+    /** Maximum garbage collection requests. */
+    private static final int GC_MAX = 50;
 
     /**
      * Prepare test.
@@ -69,6 +80,21 @@ public class FactoryTest
         Assert.assertNotNull(featurable2);
     }
 
+    /**
+     * Test the object creation with the allocator service defined before factory.
+     */
+    @Test
+    public void testCreateAllocator()
+    {
+        final IdentifiableAllocator allocator = services.add(new IdentifiableAllocator());
+        final Factory factory = new Factory(services);
+
+        final Featurable featurable = factory.create(Medias.create(OBJECT_XML));
+
+        Assert.assertEquals(Integer.valueOf(0), featurable.getFeature(Identifiable.class).getId());
+        Assert.assertEquals(1, allocator.allocate());
+    }
+
     /**
      * Test the object creation without constructor.
      */
@@ -149,4 +175,111 @@ public class FactoryTest
         Assert.assertEquals(setup, factory.getSetup(Medias.create(OBJECT_XML)));
         Assert.assertEquals(setup, factory.getSetup(Medias.create(OBJECT_XML)));
     }
+
+    /**
+     * Test the pooled object creation.
+     */
+    @Test
+    public void testPooled()
+    {
+        final Factory factory = new Factory(services);
+        final Handler handler = new Handler(services);
+        factory.setPooled(true);
+
+        final Featurable featurable = factory.create(Medias.create(OBJECT_XML));
+        handler.add(featurable);
+        handler.update(1.0);
+        final Identifiable identifiable = featurable.getFeature(Identifiable.class);
+        identifiable.destroy();
+
+        final Featurable created = factory.create(Medias.create(OBJECT_XML));
+        Assert.assertNotSame(featurable, created);
+
+        handler.update(1.0);
+        Assert.assertNull(identifiable.getId());
+
+        Assert.assertSame(featurable, factory.create(Medias.create(OBJECT_XML)));
+        Assert.assertNotNull(identifiable.getId());
+        Assert.assertNotSame(featurable, factory.create(Medias.create(OBJECT_XML), FeaturableModel.class));
+
+        handler.add(featurable);
+        handler.update(1.0);
+        Assert.assertSame(featurable, handler.get(identifiable.getId()));
+        identifiable.destroy();
+        handler.update(1.0);
+        factory.setPooled(false);
+
+        Assert.assertNotSame(featurable, factory.create(Medias.create(OBJECT_XML)));
+        created.getFeature(Identifiable.class).notifyDestroyed();
+    }
+
+    /**
+     * Test the pooled object features are recycled.
+     */
+    @Test
+    public void testPooledRecycled()
+    {
+        final Factory factory = new Factory(services);
+        final Handler handler = new Handler(services);
+        factory.setPooled(true);
+
+        final Featurable featurable = factory.create(Medias.create(OBJECT_XML), ObjectRecyclable.class);
+        final Transformable transformable = featurable.getFeature(Transformable.class);
+        final Mirrorable mirrorable = featurable.getFeature(Mirrorable.class);
+        transformable.teleport(4.0, 5.0);
+        transformable.setSize(1, 2);
+        mirrorable.mirror(Mirror.HORIZONTAL);
+        mirrorable.update(1.0);
+
+        handler.add(featurable);
+        handler.update(1.0);
+        featurable.getFeature(Identifiable.class).destroy();
+        handler.update(1.0);
+
+        Assert.assertSame(featurable, factory.create(Medias.create(OBJECT_XML), ObjectRecyclable.class));
+        Assert.assertEquals(0.0, transformable.getX(), UtilTests.PRECISION);
+        Assert.assertEquals(0.0, transformable.getY(), UtilTests.PRECISION);
+        Assert.assertEquals(16, transformable.getWidth());
+        Assert.assertEquals(32, transformable.getHeight());
+        Assert.assertEquals(Mirror.NONE, mirrorable.getMirror());
+    }
+
+    /**
+     * Test the pooled object with a feature not recyclable is never reused.
+     */
+    @Test
+    public void testPooledNotRecyclable()
+    {
+        final Factory factory = new Factory(services);
+        final Handler handler = new Handler(services);
+        factory.setPooled(true);
+
+        final Featurable featurable = factory.create(Medias.create(OBJECT_XML), ObjectNotRecyclable.class);
+        handler.add(featurable);
+        handler.update(1.0);
+        featurable.getFeature(Identifiable.class).destroy();
+        handler.update(1.0);
+
+        Assert.assertNotSame(featurable, factory.create(Medias.create(OBJECT_XML), ObjectNotRecyclable.class));
+    }
+
+    /**
+     * Test the pooled object never destroyed is not retained by the factory.
+     */
+    @Test
+    public void testPooledNotRetained()
+    {
+        final Factory factory = new Factory(services);
+        factory.setPooled(true);
+
+        final WeakReference<Featurable> reference;
+        reference = new WeakReference<Featurable>(factory.create(Medias.create(OBJECT_XML)));
+
+        for (int i = 0; i < GC_MAX && reference.get() != null; i++)
+        {
+            System.gc();
+        }
+
+        Assert.assertNull(reference.get());
+    }
 }
@@ -98,6 +98,29 @@ public class FeaturesTest
         Assert.assertTrue(features.contains(Refreshable.class));
     }
 
+    /**
+     * Test the resolved feature cache, with parent types.
+     */
+    @Test
+    public void testResolved()
+    {
+        final Features features = new Features();
+        final FeatureLevel2 level2 = new FeatureLevel2();
+        features.add(level2);
+
+        Assert.assertEquals(level2, features.get(FeatureLevel1.class));
+        Assert.assertEquals(level2, features.get(FeatureLevel1.class));
+        Assert.assertEquals(level2, features.get(Refreshable.class));
+        Assert.assertFalse(features.contains(Displayable.class));
+
+        final FeatureLevel1 level1 = new FeatureLevel1();
+        features.add(level1);
+
+        Assert.assertEquals(level1, features.get(FeatureLevel1.class));
+        Assert.assertEquals(level1, features.get(Refreshable.class));
+        Assert.assertEquals(level2, features.get(FeatureLevel2.class));
+    }
+
     /**
      * Mock feature.
      */
@@ -24,6 +24,7 @@ import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.game.camera.Camera;
 import com.b3dgs.lionengine.game.feature.Factory;
 import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.handler.Handler;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.map.MapTileGame;
 import com.b3dgs.lionengine.game.map.feature.group.MapTileGroup;
@@ -65,6 +66,52 @@ public class ServicesTest
         Assert.assertEquals(camera, services.get(Camera.class));
     }
 
+    /**
+     * Test the resolved service cache, with parent type.
+     */
+    @Test
+    public void testResolved()
+    {
+        final Services services = new Services();
+        final Camera camera = services.add(new Camera());
+
+        Assert.assertEquals(camera, services.get(Viewer.class));
+        Assert.assertEquals(camera, services.get(Viewer.class));
+        Assert.assertEquals(services, services.get(Services.class));
+        try
+        {
+            Assert.assertNull(services.get(Handler.class));
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+
+        final Handler handler = services.create(Handler.class);
+
+        Assert.assertEquals(handler, services.get(Handler.class));
+        Assert.assertEquals(camera, services.get(Viewer.class));
+    }
+
+    /**
+     * Test the service existence.
+     */
+    @Test
+    public void testHas()
+    {
+        final Services services = new Services();
+
+        Assert.assertFalse(services.has(Viewer.class));
+        Assert.assertTrue(services.has(Services.class));
+
+        services.add(new Camera());
+
+        Assert.assertTrue(services.has(Viewer.class));
+        Assert.assertTrue(services.has(Camera.class));
+        Assert.assertFalse(services.has(Handler.class));
+    }
+
     /**
      * Test the service without constructor.
      */
@@ -120,6 +120,30 @@ public class BodyTest
         Assert.assertEquals(-6.0, transformable.getY(), UtilTests.PRECISION);
     }
 
+    /**
+     * Test the body recycle.
+     */
+    @Test
+    public void testRecycle()
+    {
+        transformable.teleport(0, 6.0);
+
+        body.prepare(object, services);
+        body.setMass(2.0);
+        body.setGravity(3.0);
+        body.setGravityMax(8.0);
+        body.setVectors(new Force(0.0, 0.0));
+        body.update(1.0);
+
+        ((BodyModel) body).recycle();
+        transformable.teleport(0, 6.0);
+        body.update(1.0);
+
+        Assert.assertEquals(2.0, body.getMass(), UtilTests.PRECISION);
+        Assert.assertEquals(6.0, transformable.getOldY(), UtilTests.PRECISION);
+        Assert.assertEquals(0.0, transformable.getY(), UtilTests.PRECISION);
+    }
+
     /**
      * Test the gravity fps.
      */
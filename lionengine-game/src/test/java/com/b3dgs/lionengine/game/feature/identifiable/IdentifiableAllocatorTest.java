@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.feature.identifiable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Services;
+
+/**
+ * Test the identifiable allocator class.
+ */
+public class IdentifiableAllocatorTest
+{
+    /** Allocations per thread. */
+    private static final int COUNT = 20000;
+    /** Threads number. */
+    private static final int THREADS = 4;
+
+    /**
+     * Test the allocation and free.
+     */
+    @Test
+    public void testAllocate()
+    {
+        final IdentifiableAllocator allocator = new IdentifiableAllocator();
+        for (int i = 0; i < 10000; i++)
+        {
+            Assert.assertEquals(i, allocator.allocate());
+        }
+        allocator.free(5);
+        allocator.free(9000);
+        allocator.free(0);
+
+        Assert.assertEquals(5, allocator.allocate());
+        Assert.assertEquals(9000, allocator.allocate());
+        Assert.assertEquals(0, allocator.allocate());
+        Assert.assertEquals(10000, allocator.allocate());
+    }
+
+    /**
+     * Test the free with an invalid id.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testFreeInvalid()
+    {
+        final IdentifiableAllocator allocator = new IdentifiableAllocator();
+        allocator.allocate();
+        allocator.free(1);
+    }
+
+    /**
+     * Test the free with a negative id.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testFreeNegative()
+    {
+        new IdentifiableAllocator().free(-1);
+    }
+
+    /**
+     * Test the allocator from services.
+     */
+    @Test
+    public void testFrom()
+    {
+        final Services services = new Services();
+
+        Assert.assertEquals(IdentifiableAllocator.DEFAULT, IdentifiableAllocator.from(null));
+        Assert.assertEquals(IdentifiableAllocator.DEFAULT, IdentifiableAllocator.from(services));
+
+        final IdentifiableAllocator allocator = services.add(new IdentifiableAllocator());
+
+        Assert.assertEquals(allocator, IdentifiableAllocator.from(services));
+        Assert.assertEquals(Integer.valueOf(0), new IdentifiableModel(allocator).getId());
+        Assert.assertEquals(Integer.valueOf(1), new IdentifiableModel(allocator).getId());
+    }
+
+    /**
+     * Test the concurrent allocation and free, ensuring no id is shared.
+     * 
+     * @throws Exception If error.
+     */
+    @Test
+    public void testConcurrent() throws Exception
+    {
+        final IdentifiableAllocator allocator = new IdentifiableAllocator();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try
+        {
+            final List<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+            for (int i = 0; i < THREADS; i++)
+            {
+                futures.add(executor.submit(new Callable<int[]>()
+                {
+                    @Override
+                    public int[] call()
+                    {
+                        final int[] ids = new int[COUNT];
+                        for (int j = 0; j < COUNT; j++)
+                        {
+                            ids[j] = allocator.allocate();
+                            if (j % 3 == 0)
+                            {
+                                allocator.free(ids[j]);
+                                ids[j] = allocator.allocate();
+                            }
+                        }
+                        return ids;
+                    }
+                }));
+            }
+
+            final Collection<Integer> ids = new HashSet<Integer>();
+            for (final Future<int[]> future : futures)
+            {
+                for (final int id : future.get())
+                {
+                    Assert.assertTrue(String.valueOf(id), ids.add(Integer.valueOf(id)));
+                }
+            }
+            Assert.assertEquals(THREADS * COUNT, ids.size());
+            Assert.assertEquals(THREADS * COUNT, allocator.allocate());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
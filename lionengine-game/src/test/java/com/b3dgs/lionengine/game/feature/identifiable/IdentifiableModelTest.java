@@ -17,7 +17,6 @@
  */
 package com.b3dgs.lionengine.game.feature.identifiable;
 
-import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -25,8 +24,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Assert;
 import org.junit.Test;
 
-import com.b3dgs.lionengine.util.UtilReflection;
-
 /**
  * Test the identifiable class.
  */
@@ -34,27 +31,15 @@ public class IdentifiableModelTest
 {
     /**
      * Test the id.
-     * 
-     * @throws NoSuchFieldException If error.
-     * @throws IllegalAccessException If error.
      */
     @Test
-    public void testId() throws NoSuchFieldException, IllegalAccessException
+    public void testId()
     {
-        final Collection<Integer> ids = UtilReflection.getField(IdentifiableModel.class, "IDS");
-        ids.clear();
-
-        final Collection<Integer> recycle = UtilReflection.getField(IdentifiableModel.class, "RECYCLE");
-        recycle.clear();
-
-        final Field field = IdentifiableModel.class.getDeclaredField("lastId");
-        UtilReflection.setAccessible(field, true);
-        field.set(IdentifiableModel.class, Integer.valueOf(0));
-
+        final IdentifiableAllocator allocator = new IdentifiableAllocator();
         final Collection<Identifiable> identifiables = new ArrayList<Identifiable>();
         for (int i = 0; i < 10; i++)
         {
-            final Identifiable identifiable = new IdentifiableModel();
+            final Identifiable identifiable = new IdentifiableModel(allocator);
             identifiables.add(identifiable);
 
             Assert.assertEquals(Integer.valueOf(i), identifiable.getId());
@@ -68,13 +53,16 @@ public class IdentifiableModelTest
             Assert.assertNull(identifiable.getId());
         }
 
-        final Identifiable identifiable = new IdentifiableModel();
+        final Identifiable identifiable = new IdentifiableModel(allocator);
         Assert.assertEquals(Integer.valueOf(0), identifiable.getId());
 
         identifiable.destroy();
         identifiable.notifyDestroyed();
+        identifiable.notifyDestroyed();
 
         Assert.assertNull(identifiable.getId());
+        Assert.assertEquals(1, allocator.allocate());
+        Assert.assertEquals(2, allocator.allocate());
     }
 
     /**
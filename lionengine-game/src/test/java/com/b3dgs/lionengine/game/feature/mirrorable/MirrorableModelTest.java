@@ -57,4 +57,24 @@ public class MirrorableModelTest
 
         Assert.assertEquals(Mirror.VERTICAL, mirrorable.getMirror());
     }
+
+    /**
+     * Test the mirror recycle.
+     */
+    @Test
+    public void testRecycle()
+    {
+        final MirrorableModel mirrorable = new MirrorableModel();
+        mirrorable.mirror(Mirror.HORIZONTAL);
+        mirrorable.update(1.0);
+        mirrorable.mirror(Mirror.VERTICAL);
+
+        mirrorable.recycle();
+
+        Assert.assertEquals(Mirror.NONE, mirrorable.getMirror());
+
+        mirrorable.update(1.0);
+
+        Assert.assertEquals(Mirror.NONE, mirrorable.getMirror());
+    }
 }
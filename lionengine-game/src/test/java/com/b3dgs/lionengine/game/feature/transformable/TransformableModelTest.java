@@ -184,6 +184,28 @@ public class TransformableModelTest
         Assert.assertEquals(48, transformable.getHeight(), UtilTests.PRECISION);
     }
 
+    /**
+     * Test the transformable recycle.
+     */
+    @Test
+    public void testRecycle()
+    {
+        transformable.teleport(1.0, 2.0);
+        transformable.moveLocation(1.0, 1.0, 1.0);
+        transformable.setSize(64, 48);
+
+        ((TransformableModel) transformable).recycle();
+
+        Assert.assertEquals(0.0, transformable.getOldX(), UtilTests.PRECISION);
+        Assert.assertEquals(0.0, transformable.getOldY(), UtilTests.PRECISION);
+        Assert.assertEquals(0.0, transformable.getX(), UtilTests.PRECISION);
+        Assert.assertEquals(0.0, transformable.getY(), UtilTests.PRECISION);
+        Assert.assertEquals(16, transformable.getOldWidth(), UtilTests.PRECISION);
+        Assert.assertEquals(32, transformable.getOldHeight(), UtilTests.PRECISION);
+        Assert.assertEquals(16, transformable.getWidth(), UtilTests.PRECISION);
+        Assert.assertEquals(32, transformable.getHeight(), UtilTests.PRECISION);
+    }
+
     /**
      * Test the transformable moving.
      */
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Updatable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.FeatureProvider;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
+import com.b3dgs.lionengine.game.feature.mirrorable.Mirrorable;
+import com.b3dgs.lionengine.game.feature.refreshable.Refreshable;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.util.UtilReflection;
+
+/**
+ * Test the component scheduler.
+ */
+public class ComponentSchedulerTest
+{
+    /** Refreshables number. */
+    private static final int COUNT = 256;
+    /** Updates number. */
+    private static final int FRAMES = 4;
+    /** Minimum objects per chunk. */
+    private static final int CHUNK = 16;
+
+    /**
+     * Update refreshables and get their values.
+     * 
+     * @param scheduler The scheduler reference (<code>null</code> for sequential update).
+     * @return The refreshables values.
+     */
+    private static long[] update(ComponentScheduler scheduler)
+    {
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(new ComponentRefreshable(),
+                             new ComponentAccess(new Class<?>[0], new Class<?>[]
+                             {
+                                 Counter.class
+                             }));
+        handler.addComponent(new ComponentUpdatable(),
+                             new ComponentAccess(new Class<?>[0], new Class<?>[]
+                             {
+                                 Updatable.class
+                             }));
+        handler.setScheduler(scheduler);
+
+        final List<Counter> counters = new ArrayList<Counter>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final Counter counter = new Counter(i);
+            counters.add(counter);
+            handler.add(counter);
+        }
+        for (int i = 0; i < FRAMES; i++)
+        {
+            handler.update(1.0);
+        }
+
+        final long[] values = new long[COUNT];
+        for (int i = 0; i < COUNT; i++)
+        {
+            values[i] = counters.get(i).value;
+            Assert.assertEquals(FRAMES * 2, counters.get(i).updates);
+            counters.get(i).getFeature(Identifiable.class).notifyDestroyed();
+        }
+        if (scheduler != null)
+        {
+            scheduler.stop();
+        }
+        return values;
+    }
+
+    /**
+     * Update objects once and get the threads which updated them.
+     * 
+     * @param scheduler The scheduler reference.
+     * @return The updating threads name.
+     */
+    private static Collection<String> getThreads(ComponentScheduler scheduler)
+    {
+        final Handler handler = new Handler(new Services());
+        final ComponentThreads component = new ComponentThreads();
+        handler.addComponent(component, new ComponentAccess(new Class<?>[0], new Class<?>[]
+        {
+            Updatable.class
+        }));
+        handler.setScheduler(scheduler);
+        scheduler.setChunk(CHUNK);
+
+        final List<Counter> counters = new ArrayList<Counter>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final Counter counter = new Counter(i);
+            counters.add(counter);
+            handler.add(counter);
+        }
+        handler.update(1.0);
+
+        for (final Counter counter : counters)
+        {
+            Assert.assertEquals(1, counter.updates);
+            counter.getFeature(Identifiable.class).notifyDestroyed();
+        }
+        scheduler.stop();
+
+        return component.threads;
+    }
+
+    /**
+     * Test the access conflicts.
+     */
+    @Test
+    public void testConflicts()
+    {
+        final ComponentAccess readTransformable = new ComponentAccess(new Class<?>[]
+        {
+            Transformable.class
+        }, new Class<?>[0]);
+        final ComponentAccess writeTransformable = new ComponentAccess(new Class<?>[0], new Class<?>[]
+        {
+            Transformable.class
+        });
+        final ComponentAccess writeMirrorable = new ComponentAccess(new Class<?>[]
+        {
+            Transformable.class
+        }, new Class<?>[]
+        {
+            Mirrorable.class
+        });
+        final ComponentAccess writeRefreshable = new ComponentAccess(new Class<?>[0], new Class<?>[]
+        {
+            Refreshable.class
+        });
+
+        Assert.assertFalse(readTransformable.conflicts(readTransformable));
+        Assert.assertTrue(readTransformable.conflicts(writeTransformable));
+        Assert.assertTrue(writeTransformable.conflicts(readTransformable));
+        Assert.assertTrue(writeTransformable.conflicts(writeTransformable));
+        Assert.assertFalse(readTransformable.conflicts(writeMirrorable));
+        Assert.assertTrue(writeMirrorable.conflicts(writeTransformable));
+        Assert.assertTrue(writeRefreshable.conflicts(new ComponentAccess(new Class<?>[]
+        {
+            Counter.class
+        }, new Class<?>[0])));
+    }
+
+    /**
+     * Test the invalid arguments.
+     * 
+     * @throws Exception If error.
+     */
+    @Test
+    public void testInvalid() throws Exception
+    {
+        try
+        {
+            Assert.assertNull(new ComponentScheduler(0));
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+        try
+        {
+            Assert.assertNull(new ComponentAccess(new Class<?>[1], new Class<?>[0]));
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+        final ComponentScheduler scheduler = new ComponentScheduler(1);
+        try
+        {
+            scheduler.setChunk(0);
+            Assert.fail();
+        }
+        catch (final LionEngineException exception)
+        {
+            // Success
+        }
+        Assert.assertEquals(Integer.valueOf(ComponentScheduler.DEFAULT_CHUNK),
+                            UtilReflection.getField(scheduler, "chunk"));
+        scheduler.stop();
+    }
+
+    /**
+     * Test the concurrent and deterministic update results, compared to the sequential one, for 1, 2 and 4 threads.
+     */
+    @Test
+    public void testUpdate()
+    {
+        final long[] expected = update(null);
+        for (final int threads : new int[]
+        {
+            1, 2, 4
+        })
+        {
+            final ComponentScheduler deterministic = new ComponentScheduler(threads);
+            deterministic.setDeterministic(true);
+            deterministic.setChunk(CHUNK);
+            Assert.assertArrayEquals(expected, update(deterministic));
+
+            final ComponentScheduler concurrent = new ComponentScheduler(threads);
+            concurrent.setChunk(CHUNK);
+            Assert.assertArrayEquals(expected, update(concurrent));
+        }
+    }
+
+    /**
+     * Test the threads updating chunks: the caller thread and the workers, or the caller thread only when
+     * deterministic or without workers.
+     */
+    @Test
+    public void testThreads()
+    {
+        final String caller = Thread.currentThread().getName();
+
+        Assert.assertEquals(Collections.singleton(caller), getThreads(new ComponentScheduler(1)));
+
+        final ComponentScheduler deterministic = new ComponentScheduler(4);
+        deterministic.setDeterministic(true);
+        Assert.assertEquals(Collections.singleton(caller), getThreads(deterministic));
+
+        final Collection<String> threads = getThreads(new ComponentScheduler(4));
+        Assert.assertTrue(threads.contains(caller));
+        Assert.assertTrue(threads.contains("ComponentScheduler"));
+        Assert.assertEquals(2, threads.size());
+    }
+
+    /**
+     * Test the workers number, excluding the caller thread.
+     */
+    @Test
+    public void testWorkers()
+    {
+        Assert.assertNull(UtilReflection.getField(new ComponentScheduler(1), "executor"));
+
+        final ComponentScheduler scheduler = new ComponentScheduler(4);
+        final ThreadPoolExecutor executor = UtilReflection.getField(scheduler, "executor");
+        Assert.assertEquals(3, executor.getMaximumPoolSize());
+        scheduler.stop();
+    }
+
+    /**
+     * Test the failing component update.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testFail()
+    {
+        final ComponentScheduler scheduler = new ComponentScheduler(2);
+        final Handler handler = new Handler(new Services());
+        handler.addComponent(new ComponentUpdatable(), new ComponentAccess(new Class<?>[0], new Class<?>[0]));
+        handler.addComponent(new ComponentUpdater()
+        {
+            @Override
+            public void update(double extrp, Handlables featurables)
+            {
+                throw new LionEngineException("fail");
+            }
+        }, new ComponentAccess(new Class<?>[0], new Class<?>[0]));
+        handler.setScheduler(scheduler);
+        try
+        {
+            handler.update(1.0);
+        }
+        finally
+        {
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * Updatable component storing the threads which updated the objects.
+     */
+    private static final class ComponentThreads extends ComponentUpdatable
+    {
+        /** Updating threads name. */
+        private final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+
+        /**
+         * Create component.
+         */
+        ComponentThreads()
+        {
+            super();
+        }
+
+        @Override
+        public void update(double extrp, Updatable updatable)
+        {
+            threads.add(Thread.currentThread().getName());
+            super.update(extrp, updatable);
+        }
+    }
+
+    /**
+     * Refreshable and updatable featurable, computing a value from its own state (updated twice per frame).
+     */
+    private static final class Counter extends FeaturableModel implements Refreshable, Updatable
+    {
+        /** Current value. */
+        private long value;
+        /** Updates number. */
+        private int updates;
+
+        /**
+         * Create counter.
+         * 
+         * @param seed The initial value.
+         */
+        Counter(int seed)
+        {
+            super();
+            value = seed;
+            addFeature(new IdentifiableModel());
+        }
+
+        @Override
+        public void prepare(FeatureProvider provider, Services services)
+        {
+            // Mock
+        }
+
+        @Override
+        public void checkListener(Object listener)
+        {
+            // Mock
+        }
+
+        @Override
+        public void update(double extrp)
+        {
+            value = value * 31L + (long) Math.sqrt(value + extrp);
+            updates++;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.game.feature.Featurable;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.layerable.Layerable;
+import com.b3dgs.lionengine.game.feature.layerable.LayerableModel;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
+import com.b3dgs.lionengine.geom.Geom;
+import com.b3dgs.lionengine.geom.Rectangle;
+
+/**
+ * Test the spatial index component class.
+ */
+public class ComponentSpatialIndexTest
+{
+    /** Random generator. */
+    private final Random random = new Random(7L);
+    /** Featurables. */
+    private final List<Featurable> featurables = new ArrayList<Featurable>();
+    /** Transformables, same order as featurables. */
+    private final List<Transformable> transformables = new ArrayList<Transformable>();
+    /** Handler reference. */
+    private Handler handler;
+    /** Index reference. */
+    private ComponentSpatialIndex index;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        handler = new Handler(new Services());
+        index = new ComponentSpatialIndex(32, 16);
+        handler.addComponent(index);
+        handler.addComponent(new ComponentDisplayable());
+        for (int i = 0; i < 200; i++)
+        {
+            final Featurable featurable = new FeaturableModel();
+            final Transformable transformable = featurable.addFeatureAndGet(new TransformableModel());
+            if (i % 2 == 0)
+            {
+                featurable.addFeature(new LayerableModel());
+            }
+            transformable.teleport(random.nextDouble() * 1000.0 - 500.0, random.nextDouble() * 600.0 - 300.0);
+            featurables.add(featurable);
+            transformables.add(transformable);
+            handler.add(featurable);
+        }
+        handler.update(1.0);
+    }
+
+    /**
+     * Move all transformables randomly, and remove some of them.
+     */
+    private void move()
+    {
+        for (final Transformable transformable : transformables)
+        {
+            transformable.moveLocation(1.0, random.nextDouble() * 80.0 - 40.0, random.nextDouble() * 80.0 - 40.0);
+        }
+        for (int i = 0; i < 10; i++)
+        {
+            final int removed = random.nextInt(featurables.size());
+            transformables.remove(removed);
+            handler.remove(featurables.remove(removed));
+        }
+        handler.update(1.0);
+    }
+
+    /**
+     * Test the rectangle query against all transformables.
+     */
+    @Test
+    public void testQueryRect()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            final Rectangle area = Geom.createRectangle(random.nextDouble() * 800.0 - 400.0,
+                                                        random.nextDouble() * 400.0 - 200.0,
+                                                        random.nextDouble() * 300.0,
+                                                        random.nextDouble() * 200.0);
+            final Collection<Transformable> expected = new HashSet<Transformable>();
+            for (final Transformable transformable : transformables)
+            {
+                if (area.contains(transformable.getX(), transformable.getY()))
+                {
+                    expected.add(transformable);
+                }
+            }
+            Assert.assertEquals(expected, new HashSet<Transformable>(index.queryRect(area, Transformable.class)));
+            move();
+        }
+    }
+
+    /**
+     * Test the radius query against all transformables, with feature filter.
+     */
+    @Test
+    public void testQueryRadius()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            final double x = random.nextDouble() * 800.0 - 400.0;
+            final double y = random.nextDouble() * 400.0 - 200.0;
+            final double radius = random.nextDouble() * 150.0;
+            final Collection<Layerable> expected = new HashSet<Layerable>();
+            for (final Featurable featurable : featurables)
+            {
+                final Transformable transformable = featurable.getFeature(Transformable.class);
+                if (featurable.hasFeature(Layerable.class)
+                    && Math.hypot(transformable.getX() - x, transformable.getY() - y) <= radius)
+                {
+                    expected.add(featurable.getFeature(Layerable.class));
+                }
+            }
+            Assert.assertEquals(expected, new HashSet<Layerable>(index.queryRadius(x, y, radius, Layerable.class)));
+            move();
+        }
+    }
+
+    /**
+     * Test the query listener variant.
+     */
+    @Test
+    public void testQueryListener()
+    {
+        final AtomicInteger found = new AtomicInteger();
+        index.queryRadius(0.0, 0.0, 10000.0, Transformable.class, new ComponentSpatialIndex.QueryListener<Feature>()
+        {
+            @Override
+            public void notifyFound(Feature feature)
+            {
+                found.incrementAndGet();
+            }
+        });
+        Assert.assertEquals(transformables.size(), found.get());
+    }
+
+    /**
+     * Test the nearest search against all transformables.
+     */
+    @Test
+    public void testNearest()
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            final int current = random.nextInt(featurables.size());
+            final Transformable from = transformables.get(current);
+            Transformable expected = null;
+            double distance = Double.MAX_VALUE;
+            for (final Transformable transformable : transformables)
+            {
+                final double value = Math.hypot(transformable.getX() - from.getX(), transformable.getY() - from.getY());
+                if (transformable != from && value < distance)
+                {
+                    expected = transformable;
+                    distance = value;
+                }
+            }
+            Assert.assertEquals(expected, index.nearest(featurables.get(current), Transformable.class));
+            Assert.assertEquals(from, index.nearest(from.getX(), from.getY(), Transformable.class));
+            move();
+        }
+    }
+
+    /**
+     * Test empty index.
+     */
+    @Test
+    public void testEmpty()
+    {
+        final ComponentSpatialIndex empty = new ComponentSpatialIndex(16, 16);
+
+        Assert.assertNull(empty.nearest(0.0, 0.0, Transformable.class));
+        Assert.assertTrue(empty.queryRadius(0.0, 0.0, 100.0, Transformable.class).isEmpty());
+        Assert.assertTrue(empty.queryRect(Geom.createRectangle(0.0, 0.0, 10.0, 10.0), Transformable.class).isEmpty());
+    }
+
+    /**
+     * Test invalid cell size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidSize()
+    {
+        Assert.assertNotNull(new ComponentSpatialIndex(0, 16));
+    }
+}
@@ -17,6 +17,9 @@
  */
 package com.b3dgs.lionengine.game.handler;
 
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -182,6 +185,137 @@ public class HandlablesImplTest
         Assert.assertEquals(1, i);
     }
 
+    /**
+     * Test removal order, with last featurable moved to removed slot.
+     */
+    @Test
+    public void testRemoveSwap()
+    {
+        final Featurable[] objects = new Featurable[4];
+        for (int i = 0; i < objects.length; i++)
+        {
+            objects[i] = new ObjectComplex();
+            objects[i].prepareFeatures(new Services());
+            featurables.add(objects[i]);
+        }
+        featurables.add(objects[0]);
+        Assert.assertEquals(objects.length, featurables.size());
+
+        featurables.remove(objects[1]);
+        featurables.remove(objects[1]);
+
+        final Iterator<Updatable> iterator = featurables.get(Updatable.class).iterator();
+        Assert.assertEquals(objects[0], iterator.next());
+        Assert.assertEquals(objects[3], iterator.next());
+        Assert.assertEquals(objects[2], iterator.next());
+        Assert.assertFalse(iterator.hasNext());
+        Assert.assertEquals(3, featurables.size());
+        Assert.assertFalse(featurables.contains(objects[1].getFeature(Identifiable.class).getId()));
+
+        int count = 0;
+        for (final Featurable outer : featurables.values())
+        {
+            for (final Featurable inner : featurables.values())
+            {
+                Assert.assertNotNull(inner);
+                count++;
+            }
+            Assert.assertNotNull(outer);
+        }
+        Assert.assertEquals(9, count);
+
+        for (final Featurable featurable : objects)
+        {
+            featurables.remove(featurable);
+            featurable.getFeature(Identifiable.class).notifyDestroyed();
+        }
+        Assert.assertEquals(0, featurables.size());
+        Assert.assertFalse(featurables.get(Updatable.class).iterator().hasNext());
+    }
+
+    /**
+     * Test an iteration left early does not impact the next ones.
+     */
+    @Test
+    public void testIterationLeftEarly()
+    {
+        for (int i = 0; i < 3; i++)
+        {
+            final Featurable featurable = new ObjectComplex();
+            featurable.prepareFeatures(new Services());
+            featurables.add(featurable);
+        }
+        for (final Featurable featurable : featurables.values())
+        {
+            Assert.assertNotNull(featurable);
+            break;
+        }
+
+        final Iterator<Featurable> first = featurables.values().iterator();
+        first.next();
+        final Iterator<Featurable> second = featurables.values().iterator();
+        Assert.assertNotSame(first, second);
+
+        int count = 0;
+        while (second.hasNext())
+        {
+            Assert.assertNotNull(second.next());
+            count++;
+        }
+        Assert.assertEquals(3, count);
+        Assert.assertTrue(first.hasNext());
+    }
+
+    /**
+     * Test the component update, by index for chunked components.
+     */
+    @Test
+    public void testUpdate()
+    {
+        final Featurable[] objects = new Featurable[3];
+        for (int i = 0; i < objects.length; i++)
+        {
+            objects[i] = new ObjectComplex();
+            objects[i].prepareFeatures(new Services());
+            featurables.add(objects[i]);
+        }
+        final AtomicInteger chunked = new AtomicInteger();
+        featurables.update(1.0, new ComponentUpdatable()
+        {
+            @Override
+            public void update(double extrp, Updatable updatable)
+            {
+                chunked.incrementAndGet();
+            }
+
+            @Override
+            public void update(double extrp, Handlables featurables)
+            {
+                throw new LionEngineException("Must be updated by index");
+            }
+        });
+        featurables.update(1.0, new ComponentRefreshable());
+
+        final AtomicInteger whole = new AtomicInteger();
+        featurables.update(1.0, new ComponentUpdater()
+        {
+            @Override
+            public void update(double extrp, Handlables featurables)
+            {
+                whole.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(objects.length, chunked.get());
+        Assert.assertEquals(1, whole.get());
+
+        for (final Featurable featurable : objects)
+        {
+            featurables.remove(featurable);
+            featurable.getFeature(Identifiable.class).notifyDestroyed();
+        }
+    }
+
     /**
      * Complex object with interface.
      */
@@ -31,6 +31,7 @@ import com.b3dgs.lionengine.game.feature.FeaturableModel;
 import com.b3dgs.lionengine.game.feature.FeatureProvider;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.feature.identifiable.Identifiable;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableAllocator;
 import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
 import com.b3dgs.lionengine.game.feature.layerable.LayerableListener;
 import com.b3dgs.lionengine.graphic.Graphic;
@@ -166,6 +167,77 @@ public class HandlerTest
         Assert.assertEquals(0, handler.size());
     }
 
+    /**
+     * Add a featurable and destroy it before being added.
+     */
+    @Test
+    public void testDestroyBeforeAdded()
+    {
+        final Handler handler = new Handler(new Services());
+        final Featurable featurable = new FeaturableModel();
+        featurable.addFeature(new IdentifiableModel());
+        handler.add(featurable);
+        featurable.getFeature(Identifiable.class).destroy();
+
+        handler.update(1.0);
+
+        Assert.assertEquals(0, handler.size());
+        Assert.assertNull(featurable.getFeature(Identifiable.class).getId());
+    }
+
+    /**
+     * Remove and destroy a featurable, and add another one with its recycled ID during the same update.
+     */
+    @Test
+    public void testRemoveDestroyAddRecycled()
+    {
+        final Services services = new Services();
+        final IdentifiableAllocator allocator = services.add(new IdentifiableAllocator());
+        final Handler handler = new Handler(services);
+        final Featurable removed = new FeaturableModel();
+        removed.addFeature(new IdentifiableModel(allocator));
+        handler.add(removed);
+        handler.update(1.0);
+
+        final Integer id = removed.getFeature(Identifiable.class).getId();
+        final Featurable recycled = new FeaturableModel();
+        final Featurable spawner = new FeaturableModel();
+        spawner.addFeature(new IdentifiableModel(allocator));
+        handler.addListener(new HandlerListener()
+        {
+            @Override
+            public void notifyHandlableAdded(Featurable featurable)
+            {
+                if (featurable == spawner)
+                {
+                    recycled.addFeature(new IdentifiableModel(allocator));
+                    handler.add(recycled);
+                }
+            }
+
+            @Override
+            public void notifyHandlableRemoved(Featurable featurable)
+            {
+                // Nothing to do
+            }
+        });
+
+        handler.remove(removed);
+        removed.getFeature(Identifiable.class).destroy();
+        handler.add(spawner);
+        handler.update(1.0);
+
+        Assert.assertEquals(id, recycled.getFeature(Identifiable.class).getId());
+        Assert.assertEquals(2, handler.size());
+        Assert.assertEquals(recycled, handler.get(id));
+
+        handler.removeAll();
+        recycled.getFeature(Identifiable.class).destroy();
+        handler.update(1.0);
+
+        Assert.assertEquals(0, handler.size());
+    }
+
     /**
      * Add and remove handler listener for featurable added and removed.
      */
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map;
+
+import java.util.ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.feature.Feature;
+import com.b3dgs.lionengine.game.feature.FeatureModel;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.game.tile.TileGame;
+import com.b3dgs.lionengine.test.UtilTests;
+
+/**
+ * Test the map tile array implementation.
+ */
+public class MapTileArrayTest
+{
+    private final MapTileArray map = new MapTileArray();
+
+    /**
+     * Test map creation.
+     */
+    @Test
+    public void testCreate()
+    {
+        Assert.assertFalse(map.isCreated());
+        map.create(16, 32, 2, 3);
+        Assert.assertTrue(map.isCreated());
+
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        Assert.assertEquals(2, map.getInTileWidth());
+        Assert.assertEquals(3, map.getInTileHeight());
+        Assert.assertEquals(0, map.getTilesNumber());
+    }
+
+    /**
+     * Test map set and get tile.
+     */
+    @Test
+    public void testSetGetTile()
+    {
+        map.create(16, 32, 3, 3);
+
+        Assert.assertNull(map.getTile(1, 2));
+        Assert.assertNull(map.getTile(-1, 0));
+        Assert.assertNull(map.getTile(0, 3));
+
+        map.setTile(map.createTile(Integer.valueOf(1), 2, 16.0, 64.0));
+
+        final Tile tile = map.getTile(1, 2);
+        Assert.assertEquals(1, map.getTilesNumber());
+        Assert.assertEquals(1, tile.getSheet().intValue());
+        Assert.assertEquals(2, tile.getNumber());
+        Assert.assertEquals(16.0, tile.getX(), UtilTests.PRECISION);
+        Assert.assertEquals(64.0, tile.getY(), UtilTests.PRECISION);
+        Assert.assertEquals(1, tile.getInTileX());
+        Assert.assertEquals(2, tile.getInTileY());
+        Assert.assertEquals(16, tile.getWidth());
+        Assert.assertEquals(32, tile.getHeight());
+        Assert.assertEquals(1, tile.getInTileWidth());
+        Assert.assertEquals(1, tile.getInTileHeight());
+        Assert.assertEquals(tile, map.getTileAt(20.0, 70.0));
+        Assert.assertEquals(tile.hashCode(), map.getTile(1, 2).hashCode());
+
+        map.setTile(map.createTile(Integer.valueOf(0), 0, 0.0, 64.0));
+        Assert.assertEquals(1, map.getNeighbors(map.getTile(0, 2)).size());
+    }
+
+    /**
+     * Test map set tile with a sheet out of the stored range.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testSetTileSheetOutOfRange()
+    {
+        map.create(1, 1, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(Short.MAX_VALUE + 1), 0, 0.0, 0.0));
+    }
+
+    /**
+     * Test tile features stored without column.
+     */
+    @Test
+    public void testFeature()
+    {
+        map.create(1, 1, 2, 2);
+        final Tile tile = new TileGame(Integer.valueOf(0), 0, 1.0, 1.0, 1, 1);
+        final Feature feature = new FeatureModel();
+        tile.addFeature(feature);
+        map.setTile(tile);
+        map.setTile(map.createTile(Integer.valueOf(0), 1, 0.0, 0.0));
+
+        Assert.assertTrue(map.getTile(1, 1).hasFeature(FeatureModel.class));
+        Assert.assertEquals(feature, map.getTile(1, 1).getFeature(FeatureModel.class));
+        Assert.assertFalse(map.getTile(0, 0).hasFeature(FeatureModel.class));
+
+        map.getTile(0, 0).addFeature(new FeatureModel());
+        Assert.assertTrue(map.getTile(0, 0).hasFeature(FeatureModel.class));
+
+        map.setTile(map.getTile(1, 1));
+        Assert.assertEquals(feature, map.getTile(1, 1).getFeature(FeatureModel.class));
+
+        map.setTile(map.createTile(Integer.valueOf(0), 2, 1.0, 1.0));
+        Assert.assertFalse(map.getTile(1, 1).hasFeature(FeatureModel.class));
+        Assert.assertFalse(map.getTile(1, 1).getFeatures().iterator().hasNext());
+    }
+
+    /**
+     * Test tile feature not found.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testFeatureNotFound()
+    {
+        map.create(1, 1, 1, 1);
+        map.setTile(map.createTile(Integer.valueOf(0), 0, 0.0, 0.0));
+
+        Assert.assertNull(map.getTile(0, 0).getFeature(FeatureModel.class));
+    }
+
+    /**
+     * Test map append, keeping tiles and their features.
+     */
+    @Test
+    public void testAppend()
+    {
+        map.create(1, 1, 2, 2);
+        map.setTile(map.createTile(Integer.valueOf(0), 3, 1.0, 1.0));
+        map.getTile(1, 1).addFeature(new FeatureModel());
+
+        final MapTileArray other = new MapTileArray();
+        other.create(1, 1, 2, 1);
+        other.setTile(other.createTile(Integer.valueOf(0), 4, 1.0, 0.0));
+
+        map.append(other, 2, 2);
+
+        Assert.assertEquals(4, map.getInTileWidth());
+        Assert.assertEquals(3, map.getInTileHeight());
+        Assert.assertEquals(2, map.getTilesNumber());
+        Assert.assertEquals(3, map.getTile(1, 1).getNumber());
+        Assert.assertTrue(map.getTile(1, 1).hasFeature(FeatureModel.class));
+        Assert.assertEquals(4, map.getTile(3, 2).getNumber());
+
+        map.clear();
+
+        Assert.assertEquals(0, map.getTilesNumber());
+        Assert.assertNull(map.getTile(1, 1));
+    }
+}
@@ -28,14 +28,20 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.camera.Camera;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.map.MapTileGame;
 import com.b3dgs.lionengine.game.map.TileSheetsConfig;
 import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.stream.FileWriting;
+import com.b3dgs.lionengine.stream.Stream;
 import com.b3dgs.lionengine.test.UtilTests;
+import com.b3dgs.lionengine.util.UtilStream;
 
 /**
  * Test the map tile default implementation.
@@ -168,6 +174,328 @@ public class MapTilePersisterModelTest
         Assert.assertTrue(levelFile.delete());
     }
 
+    /**
+     * Test the chunked save and streamed load, visible chunks first.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoadChunked() throws IOException
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        map.create(16, 32, 40, 40);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        for (int tx = 0; tx < map.getInTileWidth(); tx++)
+        {
+            for (int ty = 1; ty < map.getInTileHeight(); ty++)
+            {
+                map.setTile(map.createTile(Integer.valueOf(0), tx * ty, tx * 16.0, ty * 32.0));
+            }
+        }
+
+        final Media level = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            map.getFeature(MapTilePersister.class).saveChunked(output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+
+        final Services servicesLoaded = new Services();
+        final Camera camera = servicesLoaded.create(Camera.class);
+        camera.setView(0, 0, 64, 64, 64);
+        camera.teleport(16.0 * 18, 32.0 * 18);
+        final MapTile mapLoaded = servicesLoaded.create(MapTileGame.class);
+        mapLoaded.addFeature(new MapTilePersisterModel());
+        mapLoaded.prepareFeatures(servicesLoaded);
+
+        final MapTileChunkLoader loader = mapLoaded.getFeature(MapTilePersister.class).loadChunked(level);
+        Assert.assertEquals(map.getInTileWidth(), mapLoaded.getInTileWidth());
+        Assert.assertEquals(map.getInTileHeight(), mapLoaded.getInTileHeight());
+        Assert.assertEquals(0, mapLoaded.getTilesNumber());
+        Assert.assertEquals(9, loader.getRemaining());
+
+        loader.loadVisible();
+        Assert.assertEquals(8, loader.getRemaining());
+        Assert.assertEquals(18 * 18, mapLoaded.getTile(18, 18).getNumber());
+        Assert.assertNull(mapLoaded.getTile(0, 1));
+
+        loader.load(0, 1);
+        Assert.assertEquals(7, loader.getRemaining());
+        Assert.assertNotNull(mapLoaded.getTile(0, 1));
+
+        loader.setBudget(2);
+        loader.update(1.0);
+        Assert.assertEquals(5, loader.getRemaining());
+        loader.update(1.0);
+        loader.update(1.0);
+        loader.update(1.0);
+        Assert.assertTrue(loader.isLoaded());
+
+        for (int tx = 0; tx < map.getInTileWidth(); tx++)
+        {
+            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                final Tile loaded = mapLoaded.getTile(tx, ty);
+                if (tile == null)
+                {
+                    Assert.assertNull(loaded);
+                }
+                else
+                {
+                    Assert.assertEquals(tile.getNumber(), loaded.getNumber());
+                    Assert.assertEquals(tile.getX(), loaded.getX(), UtilTests.PRECISION);
+                    Assert.assertEquals(tile.getY(), loaded.getY(), UtilTests.PRECISION);
+                }
+            }
+        }
+        Assert.assertEquals(map.getTilesNumber(), mapLoaded.getTilesNumber());
+    }
+
+    /**
+     * Test the load of a map saved in the legacy bloc format.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadLegacy() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            output.writeInteger(16);
+            output.writeInteger(32);
+            output.writeInteger(3);
+            output.writeInteger(3);
+            output.writeBoolean(false);
+            output.writeShort((short) 1);
+            output.writeShort((short) 2);
+            for (int x = 1; x < 3; x++)
+            {
+                output.writeInteger(0);
+                output.writeInteger(x + 4);
+                output.writeInteger(x);
+                output.writeInteger(2);
+            }
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+
+        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+
+        Assert.assertEquals(3, mapLoaded.getInTileWidth());
+        Assert.assertEquals(3, mapLoaded.getInTileHeight());
+        Assert.assertEquals(2, mapLoaded.getTilesNumber());
+        Assert.assertNull(mapLoaded.getTile(0, 2));
+        Assert.assertEquals(5, mapLoaded.getTile(1, 2).getNumber());
+        Assert.assertEquals(6, mapLoaded.getTile(2, 2).getNumber());
+        Assert.assertEquals(32.0, mapLoaded.getTile(2, 2).getX(), UtilTests.PRECISION);
+        Assert.assertEquals(64.0, mapLoaded.getTile(2, 2).getY(), UtilTests.PRECISION);
+    }
+
+    /**
+     * Test the deprecated legacy tile saving is still read by the legacy format loading.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSaveTileLegacy() throws IOException
+    {
+        final MapTile map = UtilMapTilePersister.createMap();
+        final MapTilePersisterModel persister = (MapTilePersisterModel) map.getFeature(MapTilePersister.class);
+        final Media level = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            output.writeInteger(16);
+            output.writeInteger(32);
+            output.writeInteger(3);
+            output.writeInteger(3);
+            output.writeBoolean(false);
+            output.writeShort((short) 1);
+            output.writeShort((short) 1);
+            persister.saveTile(output, map.getTile(2, 1));
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+
+        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+
+        Assert.assertEquals(1, mapLoaded.getTilesNumber());
+        Assert.assertEquals(2, mapLoaded.getTile(2, 1).getNumber());
+    }
+
+    /**
+     * Test the compact format stores repeated tiles once, and restores them.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testSaveLoadCompact() throws IOException
+    {
+        final Services services = new Services();
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        map.create(16, 32, 300, 100);
+        map.loadSheets(new ArrayList<SpriteTiled>());
+        for (int tx = 0; tx < map.getInTileWidth(); tx++)
+        {
+            for (int ty = 50; ty < map.getInTileHeight(); ty++)
+            {
+                map.setTile(map.createTile(Integer.valueOf(0), tx % 150 / 100 * 400, tx * 16.0, ty * 32.0));
+            }
+        }
+
+        final File file = folder.newFile();
+        final Media level = Medias.get(file);
+        UtilMapTilePersister.saveMap(map, level);
+
+        Assert.assertTrue(String.valueOf(file.length()), file.length() < 1024L);
+
+        final MapTile mapLoaded = UtilMapTilePersister.loadMap(level);
+        for (int tx = 0; tx < map.getInTileWidth(); tx++)
+        {
+            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            {
+                final Tile tile = map.getTile(tx, ty);
+                final Tile loaded = mapLoaded.getTile(tx, ty);
+                if (tile == null)
+                {
+                    Assert.assertNull(loaded);
+                }
+                else
+                {
+                    Assert.assertEquals(tile.getSheet(), loaded.getSheet());
+                    Assert.assertEquals(tile.getNumber(), loaded.getNumber());
+                    Assert.assertEquals(tile.getX(), loaded.getX(), UtilTests.PRECISION);
+                    Assert.assertEquals(tile.getY(), loaded.getY(), UtilTests.PRECISION);
+                }
+            }
+        }
+        Assert.assertEquals(map.getTilesNumber(), mapLoaded.getTilesNumber());
+    }
+
+    /**
+     * Test the load of a compact map with unsupported version.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            output.writeInteger(0xB3D60000);
+            output.writeByte((byte) 2);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+        Assert.assertNull(UtilMapTilePersister.loadMap(level));
+    }
+
+    /**
+     * Test the load of a chunked map with the default load, which must fail instead of reading it as legacy.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testLoadChunkedAsDefault() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMapChunked(UtilMapTilePersister.createMap(), level);
+
+        Assert.assertNull(UtilMapTilePersister.loadMap(level));
+    }
+
+    /**
+     * Test the chunked load of a map not saved in chunked format.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testLoadChunkedInvalidFormat() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMap(UtilMapTilePersister.createMap(), level);
+
+        Assert.assertNull(UtilMapTilePersister.loadMapChunked(level));
+    }
+
+    /**
+     * Test the chunked load of a map with unsupported version.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testLoadChunkedUnsupportedVersion() throws IOException
+    {
+        final Media level = Medias.get(folder.newFile());
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            output.writeInteger(MapTileChunkLoader.MARKER);
+            output.writeByte((byte) (MapTileChunkLoader.VERSION + 1));
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+
+        Assert.assertNull(UtilMapTilePersister.loadMapChunked(level));
+    }
+
+    /**
+     * Test a chunk failing to load is not marked as loaded.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLoadChunkedInvalidSheet() throws IOException
+    {
+        final MapTile map = UtilMapTilePersister.createMap();
+        map.setTile(map.createTile(Integer.valueOf(Integer.MAX_VALUE), 0, 0, 0));
+        final Media level = Medias.get(folder.newFile());
+        UtilMapTilePersister.saveMapChunked(map, level);
+
+        final MapTileChunkLoader loader = UtilMapTilePersister.loadMapChunked(level);
+        for (int i = 0; i < 2; i++)
+        {
+            try
+            {
+                loader.loadAll();
+                Assert.fail();
+            }
+            catch (final LionEngineException exception)
+            {
+                Assert.assertFalse(loader.isLoaded());
+                Assert.assertEquals(1, loader.getRemaining());
+            }
+        }
+    }
+
     /**
      * Test the constructor with services with map.
      */
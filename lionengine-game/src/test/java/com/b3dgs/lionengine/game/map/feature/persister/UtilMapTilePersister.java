@@ -22,6 +22,7 @@ import java.util.ArrayList;
 
 import com.b3dgs.lionengine.Media;
 import com.b3dgs.lionengine.drawable.SpriteTiled;
+import com.b3dgs.lionengine.game.camera.Camera;
 import com.b3dgs.lionengine.game.feature.Services;
 import com.b3dgs.lionengine.game.map.MapTile;
 import com.b3dgs.lionengine.game.map.MapTileGame;
@@ -86,6 +87,45 @@ public class UtilMapTilePersister
         }
     }
 
+    /**
+     * Save map to file in chunked format.
+     * 
+     * @param map The map to save.
+     * @param level The level media.
+     * @throws IOException If error.
+     */
+    public static void saveMapChunked(MapTile map, Media level) throws IOException
+    {
+        FileWriting output = null;
+        try
+        {
+            output = Stream.createFileWriting(level);
+            map.getFeature(MapTilePersister.class).saveChunked(output);
+        }
+        finally
+        {
+            UtilStream.safeClose(output);
+        }
+    }
+
+    /**
+     * Open map from file in chunked format, with a camera at origin.
+     * 
+     * @param level The level media.
+     * @return The chunks loader.
+     * @throws IOException If error.
+     */
+    public static MapTileChunkLoader loadMapChunked(Media level) throws IOException
+    {
+        final Services services = new Services();
+        final Camera camera = services.create(Camera.class);
+        camera.setView(0, 0, 64, 64, 64);
+        final MapTile map = services.create(MapTileGame.class);
+        map.addFeature(new MapTilePersisterModel());
+        map.prepareFeatures(services);
+        return map.getFeature(MapTilePersister.class).loadChunked(level);
+    }
+
     /**
      * Load map from file.
      * 
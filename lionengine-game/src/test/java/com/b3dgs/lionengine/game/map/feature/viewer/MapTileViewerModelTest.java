@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.map.feature.viewer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.core.Graphics;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.MapTileRenderer;
+import com.b3dgs.lionengine.game.map.TileSetListener;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.graphic.Graphic;
+import com.b3dgs.lionengine.mock.FactoryGraphicMock;
+import com.b3dgs.lionengine.mock.GraphicMock;
+
+/**
+ * Test the map tile viewer model class.
+ */
+public class MapTileViewerModelTest
+{
+    /** Chunk memory size with 16 * 16 tiles of 16 * 16 pixels. */
+    private static final long CHUNK_BYTES = 16L * 16L * 16L * 16L * 4L;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Graphics.setFactoryGraphic(new FactoryGraphicMock());
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Graphics.setFactoryGraphic(null);
+    }
+
+    /** Rendered tiles counter. */
+    private final AtomicInteger rendered = new AtomicInteger();
+    /** Counting renderer. */
+    private final MapTileRenderer renderer = new MapTileRenderer()
+    {
+        @Override
+        public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+        {
+            rendered.incrementAndGet();
+        }
+    };
+    /** Graphic output. */
+    private final Graphic g = new GraphicMock();
+    /** Camera reference. */
+    private Camera camera;
+    /** Map reference. */
+    private MapTile map;
+    /** Viewer reference. */
+    private MapTileViewer viewer;
+
+    /**
+     * Prepare test.
+     */
+    @Before
+    public void prepare()
+    {
+        final Services services = new Services();
+        camera = services.create(Camera.class);
+        camera.setView(0, 0, 64, 64, 64);
+        camera.teleport(16.0 * 18, 16.0 * 18);
+
+        map = services.create(MapTileGame.class);
+        map.create(16, 16, 40, 40);
+        for (int tx = 0; tx < map.getInTileWidth(); tx++)
+        {
+            for (int ty = 0; ty < map.getInTileHeight(); ty++)
+            {
+                map.setTile(map.createTile(Integer.valueOf(0), 0, tx * 16.0, ty * 16.0));
+            }
+        }
+
+        viewer = new MapTileViewerModel();
+        viewer.prepare(map, services);
+        viewer.clear();
+    }
+
+    /**
+     * Test rendering without cache, each visible tile is rendered on each frame.
+     */
+    @Test
+    public void testRenderUncached()
+    {
+        viewer.addRenderer(renderer, true);
+        viewer.render(g);
+
+        Assert.assertEquals(25, rendered.get());
+
+        viewer.render(g);
+
+        Assert.assertEquals(50, rendered.get());
+    }
+
+    /**
+     * Test rendering with cache, visible chunks are rendered once.
+     */
+    @Test
+    public void testRenderCached()
+    {
+        viewer.addRenderer(renderer, true);
+        viewer.setCacheBudget(CHUNK_BYTES * 4);
+        viewer.render(g);
+
+        Assert.assertEquals(256, rendered.get());
+
+        viewer.render(g);
+
+        Assert.assertEquals(256, rendered.get());
+
+        camera.teleport(16.0 * 2, 16.0 * 2);
+        viewer.render(g);
+
+        Assert.assertEquals(512, rendered.get());
+
+        camera.teleport(16.0 * 18, 16.0 * 18);
+        viewer.render(g);
+
+        Assert.assertEquals(512, rendered.get());
+    }
+
+    /**
+     * Test renderers not cached are rendered over chunks on each frame.
+     */
+    @Test
+    public void testRenderMixed()
+    {
+        final AtomicInteger uncached = new AtomicInteger();
+        viewer.addRenderer(renderer, true);
+        viewer.addRenderer(new MapTileRenderer()
+        {
+            @Override
+            public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+            {
+                uncached.incrementAndGet();
+            }
+        });
+        viewer.setCacheBudget(CHUNK_BYTES);
+        viewer.render(g);
+        viewer.render(g);
+
+        Assert.assertEquals(256, rendered.get());
+        Assert.assertEquals(50, uncached.get());
+
+        viewer.removeRenderer(renderer);
+        viewer.render(g);
+
+        Assert.assertEquals(256, rendered.get());
+        Assert.assertEquals(75, uncached.get());
+    }
+
+    /**
+     * Test a cached renderer added after a renderer not cached is still rendered over it, on each frame.
+     */
+    @Test
+    public void testRenderOrder()
+    {
+        final List<String> order = new ArrayList<String>();
+        viewer.addRenderer(new MapTileRenderer()
+        {
+            @Override
+            public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+            {
+                order.add("ground");
+            }
+        });
+        viewer.addRenderer(new MapTileRenderer()
+        {
+            @Override
+            public void renderTile(Graphic g, MapTile map, Tile tile, int x, int y)
+            {
+                order.add("top");
+            }
+        }, true);
+        viewer.setCacheBudget(CHUNK_BYTES * 4);
+        viewer.render(g);
+        viewer.render(g);
+
+        Assert.assertEquals(100, order.size());
+        for (int i = 0; i < order.size(); i += 2)
+        {
+            Assert.assertEquals("ground", order.get(i));
+            Assert.assertEquals("top", order.get(i + 1));
+        }
+    }
+
+    /**
+     * Test the cache listener is replaced when prepared again.
+     */
+    @Test
+    public void testPrepareAgain()
+    {
+        final AtomicInteger listeners = new AtomicInteger();
+        final Services services = new Services();
+        services.add(camera);
+        services.add(new MapTileGame()
+        {
+            @Override
+            public void addListener(TileSetListener listener)
+            {
+                super.addListener(listener);
+                listeners.incrementAndGet();
+            }
+
+            @Override
+            public void removeListener(TileSetListener listener)
+            {
+                super.removeListener(listener);
+                listeners.decrementAndGet();
+            }
+        });
+        final MapTileViewer other = new MapTileViewerModel();
+        other.prepare(map, services);
+        other.prepare(map, services);
+
+        Assert.assertEquals(1, listeners.get());
+    }
+
+    /**
+     * Test chunk is rendered again when one of its tiles is set.
+     */
+    @Test
+    public void testInvalidate()
+    {
+        viewer.addRenderer(renderer, true);
+        viewer.setCacheBudget(CHUNK_BYTES * 4);
+        viewer.render(g);
+        map.setTile(map.createTile(Integer.valueOf(0), 1, 16.0 * 2, 16.0 * 2));
+        viewer.render(g);
+
+        Assert.assertEquals(256, rendered.get());
+
+        map.setTile(map.createTile(Integer.valueOf(0), 1, 16.0 * 20, 16.0 * 20));
+        viewer.render(g);
+
+        Assert.assertEquals(512, rendered.get());
+    }
+
+    /**
+     * Test least recently used chunks are released above memory budget.
+     */
+    @Test
+    public void testBudget()
+    {
+        viewer.addRenderer(renderer, true);
+        viewer.setCacheBudget(CHUNK_BYTES);
+        viewer.render(g);
+        camera.teleport(16.0 * 2, 16.0 * 2);
+        viewer.render(g);
+        camera.teleport(16.0 * 18, 16.0 * 18);
+        viewer.render(g);
+
+        Assert.assertEquals(768, rendered.get());
+
+        viewer.setCacheBudget(0L);
+        viewer.render(g);
+
+        Assert.assertEquals(793, rendered.get());
+    }
+}
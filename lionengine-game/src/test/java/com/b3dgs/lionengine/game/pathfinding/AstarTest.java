@@ -52,6 +52,61 @@ public class AstarTest
         Assert.assertNotNull(Astar.createPathFinder(map, 1, new HeuristicClosest()));
     }
 
+    /**
+     * Test the create path finder heap.
+     */
+    @Test
+    public void testCreatePathFinderHeap()
+    {
+        final MapTile map = new MapTileGame();
+        map.addFeature(new MapTilePathModel());
+        Assert.assertNotNull(Astar.createPathFinderHeap(map, 1, new HeuristicClosest()));
+    }
+
+    /**
+     * Test the create path finder hierarchical.
+     */
+    @Test
+    public void testCreatePathFinderHierarchical()
+    {
+        final MapTile map = new MapTileGame();
+        map.addFeature(new MapTilePathModel());
+        Assert.assertNotNull(Astar.createPathFinderHierarchical(map, 8, 1, new HeuristicClosest()));
+    }
+
+    /**
+     * Test the create path finder hierarchical with invalid cluster size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testCreatePathFinderHierarchicalInvalid()
+    {
+        final MapTile map = new MapTileGame();
+        map.addFeature(new MapTilePathModel());
+        Assert.assertNotNull(Astar.createPathFinderHierarchical(map, 0, 1, new HeuristicClosest()));
+    }
+
+    /**
+     * Test the create path finder flow field.
+     */
+    @Test
+    public void testCreatePathFinderFlowField()
+    {
+        final MapTile map = new MapTileGame();
+        map.addFeature(new MapTilePathModel());
+        Assert.assertNotNull(Astar.createPathFinderFlowField(map, 1));
+    }
+
+    /**
+     * Test the create path finder flow field with invalid cache size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testCreatePathFinderFlowFieldInvalid()
+    {
+        final MapTile map = new MapTileGame();
+        map.addFeature(new MapTilePathModel());
+        Assert.assertNotNull(Astar.createPathFinderFlowField(map, 0));
+    }
+
     /**
      * Test the create heuristic closest.
      */
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.util.UtilReflection;
+
+/**
+ * Test the path finder flow field class.
+ */
+public class PathFinderFlowFieldTest
+{
+    /** Test configuration. */
+    private static Media config;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+        config = UtilPathfinding.createConfig();
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Assert.assertTrue(config.getFile().delete());
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Check the path is valid.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param path The path to check.
+     * @param dtx The horizontal destination.
+     * @param dty The vertical destination.
+     */
+    private static void assertValid(MapTilePath mapPath, Pathfindable mover, Path path, int dtx, int dty)
+    {
+        Assert.assertNotNull(path);
+        Assert.assertEquals(mover.getInTileX(), path.getX(0));
+        Assert.assertEquals(mover.getInTileY(), path.getY(0));
+        Assert.assertEquals(dtx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(dty, path.getY(path.getLength() - 1));
+        for (int i = 1; i < path.getLength(); i++)
+        {
+            Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+            Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+        }
+    }
+
+    /**
+     * Get the cached fields number.
+     * 
+     * @param finder The finder reference.
+     * @return The cached fields number.
+     */
+    private static int getCached(PathFinder finder)
+    {
+        return UtilReflection.<Map<?, ?>> getField(finder, "fields").size();
+    }
+
+    /**
+     * Test many pathfindables sharing the same field around a wall.
+     */
+    @Test
+    public void testFindPath()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 15; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+        final PathFinder heap = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest());
+
+        for (int ty = 0; ty < 16; ty++)
+        {
+            final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, ty);
+            final Path path = finder.findPath(mover, 14, 1, true);
+            assertValid(mapPath, mover, path, 14, 1);
+            Assert.assertEquals(heap.findPath(mover, 14, 1, true).getLength(), path.getLength());
+        }
+        Assert.assertEquals(1, getCached(finder));
+
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 14, 1);
+        Assert.assertNull(finder.findPath(mover, 14, 1, true));
+    }
+
+    /**
+     * Test path finding with unreachable and blocked destination.
+     */
+    @Test
+    public void testFindPathUnreachable()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 16; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+
+        Assert.assertNull(finder.findPath(mover, 14, 1, true));
+        final Path path = finder.findPath(mover, 8, 5, true);
+        assertValid(mapPath, mover, path, path.getX(path.getLength() - 1), path.getY(path.getLength() - 1));
+        Assert.assertEquals(7, path.getX(path.getLength() - 1));
+    }
+
+    /**
+     * Test the least recently used fields eviction.
+     */
+    @Test
+    public void testCache()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 2);
+
+        Assert.assertNotNull(finder.findPath(mover, 5, 5, true));
+        Assert.assertNotNull(finder.findPath(mover, 6, 6, true));
+        Assert.assertNotNull(finder.findPath(mover, 5, 5, true));
+        Assert.assertEquals(2, getCached(finder));
+
+        Assert.assertNotNull(finder.findPath(mover, 7, 7, true));
+        Assert.assertEquals(2, getCached(finder));
+        final Map<?, ?> fields = UtilReflection.getField(finder, "fields");
+        Assert.assertNotNull(finder.findPath(mover, 5, 5, true));
+        Assert.assertEquals(2, fields.size());
+    }
+
+    /**
+     * Test fields invalidation on objects ID changes.
+     */
+    @Test
+    public void testObjectIdInvalidation()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 16; ty++)
+        {
+            if (ty != 8)
+            {
+                UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+            }
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, false), 14, 1);
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, true), 14, 1);
+        Assert.assertEquals(2, getCached(finder));
+
+        final Integer id = Integer.valueOf(-1);
+        mapPath.addObjectId(8, 0, id);
+        Assert.assertEquals(2, getCached(finder));
+
+        mapPath.addObjectId(8, 8, id);
+        Assert.assertEquals(1, getCached(finder));
+        Assert.assertNull(finder.findPath(mover, 14, 1, false));
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, true), 14, 1);
+
+        mapPath.removeObjectId(8, 8, id);
+        Assert.assertEquals(1, getCached(finder));
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, false), 14, 1);
+    }
+
+    /**
+     * Test the destination is taken as first step when next to it, the start being occupied by the mover in a
+     * corridor.
+     */
+    @Test
+    public void testNextToDestination()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int tx = 0; tx < 16; tx++)
+        {
+            UtilPathfinding.setTile(map, tx, 4, UtilPathfinding.WALL);
+            UtilPathfinding.setTile(map, tx, 6, UtilPathfinding.WALL);
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 3, 5);
+        mapPath.addObjectId(3, 5, Integer.valueOf(-1));
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+
+        final Path path = finder.findPath(mover, 4, 5, false);
+
+        assertValid(mapPath, mover, path, 4, 5);
+        Assert.assertEquals(2, path.getLength());
+
+        final Path far = finder.findPath(mover, 10, 5, false);
+
+        assertValid(mapPath, mover, far, 10, 5);
+        Assert.assertEquals(8, far.getLength());
+    }
+
+    /**
+     * Test the objects ID ignored by the mover are not blocking.
+     */
+    @Test
+    public void testIgnoredId()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 16; ty++)
+        {
+            if (ty != 8)
+            {
+                UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+            }
+        }
+        final Integer id = Integer.valueOf(-1);
+        mapPath.addObjectId(8, 8, id);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+
+        Assert.assertNull(finder.findPath(mover, 14, 1, false));
+
+        mover.setIgnoreId(id, true);
+
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, false), 14, 1);
+        Assert.assertEquals(2, getCached(finder));
+
+        mapPath.removeObjectId(8, 8, id);
+        mapPath.addObjectId(8, 8, id);
+
+        Assert.assertEquals(0, getCached(finder));
+    }
+
+    /**
+     * Test pathfindable following the shared field.
+     */
+    @Test
+    public void testPathfindable()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final PathFinder finder = Astar.createPathFinderFlowField(map, 4);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        mover.setPathFinder(finder);
+
+        Assert.assertTrue(mover.setDestination(5, 3));
+        for (int i = 0; i < 100 && !mover.isDestinationReached(); i++)
+        {
+            mover.update(1.0);
+        }
+        Assert.assertTrue(mover.isDestinationReached());
+        Assert.assertEquals(5, mover.getInTileX());
+        Assert.assertEquals(3, mover.getInTileY());
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileArray;
+
+/**
+ * Test the path finder heap class.
+ */
+public class PathFinderHeapTest
+{
+    /** Test configuration. */
+    private static Media config;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+        config = UtilPathfinding.createConfig();
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Assert.assertTrue(config.getFile().delete());
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Check the path is valid.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param path The path to check.
+     * @param dtx The horizontal destination.
+     * @param dty The vertical destination.
+     */
+    private static void assertValid(MapTilePath mapPath, Pathfindable mover, Path path, int dtx, int dty)
+    {
+        Assert.assertNotNull(path);
+        Assert.assertEquals(mover.getInTileX(), path.getX(0));
+        Assert.assertEquals(mover.getInTileY(), path.getY(0));
+        Assert.assertEquals(dtx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(dty, path.getY(path.getLength() - 1));
+        for (int i = 1; i < path.getLength(); i++)
+        {
+            Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+            Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+        }
+    }
+
+    /**
+     * Test path finding on an empty map.
+     */
+    @Test
+    public void testFindPath()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHeap(map, 32, Astar.createHeuristicClosest());
+        final Path path = finder.findPath(mover, 10, 1, true);
+
+        assertValid(mapPath, mover, path, 10, 1);
+        Assert.assertEquals(10, path.getLength());
+        Assert.assertNull(finder.findPath(mover, 1, 1, true));
+    }
+
+    /**
+     * Test path finding around a wall, with the same finder reused between searches.
+     */
+    @Test
+    public void testFindPathWall()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 15; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest());
+        final PathFinder legacy = Astar.createPathFinder(map, 64, Astar.createHeuristicClosest());
+        for (int i = 0; i < 3; i++)
+        {
+            final Path path = finder.findPath(mover, 14, 1, true);
+            assertValid(mapPath, mover, path, 14, 1);
+            Assert.assertTrue(path.contains(8, 15));
+            Assert.assertTrue(path.getLength() <= legacy.findPath(mover, 14, 1, true).getLength());
+        }
+    }
+
+    /**
+     * Test path finding around a wall and an object on a map tile array.
+     */
+    @Test
+    public void testFindPathMapTileArray()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16, MapTileArray.class);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 15; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final PathFinder finder = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest());
+
+        Assert.assertFalse(map.getTile(8, 15).getFeature(TilePath.class) instanceof TilePathModel);
+        Assert.assertEquals(UtilPathfinding.WALL, map.getTile(8, 0).getFeature(TilePath.class).getCategory());
+
+        final Path path = finder.findPath(mover, 14, 1, true);
+        assertValid(mapPath, mover, path, 14, 1);
+        Assert.assertTrue(path.contains(8, 15));
+
+        mapPath.addObjectId(8, 15, Integer.valueOf(1));
+        Assert.assertTrue(mapPath.getObjectsId(8, 15).contains(Integer.valueOf(1)));
+        Assert.assertNull(finder.findPath(mover, 14, 1, false));
+
+        mapPath.removeObjectId(8, 15, Integer.valueOf(1));
+        Assert.assertTrue(mapPath.getObjectsId(8, 15).isEmpty());
+        assertValid(mapPath, mover, finder.findPath(mover, 14, 1, false), 14, 1);
+    }
+
+    /**
+     * Test path finding with unreachable destination.
+     */
+    @Test
+    public void testFindPathUnreachable()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        for (int ty = 0; ty < 16; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest());
+
+        Assert.assertNull(finder.findPath(mover, 14, 1, true));
+        Assert.assertNotNull(finder.findPath(mover, 5, 5, true));
+    }
+
+    /**
+     * Test path finding with a limited search distance.
+     */
+    @Test
+    public void testFindPathMaxDistance()
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 0, 0);
+
+        final PathFinder finder = Astar.createPathFinderHeap(map, 2, Astar.createHeuristicClosest());
+
+        Assert.assertNull(finder.findPath(mover, 15, 15, true));
+        Assert.assertNotNull(finder.findPath(mover, 2, 2, true));
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Test the path finder hierarchical class.
+ */
+public class PathFinderHierarchicalTest
+{
+    /** Test configuration. */
+    private static Media config;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+        config = UtilPathfinding.createConfig();
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Assert.assertTrue(config.getFile().delete());
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Check the path is valid.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param path The path to check.
+     * @param dtx The horizontal destination.
+     * @param dty The vertical destination.
+     */
+    private static void assertValid(MapTilePath mapPath, Pathfindable mover, Path path, int dtx, int dty)
+    {
+        Assert.assertNotNull(path);
+        Assert.assertEquals(mover.getInTileX(), path.getX(0));
+        Assert.assertEquals(mover.getInTileY(), path.getY(0));
+        Assert.assertEquals(dtx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(dty, path.getY(path.getLength() - 1));
+        for (int i = 1; i < path.getLength(); i++)
+        {
+            Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+            Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+        }
+    }
+
+    /**
+     * Create walls with a single gap on each cluster border column.
+     * 
+     * @param map The map reference.
+     * @param tx The wall column.
+     * @param gap The gap row.
+     */
+    private static void createWall(MapTile map, int tx, int gap)
+    {
+        for (int ty = 0; ty < map.getInTileHeight(); ty++)
+        {
+            if (ty != gap)
+            {
+                UtilPathfinding.setTile(map, tx, ty, UtilPathfinding.WALL);
+            }
+        }
+    }
+
+    /**
+     * Test path finding on an empty map, short and long distances.
+     */
+    @Test
+    public void testFindPath()
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHierarchical(map, 8, 64, Astar.createHeuristicClosest());
+
+        final Path near = finder.findPath(mover, 5, 3, true);
+        assertValid(mapPath, mover, near, 5, 3);
+
+        final Path far = finder.findPath(mover, 30, 28, true);
+        assertValid(mapPath, mover, far, 30, 28);
+        final Path flat = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest())
+                               .findPath(mover, 30, 28, true);
+        Assert.assertTrue(far.getLength() <= flat.getLength() * 2);
+
+        Assert.assertNull(finder.findPath(mover, 1, 1, true));
+    }
+
+    /**
+     * Test path finding through walls gaps.
+     */
+    @Test
+    public void testFindPathWalls()
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        createWall(map, 8, 30);
+        createWall(map, 16, 2);
+        createWall(map, 24, 30);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHierarchical(map, 8, 256, Astar.createHeuristicClosest());
+        final Path path = finder.findPath(mover, 30, 1, true);
+
+        assertValid(mapPath, mover, path, 30, 1);
+        Assert.assertTrue(path.contains(8, 30));
+        Assert.assertTrue(path.contains(16, 2));
+        Assert.assertTrue(path.contains(24, 30));
+    }
+
+    /**
+     * Test path finding with unreachable destination.
+     */
+    @Test
+    public void testFindPathUnreachable()
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        createWall(map, 16, -1);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHierarchical(map, 8, 256, Astar.createHeuristicClosest());
+
+        Assert.assertNull(finder.findPath(mover, 30, 1, true));
+        Assert.assertNotNull(finder.findPath(mover, 14, 30, true));
+    }
+
+    /**
+     * Test objects ID checked on refinement when they change.
+     */
+    @Test
+    public void testObjectId()
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        createWall(map, 16, 2);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final PathFinder finder = Astar.createPathFinderHierarchical(map, 8, 256, Astar.createHeuristicClosest());
+        assertValid(mapPath, mover, finder.findPath(mover, 30, 1, false), 30, 1);
+
+        final Integer id = Integer.valueOf(-1);
+        mapPath.addObjectId(16, 2, id);
+        Assert.assertNull(finder.findPath(mover, 30, 1, false));
+
+        mapPath.removeObjectId(16, 2, id);
+        final Path path = finder.findPath(mover, 30, 1, false);
+        assertValid(mapPath, mover, path, 30, 1);
+        Assert.assertTrue(path.contains(16, 2));
+    }
+
+    /**
+     * Test ignored objects ID of a mover not impacting the clusters shared with another mover.
+     */
+    @Test
+    public void testIgnoredIdShared()
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        createWall(map, 16, 2);
+        final Integer id = Integer.valueOf(-1);
+        mapPath.addObjectId(16, 2, id);
+        final Pathfindable blocked = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final Pathfindable ignoring = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        ignoring.setIgnoreId(id, true);
+
+        final PathFinder finder = Astar.createPathFinderHierarchical(map, 8, 20, Astar.createHeuristicClosest());
+        Assert.assertNull(finder.findPath(blocked, 30, 1, false));
+
+        final Path path = finder.findPath(ignoring, 30, 1, false);
+        Assert.assertNotNull(path);
+        Assert.assertTrue(path.contains(16, 2));
+
+        Assert.assertNull(finder.findPath(blocked, 30, 1, false));
+    }
+
+    /**
+     * Test map path listener notification.
+     */
+    @Test
+    public void testMapTilePathListener()
+    {
+        final Services services = UtilPathfinding.createServices(4, 4);
+        final MapTilePath mapPath = services.get(MapTile.class).getFeature(MapTilePath.class);
+        final AtomicInteger notified = new AtomicInteger();
+        final MapTilePathListener listener = new MapTilePathListener()
+        {
+            @Override
+            public void notifyTileChanged(int tx, int ty)
+            {
+                notified.set(ty * 4 + tx);
+            }
+        };
+        mapPath.addListener(listener);
+
+        mapPath.addObjectId(2, 1, Integer.valueOf(1));
+        Assert.assertEquals(6, notified.get());
+
+        mapPath.removeObjectId(1, 3, Integer.valueOf(1));
+        Assert.assertEquals(13, notified.get());
+
+        mapPath.removeListener(listener);
+        mapPath.addObjectId(0, 0, Integer.valueOf(1));
+        Assert.assertEquals(13, notified.get());
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.map.MapTile;
+
+/**
+ * Test the path requests class.
+ */
+public class PathRequestsTest
+{
+    /** Test configuration. */
+    private static Media config;
+
+    /**
+     * Prepare test.
+     */
+    @BeforeClass
+    public static void setUp()
+    {
+        Medias.setResourcesDirectory(System.getProperty("java.io.tmpdir"));
+        config = UtilPathfinding.createConfig();
+    }
+
+    /**
+     * Clean up test.
+     */
+    @AfterClass
+    public static void cleanUp()
+    {
+        Assert.assertTrue(config.getFile().delete());
+        Medias.setResourcesDirectory(Constant.EMPTY_STRING);
+    }
+
+    /**
+     * Update requests until all results are delivered.
+     * 
+     * @param requests The requests reference.
+     * @throws InterruptedException If interrupted.
+     */
+    private static void waitResults(PathRequests requests) throws InterruptedException
+    {
+        final long timeout = System.currentTimeMillis() + 5000L;
+        while (requests.getWaiting() > 0 && System.currentTimeMillis() < timeout)
+        {
+            requests.update(1.0);
+            Thread.sleep(1L);
+        }
+        Assert.assertEquals(0, requests.getWaiting());
+    }
+
+    /**
+     * Check the path is valid.
+     * 
+     * @param mapPath The map path reference.
+     * @param mover The mover reference.
+     * @param path The path to check.
+     * @param dtx The horizontal destination.
+     * @param dty The vertical destination.
+     */
+    private static void assertValid(MapTilePath mapPath, Pathfindable mover, Path path, int dtx, int dty)
+    {
+        Assert.assertNotNull(path);
+        Assert.assertEquals(mover.getInTileX(), path.getX(0));
+        Assert.assertEquals(mover.getInTileY(), path.getY(0));
+        Assert.assertEquals(dtx, path.getX(path.getLength() - 1));
+        Assert.assertEquals(dty, path.getY(path.getLength() - 1));
+        for (int i = 1; i < path.getLength(); i++)
+        {
+            Assert.assertTrue(Math.abs(path.getX(i) - path.getX(i - 1)) <= 1);
+            Assert.assertTrue(Math.abs(path.getY(i) - path.getY(i - 1)) <= 1);
+            Assert.assertFalse(mapPath.isBlocked(mover, path.getX(i), path.getY(i), true));
+        }
+    }
+
+    /**
+     * Test requests coalesced on the same destination, around a wall (search depth is limited to map diagonal).
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testRequest() throws InterruptedException
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 15; ty++)
+        {
+            UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+        }
+        final PathRequests requests = services.create(PathRequests.class);
+        final PathFinder finder = Astar.createPathFinderHeap(map, 64, Astar.createHeuristicClosest());
+
+        final List<Pathfindable> movers = new ArrayList<Pathfindable>();
+        final List<Path> paths = new ArrayList<Path>();
+        for (int i = 0; i < 4; i++)
+        {
+            final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, i * 3);
+            movers.add(mover);
+            paths.add(null);
+            final int index = i;
+            requests.request(mover, 14, 1, true, new PathRequestListener()
+            {
+                @Override
+                public void notifyPathFound(Path path)
+                {
+                    paths.set(index, path);
+                }
+            });
+        }
+        Assert.assertEquals(4, requests.getWaiting());
+        waitResults(requests);
+
+        for (int i = 0; i < movers.size(); i++)
+        {
+            final Pathfindable mover = movers.get(i);
+            final Path path = paths.get(i);
+            assertValid(mapPath, mover, path, 14, 1);
+            Assert.assertTrue(path.contains(8, 15));
+            Assert.assertEquals(finder.findPath(mover, 14, 1, true).getLength(), path.getLength());
+        }
+        requests.stop();
+    }
+
+    /**
+     * Test requests with blocked or unreachable destination.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testRequestBlocked() throws InterruptedException
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        UtilPathfinding.setTile(map, 2, 1, UtilPathfinding.WALL);
+        UtilPathfinding.setTile(map, 10, 10, UtilPathfinding.WALL);
+        final PathRequests requests = services.create(PathRequests.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+
+        final Path[] paths = new Path[3];
+        for (int i = 0; i < paths.length; i++)
+        {
+            final int index = i;
+            final int destination = i * 5;
+            requests.request(mover, destination, destination, true, new PathRequestListener()
+            {
+                @Override
+                public void notifyPathFound(Path path)
+                {
+                    paths[index] = path;
+                }
+            });
+        }
+        requests.request(mover, 2, 1, false, new PathRequestListener()
+        {
+            @Override
+            public void notifyPathFound(Path path)
+            {
+                Assert.assertNull(path);
+            }
+        });
+        waitResults(requests);
+
+        assertValid(mapPath, mover, paths[0], 0, 0);
+        assertValid(mapPath, mover, paths[1], 5, 5);
+        Assert.assertNotNull(paths[2]);
+        Assert.assertFalse(paths[2].contains(10, 10));
+        requests.stop();
+    }
+
+    /**
+     * Test requests with objects ID.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testRequestObjectId() throws InterruptedException
+    {
+        final Services services = UtilPathfinding.createServices(32, 32);
+        final MapTile map = services.get(MapTile.class);
+        final MapTilePath mapPath = map.getFeature(MapTilePath.class);
+        for (int ty = 0; ty < 32; ty++)
+        {
+            if (ty != 15)
+            {
+                UtilPathfinding.setTile(map, 8, ty, UtilPathfinding.WALL);
+            }
+        }
+        final PathRequests requests = services.create(PathRequests.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        final Path[] paths = new Path[2];
+        final PathRequestListener listener = new PathRequestListener()
+        {
+            @Override
+            public void notifyPathFound(Path path)
+            {
+                paths[0] = path;
+            }
+        };
+
+        requests.request(mover, 14, 1, false, listener);
+        waitResults(requests);
+        assertValid(mapPath, mover, paths[0], 14, 1);
+
+        final Integer id = Integer.valueOf(-1);
+        mapPath.addObjectId(8, 15, id);
+        requests.request(mover, 14, 1, false, listener);
+        requests.request(mover, 14, 1, true, new PathRequestListener()
+        {
+            @Override
+            public void notifyPathFound(Path path)
+            {
+                paths[1] = path;
+            }
+        });
+        waitResults(requests);
+        Assert.assertNull(paths[0]);
+        assertValid(mapPath, mover, paths[1], 14, 1);
+
+        mover.setIgnoreId(id, true);
+        requests.request(mover, 14, 1, false, listener);
+        waitResults(requests);
+        assertValid(mapPath, mover, paths[0], 14, 1);
+        requests.stop();
+    }
+
+    /**
+     * Test the per frame budget.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testBudget() throws InterruptedException
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final PathRequests requests = new PathRequests(services, 2);
+        requests.setBudget(2);
+        final int[] delivered = new int[1];
+        final PathRequestListener listener = new PathRequestListener()
+        {
+            @Override
+            public void notifyPathFound(Path path)
+            {
+                Assert.assertNotNull(path);
+                delivered[0]++;
+            }
+        };
+        for (int i = 0; i < 6; i++)
+        {
+            final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, i, 0);
+            requests.request(mover, 15 - i, 15, true, listener);
+        }
+
+        requests.update(1.0);
+        Assert.assertEquals(0, delivered[0]);
+        Assert.assertEquals(6, requests.getWaiting());
+
+        final long timeout = System.currentTimeMillis() + 5000L;
+        while (requests.getWaiting() > 0 && System.currentTimeMillis() < timeout)
+        {
+            final int before = delivered[0];
+            requests.update(1.0);
+            Assert.assertTrue(delivered[0] - before <= 2);
+            Thread.sleep(1L);
+        }
+        Assert.assertEquals(6, delivered[0]);
+        requests.stop();
+    }
+
+    /**
+     * Test invalid arguments.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testInvalidBudget()
+    {
+        final Services services = UtilPathfinding.createServices(4, 4);
+        final PathRequests requests = new PathRequests(services, 1);
+        try
+        {
+            requests.setBudget(0);
+        }
+        finally
+        {
+            requests.stop();
+        }
+    }
+
+    /**
+     * Test pathfindable with asynchronous searches.
+     * 
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testPathfindable() throws InterruptedException
+    {
+        final Services services = UtilPathfinding.createServices(16, 16);
+        final PathRequests requests = services.create(PathRequests.class);
+        final Pathfindable mover = UtilPathfinding.createPathfindable(config, services, 1, 1);
+        mover.setPathRequests(requests);
+
+        Assert.assertTrue(mover.setDestination(5, 1));
+        Assert.assertFalse(mover.isDestinationReached());
+        mover.update(1.0);
+        Assert.assertEquals(1, mover.getInTileX());
+        Assert.assertFalse(mover.isMoving());
+
+        waitResults(requests);
+        final long timeout = System.currentTimeMillis() + 5000L;
+        while (!mover.isDestinationReached() && System.currentTimeMillis() < timeout)
+        {
+            mover.update(1.0);
+            requests.update(1.0);
+            Thread.sleep(1L);
+        }
+        Assert.assertTrue(mover.isDestinationReached());
+        Assert.assertEquals(5, mover.getInTileX());
+        Assert.assertEquals(1, mover.getInTileY());
+        requests.stop();
+    }
+}
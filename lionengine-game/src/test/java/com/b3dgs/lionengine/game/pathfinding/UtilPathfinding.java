@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.pathfinding;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Media;
+import com.b3dgs.lionengine.core.Medias;
+import com.b3dgs.lionengine.game.camera.Camera;
+import com.b3dgs.lionengine.game.feature.FeaturableConfig;
+import com.b3dgs.lionengine.game.feature.FeaturableModel;
+import com.b3dgs.lionengine.game.feature.Services;
+import com.b3dgs.lionengine.game.feature.Setup;
+import com.b3dgs.lionengine.game.feature.identifiable.IdentifiableModel;
+import com.b3dgs.lionengine.game.feature.transformable.Transformable;
+import com.b3dgs.lionengine.game.feature.transformable.TransformableModel;
+import com.b3dgs.lionengine.game.map.MapTile;
+import com.b3dgs.lionengine.game.map.MapTileGame;
+import com.b3dgs.lionengine.game.map.feature.group.MapTileGroupModel;
+import com.b3dgs.lionengine.game.tile.Tile;
+import com.b3dgs.lionengine.game.tile.TileGame;
+import com.b3dgs.lionengine.stream.Xml;
+import com.b3dgs.lionengine.stream.XmlNode;
+
+/**
+ * Pathfinding utility, creating test maps and pathfindables.
+ * <p>
+ * Maps use the {@link #GROUND} category for free tiles and the {@link #WALL} category for blocking tiles.
+ * </p>
+ */
+public class UtilPathfinding
+{
+    /** Ground category. */
+    public static final String GROUND = "ground";
+    /** Wall category. */
+    public static final String WALL = "wall";
+
+    /**
+     * Create the services with a {@link Camera} and a map of the specified size.
+     * 
+     * @param width The map width in tile.
+     * @param height The map height in tile.
+     * @return The services reference.
+     */
+    public static Services createServices(int width, int height)
+    {
+        return createServices(width, height, MapTileGame.class);
+    }
+
+    /**
+     * Create the services with a {@link Camera} and a map of the specified size and type.
+     * 
+     * @param width The map width in tile.
+     * @param height The map height in tile.
+     * @param type The map type.
+     * @return The services reference.
+     */
+    public static Services createServices(int width, int height, Class<? extends MapTileGame> type)
+    {
+        final Services services = new Services();
+        services.add(new Camera());
+        final MapTile map = services.create(type);
+        map.create(1, 1, width, height);
+        map.addFeature(new MapTileGroupModel());
+        map.addFeature(new MapTilePathModel());
+        map.prepareFeatures(services);
+
+        for (int ty = 0; ty < height; ty++)
+        {
+            for (int tx = 0; tx < width; tx++)
+            {
+                setTile(map, tx, ty, GROUND);
+            }
+        }
+        return services;
+    }
+
+    /**
+     * Set a map tile with its path category.
+     * 
+     * @param map The map reference.
+     * @param tx The horizontal tile index.
+     * @param ty The vertical tile index.
+     * @param category The tile category.
+     */
+    public static void setTile(MapTile map, int tx, int ty, String category)
+    {
+        final Tile tile = new TileGame(Integer.valueOf(0), 0, tx, ty, 1, 1);
+        tile.addFeature(new TilePathModel(category));
+        map.setTile(tile);
+    }
+
+    /**
+     * Create the pathfindable configuration, blocked by {@link #WALL}.
+     * 
+     * @return The configuration media.
+     */
+    public static Media createConfig()
+    {
+        final Media media = Medias.create("pathfindable.xml");
+        final XmlNode root = Xml.create("test");
+        root.add(FeaturableConfig.exportClass("class"));
+        root.add(FeaturableConfig.exportSetup("setup"));
+
+        final Map<String, PathData> data = new HashMap<String, PathData>();
+        data.put(GROUND, new PathData(GROUND, 1.0, false, Arrays.asList(MovementTile.values())));
+        data.put(WALL, new PathData(WALL, 1.0, true, Arrays.asList(MovementTile.values())));
+        root.add(PathfindableConfig.exports(data));
+        Xml.save(root, media);
+
+        return media;
+    }
+
+    /**
+     * Create a pathfindable located on tile.
+     * 
+     * @param config The configuration media.
+     * @param services The services reference.
+     * @param tx The horizontal tile location.
+     * @param ty The vertical tile location.
+     * @return The pathfindable reference.
+     */
+    public static Pathfindable createPathfindable(Media config, Services services, int tx, int ty)
+    {
+        final Setup setup = new Setup(config);
+        final FeaturableModel featurable = new FeaturableModel();
+        featurable.addFeature(new IdentifiableModel());
+
+        final Transformable transformable = featurable.addFeatureAndGet(new TransformableModel(setup));
+        transformable.setSize(1, 1);
+        transformable.teleport(tx, ty);
+
+        final Pathfindable pathfindable = featurable.addFeatureAndGet(new PathfindableModel(setup));
+        featurable.prepareFeatures(services);
+
+        return pathfindable;
+    }
+}
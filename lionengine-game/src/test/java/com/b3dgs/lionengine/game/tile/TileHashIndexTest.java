@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.game.tile;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.graphic.ColorRgba;
+
+/**
+ * Test the tile hash index class.
+ */
+public class TileHashIndexTest
+{
+    /** Red. */
+    private static final int RED = ColorRgba.RED.getRgba();
+    /** Blue. */
+    private static final int BLUE = ColorRgba.BLUE.getRgba();
+    /** Opaque. */
+    private static final int OPAQUE = ColorRgba.OPAQUE.getRgba();
+    /** Transparent. */
+    private static final int TRANSPARENT = ColorRgba.TRANSPARENT.getRgba();
+
+    /**
+     * Test the constructor with invalid size.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testConstructorInvalid()
+    {
+        Assert.assertNotNull(new TileHashIndex<String>(0, 1));
+    }
+
+    /**
+     * Test tiles found inside a row of pixels, the first added value is kept.
+     */
+    @Test
+    public void testAddGet()
+    {
+        final TileHashIndex<String> index = new TileHashIndex<String>(2, 2);
+        final int[] row = new int[]
+        {
+            RED, BLUE, RED, BLUE, BLUE, RED,
+            BLUE, RED, BLUE, RED, BLUE, RED
+        };
+
+        Assert.assertTrue(index.add(row, 0, 6, "a"));
+        Assert.assertFalse(index.add(row, 2, 6, "b"));
+        Assert.assertTrue(index.add(row, 4, 6, "c"));
+        Assert.assertEquals(2, index.size());
+
+        Assert.assertEquals("a", index.get(row, 2, 6));
+        Assert.assertEquals("c", index.get(row, 4, 6));
+        Assert.assertEquals("a", index.get(new int[]
+        {
+            RED, BLUE, BLUE, RED
+        }, 0, 2));
+        Assert.assertNull(index.get(new int[]
+        {
+            RED, RED, RED, RED
+        }, 0, 2));
+    }
+
+    /**
+     * Test opaque and transparent pixels are considered as equal, as with {@link TilesExtractor#compareTile}.
+     */
+    @Test
+    public void testOpaqueTransparent()
+    {
+        final TileHashIndex<String> index = new TileHashIndex<String>(1, 2);
+        final int[] tile = new int[]
+        {
+            OPAQUE, RED
+        };
+        final int[] other = new int[]
+        {
+            TRANSPARENT, RED
+        };
+
+        Assert.assertTrue(index.add(tile, 0, 1, "a"));
+        Assert.assertEquals(index.hash(tile, 0, 1), index.hash(other, 0, 1));
+        Assert.assertEquals("a", index.get(other, 0, 1));
+    }
+
+    /**
+     * Test different tiles sharing the same hash are both indexed.
+     */
+    @Test
+    public void testCollision()
+    {
+        final TileHashIndex<String> index = new TileHashIndex<String>(1, 1);
+        final int[] a = new int[]
+        {
+            RED
+        };
+        final int[] b = new int[]
+        {
+            BLUE
+        };
+
+        Assert.assertTrue(index.add(a, 0, 1, 0, "a"));
+        Assert.assertTrue(index.add(b, 0, 1, 0, "b"));
+        Assert.assertEquals("a", index.get(a, 0, 1, 0));
+        Assert.assertEquals("b", index.get(b, 0, 1, 0));
+        Assert.assertNull(index.get(a, 0, 1));
+    }
+}
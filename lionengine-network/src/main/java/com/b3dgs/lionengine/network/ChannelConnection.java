@@ -0,0 +1,412 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Non blocking connection over a socket channel, exchanging length prefixed frames.
+ * <p>
+ * Each frame is made of its payload length (4 bytes) followed by the payload, which starts with a
+ * {@link NetworkMessageSystemId}. Incoming data is accumulated until complete frames are available, and outgoing
+ * frames are queued until {@link #flush()}, so a whole update is sent with a single write. Frames shared between
+ * connections can be appended to the write with {@link #flush(ByteBuffer[], int)}.
+ * </p>
+ */
+final class ChannelConnection implements ProtocolConnection
+{
+    /** Frame header size (payload length). */
+    static final int HEADER = 4;
+    /** Maximum frame payload length. */
+    static final int MAX_FRAME = 1048576;
+    /** Maximum queued data size before considering the peer as not reading. */
+    static final int MAX_PENDING = 4 * MAX_FRAME;
+    /** Maximum number of buffers per gathering write, scattered frames being copied beyond. */
+    private static final int GATHER_MAX = 8;
+    /** Initial buffers capacity. */
+    private static final int CAPACITY = 4096;
+    /** Invalid frame error. */
+    private static final String ERROR_FRAME = "Invalid frame length: ";
+    /** Invalid message size error. */
+    private static final String ERROR_SIZE = "Invalid message size: ";
+
+    /**
+     * Read a string from the frame (length on one byte followed by the characters).
+     * 
+     * @param frame The frame data.
+     * @return The string read, <code>null</code> if empty.
+     */
+    static String readString(ByteBuffer frame)
+    {
+        final int size = frame.get();
+        if (size > 0)
+        {
+            final byte[] data = new byte[size];
+            frame.get(data);
+            return new String(data, NetworkMessage.CHARSET);
+        }
+        return null;
+    }
+
+    /**
+     * Read a user message size, which must fit in the remaining frame data.
+     * 
+     * @param frame The frame data.
+     * @return The message size.
+     * @throws IOException If the size is negative or larger than the remaining frame data.
+     */
+    static int readSize(ByteBuffer frame) throws IOException
+    {
+        final int size = frame.getInt();
+        if (size < 0 || size > frame.remaining())
+        {
+            throw new IOException(ERROR_SIZE + size);
+        }
+        return size;
+    }
+
+    /**
+     * Create a buffer with a larger capacity, containing the data of the original buffer.
+     * 
+     * @param buffer The original buffer (in write mode).
+     * @param required The minimum remaining space required.
+     * @return The larger buffer (in write mode).
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int required)
+    {
+        final int capacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+        final ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    /** Socket channel. */
+    private final SocketChannel channel;
+    /** Received data (always in write mode). */
+    private ByteBuffer in;
+    /** Data to send (always in write mode). */
+    private ByteBuffer out;
+    /** Start of the received data not yet consumed. */
+    private int consumed;
+    /** Start of the frame being written. */
+    private int frame;
+    /** Connection id. */
+    private byte id;
+    /** Connection name. */
+    private String name;
+    /** Connection state. */
+    private StateConnection state;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param channel The connected channel (must be non blocking).
+     * @param id The connection id.
+     */
+    ChannelConnection(SocketChannel channel, byte id)
+    {
+        this.channel = channel;
+        this.id = id;
+        in = ByteBuffer.allocateDirect(CAPACITY);
+        out = ByteBuffer.allocateDirect(CAPACITY);
+        consumed = 0;
+        frame = -1;
+        state = StateConnection.CONNECTING;
+    }
+
+    /**
+     * Read the available data from the channel.
+     * 
+     * @return The number of bytes read, <code>-1</code> if the end of stream has been reached.
+     * @throws IOException If error when reading.
+     */
+    public int read() throws IOException
+    {
+        if (!in.hasRemaining())
+        {
+            in = grow(in, CAPACITY);
+        }
+        return channel.read(in);
+    }
+
+    /**
+     * Get the next complete received frame. The returned buffer is only valid until {@link #compact()}.
+     * 
+     * @return The frame payload, <code>null</code> if no complete frame is available.
+     * @throws IOException If the frame length is invalid.
+     */
+    public ByteBuffer poll() throws IOException
+    {
+        final int available = in.position() - consumed;
+        ByteBuffer payload = null;
+        if (available >= HEADER)
+        {
+            final int length = in.getInt(consumed);
+            if (length < 0 || length > MAX_FRAME)
+            {
+                throw new IOException(ERROR_FRAME + length);
+            }
+            if (available >= HEADER + length)
+            {
+                payload = in.duplicate();
+                payload.limit(consumed + HEADER + length);
+                payload.position(consumed + HEADER);
+                consumed += HEADER + length;
+            }
+        }
+        return payload;
+    }
+
+    /**
+     * Discard the consumed frames, keeping the partial frame data.
+     */
+    public void compact()
+    {
+        in.limit(in.position());
+        in.position(consumed);
+        in.compact();
+        consumed = 0;
+    }
+
+    /**
+     * Write an integer to the current frame.
+     * 
+     * @param value The value to write.
+     */
+    public void putInt(int value)
+    {
+        ensure(HEADER);
+        out.putInt(value);
+    }
+
+    /**
+     * Write data to the current frame.
+     * 
+     * @param data The data to write.
+     */
+    public void put(byte[] data)
+    {
+        ensure(data.length);
+        out.put(data);
+    }
+
+    /**
+     * Write as much queued data as possible to the channel.
+     * 
+     * @return <code>true</code> if all data have been written, <code>false</code> if data remain.
+     * @throws IOException If error when writing.
+     */
+    public boolean flush() throws IOException
+    {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        return out.position() == 0;
+    }
+
+    /**
+     * Write the queued data followed by shared frames with a single gathering write. Shared frames which could not be
+     * fully written are copied to the queue, as they may not remain valid. When frames are too scattered, they are
+     * copied to the queue before writing, as it is cheaper than a gathering write of many small buffers.
+     * 
+     * @param buffers The buffers to write, first index reserved for the queued data.
+     * @param count The number of buffers, including the reserved first index.
+     * @return <code>true</code> if all data have been written, <code>false</code> if data remain.
+     * @throws IOException If error when writing.
+     */
+    public boolean flush(ByteBuffer[] buffers, int count) throws IOException
+    {
+        if (count > GATHER_MAX)
+        {
+            for (int i = 1; i < count; i++)
+            {
+                ensure(buffers[i].remaining());
+                out.put(buffers[i]);
+            }
+            return flush();
+        }
+        out.flip();
+        buffers[0] = out;
+        try
+        {
+            channel.write(buffers, 0, count);
+        }
+        finally
+        {
+            buffers[0] = null;
+            out.compact();
+        }
+        for (int i = 1; i < count; i++)
+        {
+            final ByteBuffer buffer = buffers[i];
+            if (buffer.hasRemaining())
+            {
+                ensure(buffer.remaining());
+                out.put(buffer);
+            }
+        }
+        return out.position() == 0;
+    }
+
+    /**
+     * Check if data are waiting to be sent.
+     * 
+     * @return <code>true</code> if data are queued, <code>false</code> else.
+     */
+    public boolean hasPending()
+    {
+        return out.position() > 0;
+    }
+
+    /**
+     * Get the size of the data waiting to be sent.
+     * 
+     * @return The queued data size.
+     */
+    public int getPending()
+    {
+        return out.position();
+    }
+
+    /**
+     * Set the connection id.
+     * 
+     * @param id The connection id.
+     */
+    public void setId(byte id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * Get the channel.
+     * 
+     * @return The channel.
+     */
+    public SocketChannel getChannel()
+    {
+        return channel;
+    }
+
+    /**
+     * Ensure the output buffer can store the data.
+     * 
+     * @param size The data size.
+     */
+    private void ensure(int size)
+    {
+        if (out.remaining() < size)
+        {
+            out = grow(out, size);
+        }
+    }
+
+    /*
+     * ProtocolConnection
+     */
+
+    @Override
+    public void begin(byte messageSystemId)
+    {
+        ensure(HEADER + 1);
+        frame = out.position();
+        out.putInt(0);
+        out.put(messageSystemId);
+    }
+
+    @Override
+    public void put(byte value)
+    {
+        ensure(1);
+        out.put(value);
+    }
+
+    @Override
+    public void putString(String value)
+    {
+        final byte[] data = value.getBytes(NetworkMessage.CHARSET);
+        ensure(data.length + 1);
+        out.put((byte) data.length);
+        out.put(data);
+    }
+
+    @Override
+    public void end()
+    {
+        out.putInt(frame, out.position() - frame - HEADER);
+        frame = -1;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            flush();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception);
+        }
+        state = StateConnection.DISCONNECTED;
+    }
+
+    @Override
+    public void setState(StateConnection state)
+    {
+        this.state = state;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public byte getId()
+    {
+        return id;
+    }
+
+    @Override
+    public StateConnection getState()
+    {
+        return state;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+}
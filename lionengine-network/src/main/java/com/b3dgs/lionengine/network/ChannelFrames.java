@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * User message frames shared by all clients of a {@link ServerChannel}.
+ * <p>
+ * Each message is encoded once, then the frames of each client are gathered as views on the same buffer, consecutive
+ * frames being merged in a single view.
+ * </p>
+ */
+final class ChannelFrames
+{
+    /** User message frame header size (system id, source, destination, type, data length). */
+    private static final int MESSAGE_HEADER = 8;
+    /** Initial capacity. */
+    private static final int CAPACITY = 4096;
+    /** Initial frames number. */
+    private static final int FRAMES = 16;
+
+    /** Message encoding buffer. */
+    private final MessageBuffer encoder;
+    /** Encoded frames (always in write mode). */
+    private ByteBuffer frames;
+    /** Frames bounds (frame i from offsets[i] to offsets[i + 1]). */
+    private int[] offsets;
+    /** Frames message. */
+    private NetworkMessage[] messages;
+    /** Gathered views, first index reserved. */
+    private ByteBuffer[] buffers;
+    /** Number of frames. */
+    private int count;
+    /** Size of the last gathered frames. */
+    private int gathered;
+
+    /**
+     * Internal constructor.
+     */
+    ChannelFrames()
+    {
+        encoder = new MessageBuffer();
+        frames = ByteBuffer.allocateDirect(CAPACITY);
+        offsets = new int[FRAMES + 1];
+        messages = new NetworkMessage[FRAMES];
+        buffers = new ByteBuffer[FRAMES];
+        count = 0;
+    }
+
+    /**
+     * Encode the message as a new frame.
+     * 
+     * @param message The message to add.
+     * @throws IOException If error when encoding.
+     */
+    public void add(NetworkMessage message) throws IOException
+    {
+        encoder.reset();
+        message.encodeTo(encoder);
+        final int size = encoder.size();
+        ensure(ChannelConnection.HEADER + MESSAGE_HEADER + size);
+
+        frames.putInt(MESSAGE_HEADER + size);
+        frames.put(NetworkMessageSystemId.USER_MESSAGE);
+        frames.put(message.getClientId());
+        frames.put(message.getClientDestId());
+        frames.put(message.getType());
+        frames.putInt(size);
+        frames.put(encoder.getData(), 0, size);
+
+        messages[count] = message;
+        count++;
+        offsets[count] = frames.position();
+    }
+
+    /**
+     * Gather the frames of the client. Views are valid until {@link #clear()}.
+     * 
+     * @param id The client id.
+     * @param filter The message filter (<code>null</code> if none).
+     * @return The number of buffers in {@link #getBuffers()}, including the reserved first index.
+     */
+    public int gather(byte id, MessageFilter filter)
+    {
+        gathered = 0;
+        int views = 1;
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < count; i++)
+        {
+            if (!NetworkModel.isDestination(messages[i], id, filter))
+            {
+                continue;
+            }
+            if (offsets[i] != end && start > -1)
+            {
+                views = addView(views, start, end);
+                start = -1;
+            }
+            if (start < 0)
+            {
+                start = offsets[i];
+            }
+            end = offsets[i + 1];
+        }
+        if (start > -1)
+        {
+            views = addView(views, start, end);
+        }
+        return views;
+    }
+
+    /**
+     * Get the size of the frames gathered by the last {@link #gather(byte, MessageFilter)}.
+     * 
+     * @return The gathered size in bytes.
+     */
+    public int getGathered()
+    {
+        return gathered;
+    }
+
+    /**
+     * Get the gathered buffers.
+     * 
+     * @return The gathered buffers, first index reserved.
+     */
+    public ByteBuffer[] getBuffers()
+    {
+        return buffers;
+    }
+
+    /**
+     * Get the encoded frames size.
+     * 
+     * @return The encoded frames size in bytes.
+     */
+    public int getSize()
+    {
+        return frames.position();
+    }
+
+    /**
+     * Check if there is no frame.
+     * 
+     * @return <code>true</code> if no frame, <code>false</code> else.
+     */
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * Remove all frames.
+     */
+    public void clear()
+    {
+        frames.clear();
+        Arrays.fill(buffers, null);
+        Arrays.fill(messages, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * Add a view on the frames.
+     * 
+     * @param index The view index.
+     * @param start The view start.
+     * @param end The view end.
+     * @return The next view index.
+     */
+    private int addView(int index, int start, int end)
+    {
+        if (index == buffers.length)
+        {
+            buffers = Arrays.copyOf(buffers, buffers.length * 2);
+        }
+        final ByteBuffer view = frames.duplicate();
+        view.limit(end);
+        view.position(start);
+        buffers[index] = view;
+        gathered += end - start;
+        return index + 1;
+    }
+
+    /**
+     * Ensure a new frame can be stored.
+     * 
+     * @param size The frame size.
+     */
+    private void ensure(int size)
+    {
+        if (frames.remaining() < size)
+        {
+            final ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(frames.capacity() * 2,
+                                                                        frames.position() + size));
+            frames.flip();
+            grown.put(frames);
+            frames = grown;
+        }
+        if (count == messages.length)
+        {
+            messages = Arrays.copyOf(messages, messages.length * 2);
+            offsets = Arrays.copyOf(offsets, messages.length + 1);
+        }
+    }
+}
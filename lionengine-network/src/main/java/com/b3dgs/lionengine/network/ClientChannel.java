@@ -0,0 +1,497 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Client implementation over a non blocking channel, to be used with {@link ServerChannel}.
+ * <p>
+ * All complete frames are handled on {@link #receiveMessages()}, and queued frames are written at once on
+ * {@link #sendMessages()}.
+ * </p>
+ */
+final class ClientChannel extends NetworkModel<ConnectionListener> implements Client
+{
+    /** User message header size. */
+    private static final int HEADER_SIZE = 8;
+    /** Ping request delay. */
+    private static final long PING_MILLI = 1000L;
+    /** Bandwidth computation delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+
+    /** Ping timer. */
+    private final Timing pingTimer;
+    /** Ping request timer. */
+    private final Timing pingRequestTimer;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Server connection. */
+    private ChannelConnection connection;
+    /** Client id. */
+    private byte clientId;
+    /** Client name. */
+    private String clientName;
+    /** Connected flag. */
+    private boolean connected;
+    /** Ping. */
+    private int ping;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ClientChannel(NetworkMessageDecoder decoder)
+    {
+        super(decoder);
+        pingTimer = new Timing();
+        pingRequestTimer = new Timing();
+        bandwidthTimer = new Timing();
+        connected = false;
+        clientId = -1;
+        clientName = null;
+    }
+
+    /**
+     * Terminate connection.
+     */
+    private void kick()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        messagesIn.clear();
+        messagesOut.clear();
+        connection.close();
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionTerminated(Byte.valueOf(getId()));
+        }
+        listeners.clear();
+        connected = false;
+        Verbose.info("Disconnected from the server !");
+    }
+
+    /**
+     * Handle all complete received frames.
+     * 
+     * @throws IOException If error when reading.
+     */
+    private void receive() throws IOException
+    {
+        ByteBuffer frame = connection.poll();
+        while (frame != null && connected)
+        {
+            updateMessage(frame, frame.get());
+            frame = connection.poll();
+        }
+        connection.compact();
+    }
+
+    /**
+     * Update the message from its id.
+     * 
+     * @param frame The frame data.
+     * @param messageSystemId The message system ID.
+     * @throws IOException If error when reading data.
+     */
+    private void updateMessage(ByteBuffer frame, byte messageSystemId) throws IOException
+    {
+        switch (messageSystemId)
+        {
+            case NetworkMessageSystemId.CONNECTING:
+                updateConnecting(frame);
+                break;
+            case NetworkMessageSystemId.CONNECTED:
+                updateConnected(frame);
+                break;
+            case NetworkMessageSystemId.PING:
+                ping = (int) pingTimer.elapsed();
+                break;
+            case NetworkMessageSystemId.KICKED:
+                kick();
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_CONNECTED:
+                updateOtherClientConnected(frame);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
+                updateOtherClientDisconnected(frame);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
+                updateOtherClientRenamed(frame);
+                break;
+            case NetworkMessageSystemId.USER_MESSAGE:
+                updateUserMessage(frame);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Update the connecting case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateConnecting(ByteBuffer frame)
+    {
+        if (clientId == -1)
+        {
+            clientId = frame.get();
+            connection.setId(clientId);
+            connection.begin(NetworkMessageSystemId.CONNECTING);
+            connection.put(clientId);
+            connection.putString(clientName);
+            connection.end();
+            Verbose.info("Client: Performing connection to the server...");
+        }
+    }
+
+    /**
+     * Update the connected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateConnected(ByteBuffer frame)
+    {
+        // Ensure the client id is the same
+        if (frame.get() != clientId)
+        {
+            return;
+        }
+        connection.setState(StateConnection.CONNECTED);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionEstablished(Byte.valueOf(clientId), clientName);
+        }
+        // Read the client list
+        final int clientsNumber = frame.get();
+        for (int i = 0; i < clientsNumber; i++)
+        {
+            final byte cid = frame.get();
+            final String cname = ChannelConnection.readString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyClientConnected(Byte.valueOf(cid), cname);
+            }
+        }
+        // Message of the day if has
+        if (frame.hasRemaining())
+        {
+            final String motd = ChannelConnection.readString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyMessageOfTheDay(motd);
+            }
+        }
+        // Send the last answer
+        connection.begin(NetworkMessageSystemId.CONNECTED);
+        connection.put(clientId);
+        connection.end();
+        Verbose.info("Client: Connected to the server !");
+    }
+
+    /**
+     * Update the other client connected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientConnected(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientConnected(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the other client disconnected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientDisconnected(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientDisconnected(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the other client renamed case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientRenamed(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientNameChanged(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the user message case.
+     * 
+     * @param frame The frame data.
+     * @throws IOException If error when reading data.
+     */
+    private void updateUserMessage(ByteBuffer frame) throws IOException
+    {
+        final byte from = frame.get();
+        final byte dest = frame.get();
+        final byte type = frame.get();
+        final int size = frame.getInt();
+        if (size > 0)
+        {
+            final byte[] data = new byte[size];
+            frame.get(data);
+            final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
+            try
+            {
+                decodeMessage(type, from, dest, buffer);
+            }
+            finally
+            {
+                UtilStream.safeClose(buffer);
+            }
+        }
+        bandwidth += HEADER_SIZE + size;
+    }
+
+    /**
+     * Queue the message to the server.
+     * 
+     * @param message The message to queue.
+     * @throws IOException If error when encoding.
+     */
+    private void queue(NetworkMessage message) throws IOException
+    {
+        final ByteArrayOutputStream encode = message.encode();
+        try
+        {
+            final byte[] encoded = encode.toByteArray();
+            connection.begin(NetworkMessageSystemId.USER_MESSAGE);
+            connection.put(message.getClientId());
+            connection.put(message.getClientDestId());
+            connection.put(message.getType());
+            connection.putInt(encoded.length);
+            connection.put(encoded);
+            connection.end();
+
+            bandwidth += HEADER_SIZE + encoded.length;
+        }
+        finally
+        {
+            UtilStream.safeClose(encode);
+        }
+    }
+
+    /*
+     * Client
+     */
+
+    @Override
+    public void connect(String ip, int port)
+    {
+        Check.notNull(ip);
+        Check.superiorOrEqual(port, 0);
+        Check.inferiorOrEqual(port, Constant.MAX_PORT);
+
+        SocketChannel channel = null;
+        try
+        {
+            channel = SocketChannel.open(new InetSocketAddress(InetAddress.getByName(ip), port));
+            channel.socket().setTcpNoDelay(true);
+            channel.configureBlocking(false);
+            connection = new ChannelConnection(channel, (byte) -1);
+            connected = true;
+            clientId = -1;
+            pingRequestTimer.start();
+            bandwidthTimer.start();
+        }
+        catch (final IOException exception)
+        {
+            UtilStream.safeClose(channel);
+            throw new LionEngineException(exception, "Cannot connect to the server !");
+        }
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return connected;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        clientName = name;
+        if (connected && clientId != -1)
+        {
+            connection.begin(NetworkMessageSystemId.OTHER_CLIENT_RENAMED);
+            connection.put(clientId);
+            connection.putString(clientName);
+            connection.end();
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return clientName;
+    }
+
+    @Override
+    public int getPing()
+    {
+        return ping;
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public byte getId()
+    {
+        return clientId;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (connected)
+        {
+            connection.begin(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
+            connection.put(clientId);
+            connection.end();
+            kick();
+        }
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        if (pingRequestTimer.elapsed(PING_MILLI))
+        {
+            connection.begin(NetworkMessageSystemId.PING);
+            connection.put(clientId);
+            connection.end();
+            pingTimer.restart();
+            pingRequestTimer.restart();
+            bandwidth += 2;
+        }
+        try
+        {
+            for (final NetworkMessage message : messagesOut)
+            {
+                queue(message);
+            }
+            connection.flush();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+        }
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+        messagesOut.clear();
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        messagesIn.clear();
+        try
+        {
+            int read = connection.read();
+            while (read > 0)
+            {
+                receive();
+                if (connected)
+                {
+                    read = connection.read();
+                }
+                else
+                {
+                    read = 0;
+                }
+            }
+            if (read < 0)
+            {
+                kick();
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to receive the messages for client: ", String.valueOf(clientId));
+        }
+        catch (final BufferUnderflowException exception)
+        {
+            Verbose.exception(exception, "Invalid frame for client: ", String.valueOf(clientId));
+        }
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.Constant;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Client implementation over datagrams, to be used with {@link ServerDatagram}.
+ * <p>
+ * The connection is requested on {@link #connect(String, int)}, and established during the following updates. System
+ * messages and {@link NetworkMessage#isReliable()} messages are sent on the reliable ordered channel, other messages
+ * and pings on the unreliable sequenced channel. The connection is terminated if the server did not send anything
+ * during {@link ServerDatagram#TIMEOUT_MILLI}.
+ * </p>
+ */
+final class ClientDatagram extends NetworkModel<ConnectionListener> implements Client
+{
+    /** Ping request delay. */
+    private static final long PING_MILLI = 1000L;
+    /** Bandwidth computation delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+    /** Send error. */
+    private static final String ERROR_SEND = "Unable to send the messages for client: ";
+    /** Receive error. */
+    private static final String ERROR_RECEIVE = "Unable to receive the messages for client: ";
+
+    /** Client socket. */
+    private final DatagramLink link;
+    /** Received packet. */
+    private final ByteBuffer packet;
+    /** Received frames. */
+    private final Collection<ByteBuffer> frames;
+    /** Message encoder. */
+    private final MessageBuffer encoder;
+    /** Ping timer. */
+    private final Timing pingTimer;
+    /** Ping request timer. */
+    private final Timing pingRequestTimer;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Server connection. */
+    private DatagramConnection connection;
+    /** Client id. */
+    private byte clientId;
+    /** Client name. */
+    private String clientName;
+    /** Connected flag. */
+    private boolean connected;
+    /** Ping. */
+    private int ping;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ClientDatagram(NetworkMessageDecoder decoder)
+    {
+        super(decoder);
+        link = new DatagramLink();
+        packet = ByteBuffer.allocate(DatagramConnection.MAX_PACKET);
+        frames = new ArrayList<ByteBuffer>();
+        encoder = new MessageBuffer();
+        pingTimer = new Timing();
+        pingRequestTimer = new Timing();
+        bandwidthTimer = new Timing();
+        connected = false;
+        clientId = -1;
+        clientName = null;
+    }
+
+    /**
+     * Set the simulated loss of the sent packets.
+     * 
+     * @param loss The loss rate, between 0 (none, default) and 1 (all packets lost).
+     * @param seed The loss random seed.
+     * @throws LionEngineException If invalid rate.
+     */
+    void setLoss(double loss, long seed)
+    {
+        link.setLoss(loss, seed);
+    }
+
+    /**
+     * Terminate connection.
+     */
+    private void kick()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        messagesIn.clear();
+        messagesOut.clear();
+        link.close();
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionTerminated(Byte.valueOf(getId()));
+        }
+        listeners.clear();
+        connected = false;
+        Verbose.info("Disconnected from the server !");
+    }
+
+    /**
+     * Handle the frames of the received packet.
+     */
+    private void receive()
+    {
+        frames.clear();
+        connection.receive(packet, frames);
+        for (final ByteBuffer frame : frames)
+        {
+            if (!connected)
+            {
+                break;
+            }
+            try
+            {
+                updateMessage(frame, frame.get());
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_RECEIVE, String.valueOf(clientId));
+            }
+        }
+    }
+
+    /**
+     * Update the message from its id.
+     * 
+     * @param frame The frame data.
+     * @param messageSystemId The message system ID.
+     * @throws IOException If error when reading data.
+     */
+    private void updateMessage(ByteBuffer frame, byte messageSystemId) throws IOException
+    {
+        switch (messageSystemId)
+        {
+            case NetworkMessageSystemId.CONNECTING:
+                updateConnecting(frame);
+                break;
+            case NetworkMessageSystemId.CONNECTED:
+                updateConnected(frame);
+                break;
+            case NetworkMessageSystemId.PING:
+                ping = (int) pingTimer.elapsed();
+                break;
+            case NetworkMessageSystemId.KICKED:
+                kick();
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_CONNECTED:
+                updateOtherClientConnected(frame);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
+                updateOtherClientDisconnected(frame);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
+                updateOtherClientRenamed(frame);
+                break;
+            case NetworkMessageSystemId.USER_MESSAGE:
+                updateUserMessage(frame);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Update the connecting case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateConnecting(ByteBuffer frame)
+    {
+        if (clientId == -1)
+        {
+            clientId = frame.get();
+            connection.setId(clientId);
+            connection.begin(NetworkMessageSystemId.CONNECTING, true);
+            connection.put(clientId);
+            connection.putString(clientName);
+            connection.end();
+            Verbose.info("Client: Performing connection to the server...");
+        }
+    }
+
+    /**
+     * Update the connected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateConnected(ByteBuffer frame)
+    {
+        // Ensure the client id is the same
+        if (frame.get() != clientId)
+        {
+            return;
+        }
+        connection.setState(StateConnection.CONNECTED);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyConnectionEstablished(Byte.valueOf(clientId), clientName);
+        }
+        // Read the client list
+        final int clientsNumber = frame.get();
+        for (int i = 0; i < clientsNumber; i++)
+        {
+            final byte cid = frame.get();
+            final String cname = ChannelConnection.readString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyClientConnected(Byte.valueOf(cid), cname);
+            }
+        }
+        // Message of the day if has
+        if (frame.hasRemaining())
+        {
+            final String motd = ChannelConnection.readString(frame);
+            for (final ConnectionListener listener : listeners)
+            {
+                listener.notifyMessageOfTheDay(motd);
+            }
+        }
+        // Send the last answer
+        connection.begin(NetworkMessageSystemId.CONNECTED, true);
+        connection.put(clientId);
+        connection.end();
+        Verbose.info("Client: Connected to the server !");
+    }
+
+    /**
+     * Update the other client connected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientConnected(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientConnected(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the other client disconnected case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientDisconnected(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientDisconnected(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the other client renamed case.
+     * 
+     * @param frame The frame data.
+     */
+    private void updateOtherClientRenamed(ByteBuffer frame)
+    {
+        final byte cid = frame.get();
+        final String cname = ChannelConnection.readString(frame);
+        for (final ConnectionListener listener : listeners)
+        {
+            listener.notifyClientNameChanged(Byte.valueOf(cid), cname);
+        }
+    }
+
+    /**
+     * Update the user message case.
+     * 
+     * @param frame The frame data.
+     * @throws IOException If error when reading data.
+     */
+    private void updateUserMessage(ByteBuffer frame) throws IOException
+    {
+        final byte from = frame.get();
+        final byte dest = frame.get();
+        final byte type = frame.get();
+        final int size = frame.getInt();
+        if (size > 0)
+        {
+            final byte[] data = new byte[size];
+            frame.get(data);
+            final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
+            try
+            {
+                decodeMessage(type, from, dest, buffer);
+            }
+            finally
+            {
+                UtilStream.safeClose(buffer);
+            }
+        }
+        bandwidth += DatagramConnection.USER_HEADER + size;
+    }
+
+    /**
+     * Queue the message to the server.
+     * 
+     * @param message The message to queue.
+     * @throws IOException If error when encoding, or message too large.
+     */
+    private void queue(NetworkMessage message) throws IOException
+    {
+        final byte[] frame = DatagramConnection.encode(message, encoder);
+        connection.queue(frame, message.isReliable());
+    }
+
+    /*
+     * Client
+     */
+
+    @Override
+    public void connect(String ip, int port)
+    {
+        Check.notNull(ip);
+        Check.superiorOrEqual(port, 0);
+        Check.inferiorOrEqual(port, Constant.MAX_PORT);
+
+        try
+        {
+            final SocketAddress address = new InetSocketAddress(InetAddress.getByName(ip), port);
+            link.open(0);
+            connection = new DatagramConnection(address, (byte) -1);
+            connection.begin(NetworkMessageSystemId.CONNECTING, true);
+            connection.put((byte) -1);
+            connection.end();
+            connection.flush(link);
+            connected = true;
+            clientId = -1;
+            pingRequestTimer.start();
+            bandwidthTimer.start();
+        }
+        catch (final IOException exception)
+        {
+            link.close();
+            throw new LionEngineException(exception, "Cannot connect to the server !");
+        }
+    }
+
+    @Override
+    public boolean isConnected()
+    {
+        return connected;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        clientName = name;
+        if (connected && clientId != -1)
+        {
+            connection.begin(NetworkMessageSystemId.OTHER_CLIENT_RENAMED, true);
+            connection.put(clientId);
+            connection.putString(clientName);
+            connection.end();
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return clientName;
+    }
+
+    @Override
+    public int getPing()
+    {
+        return ping;
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public byte getId()
+    {
+        return clientId;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (connected)
+        {
+            connection.begin(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED, true);
+            connection.put(clientId);
+            connection.end();
+            try
+            {
+                connection.flush(link);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
+            }
+            kick();
+        }
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        if (pingRequestTimer.elapsed(PING_MILLI))
+        {
+            connection.begin(NetworkMessageSystemId.PING, false);
+            connection.put(clientId);
+            connection.end();
+            pingTimer.restart();
+            pingRequestTimer.restart();
+        }
+        try
+        {
+            for (final NetworkMessage message : messagesOut)
+            {
+                queue(message);
+            }
+            bandwidth += connection.flush(link);
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
+        }
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+        messagesOut.clear();
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        if (!connected)
+        {
+            return;
+        }
+        messagesIn.clear();
+        try
+        {
+            SocketAddress address = link.receive(packet);
+            while (address != null)
+            {
+                if (address.equals(connection.getAddress()))
+                {
+                    receive();
+                }
+                if (connected)
+                {
+                    address = link.receive(packet);
+                }
+                else
+                {
+                    address = null;
+                }
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_RECEIVE, String.valueOf(clientId));
+        }
+        catch (final BufferUnderflowException exception)
+        {
+            Verbose.exception(exception, "Invalid packet for client: ", String.valueOf(clientId));
+        }
+        if (connected && connection.isTimeout(ServerDatagram.TIMEOUT_MILLI))
+        {
+            Verbose.info("Client: Connection timed out");
+            kick();
+        }
+    }
+}
@@ -18,7 +18,6 @@
 package com.b3dgs.lionengine.network;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -40,12 +39,17 @@ import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
  */
 final class ClientImpl extends NetworkModel<ConnectionListener> implements Client
 {
+    /** Send error. */
+    private static final String ERROR_SEND = "Unable to send the messages for client: ";
+
     /** Ping timer. */
     private final Timing pingTimer;
     /** Ping request timer. */
     private final Timing pingRequestTimer;
     /** Average bandwidth. */
     private final Timing bandwidthTimer;
+    /** Message encoding buffer. */
+    private final MessageBuffer encoder;
     /** Socket. */
     private Socket socket;
     /** Output stream. */
@@ -76,6 +80,7 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
         pingTimer = new Timing();
         pingRequestTimer = new Timing();
         bandwidthTimer = new Timing();
+        encoder = new MessageBuffer();
         connected = false;
         clientId = -1;
         clientName = null;
@@ -335,48 +340,32 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
     }
 
     /**
-     * Send message over the network.
+     * Write message to the network, without flushing.
      * 
      * @param message The message to send.
      */
     private void sendMessage(NetworkMessage message)
     {
-        ByteArrayOutputStream encode = null;
+        encoder.reset();
         try
         {
-            encode = message.encode();
-            final byte[] encoded = encode.toByteArray();
+            message.encodeTo(encoder);
             // Message header
             out.writeByte(NetworkMessageSystemId.USER_MESSAGE);
             out.writeByte(message.getClientId());
             out.writeByte(message.getClientDestId());
             out.writeByte(message.getType());
             // Message content
-            out.writeInt(encoded.length);
-            out.write(encoded);
-            out.flush();
+            out.writeInt(encoder.size());
+            out.write(encoder.getData(), 0, encoder.size());
 
             final int headerSize = 8;
-            bandwidth += headerSize + encoded.length;
+            bandwidth += headerSize + encoder.size();
         }
         catch (final IOException exception)
         {
             Verbose.exception(exception, "Unable to send the message for client: ", String.valueOf(clientId));
         }
-        finally
-        {
-            try
-            {
-                if (encode != null)
-                {
-                    encode.close();
-                }
-            }
-            catch (final IOException exception)
-            {
-                Verbose.exception(exception);
-            }
-        }
     }
 
     /*
@@ -507,13 +496,24 @@ final class ClientImpl extends NetworkModel<ConnectionListener> implements Clien
             }
             catch (final IOException exception)
             {
-                Verbose.exception(exception, "Unable to send the messages for client: ", String.valueOf(clientId));
+                Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
             }
         }
         // Send messages
-        for (final NetworkMessage message : messagesOut)
+        if (!messagesOut.isEmpty())
         {
-            sendMessage(message);
+            for (final NetworkMessage message : messagesOut)
+            {
+                sendMessage(message);
+            }
+            try
+            {
+                out.flush();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_SEND, String.valueOf(clientId));
+            }
         }
         final long bandwidthMilli = 1000L;
         if (bandwidthTimer.elapsed(bandwidthMilli))
@@ -24,11 +24,12 @@ import java.net.Socket;
 
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
 
 /**
  * Client socket (bridge between server and client).
  */
-final class ClientSocket
+final class ClientSocket implements ProtocolConnection
 {
     /** Client socket. */
     private final Socket socket;
@@ -37,7 +38,7 @@ final class ClientSocket
     /** Input stream. */
     private final ObjectInputStream in;
     /** Client id. */
-    private final byte clientId;
+    private byte clientId;
     /** State. */
     private StateConnection state;
     /** Name. */
@@ -46,13 +47,11 @@ final class ClientSocket
     /**
      * Internal constructor.
      * 
-     * @param id The client id.
      * @param socket The socket reference.
      * @throws LionEngineException If error on client socket.
      */
-    ClientSocket(final byte id, final Socket socket)
+    ClientSocket(final Socket socket)
     {
-        clientId = id;
         this.socket = socket;
         name = null;
         try
@@ -67,43 +66,13 @@ final class ClientSocket
     }
 
     /**
-     * Set the connection state.
-     * 
-     * @param state The connection state.
-     */
-    public void setState(StateConnection state)
-    {
-        this.state = state;
-    }
-
-    /**
-     * Get the current connection state.
-     * 
-     * @return The connection state.
-     */
-    public StateConnection getState()
-    {
-        return state;
-    }
-
-    /**
-     * Set the client name.
+     * Set the client id.
      * 
-     * @param name The client name.
+     * @param id The client id.
      */
-    public void setName(String name)
+    public void setId(byte id)
     {
-        this.name = name;
-    }
-
-    /**
-     * Get the client name.
-     * 
-     * @return The client name.
-     */
-    public String getName()
-    {
-        return name;
+        clientId = id;
     }
 
     /**
@@ -223,13 +192,70 @@ final class ClientSocket
         return in;
     }
 
-    /**
-     * Get the client id.
-     * 
-     * @return The client id.
+
+    /*
+     * ProtocolConnection
      */
+
+    @Override
+    public void begin(byte messageSystemId) throws IOException
+    {
+        out.writeByte(messageSystemId);
+    }
+
+    @Override
+    public void put(byte value) throws IOException
+    {
+        out.writeByte(value);
+    }
+
+    @Override
+    public void putString(String value) throws IOException
+    {
+        final byte[] data = value.getBytes(NetworkMessage.CHARSET);
+        out.writeByte(data.length);
+        out.write(data);
+    }
+
+    @Override
+    public void end() throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close()
+    {
+        terminate();
+    }
+
+    @Override
+    public void setState(StateConnection state)
+    {
+        this.state = state;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
     public byte getId()
     {
         return clientId;
     }
+
+    @Override
+    public StateConnection getState()
+    {
+        return state;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
 }
@@ -0,0 +1,538 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Connection with a remote peer over datagrams, providing a reliable ordered channel and an unreliable sequenced
+ * channel.
+ * <p>
+ * Each packet starts with its sequence and the id of the next reliable frame expected from the peer, acknowledging all
+ * the previous ones. It is followed by frames, each made of its channel, its id if reliable, its length (2 bytes) and
+ * its payload, which starts with a {@link NetworkMessageSystemId} as with {@link ChannelConnection}. Frames are
+ * grouped up to {@link #PACKET_SIZE}.
+ * </p>
+ * <p>
+ * Reliable frames are sent again until acknowledged, and delivered in order. Unreliable frames are sent once, and
+ * dropped when received in a packet older than the last received one.
+ * </p>
+ */
+final class DatagramConnection implements ProtocolConnection
+{
+    /** Packet size, frames being grouped up to this size. */
+    static final int PACKET_SIZE = 1200;
+    /** Maximum packet size. A frame larger than {@link #PACKET_SIZE} is sent alone. */
+    static final int MAX_PACKET = 65507;
+    /** User message frame header size (system id, source, destination, type and size). */
+    static final int USER_HEADER = 8;
+    /** Maximum number of reliable frames not acknowledged before considering the peer as not reading. */
+    static final int MAX_PENDING = 4096;
+    /** Packet header size (sequence and acknowledge). */
+    private static final int HEADER = 8;
+    /** Frame header size (channel and length). */
+    private static final int FRAME_HEADER = 3;
+    /** Reliable frame id size. */
+    private static final int ID_SIZE = 4;
+    /** Maximum frame payload length. */
+    static final int MAX_FRAME = MAX_PACKET - HEADER - FRAME_HEADER - ID_SIZE;
+    /** Unreliable channel. */
+    private static final byte UNRELIABLE = 0;
+    /** Reliable channel. */
+    private static final byte RELIABLE = 1;
+    /** Delay before sending again a reliable frame not acknowledged. */
+    private static final long RESEND_MILLI = 100L;
+    /** Maximum number of reliable frames received out of order and kept. */
+    private static final int MAX_RECEIVED = 1024;
+    /** Frame length mask. */
+    private static final int LENGTH_MASK = 0xFFFF;
+    /** Initial frame capacity. */
+    private static final int CAPACITY = 256;
+    /** Message size error. */
+    private static final String ERROR_SIZE = "Message too large: ";
+
+    /**
+     * Check if the sequence is more recent than the other one, supporting the sequence overflow.
+     * 
+     * @param sequence The sequence to check.
+     * @param other The other sequence.
+     * @return <code>true</code> if more recent, <code>false</code> else.
+     */
+    static boolean isMoreRecent(int sequence, int other)
+    {
+        return sequence - other > 0;
+    }
+
+    /**
+     * Encode the message as a user message frame.
+     * 
+     * @param message The message to encode.
+     * @param encoder The encoder to use.
+     * @return The frame data.
+     * @throws IOException If error when encoding, or message too large.
+     */
+    static byte[] encode(NetworkMessage message, MessageBuffer encoder) throws IOException
+    {
+        encoder.reset();
+        message.encodeTo(encoder);
+        final int size = encoder.size();
+        final byte[] frame = new byte[USER_HEADER + size];
+        if (frame.length > MAX_FRAME)
+        {
+            throw new IOException(ERROR_SIZE + frame.length);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.put(NetworkMessageSystemId.USER_MESSAGE);
+        buffer.put(message.getClientId());
+        buffer.put(message.getClientDestId());
+        buffer.put(message.getType());
+        buffer.putInt(size);
+        buffer.put(encoder.getData(), 0, size);
+        return frame;
+    }
+
+    /** Remote address. */
+    private final SocketAddress address;
+    /** Reliable frames not acknowledged, ordered by id. */
+    private final Queue<Reliable> reliables;
+    /** Unreliable frames to send. */
+    private final Collection<byte[]> unreliables;
+    /** Reliable frames received out of order, by id. */
+    private final Map<Integer, byte[]> received;
+    /** Time reference. */
+    private final Timing clock;
+    /** Packet being written. */
+    private ByteBuffer packet;
+    /** Frame being written. */
+    private ByteBuffer frame;
+    /** Frame being written is reliable. */
+    private boolean reliable;
+    /** Next packet sequence. */
+    private int sequence;
+    /** Next reliable frame id. */
+    private int nextReliable;
+    /** Last received packet sequence. */
+    private int remoteSequence;
+    /** Next reliable frame id expected. */
+    private int expected;
+    /** Acknowledge to send. */
+    private boolean acknowledge;
+    /** Last received packet time. */
+    private long lastReceived;
+    /** Connection id. */
+    private byte id;
+    /** Connection name. */
+    private String name;
+    /** Connection state. */
+    private StateConnection state;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param address The remote address.
+     * @param id The connection id.
+     */
+    DatagramConnection(SocketAddress address, byte id)
+    {
+        this.address = address;
+        this.id = id;
+        reliables = new ArrayDeque<Reliable>();
+        unreliables = new ArrayList<byte[]>();
+        received = new HashMap<Integer, byte[]>();
+        clock = new Timing();
+        clock.start();
+        packet = ByteBuffer.allocate(PACKET_SIZE);
+        packet.position(HEADER);
+        frame = ByteBuffer.allocate(CAPACITY);
+        remoteSequence = -1;
+        state = StateConnection.CONNECTING;
+    }
+
+    /**
+     * Start a new frame.
+     * 
+     * @param messageSystemId The message system id.
+     * @param reliable <code>true</code> to send on the reliable channel, <code>false</code> on the unreliable one.
+     */
+    public void begin(byte messageSystemId, boolean reliable)
+    {
+        frame.clear();
+        this.reliable = reliable;
+        put(messageSystemId);
+    }
+
+    /**
+     * Queue a frame, which can be shared between connections.
+     * 
+     * @param data The frame data (up to {@link #MAX_FRAME} bytes).
+     * @param reliable <code>true</code> to send on the reliable channel, <code>false</code> on the unreliable one.
+     */
+    public void queue(byte[] data, boolean reliable)
+    {
+        if (reliable)
+        {
+            reliables.add(new Reliable(nextReliable, data));
+            nextReliable++;
+        }
+        else
+        {
+            unreliables.add(data);
+        }
+    }
+
+    /**
+     * Send the unreliable frames, the reliable frames not sent or not acknowledged in time, and the acknowledge.
+     * 
+     * @param link The link used to send.
+     * @return The number of bytes sent.
+     * @throws IOException If error when sending.
+     */
+    public int flush(DatagramLink link) throws IOException
+    {
+        final long time = clock.elapsed();
+        int sent = 0;
+        for (final Reliable pending : reliables)
+        {
+            if (pending.sent < 0L || time - pending.sent >= RESEND_MILLI)
+            {
+                sent += append(link, RELIABLE, pending.id, pending.data);
+                pending.sent = time;
+            }
+        }
+        for (final byte[] data : unreliables)
+        {
+            sent += append(link, UNRELIABLE, -1, data);
+        }
+        unreliables.clear();
+        if (packet.position() > HEADER || acknowledge)
+        {
+            sent += send(link);
+        }
+        return sent;
+    }
+
+    /**
+     * Read a received packet.
+     * 
+     * @param data The packet data.
+     * @param frames The frames to deliver, in order. Unreliable frames are views of the packet data.
+     * @throws BufferUnderflowException If invalid packet.
+     */
+    public void receive(ByteBuffer data, Collection<ByteBuffer> frames)
+    {
+        lastReceived = clock.elapsed();
+        final int remote = data.getInt();
+        final int acknowledged = data.getInt();
+        while (!reliables.isEmpty() && isMoreRecent(acknowledged, reliables.peek().id))
+        {
+            reliables.poll();
+        }
+        final boolean recent = isMoreRecent(remote, remoteSequence);
+        if (recent)
+        {
+            remoteSequence = remote;
+        }
+        while (data.hasRemaining())
+        {
+            final byte channel = data.get();
+            if (channel == RELIABLE)
+            {
+                final int frameId = data.getInt();
+                final byte[] payload = new byte[data.getShort() & LENGTH_MASK];
+                data.get(payload);
+                receiveReliable(frameId, payload, frames);
+            }
+            else
+            {
+                final int length = data.getShort() & LENGTH_MASK;
+                if (length > data.remaining())
+                {
+                    throw new BufferUnderflowException();
+                }
+                final ByteBuffer payload = data.slice();
+                payload.limit(length);
+                data.position(data.position() + length);
+                if (recent)
+                {
+                    frames.add(payload);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of reliable frames not acknowledged.
+     * 
+     * @return The reliable frames not acknowledged.
+     */
+    public int getPending()
+    {
+        return reliables.size();
+    }
+
+    /**
+     * Check if no packet has been received since the delay.
+     * 
+     * @param delay The delay in milliseconds.
+     * @return <code>true</code> if timed out, <code>false</code> else.
+     */
+    public boolean isTimeout(long delay)
+    {
+        return clock.elapsed() - lastReceived > delay;
+    }
+
+    /**
+     * Get the remote address.
+     * 
+     * @return The remote address.
+     */
+    public SocketAddress getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * Set the connection id.
+     * 
+     * @param id The connection id.
+     */
+    public void setId(byte id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * Ensure the current frame can store the required data.
+     * 
+     * @param required The required space.
+     */
+    private void ensure(int required)
+    {
+        if (frame.remaining() < required)
+        {
+            final ByteBuffer grown = ByteBuffer.allocate(Math.max(frame.capacity() * 2, frame.position() + required));
+            frame.flip();
+            grown.put(frame);
+            frame = grown;
+        }
+    }
+
+    /**
+     * Append a frame to the packet, sending the packet first if the frame does not fit.
+     * 
+     * @param link The link used to send.
+     * @param channel The frame channel.
+     * @param frameId The reliable frame id.
+     * @param data The frame data.
+     * @return The number of bytes sent.
+     * @throws IOException If error when sending.
+     */
+    private int append(DatagramLink link, byte channel, int frameId, byte[] data) throws IOException
+    {
+        int sent = 0;
+        final int size = FRAME_HEADER + ID_SIZE + data.length;
+        if (packet.position() > HEADER && packet.position() + size > PACKET_SIZE)
+        {
+            sent = send(link);
+        }
+        if (packet.remaining() < size)
+        {
+            final ByteBuffer grown = ByteBuffer.allocate(packet.position() + size);
+            packet.flip();
+            grown.put(packet);
+            packet = grown;
+        }
+        packet.put(channel);
+        if (channel == RELIABLE)
+        {
+            packet.putInt(frameId);
+        }
+        packet.putShort((short) data.length);
+        packet.put(data);
+        return sent;
+    }
+
+    /**
+     * Send the packet with its header.
+     * 
+     * @param link The link used to send.
+     * @return The number of bytes sent.
+     * @throws IOException If error when sending.
+     */
+    private int send(DatagramLink link) throws IOException
+    {
+        packet.putInt(0, sequence);
+        packet.putInt(ID_SIZE, expected);
+        packet.flip();
+        final int size = packet.remaining();
+        try
+        {
+            link.send(packet, address);
+        }
+        finally
+        {
+            packet.clear();
+            packet.position(HEADER);
+        }
+        sequence++;
+        acknowledge = false;
+        return size;
+    }
+
+    /**
+     * Receive a reliable frame, delivering it with the following ones if expected, keeping it if received too early.
+     * 
+     * @param frameId The frame id.
+     * @param payload The frame payload.
+     * @param frames The frames to deliver, in order.
+     */
+    private void receiveReliable(int frameId, byte[] payload, Collection<ByteBuffer> frames)
+    {
+        acknowledge = true;
+        if (frameId == expected)
+        {
+            byte[] next = payload;
+            while (next != null)
+            {
+                frames.add(ByteBuffer.wrap(next));
+                expected++;
+                next = received.remove(Integer.valueOf(expected));
+            }
+        }
+        else if (isMoreRecent(frameId, expected) && received.size() < MAX_RECEIVED)
+        {
+            received.put(Integer.valueOf(frameId), payload);
+        }
+    }
+
+    /*
+     * ProtocolConnection
+     */
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * System messages are sent on the reliable channel, except the ping which only measures the round trip.
+     * </p>
+     */
+    @Override
+    public void begin(byte messageSystemId)
+    {
+        begin(messageSystemId, messageSystemId != NetworkMessageSystemId.PING);
+    }
+
+    @Override
+    public void put(byte value)
+    {
+        ensure(1);
+        frame.put(value);
+    }
+
+    @Override
+    public void putString(String value)
+    {
+        final byte[] data = value.getBytes(NetworkMessage.CHARSET);
+        ensure(data.length + 1);
+        frame.put((byte) data.length);
+        frame.put(data);
+    }
+
+    @Override
+    public void end()
+    {
+        frame.flip();
+        final byte[] data = new byte[frame.remaining()];
+        frame.get(data);
+        queue(data, reliable);
+    }
+
+    @Override
+    public void close()
+    {
+        state = StateConnection.DISCONNECTED;
+    }
+
+    @Override
+    public void setState(StateConnection state)
+    {
+        this.state = state;
+    }
+
+    @Override
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public byte getId()
+    {
+        return id;
+    }
+
+    @Override
+    public StateConnection getState()
+    {
+        return state;
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Reliable frame waiting for its acknowledge.
+     */
+    private static final class Reliable
+    {
+        /** Frame id. */
+        private final int id;
+        /** Frame data. */
+        private final byte[] data;
+        /** Last send time (-1 if not sent). */
+        private long sent;
+
+        /**
+         * Create a reliable frame.
+         * 
+         * @param id The frame id.
+         * @param data The frame data.
+         */
+        Reliable(int id, byte[] data)
+        {
+            this.id = id;
+            this.data = data;
+            sent = -1L;
+        }
+    }
+
+}
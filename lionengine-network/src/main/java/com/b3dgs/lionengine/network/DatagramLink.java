@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Non blocking datagram socket, with an optional simulated loss of the sent packets, allowing to check the transport
+ * behavior on loopback.
+ */
+final class DatagramLink
+{
+    /** Loss random generator. */
+    private final Random random;
+    /** Datagram channel (<code>null</code> if closed). */
+    private DatagramChannel channel;
+    /** Simulated loss rate. */
+    private double loss;
+
+    /**
+     * Internal constructor.
+     */
+    DatagramLink()
+    {
+        random = new Random();
+        loss = 0.0;
+    }
+
+    /**
+     * Open the socket.
+     * 
+     * @param port The local port (0 for any).
+     * @throws IOException If unable to open.
+     */
+    public void open(int port) throws IOException
+    {
+        channel = DatagramChannel.open();
+        try
+        {
+            channel.configureBlocking(false);
+            channel.socket().bind(new InetSocketAddress(port));
+        }
+        catch (final IOException exception)
+        {
+            close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Set the simulated loss of the sent packets.
+     * 
+     * @param loss The loss rate, between 0 (none, default) and 1 (all packets lost).
+     * @param seed The loss random seed.
+     * @throws LionEngineException If invalid rate.
+     */
+    public void setLoss(double loss, long seed)
+    {
+        Check.superiorOrEqual(loss, 0.0);
+        Check.inferiorOrEqual(loss, 1.0);
+
+        this.loss = loss;
+        random.setSeed(seed);
+    }
+
+    /**
+     * Send a packet, unless lost by simulation.
+     * 
+     * @param packet The packet data.
+     * @param address The destination address.
+     * @throws IOException If error when sending.
+     */
+    public void send(ByteBuffer packet, SocketAddress address) throws IOException
+    {
+        if (loss > 0.0 && random.nextDouble() < loss)
+        {
+            packet.position(packet.limit());
+        }
+        else
+        {
+            channel.send(packet, address);
+        }
+    }
+
+    /**
+     * Receive a packet if available.
+     * 
+     * @param packet The packet buffer (cleared).
+     * @return The source address, <code>null</code> if no packet available.
+     * @throws IOException If error when receiving.
+     */
+    public SocketAddress receive(ByteBuffer packet) throws IOException
+    {
+        packet.clear();
+        final SocketAddress address = channel.receive(packet);
+        packet.flip();
+        return address;
+    }
+
+    /**
+     * Get the local port.
+     * 
+     * @return The local port.
+     */
+    public int getPort()
+    {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Close the socket.
+     */
+    public void close()
+    {
+        UtilStream.safeClose(channel);
+        channel = null;
+    }
+}
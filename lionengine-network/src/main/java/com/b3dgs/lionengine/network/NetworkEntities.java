@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+
+/**
+ * Networkable entities indexed by their entity id.
+ */
+final class NetworkEntities
+{
+    /** Initial capacity. */
+    private static final int CAPACITY = 64;
+
+    /**
+     * Get the entity id targeted by the message.
+     * 
+     * @param message The message.
+     * @return The entity id, <code>-1</code> if not an entity message.
+     */
+    static short getEntityId(NetworkMessage message)
+    {
+        if (message instanceof NetworkMessageEntity)
+        {
+            return ((NetworkMessageEntity<?>) message).getEntityId();
+        }
+        return -1;
+    }
+
+    /** Entities by id. */
+    private NetworkableEntity[] entities;
+
+    /**
+     * Internal constructor.
+     */
+    NetworkEntities()
+    {
+        entities = new NetworkableEntity[CAPACITY];
+    }
+
+    /**
+     * Add an entity, replacing the previous one with the same id.
+     * 
+     * @param entity The entity to add.
+     * @throws LionEngineException If invalid entity id.
+     */
+    public void add(NetworkableEntity entity)
+    {
+        final short id = entity.getEntityId();
+        Check.superiorOrEqual(id, 0);
+
+        if (id >= entities.length)
+        {
+            entities = Arrays.copyOf(entities, Math.max(entities.length * 2, id + 1));
+        }
+        entities[id] = entity;
+    }
+
+    /**
+     * Remove an entity.
+     * 
+     * @param entity The entity to remove.
+     */
+    public void remove(NetworkableEntity entity)
+    {
+        final short id = entity.getEntityId();
+        if (get(id) == entity)
+        {
+            entities[id] = null;
+        }
+    }
+
+    /**
+     * Get the entity from its id.
+     * 
+     * @param id The entity id.
+     * @return The entity, <code>null</code> if none.
+     */
+    public NetworkableEntity get(short id)
+    {
+        if (id < 0 || id >= entities.length)
+        {
+            return null;
+        }
+        return entities[id];
+    }
+
+    /**
+     * Get the entities id limit.
+     * 
+     * @return The entities id limit (exclusive).
+     */
+    public int getCapacity()
+    {
+        return entities.length;
+    }
+
+    /**
+     * Get the entity targeted by the message.
+     * 
+     * @param message The message.
+     * @return The entity, <code>null</code> if none.
+     */
+    public NetworkableEntity get(NetworkMessage message)
+    {
+        return get(getEntityId(message));
+    }
+}
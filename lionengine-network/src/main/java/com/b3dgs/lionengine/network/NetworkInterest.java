@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+
+/**
+ * Area of interest filter: entity messages are only sent to the clients located in range of the entity.
+ * <p>
+ * Other messages, messages of unknown entities, messages sent to clients without location, and messages of entities
+ * owned by the client are always sent. A range of 0 disables the filter. As the messages of an entity out of range
+ * are not sent, its state is sent again to the client when it enters its range.
+ * </p>
+ */
+final class NetworkInterest implements MessageFilter
+{
+    /** Maximum number of clients (positive byte ids). */
+    private static final int MAX_CLIENTS = Byte.MAX_VALUE + 1;
+
+    /** Networkable entities. */
+    private final NetworkEntities entities;
+    /** Clients location by id. */
+    private final Localizable[] locations;
+    /** Entities in the area of interest of each client since the last update, by entity id. */
+    private final BitSet[] visibles;
+    /** Squared range. */
+    private double rangeSquared;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param entities The networkable entities.
+     */
+    NetworkInterest(NetworkEntities entities)
+    {
+        this.entities = entities;
+        locations = new Localizable[MAX_CLIENTS];
+        visibles = new BitSet[MAX_CLIENTS];
+        rangeSquared = 0.0;
+    }
+
+    /**
+     * Set the interest range.
+     * 
+     * @param range The range (0 to disable).
+     * @throws LionEngineException If negative range.
+     */
+    public void setRange(double range)
+    {
+        Check.superiorOrEqual(range, 0.0);
+
+        rangeSquared = range * range;
+        Arrays.fill(visibles, null);
+    }
+
+    /**
+     * Set the client location.
+     * 
+     * @param clientId The client id.
+     * @param location The client location, <code>null</code> to receive all messages.
+     * @throws LionEngineException If invalid client id.
+     */
+    public void setLocation(byte clientId, Localizable location)
+    {
+        Check.superiorOrEqual(clientId, 0);
+
+        locations[clientId] = location;
+        visibles[clientId] = null;
+    }
+
+    /**
+     * Send the state of the entities which entered the area of interest of each client since the last update.
+     * 
+     * @param server The server sending the states.
+     */
+    public void update(Server server)
+    {
+        if (rangeSquared > 0.0)
+        {
+            for (int clientId = 0; clientId < MAX_CLIENTS; clientId++)
+            {
+                if (locations[clientId] != null)
+                {
+                    update(server, (byte) clientId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the state of the entities which entered the area of interest of the client since the last update.
+     * 
+     * @param server The server sending the states.
+     * @param clientId The client id.
+     */
+    private void update(Server server, byte clientId)
+    {
+        if (visibles[clientId] == null)
+        {
+            visibles[clientId] = new BitSet(entities.getCapacity());
+        }
+        final BitSet visible = visibles[clientId];
+        final int capacity = entities.getCapacity();
+        for (int id = 0; id < capacity; id++)
+        {
+            final NetworkableEntity entity = entities.get((short) id);
+            final boolean inside = entity != null && isVisible(entity, clientId, locations[clientId]);
+            if (inside && !visible.get(id))
+            {
+                final NetworkMessage state = entity.getStateMessage(clientId);
+                if (state != null)
+                {
+                    server.addMessage(state);
+                }
+            }
+            visible.set(id, inside);
+        }
+    }
+
+    /**
+     * Check if the entity is owned by the client or in range of its location.
+     * 
+     * @param entity The entity.
+     * @param clientId The client id.
+     * @param location The client location.
+     * @return <code>true</code> if visible by the client, <code>false</code> else.
+     */
+    private boolean isVisible(NetworkableEntity entity, byte clientId, Localizable location)
+    {
+        return entity.getClientId().byteValue() == clientId || inRange(entity, location);
+    }
+
+    /**
+     * Check if the entity is in range of the location.
+     * 
+     * @param entity The entity.
+     * @param location The client location.
+     * @return <code>true</code> if in range, <code>false</code> else.
+     */
+    private boolean inRange(NetworkableEntity entity, Localizable location)
+    {
+        final double dx = entity.getX() - location.getX();
+        final double dy = entity.getY() - location.getY();
+        return Double.compare(dx * dx + dy * dy, rangeSquared) <= 0;
+    }
+
+    /*
+     * MessageFilter
+     */
+
+    @Override
+    public boolean accept(NetworkMessage message, byte clientId)
+    {
+        if (rangeSquared <= 0.0 || clientId < 0 || locations[clientId] == null)
+        {
+            return true;
+        }
+        final NetworkableEntity entity = entities.get(message);
+        return entity == null || isVisible(entity, clientId, locations[clientId]);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Snapshot message, containing the entities state delta from a baseline, or its acknowledge.
+ * 
+ * @see SnapshotFrame
+ */
+final class NetworkMessageSnapshot extends NetworkMessage
+{
+    /** Snapshot sequence. */
+    private int sequence;
+    /** Baseline sequence (-1 if full state). */
+    private int baseline;
+    /** Bit packed delta. */
+    private byte[] data;
+
+    /**
+     * Internal constructor (used in decoding case).
+     */
+    NetworkMessageSnapshot()
+    {
+        super();
+    }
+
+    /**
+     * Internal constructor (used for the server case).
+     * 
+     * @param clientDestId The client destination.
+     * @param sequence The snapshot sequence.
+     * @param baseline The baseline sequence (-1 if full state).
+     * @param data The bit packed delta.
+     */
+    NetworkMessageSnapshot(byte clientDestId, int sequence, int baseline, byte[] data)
+    {
+        super(NetworkMessageSystemId.SNAPSHOT, (byte) -1, clientDestId);
+        this.sequence = sequence;
+        this.baseline = baseline;
+        this.data = data;
+    }
+
+    /**
+     * Internal constructor (used for the client acknowledge case).
+     * 
+     * @param clientId The client id.
+     * @param sequence The received snapshot sequence.
+     */
+    NetworkMessageSnapshot(byte clientId, int sequence)
+    {
+        super(NetworkMessageSystemId.SNAPSHOT_ACK, clientId);
+        this.sequence = sequence;
+        baseline = -1;
+        data = new byte[0];
+    }
+
+    /**
+     * Check if message is an acknowledge.
+     * 
+     * @return <code>true</code> if acknowledge, <code>false</code> if snapshot.
+     */
+    public boolean isAcknowledge()
+    {
+        return getType() == NetworkMessageSystemId.SNAPSHOT_ACK;
+    }
+
+    /**
+     * Get the snapshot sequence.
+     * 
+     * @return The snapshot sequence.
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Get the baseline sequence.
+     * 
+     * @return The baseline sequence (-1 if full state).
+     */
+    public int getBaseline()
+    {
+        return baseline;
+    }
+
+    /**
+     * Get the bit packed delta.
+     * 
+     * @return The delta data.
+     */
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /*
+     * NetworkMessage
+     */
+
+    @Override
+    public boolean isReliable()
+    {
+        return false;
+    }
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer) throws IOException
+    {
+        buffer.write(UtilConversion.intToByteArray(sequence));
+        if (baseline < 0)
+        {
+            buffer.write(0);
+        }
+        else
+        {
+            buffer.write(sequence - baseline);
+        }
+        buffer.write(data);
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer) throws IOException
+    {
+        sequence = buffer.readInt();
+        final int distance = buffer.readUnsignedByte();
+        if (distance == 0)
+        {
+            baseline = -1;
+        }
+        else
+        {
+            baseline = sequence - distance;
+        }
+        data = new byte[buffer.available()];
+        buffer.readFully(data);
+    }
+}
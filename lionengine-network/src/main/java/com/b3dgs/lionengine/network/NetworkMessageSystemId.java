@@ -40,6 +40,10 @@ final class NetworkMessageSystemId
     public static final byte OTHER_CLIENT_RENAMED = -70;
     /** User message. */
     public static final byte USER_MESSAGE = -60;
+    /** Snapshot user message type, reserved. */
+    public static final byte SNAPSHOT = -50;
+    /** Snapshot acknowledge user message type, reserved. */
+    public static final byte SNAPSHOT_ACK = -40;
 
     /**
      * Private constructor.
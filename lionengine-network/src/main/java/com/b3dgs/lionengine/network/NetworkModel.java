@@ -32,6 +32,33 @@ import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
  */
 abstract class NetworkModel<L extends ClientListener> implements Networker<L>
 {
+    /**
+     * Check if the message has to be sent to the client.
+     * 
+     * @param message The message.
+     * @param clientId The client id.
+     * @param filter The message filter (<code>null</code> if none).
+     * @return <code>true</code> if client is a destination, <code>false</code> else.
+     */
+    protected static boolean isDestination(NetworkMessage message, byte clientId, MessageFilter filter)
+    {
+        return isAddressed(message, clientId) && (filter == null || filter.accept(message, clientId));
+    }
+
+    /**
+     * Check if the message is addressed to the client. Snapshot acknowledges are only for the server, and never
+     * forwarded.
+     * 
+     * @param message The message.
+     * @param clientId The client id.
+     * @return <code>true</code> if addressed to the client, <code>false</code> else.
+     */
+    private static boolean isAddressed(NetworkMessage message, byte clientId)
+    {
+        final byte dest = message.getClientDestId();
+        return (dest == clientId || dest == -1) && message.getType() != NetworkMessageSystemId.SNAPSHOT_ACK;
+    }
+
     /** Messages list. */
     protected final Collection<NetworkMessage> messagesOut;
     /** Messages list. */
@@ -65,7 +92,15 @@ abstract class NetworkModel<L extends ClientListener> implements Networker<L>
      */
     protected void decodeMessage(byte type, byte from, byte dest, DataInputStream buffer) throws IOException
     {
-        final NetworkMessage message = decoder.getNetworkMessageFromType(type);
+        final NetworkMessage message;
+        if (type == NetworkMessageSystemId.SNAPSHOT || type == NetworkMessageSystemId.SNAPSHOT_ACK)
+        {
+            message = new NetworkMessageSnapshot();
+        }
+        else
+        {
+            message = decoder.getNetworkMessageFromType(type);
+        }
         if (message != null)
         {
             final int skip = 3;
@@ -60,6 +60,16 @@ public interface NetworkedWorld extends ClientListener
      */
     void addMessages(Collection<NetworkMessage> messages);
 
+    /**
+     * Set the snapshot schema, enabling the replication of the
+     * {@link com.b3dgs.lionengine.network.purview.NetworkableSnapshot} state. The server sends on each
+     * {@link #sendMessages()} the state changed since the last snapshot received by each client. The schema must be
+     * the same on server and clients.
+     * 
+     * @param schema The snapshot schema (<code>null</code> to disable, default).
+     */
+    void setSnapshotSchema(SnapshotSchema schema);
+
     /**
      * Send all messages to the network.
      */
@@ -23,6 +23,7 @@ import java.util.HashSet;
 
 import com.b3dgs.lionengine.network.message.NetworkMessage;
 import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
 
 /**
  * Networked world base implementation.
@@ -30,12 +31,16 @@ import com.b3dgs.lionengine.network.purview.Networkable;
  * @param <L> Listener type.
  * @param <N> Network implementation.
  */
-abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkModel<L>> implements NetworkedWorld
+abstract class NetworkedWorldModel<L extends ClientListener, N extends Networker<L>> implements NetworkedWorld
 {
     /** List of networkable objects. */
     protected final Collection<Networkable> networkables;
     /** List of networkable objects. */
     protected final Collection<Networkable> toAdd;
+    /** Networkable entities by id, receiving only their messages. */
+    protected final NetworkEntities entities;
+    /** Networkable objects which are not entities, receiving all messages. */
+    private final Collection<Networkable> globals;
     /** The client connection listener. */
     protected final Collection<L> listeners;
     /** The network. */
@@ -53,6 +58,8 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         this.network = network;
         networkables = new HashSet<Networkable>(1);
         toAdd = new ArrayList<Networkable>(1);
+        entities = new NetworkEntities();
+        globals = new ArrayList<Networkable>(1);
         listeners = new ArrayList<L>(1);
         willAdd = false;
     }
@@ -77,6 +84,30 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         listeners.remove(listener);
     }
 
+    /**
+     * Register the networkable in the messages dispatch.
+     * 
+     * @param networkable The networkable to register.
+     */
+    private void register(Networkable networkable)
+    {
+        if (networkable instanceof NetworkableEntity)
+        {
+            entities.add((NetworkableEntity) networkable);
+        }
+        else
+        {
+            globals.add(networkable);
+        }
+    }
+
+    /**
+     * Receive a snapshot or its acknowledge.
+     * 
+     * @param message The snapshot message.
+     */
+    abstract void receiveSnapshot(NetworkMessageSnapshot message);
+
     /*
      * NetworkedWorld
      */
@@ -103,6 +134,14 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
     public void removeNetworkable(Networkable networkable)
     {
         networkables.remove(networkable);
+        if (networkable instanceof NetworkableEntity)
+        {
+            entities.remove((NetworkableEntity) networkable);
+        }
+        else
+        {
+            globals.remove(networkable);
+        }
     }
 
     @Override
@@ -135,7 +174,10 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         {
             for (final Networkable networkable : toAdd)
             {
-                networkables.add(networkable);
+                if (networkables.add(networkable))
+                {
+                    register(networkable);
+                }
             }
             toAdd.clear();
             willAdd = false;
@@ -143,7 +185,17 @@ abstract class NetworkedWorldModel<L extends ClientListener, N extends NetworkMo
         network.receiveMessages();
         for (final NetworkMessage message : network.getMessages())
         {
-            for (final Networkable networkable : networkables)
+            if (message instanceof NetworkMessageSnapshot)
+            {
+                receiveSnapshot((NetworkMessageSnapshot) message);
+                continue;
+            }
+            final Networkable entity = entities.get(message);
+            if (entity != null)
+            {
+                entity.applyMessage(message);
+            }
+            for (final Networkable networkable : globals)
             {
                 networkable.applyMessage(message);
             }
@@ -17,22 +17,83 @@
  */
 package com.b3dgs.lionengine.network;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
 
 /**
  * Networkable world implementation client side.
  */
-public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionListener, ClientImpl>
+public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionListener, Client>
                                        implements NetworkedWorldClient
 {
     /**
-     * Constructor.
+     * Create the client for the transport.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @return The client instance.
+     * @throws LionEngineException If invalid transport.
+     */
+    private static Client createClient(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        Check.notNull(transport);
+
+        final Client client;
+        switch (transport)
+        {
+            case STREAM:
+                client = new ClientImpl(decoder);
+                break;
+            case CHANNEL:
+                client = new ClientChannel(decoder);
+                break;
+            case DATAGRAM:
+                client = new ClientDatagram(decoder);
+                break;
+            default:
+                throw new LionEngineException(transport);
+        }
+        return client;
+    }
+
+    /** Snapshots replication. */
+    private final SnapshotReceiver snapshots;
+
+    /**
+     * Constructor using the {@link NetworkTransport#STREAM} transport.
      * 
      * @param decoder The decoder reference.
      */
     public NetworkedWorldModelClient(NetworkMessageDecoder decoder)
     {
-        super(new ClientImpl(decoder));
+        this(decoder, NetworkTransport.STREAM);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @throws LionEngineException If invalid transport.
+     */
+    public NetworkedWorldModelClient(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        super(createClient(decoder, transport));
+        snapshots = new SnapshotReceiver(entities);
+    }
+
+    /*
+     * NetworkedWorldModel
+     */
+
+    @Override
+    void receiveSnapshot(NetworkMessageSnapshot message)
+    {
+        if (!message.isAcknowledge())
+        {
+            snapshots.receive(message, network);
+        }
     }
 
     /*
@@ -50,6 +111,12 @@ public class NetworkedWorldModelClient extends NetworkedWorldModel<ConnectionLis
         network.addListener(this);
     }
 
+    @Override
+    public void setSnapshotSchema(SnapshotSchema schema)
+    {
+        snapshots.setSchema(schema);
+    }
+
     @Override
     public void disconnect()
     {
@@ -17,22 +17,88 @@
  */
 package com.b3dgs.lionengine.network;
 
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Localizable;
 import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
 
 /**
  * Networkable world implementation server side.
  */
-public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListener, ServerImpl>
+public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListener, Server>
                                        implements NetworkedWorldServer
 {
     /**
-     * Constructor.
+     * Create the server for the transport.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @return The server instance.
+     * @throws LionEngineException If invalid transport.
+     */
+    private static Server createServer(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        Check.notNull(transport);
+
+        final Server server;
+        switch (transport)
+        {
+            case STREAM:
+                server = new ServerImpl(decoder);
+                break;
+            case CHANNEL:
+                server = new ServerChannel(decoder);
+                break;
+            case DATAGRAM:
+                server = new ServerDatagram(decoder);
+                break;
+            default:
+                throw new LionEngineException(transport);
+        }
+        return server;
+    }
+
+    /** Area of interest filter. */
+    private final NetworkInterest interest;
+    /** Snapshots replication. */
+    private final SnapshotSender snapshots;
+
+    /**
+     * Constructor using the {@link NetworkTransport#STREAM} transport.
      * 
      * @param decoder The decoder reference.
      */
     public NetworkedWorldModelServer(NetworkMessageDecoder decoder)
     {
-        super(new ServerImpl(decoder));
+        this(decoder, NetworkTransport.STREAM);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param decoder The decoder reference.
+     * @param transport The network transport.
+     * @throws LionEngineException If invalid transport.
+     */
+    public NetworkedWorldModelServer(NetworkMessageDecoder decoder, NetworkTransport transport)
+    {
+        super(createServer(decoder, transport));
+        interest = new NetworkInterest(entities);
+        network.setFilter(interest);
+        snapshots = new SnapshotSender(entities);
+    }
+
+    /*
+     * NetworkedWorldModel
+     */
+
+    @Override
+    void receiveSnapshot(NetworkMessageSnapshot message)
+    {
+        if (message.isAcknowledge())
+        {
+            snapshots.acknowledge(message.getClientId(), message.getSequence());
+        }
     }
 
     /*
@@ -51,10 +117,57 @@ public class NetworkedWorldModelServer extends NetworkedWorldModel<ClientListene
         network.start(name, port);
     }
 
+    @Override
+    public void setFlushWindow(long delay)
+    {
+        network.setFlushWindow(delay);
+    }
+
+    @Override
+    public void setInterestRange(double range)
+    {
+        interest.setRange(range);
+    }
+
+    @Override
+    public void setClientLocation(Byte clientId, Localizable location)
+    {
+        Check.notNull(clientId);
+
+        interest.setLocation(clientId.byteValue(), location);
+    }
+
+    @Override
+    public void setSnapshotSchema(SnapshotSchema schema)
+    {
+        snapshots.setSchema(schema);
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        interest.update(network);
+        snapshots.send(network);
+        super.sendMessages();
+    }
+
     @Override
     public void disconnect()
     {
         super.disconnect();
         network.removeListener(this);
     }
+
+    @Override
+    public void notifyClientConnected(Byte id, String name)
+    {
+        snapshots.addClient(id.byteValue());
+    }
+
+    @Override
+    public void notifyClientDisconnected(Byte id, String name)
+    {
+        interest.setLocation(id.byteValue(), null);
+        snapshots.removeClient(id.byteValue());
+    }
 }
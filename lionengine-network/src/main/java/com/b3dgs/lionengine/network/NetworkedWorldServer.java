@@ -18,6 +18,7 @@
 package com.b3dgs.lionengine.network;
 
 import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Localizable;
 
 /**
  * Networkable world interface server side.
@@ -33,4 +34,34 @@ public interface NetworkedWorldServer extends NetworkedWorld
      * @throws LionEngineException If unable to start server.
      */
     void startServer(String name, int port, String messageOfTheDay);
+
+    /**
+     * Set the server flush window. Messages sent during this delay are coalesced and written together.
+     * 
+     * @param delay The delay in milliseconds (0 to write on each send, default).
+     * @throws LionEngineException If delay is negative.
+     */
+    void setFlushWindow(long delay);
+
+    /**
+     * Set the area of interest range. Messages of a
+     * {@link com.b3dgs.lionengine.network.purview.NetworkableEntity} are then only sent to the clients located in
+     * range of the entity, or owning it. Clients without location receive all messages. The
+     * {@link com.b3dgs.lionengine.network.purview.NetworkableEntity#getStateMessage(byte)} is sent to a client when the
+     * entity enters its range.
+     * 
+     * @param range The interest range (0 to send all messages, default).
+     * @throws LionEngineException If negative range.
+     * @see #setClientLocation(Byte, Localizable)
+     */
+    void setInterestRange(double range);
+
+    /**
+     * Set the client location, used as center of its area of interest.
+     * 
+     * @param clientId The client id.
+     * @param location The client location, <code>null</code> to receive all messages.
+     * @throws LionEngineException If invalid client id.
+     */
+    void setClientLocation(Byte clientId, Localizable location);
 }
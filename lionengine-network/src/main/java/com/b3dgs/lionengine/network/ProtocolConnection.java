@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+/**
+ * Connection with a client, as written by the {@link ServerProtocol}. Each transport provides its own connection,
+ * queuing or sending the system messages.
+ */
+interface ProtocolConnection
+{
+    /**
+     * Start a new system message.
+     * 
+     * @param messageSystemId The message system id.
+     * @throws IOException If error when writing.
+     */
+    void begin(byte messageSystemId) throws IOException;
+
+    /**
+     * Write a byte to the current message.
+     * 
+     * @param value The value to write.
+     * @throws IOException If error when writing.
+     */
+    void put(byte value) throws IOException;
+
+    /**
+     * Write a string to the current message (length on one byte followed by the characters).
+     * 
+     * @param value The string to write.
+     * @throws IOException If error when writing.
+     */
+    void putString(String value) throws IOException;
+
+    /**
+     * Terminate the current message.
+     * 
+     * @throws IOException If error when writing.
+     */
+    void end() throws IOException;
+
+    /**
+     * Close the connection.
+     */
+    void close();
+
+    /**
+     * Set the connection state.
+     * 
+     * @param state The connection state.
+     */
+    void setState(StateConnection state);
+
+    /**
+     * Set the connection name.
+     * 
+     * @param name The connection name.
+     */
+    void setName(String name);
+
+    /**
+     * Get the connection id.
+     * 
+     * @return The connection id.
+     */
+    byte getId();
+
+    /**
+     * Get the connection state.
+     * 
+     * @return The connection state.
+     */
+    StateConnection getState();
+
+    /**
+     * Get the connection name.
+     * 
+     * @return The connection name.
+     */
+    String getName();
+}
@@ -31,6 +31,22 @@ interface Server extends Networker<ClientListener>
      */
     void setMessageOfTheDay(String message);
 
+    /**
+     * Set the flush window. Messages sent during this delay are coalesced and written together, instead of being
+     * written on each {@link #sendMessages()}.
+     * 
+     * @param delay The delay in milliseconds (0 to write on each send, default).
+     * @throws LionEngineException If delay is negative.
+     */
+    void setFlushWindow(long delay);
+
+    /**
+     * Set the filter applied to the messages sent to each client.
+     * 
+     * @param filter The message filter, <code>null</code> to send all messages.
+     */
+    void setFilter(MessageFilter filter);
+
     /**
      * Start the server and listen to client connection.
      * 
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Server implementation over non blocking channels.
+ * <p>
+ * All clients are handled by a single {@link Selector} from the update thread: connections are accepted and data
+ * received on {@link #receiveMessages()}, and queued frames are written once per client on {@link #sendMessages()}.
+ * User messages are encoded once in {@link ChannelFrames}, and written with the client own frames in a single
+ * gathering write. Writes can be delayed by a flush window, coalescing the messages of several updates. A client
+ * which stops reading is dropped when its queued data exceed {@link ChannelConnection#MAX_PENDING}.
+ * Uses the {@link ServerProtocol}, framed by {@link ChannelConnection}.
+ * </p>
+ */
+final class ServerChannel extends NetworkModel<ClientListener> implements Server
+{
+    /** Pending frames size forcing a flush, even inside the flush window. */
+    private static final int FLUSH_SIZE = 65536;
+    /** Bandwidth computation delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+    /** Server error. */
+    private static final String ERROR_SERVER = "Cannot create the server !";
+    /** Client not reading error. */
+    private static final String ERROR_PENDING = "Client not reading, dropped: ";
+
+    /** Clients by id. */
+    private final ChannelConnection[] clients;
+    /** Clients protocol. */
+    private final ServerProtocol<ChannelConnection> protocol;
+    /** Shared user message frames. */
+    private final ChannelFrames frames;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Flush window timer. */
+    private final Timing flushTimer;
+    /** Channels selector. */
+    private Selector selector;
+    /** Server channel. */
+    private ServerSocketChannel server;
+    /** Current port. */
+    private int port;
+    /** Started flag. */
+    private boolean started;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+    /** Flush window delay. */
+    private long flushWindow;
+    /** Message filter (<code>null</code> if none). */
+    private MessageFilter filter;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ServerChannel(NetworkMessageDecoder decoder)
+    {
+        super(decoder);
+        clients = new ChannelConnection[ServerProtocol.MAX_CLIENTS];
+        protocol = new ServerProtocol<ChannelConnection>(this, clients);
+        frames = new ChannelFrames();
+        bandwidthTimer = new Timing();
+        flushTimer = new Timing();
+        port = -1;
+        started = false;
+    }
+
+    /**
+     * Accept the pending connections.
+     * 
+     * @throws IOException If error on accept.
+     */
+    private void accept() throws IOException
+    {
+        SocketChannel channel = server.accept();
+        while (channel != null)
+        {
+            final int id = protocol.findFreeId();
+            if (id < 0)
+            {
+                Verbose.warning(Server.class, "accept", "Too many clients, connection refused");
+                channel.close();
+            }
+            else
+            {
+                add(channel, (byte) id);
+            }
+            channel = server.accept();
+        }
+    }
+
+    /**
+     * Add a new client and send its id.
+     * 
+     * @param channel The client channel.
+     * @param id The client id.
+     */
+    private void add(SocketChannel channel, byte id)
+    {
+        try
+        {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            final ChannelConnection client = new ChannelConnection(channel, id);
+            channel.register(selector, SelectionKey.OP_READ, client);
+            protocol.add(client);
+        }
+        catch (final IOException exception)
+        {
+            Verbose.warning(Server.class, "add", "Error on adding client: ", exception.getMessage());
+            UtilStream.safeClose(channel);
+        }
+    }
+
+    /**
+     * Update the client channel on selection.
+     * 
+     * @param key The selected key.
+     */
+    private void update(SelectionKey key)
+    {
+        final ChannelConnection client = (ChannelConnection) key.attachment();
+        try
+        {
+            if (key.isWritable() && client.flush())
+            {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+            if (key.isReadable())
+            {
+                receive(client);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on updating client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
+        }
+        catch (final BufferUnderflowException exception)
+        {
+            Verbose.exception(exception, "Invalid frame from client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
+        }
+    }
+
+    /**
+     * Receive the client data and handle the complete frames.
+     * 
+     * @param client The client to receive from.
+     * @throws IOException If error when reading.
+     */
+    private void receive(ChannelConnection client) throws IOException
+    {
+        if (client.read() < 0)
+        {
+            protocol.drop(client);
+        }
+        else
+        {
+            ByteBuffer frame = client.poll();
+            while (frame != null && client.getState() != StateConnection.DISCONNECTED)
+            {
+                bandwidth += protocol.receive(client, frame);
+                frame = client.poll();
+            }
+            client.compact();
+        }
+    }
+
+    /**
+     * Write the queued frames of each client with the shared frames, waiting for the channel to be writable if not
+     * fully sent.
+     */
+    private void flush()
+    {
+        for (final ChannelConnection client : clients)
+        {
+            if (client == null)
+            {
+                continue;
+            }
+            final int count = frames.gather(client.getId(), filter);
+            bandwidth += frames.getGathered();
+            if (count == 1 && !client.hasPending())
+            {
+                continue;
+            }
+            try
+            {
+                if (client.flush(frames.getBuffers(), count))
+                {
+                    continue;
+                }
+                if (client.getPending() > ChannelConnection.MAX_PENDING)
+                {
+                    Verbose.warning(Server.class, "flush", ERROR_PENDING, String.valueOf(client.getId()));
+                    protocol.drop(client);
+                }
+                else
+                {
+                    client.getChannel()
+                          .keyFor(selector)
+                          .interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception,
+                                  "Unable to send the messages for client: ",
+                                  String.valueOf(client.getId()));
+                protocol.drop(client);
+            }
+        }
+        frames.clear();
+        flushTimer.restart();
+    }
+
+    /**
+     * Close the selector.
+     */
+    private void close()
+    {
+        if (selector != null)
+        {
+            try
+            {
+                selector.close();
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Error on closing server");
+            }
+        }
+    }
+
+    /*
+     * Server
+     */
+
+    @Override
+    public void setMessageOfTheDay(String message)
+    {
+        protocol.setMessageOfTheDay(message);
+    }
+
+    @Override
+    public void start(String name, int port)
+    {
+        if (!started)
+        {
+            try
+            {
+                selector = Selector.open();
+                server = ServerSocketChannel.open();
+                server.configureBlocking(false);
+                server.socket().bind(new InetSocketAddress(port), ServerProtocol.MAX_CLIENTS);
+                server.register(selector, SelectionKey.OP_ACCEPT);
+                this.port = server.socket().getLocalPort();
+                bandwidthTimer.start();
+                flushTimer.start();
+                started = true;
+            }
+            catch (final IOException exception)
+            {
+                UtilStream.safeClose(server);
+                close();
+                throw new LionEngineException(exception, ERROR_SERVER);
+            }
+        }
+    }
+
+    @Override
+    public void setFlushWindow(long delay)
+    {
+        Check.superiorOrEqual(delay, 0);
+
+        flushWindow = delay;
+    }
+
+    @Override
+    public void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
+    @Override
+    public void removeClient(Byte clientId)
+    {
+        final ChannelConnection client = clients[clientId.byteValue()];
+        if (client != null)
+        {
+            protocol.remove(client);
+        }
+    }
+
+    @Override
+    public int getNumberOfClients()
+    {
+        return protocol.getNumberOfClients();
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public int getPort()
+    {
+        return port;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (!started)
+        {
+            return;
+        }
+        receiveMessages();
+        flush();
+        protocol.kickAll();
+        protocol.removeAll();
+        UtilStream.safeClose(server);
+        close();
+        started = false;
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        messagesIn.clear();
+        if (!started)
+        {
+            return;
+        }
+        try
+        {
+            selector.selectNow();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on updating server");
+        }
+        final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext())
+        {
+            final SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid())
+            {
+                continue;
+            }
+            if (key.isAcceptable())
+            {
+                try
+                {
+                    accept();
+                }
+                catch (final IOException exception)
+                {
+                    Verbose.exception(exception, "Error on accepting client");
+                }
+            }
+            else
+            {
+                update(key);
+            }
+        }
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        messagesOut.addAll(messagesIn);
+        for (final NetworkMessage message : messagesOut)
+        {
+            try
+            {
+                frames.add(message);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode the message: ", String.valueOf(message.getType()));
+            }
+        }
+        if (started && (flushTimer.elapsed(flushWindow) || frames.getSize() >= FLUSH_SIZE))
+        {
+            flush();
+        }
+        else if (!started)
+        {
+            frames.clear();
+        }
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+        messagesOut.clear();
+    }
+}
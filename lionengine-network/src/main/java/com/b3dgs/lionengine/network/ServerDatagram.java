@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.Timing;
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Server implementation over datagrams, to be used with {@link ClientDatagram}.
+ * <p>
+ * All clients share a single non blocking socket, and are identified by their address. System messages and
+ * {@link NetworkMessage#isReliable()} messages are sent on the reliable ordered channel of {@link DatagramConnection},
+ * other messages on its unreliable sequenced channel, so a lost packet never delays the most recent states. Clients
+ * which did not send anything during {@link #TIMEOUT_MILLI}, or which do not acknowledge more than
+ * {@link DatagramConnection#MAX_PENDING} reliable frames, are dropped. Uses the {@link ServerProtocol}.
+ * </p>
+ */
+final class ServerDatagram extends NetworkModel<ClientListener> implements Server
+{
+    /** Delay without packet before dropping a client. */
+    static final long TIMEOUT_MILLI = 5000L;
+    /** Bandwidth computation delay. */
+    private static final long BANDWIDTH_MILLI = 1000L;
+    /** Server log prefix. */
+    private static final String SERVER = "Server: ";
+    /** Server error. */
+    private static final String ERROR_SERVER = "Cannot create the server !";
+    /** Client not reading error. */
+    private static final String ERROR_PENDING = "Client not reading, dropped: ";
+
+    /** Clients by id. */
+    private final DatagramConnection[] clients;
+    /** Clients protocol. */
+    private final ServerProtocol<DatagramConnection> protocol;
+    /** Clients by address. */
+    private final Map<SocketAddress, DatagramConnection> addresses;
+    /** Server socket. */
+    private final DatagramLink link;
+    /** Received packet. */
+    private final ByteBuffer packet;
+    /** Received frames. */
+    private final Collection<ByteBuffer> frames;
+    /** Message encoder. */
+    private final MessageBuffer encoder;
+    /** Average bandwidth. */
+    private final Timing bandwidthTimer;
+    /** Flush window timer. */
+    private final Timing flushTimer;
+    /** Current port. */
+    private int port;
+    /** Started flag. */
+    private boolean started;
+    /** Bandwidth size. */
+    private int bandwidth;
+    /** Bandwidth per second. */
+    private int bandwidthPerSecond;
+    /** Flush window delay. */
+    private long flushWindow;
+    /** Message filter (<code>null</code> if none). */
+    private MessageFilter filter;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param decoder The message decoder.
+     */
+    ServerDatagram(NetworkMessageDecoder decoder)
+    {
+        super(decoder);
+        clients = new DatagramConnection[ServerProtocol.MAX_CLIENTS];
+        protocol = new ServerProtocol<DatagramConnection>(this, clients);
+        addresses = new HashMap<SocketAddress, DatagramConnection>();
+        link = new DatagramLink();
+        packet = ByteBuffer.allocate(DatagramConnection.MAX_PACKET);
+        frames = new ArrayList<ByteBuffer>();
+        encoder = new MessageBuffer();
+        bandwidthTimer = new Timing();
+        flushTimer = new Timing();
+        port = -1;
+        started = false;
+    }
+
+    /**
+     * Set the simulated loss of the sent packets.
+     * 
+     * @param loss The loss rate, between 0 (none, default) and 1 (all packets lost).
+     * @param seed The loss random seed.
+     * @throws LionEngineException If invalid rate.
+     */
+    void setLoss(double loss, long seed)
+    {
+        link.setLoss(loss, seed);
+    }
+
+    /**
+     * Add a new client and send its id.
+     * 
+     * @param address The client address.
+     * @return The client added, <code>null</code> if too many clients.
+     */
+    private DatagramConnection add(SocketAddress address)
+    {
+        final int id = protocol.findFreeId();
+        if (id < 0)
+        {
+            Verbose.warning(Server.class, "add", "Too many clients, connection refused");
+            return null;
+        }
+        final DatagramConnection client = new DatagramConnection(address, (byte) id);
+        protocol.add(client);
+        addresses.put(address, client);
+        return client;
+    }
+
+    /**
+     * Forget the addresses of the removed clients.
+     */
+    private void prune()
+    {
+        final Iterator<DatagramConnection> iterator = addresses.values().iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().getState() == StateConnection.DISCONNECTED)
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Receive a packet and handle its frames.
+     * 
+     * @param address The packet source.
+     */
+    private void receive(SocketAddress address)
+    {
+        DatagramConnection client = addresses.get(address);
+        if (client == null || client.getState() == StateConnection.DISCONNECTED)
+        {
+            client = add(address);
+        }
+        if (client == null)
+        {
+            return;
+        }
+        frames.clear();
+        try
+        {
+            client.receive(packet, frames);
+            for (final ByteBuffer frame : frames)
+            {
+                if (client.getState() == StateConnection.DISCONNECTED)
+                {
+                    break;
+                }
+                bandwidth += protocol.receive(client, frame);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on updating client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
+        }
+        catch (final BufferUnderflowException exception)
+        {
+            Verbose.exception(exception, "Invalid packet from client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
+        }
+    }
+
+    /**
+     * Queue the message to each of its destination.
+     * 
+     * @param message The message to queue.
+     * @throws IOException If error when encoding.
+     */
+    private void queue(NetworkMessage message) throws IOException
+    {
+        final byte[] frame = DatagramConnection.encode(message, encoder);
+        final boolean reliable = message.isReliable();
+        for (final DatagramConnection client : clients)
+        {
+            if (client != null && isDestination(message, client.getId(), filter))
+            {
+                client.queue(frame, reliable);
+            }
+        }
+    }
+
+    /**
+     * Send the queued frames of each client.
+     */
+    private void flush()
+    {
+        for (final DatagramConnection client : clients)
+        {
+            if (client == null)
+            {
+                continue;
+            }
+            try
+            {
+                bandwidth += client.flush(link);
+                if (client.getPending() > DatagramConnection.MAX_PENDING)
+                {
+                    Verbose.warning(Server.class, "flush", ERROR_PENDING, String.valueOf(client.getId()));
+                    protocol.drop(client);
+                }
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception,
+                                  "Unable to send the messages for client: ",
+                                  String.valueOf(client.getId()));
+                protocol.drop(client);
+            }
+        }
+        flushTimer.restart();
+    }
+
+    /*
+     * Server
+     */
+
+    @Override
+    public void setMessageOfTheDay(String message)
+    {
+        protocol.setMessageOfTheDay(message);
+    }
+
+    @Override
+    public void start(String name, int port)
+    {
+        if (!started)
+        {
+            try
+            {
+                link.open(port);
+                this.port = link.getPort();
+                bandwidthTimer.start();
+                flushTimer.start();
+                started = true;
+            }
+            catch (final IOException exception)
+            {
+                throw new LionEngineException(exception, ERROR_SERVER);
+            }
+        }
+    }
+
+    @Override
+    public void setFlushWindow(long delay)
+    {
+        Check.superiorOrEqual(delay, 0);
+
+        flushWindow = delay;
+    }
+
+    @Override
+    public void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
+    @Override
+    public void removeClient(Byte clientId)
+    {
+        final DatagramConnection client = clients[clientId.byteValue()];
+        if (client != null)
+        {
+            protocol.remove(client);
+        }
+    }
+
+    @Override
+    public int getNumberOfClients()
+    {
+        return protocol.getNumberOfClients();
+    }
+
+    @Override
+    public int getBandwidth()
+    {
+        return bandwidthPerSecond;
+    }
+
+    @Override
+    public int getPort()
+    {
+        return port;
+    }
+
+    /*
+     * Networker
+     */
+
+    @Override
+    public void disconnect()
+    {
+        if (!started)
+        {
+            return;
+        }
+        receiveMessages();
+        protocol.kickAll();
+        flush();
+        protocol.removeAll();
+        addresses.clear();
+        link.close();
+        started = false;
+    }
+
+    @Override
+    public void receiveMessages()
+    {
+        messagesIn.clear();
+        if (!started)
+        {
+            return;
+        }
+        try
+        {
+            SocketAddress address = link.receive(packet);
+            while (address != null)
+            {
+                receive(address);
+                address = link.receive(packet);
+            }
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Error on updating server");
+        }
+        for (final DatagramConnection client : clients)
+        {
+            if (client != null && client.isTimeout(TIMEOUT_MILLI))
+            {
+                Verbose.info(SERVER, client.getName(), " timed out");
+                protocol.drop(client);
+            }
+        }
+        if (addresses.size() > protocol.getNumberOfClients())
+        {
+            prune();
+        }
+    }
+
+    @Override
+    public void sendMessages()
+    {
+        messagesOut.addAll(messagesIn);
+        for (final NetworkMessage message : messagesOut)
+        {
+            try
+            {
+                queue(message);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode the message: ", String.valueOf(message.getType()));
+            }
+        }
+        if (started && flushTimer.elapsed(flushWindow))
+        {
+            flush();
+        }
+        if (bandwidthTimer.elapsed(BANDWIDTH_MILLI))
+        {
+            bandwidthPerSecond = bandwidth;
+            bandwidth = 0;
+            bandwidthTimer.restart();
+        }
+        messagesOut.clear();
+    }
+}
@@ -17,18 +17,15 @@
  */
 package com.b3dgs.lionengine.network;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import com.b3dgs.lionengine.Check;
 import com.b3dgs.lionengine.LionEngineException;
 import com.b3dgs.lionengine.Timing;
 import com.b3dgs.lionengine.Verbose;
@@ -38,66 +35,44 @@ import com.b3dgs.lionengine.util.UtilStream;
 
 /**
  * Server implementation.
+ * <p>
+ * Clients are accepted by the {@link ClientConnecter} thread, and added to the {@link ServerProtocol} on
+ * {@link #receiveMessages()}.
+ * </p>
  */
 final class ServerImpl extends NetworkModel<ClientListener> implements Server
 {
-    /**
-     * Send the id and the name to the client.
-     * 
-     * @param client The client to send to.
-     * @param id The id to send.
-     * @param name The name to send.
-     * @throws IOException In case of error.
-     */
-    private static void writeIdAndName(ClientSocket client, int id, String name) throws IOException
-    {
-        // New client id
-        client.getOut().writeByte(id);
-        // New client name
-        final byte[] data = name.getBytes(NetworkMessage.CHARSET);
-        client.getOut().writeByte(data.length);
-        client.getOut().write(data);
-    }
-
-    /**
-     * Check if the client is in a valid state.
-     * 
-     * @param client The client to test.
-     * @param from The client id.
-     * @param expected The expected client state.
-     * @return <code>true</code> if valid, <code>false</code> else.
-     */
-    private static boolean checkValidity(ClientSocket client, byte from, StateConnection expected)
-    {
-        return from >= 0 && client.getState() == expected;
-    }
-
-    /** Client list. */
-    private final Map<Byte, ClientSocket> clients;
-    /** Remove list. */
-    private final Collection<ClientSocket> toRemove;
+    /** Send error. */
+    private static final String ERROR_SEND = "Unable to send the messages for client: ";
+
+    /** Clients by id. */
+    private final ClientSocket[] clients;
+    /** Clients protocol. */
+    private final ServerProtocol<ClientSocket> protocol;
+    /** Accepted clients, waiting to be added. */
+    private final Queue<ClientSocket> accepted;
     /** Average bandwidth. */
     private final Timing bandwidthTimer;
+    /** Flush window timer. */
+    private final Timing flushTimer;
+    /** Message encoding buffer. */
+    private final MessageBuffer encoder;
     /** Connection listener. */
     private ClientConnecter clientConnectionListener;
     /** Server socket. */
     private ServerSocket serverSocket;
     /** Current port. */
     private int port;
-    /** Message of the day. */
-    private String messageOfTheDay;
-    /** Number of clients. */
-    private int clientsNumber;
     /** Started flag. */
     private boolean started;
-    /** Last id. */
-    private byte lastId;
-    /** Will remove a client. */
-    private boolean willRemove;
     /** Bandwidth size. */
     private int bandwidth;
     /** Bandwidth per second. */
     private int bandwidthPerSecond;
+    /** Flush window delay. */
+    private long flushWindow;
+    /** Message filter (<code>null</code> if none). */
+    private MessageFilter filter;
 
     /**
      * Internal constructor.
@@ -107,20 +82,19 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     ServerImpl(NetworkMessageDecoder decoder)
     {
         super(decoder);
-        clients = new HashMap<Byte, ClientSocket>(1);
-        toRemove = new HashSet<ClientSocket>(1);
+        clients = new ClientSocket[ServerProtocol.MAX_CLIENTS];
+        protocol = new ServerProtocol<ClientSocket>(this, clients);
+        accepted = new ConcurrentLinkedQueue<ClientSocket>();
         bandwidthTimer = new Timing();
-        willRemove = false;
-        clientsNumber = 0;
-        messageOfTheDay = null;
+        flushTimer = new Timing();
+        encoder = new MessageBuffer();
         port = -1;
         started = false;
         bandwidth = 0;
-        lastId = 0;
     }
 
     /**
-     * Add a client.
+     * Accept a client, called from the connection thread.
      * 
      * @param socket The socket to add.
      */
@@ -128,291 +102,114 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     {
         try
         {
-            int secure = 0;
-            while (clients.containsKey(Byte.valueOf(lastId)))
-            {
-                lastId++;
-                secure++;
-                final int max = 127;
-                if (secure > max)
-                {
-                    break;
-                }
-            }
-            // Prepare first data
-            final ClientSocket client = new ClientSocket(lastId, socket);
-            client.setState(StateConnection.CONNECTING);
-            client.getOut().writeByte(NetworkMessageSystemId.CONNECTING);
-            client.getOut().writeByte(client.getId());
-            client.getOut().flush();
-
-            // Update list
-            clients.put(Byte.valueOf(client.getId()), client);
-            clientsNumber++;
-        }
-        catch (final IOException exception)
-        {
-            errorNewClientConnected(exception);
+            accepted.add(new ClientSocket(socket));
         }
         catch (final LionEngineException exception)
         {
-            errorNewClientConnected(exception);
+            Verbose.warning(Server.class, "addClient", "Error on adding client: ", exception.getMessage());
+            UtilStream.safeClose(socket);
         }
     }
 
     /**
-     * Remove a client from the server.
-     * 
-     * @param client The client to remove.
+     * Add the accepted clients and send their id.
      */
-    void removeClient(ClientSocket client)
+    private void accept()
     {
-        if (client != null)
+        ClientSocket client = accepted.poll();
+        while (client != null)
         {
-            toRemove.add(client);
-            client.terminate();
-            clientsNumber--;
-            willRemove = true;
-            Verbose.info("Server: ", client.getName(), " disconnected");
-        }
-    }
-
-    /**
-     * Error on new client connection.
-     * 
-     * @param exception The associated exception.
-     */
-    private void errorNewClientConnected(Exception exception)
-    {
-        Verbose.warning(Server.class, "addClient", "Error on adding client: ", exception.getMessage());
-        if (clients.remove(Byte.valueOf(lastId)) != null)
-        {
-            clientsNumber--;
-        }
-    }
-
-    /**
-     * Update the receive connecting state.
-     * 
-     * @param client The current client.
-     * @param buffer The data buffer.
-     * @param from The id from.
-     * @param expected The expected client state.
-     * @throws IOException If error.
-     */
-    private void receiveConnecting(ClientSocket client, DataInputStream buffer, byte from, StateConnection expected)
-            throws IOException
-    {
-        if (ServerImpl.checkValidity(client, from, expected))
-        {
-            // Receive the name
-            final byte[] name = new byte[buffer.readByte()];
-            if (buffer.read(name) == -1)
-            {
-                throw new IOException("Unable to read client name !");
-            }
-            client.setName(new String(name, NetworkMessage.CHARSET));
-
-            // Send new state
-            client.setState(StateConnection.CONNECTED);
-            client.getOut().writeByte(NetworkMessageSystemId.CONNECTED);
-            client.getOut().writeByte(client.getId());
-            client.getOut().writeByte(clientsNumber - 1);
-
-            // Send the list of other clients
-            for (final ClientSocket other : clients.values())
+            final int id = protocol.findFreeId();
+            if (id < 0)
             {
-                if (other.getId() != from)
-                {
-                    ServerImpl.writeIdAndName(client, other.getId(), other.getName());
-                }
+                Verbose.warning(Server.class, "accept", "Too many clients, connection refused");
+                client.terminate();
             }
-            // Send message of the day if has
-            if (messageOfTheDay != null)
+            else
             {
-                final byte[] motd = messageOfTheDay.getBytes(NetworkMessage.CHARSET);
-                client.getOut().writeByte(motd.length);
-                client.getOut().write(motd);
+                client.setId((byte) id);
+                protocol.add(client);
             }
-            // Send
-            client.getOut().flush();
+            client = accepted.poll();
         }
     }
 
     /**
-     * Update the receive connected state.
+     * Receive the client messages.
      * 
-     * @param client The current client.
-     * @param from The id from.
-     * @param expected The expected client state.
-     * @throws IOException If error.
+     * @param client The client to receive from.
+     * @param buffer The received data.
      */
-    private void receiveConnected(ClientSocket client, byte from, StateConnection expected) throws IOException
+    private void receive(ClientSocket client, ByteBuffer buffer)
     {
-        if (ServerImpl.checkValidity(client, from, expected))
+        try
         {
-            // Terminate last connection step and accept it
-            Verbose.info("Server: ", client.getName(), " connected");
-            for (final ClientListener listener : listeners)
+            while (buffer.hasRemaining() && client.getState() != StateConnection.DISCONNECTED)
             {
-                listener.notifyClientConnected(Byte.valueOf(client.getId()), client.getName());
-            }
-
-            // Notify other clients
-            for (final ClientSocket other : clients.values())
-            {
-                if (other.getId() == from)
-                {
-                    continue;
-                }
-                other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_CONNECTED);
-                ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                // Send
-                other.getOut().flush();
+                bandwidth += protocol.receive(client, buffer);
             }
         }
-    }
-
-    /**
-     * Update the receive disconnected state.
-     * 
-     * @param client The current client.
-     * @param from The id from.
-     * @param expected The expected client state.
-     * @throws IOException If error.
-     */
-    private void receiveDisconnected(ClientSocket client, byte from, StateConnection expected) throws IOException
-    {
-        if (ServerImpl.checkValidity(client, from, expected))
+        catch (final IOException exception)
         {
-            // Notify other clients
-            client.setState(StateConnection.DISCONNECTED);
-            for (final ClientListener listener : listeners)
-            {
-                listener.notifyClientDisconnected(Byte.valueOf(client.getId()), client.getName());
-            }
-            for (final ClientSocket other : clients.values())
-            {
-                if (other.getId() == from || other.getState() != StateConnection.CONNECTED)
-                {
-                    continue;
-                }
-                other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
-                ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                // Send
-                other.getOut().flush();
-            }
-            removeClient(Byte.valueOf(from));
+            Verbose.exception(exception, "Error on updating client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
         }
-    }
-
-    /**
-     * Update the receive renamed state.
-     * 
-     * @param client The current client.
-     * @param buffer The data buffer.
-     * @param from The id from.
-     * @param expected The expected client state.
-     * @throws IOException If error.
-     */
-    private void receiveRenamed(ClientSocket client, DataInputStream buffer, byte from, StateConnection expected)
-            throws IOException
-    {
-        if (ServerImpl.checkValidity(client, from, expected))
+        catch (final BufferUnderflowException exception)
         {
-            // Receive the name
-            final byte[] name = new byte[buffer.readByte()];
-            if (buffer.read(name) == -1)
-            {
-                throw new IOException("Unable to read client name on rename !");
-            }
-            final String newName = new String(name, NetworkMessage.CHARSET);
-            Verbose.info("Server: ", client.getName(), " rennamed to ", newName);
-            client.setName(newName);
-
-            for (final ClientListener listener : listeners)
-            {
-                listener.notifyClientNameChanged(Byte.valueOf(client.getId()), client.getName());
-            }
-
-            // Notify all clients
-            for (final ClientSocket other : clients.values())
-            {
-                other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_RENAMED);
-                ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                other.getOut().flush();
-            }
+            Verbose.exception(exception, "Invalid message from client: ", String.valueOf(client.getId()));
+            protocol.drop(client);
         }
     }
 
     /**
-     * Update the receive standard message state.
+     * Write the encoded message to the client, without flushing.
      * 
-     * @param client The client to test.
-     * @param buffer The data buffer.
-     * @param from The id from.
-     * @param expected The expected client state.
-     * @throws IOException If error.
+     * @param client The destination client.
+     * @param message The message.
      */
-    private void receiveMessage(ClientSocket client, DataInputStream buffer, byte from, StateConnection expected)
-            throws IOException
+    private void writeMessage(ClientSocket client, NetworkMessage message)
     {
-        if (ServerImpl.checkValidity(client, from, expected))
+        try
         {
-            final byte dest = buffer.readByte();
-            final byte type = buffer.readByte();
-            final int size = buffer.readInt();
-            if (size > 0)
-            {
-                final byte[] clientData = new byte[size];
-                if (buffer.read(clientData) != -1)
-                {
-                    final DataInputStream clientBuffer = new DataInputStream(new ByteArrayInputStream(clientData));
-                    decodeMessage(type, from, dest, clientBuffer);
-                }
-            }
+            // Message header
+            client.getOut().writeByte(NetworkMessageSystemId.USER_MESSAGE);
+            client.getOut().writeByte(message.getClientId());
+            client.getOut().writeByte(message.getClientDestId());
+            client.getOut().writeByte(message.getType());
+            // Message content
+            client.getOut().writeInt(encoder.size());
+            client.getOut().write(encoder.getData(), 0, encoder.size());
+
             final int headerSize = 4;
-            bandwidth += headerSize + size;
+            bandwidth += headerSize + encoder.size();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, ERROR_SEND, String.valueOf(client.getId()));
         }
     }
 
     /**
-     * Update the message depending of its ID.
-     * 
-     * @param client The client socket.
-     * @param buffer The buffer input.
-     * @param messageSystemId The message system ID.
-     * @param from The source ID.
-     * @throws IOException If error when reading.
+     * Send the written messages of each client.
      */
-    private void updateMessage(ClientSocket client, DataInputStream buffer, byte messageSystemId, byte from)
-            throws IOException
+    private void flush()
     {
-        switch (messageSystemId)
+        for (final ClientSocket client : clients)
         {
-            case NetworkMessageSystemId.CONNECTING:
-                receiveConnecting(client, buffer, from, StateConnection.CONNECTING);
-                break;
-            case NetworkMessageSystemId.CONNECTED:
-                receiveConnected(client, from, StateConnection.CONNECTED);
-                break;
-            case NetworkMessageSystemId.PING:
-                client.getOut().writeByte(NetworkMessageSystemId.PING);
+            if (client == null)
+            {
+                continue;
+            }
+            try
+            {
                 client.getOut().flush();
-                bandwidth += 1;
-                break;
-            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
-                receiveDisconnected(client, from, StateConnection.CONNECTED);
-                break;
-            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
-                receiveRenamed(client, buffer, from, StateConnection.CONNECTED);
-                break;
-            case NetworkMessageSystemId.USER_MESSAGE:
-                receiveMessage(client, buffer, from, StateConnection.CONNECTED);
-                break;
-            default:
-                break;
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, ERROR_SEND, String.valueOf(client.getId()));
+            }
         }
+        flushTimer.restart();
     }
 
     /*
@@ -422,7 +219,7 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     @Override
     public void setMessageOfTheDay(String message)
     {
-        messageOfTheDay = message;
+        protocol.setMessageOfTheDay(message);
     }
 
     @Override
@@ -435,8 +232,9 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
                 serverSocket = new ServerSocket(port);
                 clientConnectionListener = new ClientConnecter(serverSocket, this);
                 clientConnectionListener.start();
-                this.port = port;
+                this.port = serverSocket.getLocalPort();
                 bandwidthTimer.start();
+                flushTimer.start();
                 started = true;
             }
             catch (final IOException exception)
@@ -446,16 +244,34 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         }
     }
 
+    @Override
+    public void setFlushWindow(long delay)
+    {
+        Check.superiorOrEqual(delay, 0);
+
+        flushWindow = delay;
+    }
+
+    @Override
+    public void setFilter(MessageFilter filter)
+    {
+        this.filter = filter;
+    }
+
     @Override
     public void removeClient(Byte clientId)
     {
-        removeClient(clients.get(clientId));
+        final ClientSocket client = clients[clientId.byteValue()];
+        if (client != null)
+        {
+            protocol.remove(client);
+        }
     }
 
     @Override
     public int getNumberOfClients()
     {
-        return clientsNumber;
+        return protocol.getNumberOfClients();
     }
 
     @Override
@@ -485,35 +301,14 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
         clientConnectionListener.terminate();
 
         // Disconnect all clients
-        final Collection<ClientSocket> delete = new ArrayList<ClientSocket>(clients.size());
-        for (final ClientSocket client : clients.values())
-        {
-            for (final ClientSocket other : clients.values())
-            {
-                if (other.getId() == client.getId())
-                {
-                    continue;
-                }
-                try
-                {
-                    other.getOut().writeByte(NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED);
-                    ServerImpl.writeIdAndName(other, client.getId(), client.getName());
-                    other.getOut().flush();
-                }
-                catch (final IOException exception)
-                {
-                    Verbose.exception(exception);
-                }
-            }
-            delete.add(client);
-        }
-        for (final ClientSocket client : delete)
+        protocol.kickAll();
+        protocol.removeAll();
+        ClientSocket client = accepted.poll();
+        while (client != null)
         {
-            client.sendMessage(NetworkMessageSystemId.KICKED);
-            removeClient(client);
+            client.terminate();
+            client = accepted.poll();
         }
-        delete.clear();
-        clients.clear();
         try
         {
             serverSocket.close();
@@ -529,88 +324,52 @@ final class ServerImpl extends NetworkModel<ClientListener> implements Server
     public void receiveMessages()
     {
         messagesIn.clear();
-        for (final ClientSocket client : clients.values())
+        accept();
+        for (final ClientSocket client : clients)
         {
-            // Get client data from socket
-            final byte[] data = client.receiveMessages();
-            final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
-            try
+            if (client == null)
             {
-                final byte messageSystemId = buffer.readByte();
-                final byte from = buffer.readByte();
-
-                // Check id
-                if (from != client.getId())
-                {
-                    continue;
-                }
-                // Check message header type
-                updateMessage(client, buffer, messageSystemId, from);
+                continue;
             }
-            catch (final IOException exception)
-            {
-                Verbose.exception(exception, "Error on updating server");
-            }
-            finally
-            {
-                UtilStream.safeClose(buffer);
-            }
-        }
-        // Remove deleted clients
-        if (willRemove)
-        {
-            for (final ClientSocket client : toRemove)
+            // Get client data from socket
+            final byte[] data = client.receiveMessages();
+            if (data != null)
             {
-                clients.remove(Byte.valueOf(client.getId()));
+                receive(client, ByteBuffer.wrap(data));
             }
-            toRemove.clear();
-            willRemove = false;
         }
     }
 
     @Override
     public void sendMessages()
     {
-        // Send messages
+        // Send messages, encoded once for all clients
         messagesOut.addAll(messagesIn);
         for (final NetworkMessage message : messagesOut)
         {
-            for (final ClientSocket client : clients.values())
+            encoder.reset();
+            try
             {
-                if (!(message.getClientDestId() == client.getId() || message.getClientDestId() == -1))
-                {
-                    continue;
-                }
-                ByteArrayOutputStream encode = null;
-                try
-                {
-                    encode = message.encode();
-                    final byte[] encoded = encode.toByteArray();
-                    // Message header
-                    client.getOut().writeByte(NetworkMessageSystemId.USER_MESSAGE);
-                    client.getOut().writeByte(message.getClientId());
-                    client.getOut().writeByte(message.getClientDestId());
-                    client.getOut().writeByte(message.getType());
-                    // Message content
-                    client.getOut().writeInt(encoded.length);
-                    client.getOut().write(encoded);
-                    client.getOut().flush();
-
-                    final int headerSize = 4;
-                    bandwidth += headerSize + encoded.length;
-                }
-                catch (final IOException exception)
-                {
-                    Verbose.exception(exception,
-                                      "Unable to send the messages for client: ",
-                                      String.valueOf(client.getId()));
-                }
-                finally
+                message.encodeTo(encoder);
+            }
+            catch (final IOException exception)
+            {
+                Verbose.exception(exception, "Unable to encode the message: ", String.valueOf(message.getType()));
+                continue;
+            }
+            for (final ClientSocket client : clients)
+            {
+                if (client != null && isDestination(message, client.getId(), filter))
                 {
-                    UtilStream.safeClose(encode);
+                    writeMessage(client, message);
                 }
             }
         }
+        // Flush once per client
+        if (flushTimer.elapsed(flushWindow))
+        {
+            flush();
+        }
         final long bandwidthMilli = 1000L;
         if (bandwidthTimer.elapsed(bandwidthMilli))
         {
@@ -0,0 +1,487 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Server side of the clients protocol, shared by the server transports.
+ * <p>
+ * Handles the clients connection, rename, user messages and disconnection, answering through their
+ * {@link ProtocolConnection}, so a transport only has to accept the clients, read their messages and send the queued
+ * data.
+ * </p>
+ * 
+ * @param <C> The connection type.
+ */
+final class ServerProtocol<C extends ProtocolConnection>
+{
+    /** Maximum number of clients (positive byte ids). */
+    static final int MAX_CLIENTS = Byte.MAX_VALUE + 1;
+    /** User message header size. */
+    private static final int HEADER_SIZE = 4;
+    /** Server log prefix. */
+    private static final String SERVER = "Server: ";
+
+    /**
+     * Check if the client is in a valid state.
+     * 
+     * @param client The client to test.
+     * @param from The client id.
+     * @param expected The expected client state.
+     * @return <code>true</code> if valid, <code>false</code> else.
+     */
+    private static boolean checkValidity(ProtocolConnection client, byte from, StateConnection expected)
+    {
+        return from >= 0 && client.getState() == expected;
+    }
+
+    /**
+     * Check if the other client is connected and different from the client.
+     * 
+     * @param client The current client.
+     * @param other The other client (may be <code>null</code>).
+     * @return <code>true</code> if other is a connected client, <code>false</code> else.
+     */
+    private static boolean isOther(ProtocolConnection client, ProtocolConnection other)
+    {
+        return other != null && other != client && other.getState() == StateConnection.CONNECTED;
+    }
+
+    /**
+     * Write the id and the name of a client.
+     * 
+     * @param client The client to write to.
+     * @param messageSystemId The message system id.
+     * @param other The client to describe.
+     */
+    private static void writeIdAndName(ProtocolConnection client, byte messageSystemId, ProtocolConnection other)
+    {
+        try
+        {
+            client.begin(messageSystemId);
+            client.put(other.getId());
+            client.putString(other.getName());
+            client.end();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.exception(exception, "Unable to notify the client: ", String.valueOf(client.getId()));
+        }
+    }
+
+    /** Server reference. */
+    private final NetworkModel<ClientListener> server;
+    /** Clients by id, shared with the transport. */
+    private final C[] clients;
+    /** Message of the day. */
+    private String messageOfTheDay;
+    /** Number of clients. */
+    private int clientsNumber;
+    /** Last id. */
+    private int lastId;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param server The server reference, receiving the decoded messages and notifying its listeners.
+     * @param clients The clients by id, shared with the transport (of {@link #MAX_CLIENTS} length).
+     */
+    ServerProtocol(NetworkModel<ClientListener> server, C[] clients)
+    {
+        this.server = server;
+        this.clients = clients;
+    }
+
+    /**
+     * Find a free client id.
+     * 
+     * @return The free id, <code>-1</code> if none.
+     */
+    public int findFreeId()
+    {
+        for (int i = 0; i < MAX_CLIENTS; i++)
+        {
+            final int id = (lastId + i) % MAX_CLIENTS;
+            if (clients[id] == null)
+            {
+                lastId = id;
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Add a new client and send its id, removing it if unable to send.
+     * 
+     * @param client The client to add, with a free id.
+     */
+    public void add(C client)
+    {
+        clients[client.getId()] = client;
+        clientsNumber++;
+        client.setState(StateConnection.CONNECTING);
+        try
+        {
+            client.begin(NetworkMessageSystemId.CONNECTING);
+            client.put(client.getId());
+            client.end();
+        }
+        catch (final IOException exception)
+        {
+            Verbose.warning(Server.class, "add", "Error on adding client: ", exception.getMessage());
+            remove(client);
+        }
+    }
+
+    /**
+     * Remove a client without notification.
+     * 
+     * @param client The client to remove.
+     */
+    public void remove(C client)
+    {
+        if (clients[client.getId()] == client)
+        {
+            clients[client.getId()] = null;
+            clientsNumber--;
+            Verbose.info(SERVER, client.getName(), " disconnected");
+        }
+        client.close();
+    }
+
+    /**
+     * Remove a client which has been lost, notifying the others if it was connected.
+     * 
+     * @param client The lost client.
+     */
+    public void drop(C client)
+    {
+        if (client.getState() == StateConnection.CONNECTED)
+        {
+            receiveDisconnected(client, client.getId(), StateConnection.CONNECTED);
+        }
+        else
+        {
+            remove(client);
+        }
+    }
+
+    /**
+     * Notify each client of the others disconnection and kick it, without removing it.
+     */
+    public void kickAll()
+    {
+        for (final C client : clients)
+        {
+            if (client == null)
+            {
+                continue;
+            }
+            for (final C other : clients)
+            {
+                if (other != null && other != client)
+                {
+                    writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED, client);
+                }
+            }
+        }
+        for (final C client : clients)
+        {
+            if (client != null)
+            {
+                try
+                {
+                    client.begin(NetworkMessageSystemId.KICKED);
+                    client.end();
+                }
+                catch (final IOException exception)
+                {
+                    Verbose.exception(exception, "Unable to kick the client: ", String.valueOf(client.getId()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all clients without notification.
+     */
+    public void removeAll()
+    {
+        for (final C client : clients)
+        {
+            if (client != null)
+            {
+                remove(client);
+            }
+        }
+    }
+
+    /**
+     * Receive a message from the client, ignored if not coming from it.
+     * 
+     * @param client The client connection.
+     * @param frame The message data, starting with its system id and its source id.
+     * @return The received data size counted in bandwidth.
+     * @throws IOException If error when answering or invalid message.
+     * @throws java.nio.BufferUnderflowException If truncated message.
+     */
+    public int receive(C client, ByteBuffer frame) throws IOException
+    {
+        final byte messageSystemId = frame.get();
+        final byte from = frame.get();
+        int received = 0;
+        if (from == client.getId())
+        {
+            received = updateMessage(client, frame, messageSystemId, from);
+        }
+        return received;
+    }
+
+    /**
+     * Set the message of the day, sent to the clients on connection.
+     * 
+     * @param message The message of the day (<code>null</code> if none).
+     */
+    public void setMessageOfTheDay(String message)
+    {
+        messageOfTheDay = message;
+    }
+
+    /**
+     * Get the number of clients.
+     * 
+     * @return The number of clients.
+     */
+    public int getNumberOfClients()
+    {
+        return clientsNumber;
+    }
+
+    /**
+     * Update the receive connecting state.
+     * 
+     * @param client The current client.
+     * @param frame The frame data.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @throws IOException If error when answering.
+     */
+    private void receiveConnecting(C client, ByteBuffer frame, byte from, StateConnection expected)
+            throws IOException
+    {
+        if (checkValidity(client, from, expected))
+        {
+            client.setName(ChannelConnection.readString(frame));
+            client.setState(StateConnection.CONNECTED);
+
+            int others = 0;
+            for (final C other : clients)
+            {
+                if (isOther(client, other))
+                {
+                    others++;
+                }
+            }
+            client.begin(NetworkMessageSystemId.CONNECTED);
+            client.put(client.getId());
+            client.put((byte) others);
+            for (final C other : clients)
+            {
+                if (isOther(client, other))
+                {
+                    client.put(other.getId());
+                    client.putString(other.getName());
+                }
+            }
+            if (messageOfTheDay != null)
+            {
+                client.putString(messageOfTheDay);
+            }
+            client.end();
+        }
+    }
+
+    /**
+     * Update the receive connected state.
+     * 
+     * @param client The current client.
+     * @param from The id from.
+     * @param expected The expected client state.
+     */
+    private void receiveConnected(C client, byte from, StateConnection expected)
+    {
+        if (checkValidity(client, from, expected))
+        {
+            Verbose.info(SERVER, client.getName(), " connected");
+            for (final ClientListener listener : server.listeners)
+            {
+                listener.notifyClientConnected(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final C other : clients)
+            {
+                if (isOther(client, other))
+                {
+                    writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_CONNECTED, client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the receive disconnected state.
+     * 
+     * @param client The current client.
+     * @param from The id from.
+     * @param expected The expected client state.
+     */
+    private void receiveDisconnected(C client, byte from, StateConnection expected)
+    {
+        if (checkValidity(client, from, expected))
+        {
+            client.setState(StateConnection.DISCONNECTED);
+            for (final ClientListener listener : server.listeners)
+            {
+                listener.notifyClientDisconnected(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final C other : clients)
+            {
+                if (isOther(client, other))
+                {
+                    writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED, client);
+                }
+            }
+            remove(client);
+        }
+    }
+
+    /**
+     * Update the receive renamed state.
+     * 
+     * @param client The current client.
+     * @param frame The frame data.
+     * @param from The id from.
+     * @param expected The expected client state.
+     */
+    private void receiveRenamed(C client, ByteBuffer frame, byte from, StateConnection expected)
+    {
+        if (checkValidity(client, from, expected))
+        {
+            final String newName = ChannelConnection.readString(frame);
+            Verbose.info(SERVER, client.getName(), " renamed to ", newName);
+            client.setName(newName);
+
+            for (final ClientListener listener : server.listeners)
+            {
+                listener.notifyClientNameChanged(Byte.valueOf(client.getId()), client.getName());
+            }
+            for (final C other : clients)
+            {
+                if (other != null && other.getState() == StateConnection.CONNECTED)
+                {
+                    writeIdAndName(other, NetworkMessageSystemId.OTHER_CLIENT_RENAMED, client);
+                }
+            }
+        }
+    }
+
+    /**
+     * Update the receive standard message state.
+     * 
+     * @param client The current client.
+     * @param frame The frame data.
+     * @param from The id from.
+     * @param expected The expected client state.
+     * @return The received data size.
+     * @throws IOException If error or invalid message size.
+     */
+    private int receiveMessage(C client, ByteBuffer frame, byte from, StateConnection expected) throws IOException
+    {
+        int received = 0;
+        if (checkValidity(client, from, expected))
+        {
+            final byte dest = frame.get();
+            final byte type = frame.get();
+            final int size = ChannelConnection.readSize(frame);
+            if (size > 0)
+            {
+                final byte[] data = new byte[size];
+                frame.get(data);
+                final DataInputStream buffer = new DataInputStream(new ByteArrayInputStream(data));
+                try
+                {
+                    server.decodeMessage(type, from, dest, buffer);
+                }
+                finally
+                {
+                    UtilStream.safeClose(buffer);
+                }
+            }
+            received = HEADER_SIZE + size;
+        }
+        return received;
+    }
+
+    /**
+     * Update the message depending of its ID.
+     * 
+     * @param client The client connection.
+     * @param frame The frame data.
+     * @param messageSystemId The message system ID.
+     * @param from The source ID.
+     * @return The received data size.
+     * @throws IOException If error when reading or answering.
+     */
+    private int updateMessage(C client, ByteBuffer frame, byte messageSystemId, byte from) throws IOException
+    {
+        int received = 0;
+        switch (messageSystemId)
+        {
+            case NetworkMessageSystemId.CONNECTING:
+                receiveConnecting(client, frame, from, StateConnection.CONNECTING);
+                break;
+            case NetworkMessageSystemId.CONNECTED:
+                receiveConnected(client, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.PING:
+                client.begin(NetworkMessageSystemId.PING);
+                client.end();
+                received = 1;
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_DISCONNECTED:
+                receiveDisconnected(client, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.OTHER_CLIENT_RENAMED:
+                receiveRenamed(client, frame, from, StateConnection.CONNECTED);
+                break;
+            case NetworkMessageSystemId.USER_MESSAGE:
+                received = receiveMessage(client, frame, from, StateConnection.CONNECTED);
+                break;
+            default:
+                break;
+        }
+        return received;
+    }
+}
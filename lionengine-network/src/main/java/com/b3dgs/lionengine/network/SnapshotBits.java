@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.util.UtilConversion;
+
+/**
+ * Bit packed buffer, used to write and read the snapshots. Values are written with the most significant bit first.
+ */
+final class SnapshotBits
+{
+    /** Initial capacity in bytes. */
+    private static final int CAPACITY = 1024;
+    /** Bits per byte. */
+    private static final int BYTE = Byte.SIZE;
+    /** Byte mask. */
+    private static final int MASK = 0xFF;
+    /** Error truncated. */
+    private static final String ERROR_TRUNCATED = "Truncated snapshot";
+
+    /**
+     * Encode a signed value to an unsigned one, small values giving small results.
+     * 
+     * @param value The signed value.
+     * @return The encoded value.
+     */
+    static int zigzag(int value)
+    {
+        return value << 1 ^ value >> Integer.SIZE - 1;
+    }
+
+    /**
+     * Decode a {@link #zigzag(int)} value.
+     * 
+     * @param value The encoded value.
+     * @return The signed value.
+     */
+    static int unzigzag(int value)
+    {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    /** Data. */
+    private byte[] data;
+    /** Data limit in bits. */
+    private int limit;
+    /** Current position in bits. */
+    private int position;
+
+    /**
+     * Internal constructor.
+     */
+    SnapshotBits()
+    {
+        data = new byte[CAPACITY];
+        limit = 0;
+        position = 0;
+    }
+
+    /**
+     * Clear the buffer before writing.
+     */
+    public void clear()
+    {
+        Arrays.fill(data, 0, getSize(), (byte) 0);
+        limit = data.length * BYTE;
+        position = 0;
+    }
+
+    /**
+     * Prepare to read the data.
+     * 
+     * @param data The data to read.
+     */
+    public void wrap(byte[] data)
+    {
+        this.data = data;
+        limit = data.length * BYTE;
+        position = 0;
+    }
+
+    /**
+     * Write a value.
+     * 
+     * @param value The value, only its lower bits are written.
+     * @param bits The number of bits to write (up to 32).
+     */
+    public void write(int value, int bits)
+    {
+        if (position + bits > limit)
+        {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, (position + bits) / BYTE + 1));
+            limit = data.length * BYTE;
+        }
+        int remaining = bits;
+        while (remaining > 0)
+        {
+            final int free = BYTE - (position & BYTE - 1);
+            final int count = Math.min(free, remaining);
+            final int chunk = value >>> remaining - count & (1 << count) - 1;
+            data[position / BYTE] |= chunk << free - count;
+            position += count;
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Write a flag.
+     * 
+     * @param flag The flag value.
+     */
+    public void write(boolean flag)
+    {
+        write(UtilConversion.boolToInt(flag), 1);
+    }
+
+    /**
+     * Read a value.
+     * 
+     * @param bits The number of bits to read (up to 32).
+     * @return The unsigned value.
+     * @throws IOException If not enough data.
+     */
+    public int read(int bits) throws IOException
+    {
+        if (position + bits > limit)
+        {
+            throw new IOException(ERROR_TRUNCATED);
+        }
+        int value = 0;
+        int remaining = bits;
+        while (remaining > 0)
+        {
+            final int free = BYTE - (position & BYTE - 1);
+            final int count = Math.min(free, remaining);
+            final int chunk = (data[position / BYTE] & MASK) >>> free - count & (1 << count) - 1;
+            value = value << count | chunk;
+            position += count;
+            remaining -= count;
+        }
+        return value;
+    }
+
+    /**
+     * Read a flag.
+     * 
+     * @return The flag value.
+     * @throws IOException If not enough data.
+     */
+    public boolean readFlag() throws IOException
+    {
+        return read(1) == 1;
+    }
+
+    /**
+     * Get the written data.
+     * 
+     * @return A copy of the written data.
+     */
+    public byte[] toArray()
+    {
+        return Arrays.copyOf(data, getSize());
+    }
+
+    /**
+     * Get the number of bytes used by the written bits.
+     * 
+     * @return The size in bytes.
+     */
+    public int getSize()
+    {
+        return (position + BYTE - 1) / BYTE;
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Snapshot of the networkable entities state at a sequence, written and read as a delta from a baseline snapshot.
+ * <p>
+ * Only the entities and fields changed since the baseline are written, preceded by their changed flag. Entities
+ * missing from the baseline are compared against zero. Wide fields are written as a small delta when possible, and
+ * flags have no value, as a changed flag is always inverted.
+ * </p>
+ */
+final class SnapshotFrame
+{
+    /** Number of snapshots kept to be used as baseline. */
+    static final int HISTORY = 64;
+    /** Initial capacity in entities. */
+    private static final int CAPACITY = 64;
+    /** Entities count size in bits. */
+    private static final int COUNT_BITS = 16;
+    /** Entity id size in bits. */
+    private static final int ID_BITS = 15;
+    /** Entity id gap size in bits, used for the close ids. */
+    private static final int GAP_BITS = 4;
+    /** Delta size in bits. */
+    private static final int DELTA_BITS = 6;
+
+    /**
+     * Write the entity id, as a gap from the previous one when close.
+     * 
+     * @param bits The output buffer.
+     * @param id The entity id.
+     * @param previous The previous entity id (-1 if none).
+     */
+    private static void writeId(SnapshotBits bits, int id, int previous)
+    {
+        final int gap = id - previous - 1;
+        if (gap >>> GAP_BITS == 0)
+        {
+            bits.write(true);
+            bits.write(gap, GAP_BITS);
+        }
+        else
+        {
+            bits.write(false);
+            bits.write(id, ID_BITS);
+        }
+    }
+
+    /**
+     * Read the entity id.
+     * 
+     * @param bits The input buffer.
+     * @param previous The previous entity id (-1 if none).
+     * @return The entity id.
+     * @throws IOException If invalid data.
+     */
+    private static int readId(SnapshotBits bits, int previous) throws IOException
+    {
+        if (bits.readFlag())
+        {
+            return previous + 1 + bits.read(GAP_BITS);
+        }
+        return bits.read(ID_BITS);
+    }
+
+    /**
+     * Write a wide field value, as a delta from its base when small enough.
+     * 
+     * @param bits The output buffer.
+     * @param value The field value.
+     * @param base The field base value.
+     * @param size The field size in bits.
+     */
+    private static void writeWide(SnapshotBits bits, int value, int base, int size)
+    {
+        final int delta = SnapshotBits.zigzag(value - base);
+        if (delta >>> DELTA_BITS == 0)
+        {
+            bits.write(true);
+            bits.write(delta, DELTA_BITS);
+        }
+        else
+        {
+            bits.write(false);
+            bits.write(value, size);
+        }
+    }
+
+    /** Number of fields per entity. */
+    private final int count;
+    /** Fields values of each entity. */
+    private int[] values;
+    /** Entities presence by id. */
+    private boolean[] present;
+    /** Entities id limit (exclusive). */
+    private int limit;
+    /** Snapshot sequence (-1 if none). */
+    private int sequence;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param count The number of fields per entity.
+     */
+    SnapshotFrame(int count)
+    {
+        this.count = count;
+        values = new int[CAPACITY * count];
+        present = new boolean[CAPACITY];
+        limit = 0;
+        sequence = -1;
+    }
+
+    /**
+     * Clear the snapshot.
+     * 
+     * @param sequence The new snapshot sequence.
+     */
+    public void clear(int sequence)
+    {
+        Arrays.fill(present, 0, limit, false);
+        limit = 0;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Set the entity fields.
+     * 
+     * @param id The entity id.
+     * @param fields The entity fields.
+     * @param schema The snapshot schema.
+     */
+    public void set(int id, int[] fields, SnapshotSchema schema)
+    {
+        ensureCapacity(id);
+        for (int field = 0; field < count; field++)
+        {
+            values[id * count + field] = schema.normalize(field, fields[field]);
+        }
+        present[id] = true;
+        limit = Math.max(limit, id + 1);
+    }
+
+    /**
+     * Copy the entity fields.
+     * 
+     * @param id The entity id.
+     * @param fields The fields destination.
+     */
+    public void get(int id, int[] fields)
+    {
+        System.arraycopy(values, id * count, fields, 0, count);
+    }
+
+    /**
+     * Check if the entity is contained.
+     * 
+     * @param id The entity id.
+     * @return <code>true</code> if contained, <code>false</code> else.
+     */
+    public boolean has(int id)
+    {
+        return id < limit && present[id];
+    }
+
+    /**
+     * Get the entities id limit.
+     * 
+     * @return The entities id limit (exclusive).
+     */
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Get the snapshot sequence.
+     * 
+     * @return The snapshot sequence (-1 if none).
+     */
+    public int getSequence()
+    {
+        return sequence;
+    }
+
+    /**
+     * Write the delta from the baseline.
+     * 
+     * @param baseline The baseline snapshot (<code>null</code> to write the full state).
+     * @param schema The snapshot schema.
+     * @param bits The output buffer.
+     */
+    public void write(SnapshotFrame baseline, SnapshotSchema schema, SnapshotBits bits)
+    {
+        int changed = 0;
+        for (int id = 0; id < limit; id++)
+        {
+            if (isChanged(baseline, id))
+            {
+                changed++;
+            }
+        }
+        bits.write(changed, COUNT_BITS);
+        int previous = -1;
+        for (int id = 0; id < limit; id++)
+        {
+            if (isChanged(baseline, id))
+            {
+                writeId(bits, id, previous);
+                writeFields(baseline, schema, bits, id);
+                previous = id;
+            }
+        }
+        writeRemoved(baseline, bits);
+    }
+
+    /**
+     * Read the delta from the baseline, replacing the current snapshot.
+     * 
+     * @param sequence The snapshot sequence.
+     * @param baseline The baseline snapshot (<code>null</code> if full state).
+     * @param schema The snapshot schema.
+     * @param bits The input buffer.
+     * @throws IOException If invalid data.
+     */
+    public void read(int sequence, SnapshotFrame baseline, SnapshotSchema schema, SnapshotBits bits) throws IOException
+    {
+        clear(sequence);
+        if (baseline != null && baseline.limit > 0)
+        {
+            ensureCapacity(baseline.limit - 1);
+            System.arraycopy(baseline.present, 0, present, 0, baseline.limit);
+            System.arraycopy(baseline.values, 0, values, 0, baseline.limit * count);
+            limit = baseline.limit;
+        }
+
+        final int changed = bits.read(COUNT_BITS);
+        int id = -1;
+        for (int i = 0; i < changed; i++)
+        {
+            id = readId(bits, id);
+            if (!has(id))
+            {
+                ensureCapacity(id);
+                Arrays.fill(values, id * count, (id + 1) * count, 0);
+                present[id] = true;
+                limit = Math.max(limit, id + 1);
+            }
+            readFields(schema, bits, id);
+        }
+
+        final int removed = bits.read(COUNT_BITS);
+        id = -1;
+        for (int i = 0; i < removed; i++)
+        {
+            id = readId(bits, id);
+            if (has(id))
+            {
+                present[id] = false;
+            }
+        }
+    }
+
+    /**
+     * Ensure the capacity to store the entity.
+     * 
+     * @param id The entity id.
+     */
+    private void ensureCapacity(int id)
+    {
+        if (id >= present.length)
+        {
+            final int capacity = Math.max(present.length * 2, id + 1);
+            present = Arrays.copyOf(present, capacity);
+            values = Arrays.copyOf(values, capacity * count);
+        }
+    }
+
+    /**
+     * Get the baseline field value.
+     * 
+     * @param baseline The baseline snapshot (<code>null</code> if none).
+     * @param id The entity id.
+     * @param field The field index.
+     * @return The baseline value, <code>0</code> if none.
+     */
+    private int getBase(SnapshotFrame baseline, int id, int field)
+    {
+        if (baseline != null && baseline.has(id))
+        {
+            return baseline.values[id * count + field];
+        }
+        return 0;
+    }
+
+    /**
+     * Check if the entity has to be written.
+     * 
+     * @param baseline The baseline snapshot (<code>null</code> if none).
+     * @param id The entity id.
+     * @return <code>true</code> if contained and new or changed since baseline, <code>false</code> else.
+     */
+    private boolean isChanged(SnapshotFrame baseline, int id)
+    {
+        return present[id] && (baseline == null || !baseline.has(id) || !isSame(baseline, id));
+    }
+
+    /**
+     * Check if the entity fields are the same as the baseline ones.
+     * 
+     * @param baseline The baseline snapshot, containing the entity.
+     * @param id The entity id.
+     * @return <code>true</code> if same fields, <code>false</code> else.
+     */
+    private boolean isSame(SnapshotFrame baseline, int id)
+    {
+        for (int index = id * count; index < (id + 1) * count; index++)
+        {
+            if (values[index] != baseline.values[index])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the entities removed since the baseline.
+     * 
+     * @param baseline The baseline snapshot (<code>null</code> if none).
+     * @param bits The output buffer.
+     */
+    private void writeRemoved(SnapshotFrame baseline, SnapshotBits bits)
+    {
+        if (baseline == null)
+        {
+            bits.write(0, COUNT_BITS);
+            return;
+        }
+        int removed = 0;
+        for (int id = 0; id < baseline.limit; id++)
+        {
+            if (baseline.has(id) && !has(id))
+            {
+                removed++;
+            }
+        }
+        bits.write(removed, COUNT_BITS);
+        int previous = -1;
+        for (int id = 0; id < baseline.limit; id++)
+        {
+            if (baseline.has(id) && !has(id))
+            {
+                writeId(bits, id, previous);
+                previous = id;
+            }
+        }
+    }
+
+    /**
+     * Write the entity fields.
+     * 
+     * @param baseline The baseline snapshot (<code>null</code> if none).
+     * @param schema The snapshot schema.
+     * @param bits The output buffer.
+     * @param id The entity id.
+     */
+    private void writeFields(SnapshotFrame baseline, SnapshotSchema schema, SnapshotBits bits, int id)
+    {
+        for (int field = 0; field < count; field++)
+        {
+            final int base = getBase(baseline, id, field);
+            final int value = values[id * count + field];
+            bits.write(value != base);
+            final int size = schema.getBits(field);
+            if (value != base && size > DELTA_BITS + 1)
+            {
+                writeWide(bits, value, base, size);
+            }
+            else if (value != base && size > 1)
+            {
+                bits.write(value, size);
+            }
+        }
+    }
+
+    /**
+     * Read the entity fields, the current values being the baseline.
+     * 
+     * @param schema The snapshot schema.
+     * @param bits The input buffer.
+     * @param id The entity id.
+     * @throws IOException If invalid data.
+     */
+    private void readFields(SnapshotSchema schema, SnapshotBits bits, int id) throws IOException
+    {
+        for (int field = 0; field < count; field++)
+        {
+            final int index = id * count + field;
+            if (bits.readFlag())
+            {
+                final int size = schema.getBits(field);
+                if (size == 1)
+                {
+                    values[index] ^= 1;
+                }
+                else if (size > DELTA_BITS + 1 && bits.readFlag())
+                {
+                    final int delta = SnapshotBits.unzigzag(bits.read(DELTA_BITS));
+                    values[index] = schema.normalize(field, values[index] + delta);
+                }
+                else
+                {
+                    values[index] = schema.normalize(field, bits.read(size));
+                }
+            }
+        }
+    }
+}
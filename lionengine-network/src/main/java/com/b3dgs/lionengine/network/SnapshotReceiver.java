@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+import com.b3dgs.lionengine.Verbose;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableSnapshot;
+
+/**
+ * Client side snapshots replication: rebuild the snapshot from its baseline, apply it to the entities, and
+ * acknowledge it. Outdated snapshots, and snapshots with an unknown baseline, are ignored.
+ */
+final class SnapshotReceiver
+{
+    /** Networkable entities. */
+    private final NetworkEntities entities;
+    /** Delta buffer. */
+    private final SnapshotBits bits;
+    /** Snapshot schema (<code>null</code> if disabled). */
+    private SnapshotSchema schema;
+    /** Snapshots history. */
+    private SnapshotFrame[] frames;
+    /** Entity fields. */
+    private int[] fields;
+    /** Last received sequence. */
+    private int sequence;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param entities The networkable entities.
+     */
+    SnapshotReceiver(NetworkEntities entities)
+    {
+        this.entities = entities;
+        bits = new SnapshotBits();
+        sequence = -1;
+    }
+
+    /**
+     * Set the snapshot schema.
+     * 
+     * @param schema The snapshot schema (<code>null</code> to disable).
+     */
+    public void setSchema(SnapshotSchema schema)
+    {
+        this.schema = schema;
+        sequence = -1;
+        if (schema != null)
+        {
+            frames = new SnapshotFrame[SnapshotFrame.HISTORY];
+            for (int i = 0; i < frames.length; i++)
+            {
+                frames[i] = new SnapshotFrame(schema.getCount());
+            }
+            fields = new int[schema.getCount()];
+        }
+    }
+
+    /**
+     * Receive a snapshot, and add its acknowledge message.
+     * 
+     * @param message The snapshot message.
+     * @param client The client reference.
+     */
+    public void receive(NetworkMessageSnapshot message, Client client)
+    {
+        final int received = message.getSequence();
+        if (schema == null || received <= sequence)
+        {
+            return;
+        }
+        final SnapshotFrame baseline = getBaseline(received, message.getBaseline());
+        if (baseline == null && message.getBaseline() >= 0)
+        {
+            return;
+        }
+        final SnapshotFrame frame = frames[received % SnapshotFrame.HISTORY];
+        bits.wrap(message.getData());
+        try
+        {
+            frame.read(received, baseline, schema, bits);
+            sequence = received;
+            apply(frame);
+            client.addMessage(new NetworkMessageSnapshot(client.getId(), received));
+        }
+        catch (final IOException exception)
+        {
+            frame.clear(-1);
+            Verbose.exception(exception);
+        }
+    }
+
+    /**
+     * Get the baseline snapshot, if still in history.
+     * 
+     * @param received The received sequence.
+     * @param base The baseline sequence (-1 if none).
+     * @return The baseline snapshot, <code>null</code> if none.
+     */
+    private SnapshotFrame getBaseline(int received, int base)
+    {
+        SnapshotFrame baseline = null;
+        if (base >= 0 && base < received && received - base < SnapshotFrame.HISTORY)
+        {
+            baseline = frames[base % SnapshotFrame.HISTORY];
+            if (baseline.getSequence() != base)
+            {
+                baseline = null;
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Apply the snapshot to the entities.
+     * 
+     * @param frame The snapshot.
+     */
+    private void apply(SnapshotFrame frame)
+    {
+        final int limit = frame.getLimit();
+        for (int id = 0; id < limit; id++)
+        {
+            final NetworkableEntity entity = entities.get((short) id);
+            if (frame.has(id) && entity instanceof NetworkableSnapshot)
+            {
+                frame.get(id, fields);
+                ((NetworkableSnapshot) entity).readSnapshot(fields);
+            }
+        }
+    }
+}
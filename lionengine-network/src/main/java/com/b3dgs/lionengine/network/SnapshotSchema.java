@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import com.b3dgs.lionengine.Check;
+import com.b3dgs.lionengine.LionEngineException;
+
+/**
+ * Describe the fields of a networkable entity snapshot, and their size in bits.
+ * <p>
+ * A field of one bit is a flag, storing <code>0</code> or <code>1</code>. Wider fields store signed values, truncated
+ * to their size. Positions are stored as integers with {@link #quantize(double, double)}, a precision of
+ * <code>0.125</code> on 16 bits allowing a range of <code>[-4096, 4096[</code> for example.
+ * </p>
+ * 
+ * @see com.b3dgs.lionengine.network.purview.NetworkableSnapshot
+ */
+public final class SnapshotSchema
+{
+    /** Maximum field size. */
+    private static final int MAX_BITS = Integer.SIZE;
+
+    /**
+     * Quantize a value.
+     * 
+     * @param value The value.
+     * @param precision The precision (strictly positive).
+     * @return The quantized value.
+     */
+    public static int quantize(double value, double precision)
+    {
+        return (int) Math.round(value / precision);
+    }
+
+    /**
+     * Get the value of a quantized value.
+     * 
+     * @param quantized The quantized value.
+     * @param precision The precision used to quantize the value.
+     * @return The value.
+     */
+    public static double dequantize(int quantized, double precision)
+    {
+        return quantized * precision;
+    }
+
+    /** Fields size in bits. */
+    private final int[] bits;
+
+    /**
+     * Create a schema.
+     * 
+     * @param bits The size in bits of each field, between 1 and 32.
+     * @throws LionEngineException If no field or invalid size.
+     */
+    public SnapshotSchema(int... bits)
+    {
+        Check.notNull(bits);
+        Check.superiorStrict(bits.length, 0);
+        for (final int size : bits)
+        {
+            Check.superiorStrict(size, 0);
+            Check.inferiorOrEqual(size, MAX_BITS);
+        }
+        this.bits = bits.clone();
+    }
+
+    /**
+     * Get the number of fields.
+     * 
+     * @return The number of fields.
+     */
+    public int getCount()
+    {
+        return bits.length;
+    }
+
+    /**
+     * Get the field size.
+     * 
+     * @param field The field index.
+     * @return The field size in bits.
+     */
+    public int getBits(int field)
+    {
+        return bits[field];
+    }
+
+    /**
+     * Truncate the value to the field size, as it will be received.
+     * 
+     * @param field The field index.
+     * @param value The value.
+     * @return The truncated value.
+     */
+    public int normalize(int field, int value)
+    {
+        final int size = bits[field];
+        if (size == 1)
+        {
+            return value & 1;
+        }
+        final int shift = MAX_BITS - size;
+        return value << shift >> shift;
+    }
+}
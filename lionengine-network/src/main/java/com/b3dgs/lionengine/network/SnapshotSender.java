@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.Arrays;
+
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableSnapshot;
+
+/**
+ * Server side snapshots replication: capture the entities state on each update, and send to each client the delta
+ * from the last snapshot it acknowledged. The full state is sent when the client has no acknowledged snapshot in the
+ * history, such as after its connection or a loss.
+ */
+final class SnapshotSender
+{
+    /** Maximum number of clients (positive byte ids). */
+    private static final int MAX_CLIENTS = Byte.MAX_VALUE + 1;
+
+    /** Networkable entities. */
+    private final NetworkEntities entities;
+    /** Connected clients. */
+    private final boolean[] clients;
+    /** Last acknowledged sequence by client (-1 if none). */
+    private final int[] acknowledged;
+    /** Deltas encoded during the current update, by baseline sequence. */
+    private final int[] encodedBaselines;
+    /** Deltas encoded during the current update. */
+    private final byte[][] encoded;
+    /** Delta buffer. */
+    private final SnapshotBits bits;
+    /** Snapshot schema (<code>null</code> if disabled). */
+    private SnapshotSchema schema;
+    /** Snapshots history. */
+    private SnapshotFrame[] frames;
+    /** Entity fields. */
+    private int[] fields;
+    /** Last snapshot sequence. */
+    private int sequence;
+    /** Number of deltas encoded during the current update. */
+    private int encodedCount;
+
+    /**
+     * Internal constructor.
+     * 
+     * @param entities The networkable entities.
+     */
+    SnapshotSender(NetworkEntities entities)
+    {
+        this.entities = entities;
+        clients = new boolean[MAX_CLIENTS];
+        acknowledged = new int[MAX_CLIENTS];
+        encodedBaselines = new int[MAX_CLIENTS];
+        encoded = new byte[MAX_CLIENTS][];
+        bits = new SnapshotBits();
+        sequence = -1;
+    }
+
+    /**
+     * Set the snapshot schema.
+     * 
+     * @param schema The snapshot schema (<code>null</code> to disable).
+     */
+    public void setSchema(SnapshotSchema schema)
+    {
+        this.schema = schema;
+        Arrays.fill(acknowledged, -1);
+        if (schema != null)
+        {
+            frames = new SnapshotFrame[SnapshotFrame.HISTORY];
+            for (int i = 0; i < frames.length; i++)
+            {
+                frames[i] = new SnapshotFrame(schema.getCount());
+            }
+            fields = new int[schema.getCount()];
+        }
+    }
+
+    /**
+     * Add a client, receiving the full state on next update.
+     * 
+     * @param clientId The client id.
+     */
+    public void addClient(byte clientId)
+    {
+        clients[clientId] = true;
+        acknowledged[clientId] = -1;
+    }
+
+    /**
+     * Remove a client.
+     * 
+     * @param clientId The client id.
+     */
+    public void removeClient(byte clientId)
+    {
+        clients[clientId] = false;
+    }
+
+    /**
+     * Acknowledge a snapshot received by a client.
+     * 
+     * @param clientId The client id.
+     * @param received The received snapshot sequence.
+     */
+    public void acknowledge(byte clientId, int received)
+    {
+        if (clientId >= 0 && received > acknowledged[clientId] && received <= sequence)
+        {
+            acknowledged[clientId] = received;
+        }
+    }
+
+    /**
+     * Capture the current snapshot, and add the delta message of each client.
+     * 
+     * @param server The server reference.
+     */
+    public void send(Server server)
+    {
+        if (schema == null)
+        {
+            return;
+        }
+        sequence++;
+        final SnapshotFrame frame = frames[sequence % SnapshotFrame.HISTORY];
+        capture(frame);
+
+        encodedCount = 0;
+        for (int id = 0; id < MAX_CLIENTS; id++)
+        {
+            if (clients[id])
+            {
+                final SnapshotFrame baseline = getBaseline(acknowledged[id]);
+                int base = -1;
+                if (baseline != null)
+                {
+                    base = baseline.getSequence();
+                }
+                server.addMessage(new NetworkMessageSnapshot((byte) id, sequence, base, encode(frame, baseline, base)));
+            }
+        }
+    }
+
+    /**
+     * Capture the snapshot entities state.
+     * 
+     * @param frame The snapshot to fill.
+     */
+    private void capture(SnapshotFrame frame)
+    {
+        frame.clear(sequence);
+        final int limit = entities.getCapacity();
+        for (int id = 0; id < limit; id++)
+        {
+            final NetworkableEntity entity = entities.get((short) id);
+            if (entity instanceof NetworkableSnapshot)
+            {
+                ((NetworkableSnapshot) entity).writeSnapshot(fields);
+                frame.set(id, fields, schema);
+            }
+        }
+    }
+
+    /**
+     * Get the baseline snapshot, if still in history.
+     * 
+     * @param base The baseline sequence (-1 if none).
+     * @return The baseline snapshot, <code>null</code> if none.
+     */
+    private SnapshotFrame getBaseline(int base)
+    {
+        SnapshotFrame baseline = null;
+        if (base >= 0)
+        {
+            baseline = frames[base % SnapshotFrame.HISTORY];
+            if (baseline.getSequence() != base)
+            {
+                baseline = null;
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Encode the delta, once for all clients sharing the same baseline.
+     * 
+     * @param frame The current snapshot.
+     * @param baseline The baseline snapshot (<code>null</code> if none).
+     * @param base The baseline sequence (-1 if none).
+     * @return The delta data.
+     */
+    private byte[] encode(SnapshotFrame frame, SnapshotFrame baseline, int base)
+    {
+        for (int i = 0; i < encodedCount; i++)
+        {
+            if (encodedBaselines[i] == base)
+            {
+                return encoded[i];
+            }
+        }
+        bits.clear();
+        frame.write(baseline, schema, bits);
+        final byte[] data = bits.toArray();
+        encodedBaselines[encodedCount] = base;
+        encoded[encodedCount] = data;
+        encodedCount++;
+        return data;
+    }
+}
@@ -138,6 +138,18 @@ public abstract class NetworkMessage
         return clientDestId;
     }
 
+    /**
+     * Check if the message has to be delivered. An unreliable message may be lost, and is dropped if received after a
+     * more recent one, which suits the states sent on each update, such as positions. Only the datagram transport
+     * makes the difference, other transports always deliver all messages.
+     * 
+     * @return <code>true</code> if reliable (default), <code>false</code> else.
+     */
+    public boolean isReliable()
+    {
+        return true;
+    }
+
     /**
      * Encode the message.
      * 
@@ -147,13 +159,22 @@ public abstract class NetworkMessage
     public final ByteArrayOutputStream encode() throws IOException
     {
         final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        encodeTo(buffer);
+        return buffer;
+    }
 
+    /**
+     * Encode the message at the end of an existing buffer, allowing to reuse the same buffer between messages.
+     * 
+     * @param buffer The buffer to write to.
+     * @throws IOException Error on writing.
+     */
+    public final void encodeTo(ByteArrayOutputStream buffer) throws IOException
+    {
         buffer.write(type);
         buffer.write(clientId);
         buffer.write(clientDestId);
         encode(buffer);
-
-        return buffer;
     }
 
     /**
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+import com.b3dgs.lionengine.Localizable;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Describe a networkable entity, identified by its entity id and located in the world.
+ * <p>
+ * Messages of type {@link com.b3dgs.lionengine.network.message.NetworkMessageEntity} are only applied to the entity
+ * with the same id, whereas other {@link Networkable} receive all messages. The location is used by the server to
+ * only send the entity messages to the clients near to it, its state being sent to a client when it enters its range.
+ * </p>
+ */
+public interface NetworkableEntity extends Networkable, Localizable
+{
+    /**
+     * Get the entity id, used to route the entity messages.
+     * 
+     * @return The entity id (positive).
+     */
+    short getEntityId();
+
+    /**
+     * Get the message describing the entity whole state, sent to a client when the entity enters its area of interest,
+     * as the messages sent while the entity was out of range were not received.
+     * 
+     * @param clientId The client id.
+     * @return The state message addressed to the client, <code>null</code> if none.
+     */
+    NetworkMessage getStateMessage(byte clientId);
+}
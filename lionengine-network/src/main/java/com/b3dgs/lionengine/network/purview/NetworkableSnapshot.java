@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network.purview;
+
+/**
+ * Describe a networkable entity replicated with snapshots: the server sends the entity state each update, as a delta
+ * from the last state received by each client.
+ * <p>
+ * The state is described by a {@link com.b3dgs.lionengine.network.SnapshotSchema}, which must be the same on server
+ * and clients.
+ * </p>
+ * 
+ * @see com.b3dgs.lionengine.network.NetworkedWorld#setSnapshotSchema(com.b3dgs.lionengine.network.SnapshotSchema)
+ */
+public interface NetworkableSnapshot extends NetworkableEntity
+{
+    /**
+     * Write the entity state (server side).
+     * 
+     * @param fields The fields to fill, in schema order.
+     */
+    void writeSnapshot(int[] fields);
+
+    /**
+     * Read the entity state (client side).
+     * 
+     * @param fields The received fields, in schema order.
+     */
+    void readSnapshot(int[] fields);
+}
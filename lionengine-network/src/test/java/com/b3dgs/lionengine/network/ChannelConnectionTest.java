@@ -0,0 +1,406 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Test the channel connection framing over a loopback socket.
+ */
+public class ChannelConnectionTest
+{
+    /** Data size larger than the initial buffers capacity. */
+    private static final int LARGE = 10000;
+    /** Shared data size, larger than the socket buffers. */
+    private static final int SHARED = 262144;
+    /** Socket buffers size. */
+    private static final int SOCKET_BUFFER = 8192;
+    /** Number of shared buffers above the gathering limit. */
+    private static final int SCATTERED = 12;
+
+    /**
+     * Create a frame with its length header.
+     * 
+     * @param payload The frame payload.
+     * @return The frame data.
+     */
+    private static byte[] frame(byte... payload)
+    {
+        final ByteBuffer frame = ByteBuffer.allocate(ChannelConnection.HEADER + payload.length);
+        frame.putInt(payload.length);
+        frame.put(payload);
+        return frame.array();
+    }
+
+    /**
+     * Create shared buffers, as gathered by {@link ChannelFrames}, first index reserved.
+     * 
+     * @param count The number of buffers, including the reserved first index.
+     * @param size The size of each buffer.
+     * @return The shared buffers.
+     */
+    private static ByteBuffer[] createShared(int count, int size)
+    {
+        final ByteBuffer[] buffers = new ByteBuffer[count];
+        for (int i = 1; i < count; i++)
+        {
+            final byte[] data = new byte[size];
+            for (int j = 0; j < size; j++)
+            {
+                data[j] = (byte) (i + j);
+            }
+            buffers[i] = ByteBuffer.wrap(data);
+        }
+        return buffers;
+    }
+
+    /**
+     * Get the remaining data of a buffer.
+     * 
+     * @param buffer The buffer to read.
+     * @return The remaining data.
+     */
+    private static byte[] remaining(ByteBuffer buffer)
+    {
+        final byte[] data = new byte[buffer.remaining()];
+        buffer.get(data);
+        return data;
+    }
+
+    private ServerSocketChannel server;
+    private SocketChannel sender;
+    private SocketChannel receiver;
+    private ChannelConnection connection;
+
+    /**
+     * Open the loopback channels.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        server = ServerSocketChannel.open();
+        server.socket().bind(new InetSocketAddress(UtilNetwork.LOCALHOST, 0));
+        sender = SocketChannel.open(new InetSocketAddress(UtilNetwork.LOCALHOST, server.socket().getLocalPort()));
+        receiver = server.accept();
+        connection = new ChannelConnection(receiver, (byte) 0);
+    }
+
+    /**
+     * Close the loopback channels.
+     */
+    @After
+    public void clean()
+    {
+        connection.close();
+        UtilStream.safeClose(sender);
+        UtilStream.safeClose(server);
+    }
+
+    /**
+     * Send raw data, and wait for the connection to read all of them.
+     * 
+     * @param data The data to send.
+     * @throws IOException If error.
+     */
+    private void send(byte[] data) throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining())
+        {
+            sender.write(buffer);
+        }
+        int read = 0;
+        while (read < data.length)
+        {
+            read += connection.read();
+        }
+    }
+
+    /**
+     * Read raw data from the receiver side.
+     * 
+     * @param size The number of bytes to read.
+     * @return The data read.
+     * @throws IOException If error.
+     */
+    private byte[] receive(int size) throws IOException
+    {
+        return UtilNetwork.read(receiver, size);
+    }
+
+    /**
+     * Test a frame received in several parts, splitting its header and its payload.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testPartialFrame() throws IOException
+    {
+        final byte[] frame = frame((byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5);
+
+        send(new byte[]
+        {
+            frame[0], frame[1]
+        });
+        Assert.assertNull(connection.poll());
+
+        send(new byte[]
+        {
+            frame[2], frame[3], frame[4], frame[5]
+        });
+        Assert.assertNull(connection.poll());
+        connection.compact();
+
+        send(new byte[]
+        {
+            frame[6], frame[7], frame[8]
+        });
+        final ByteBuffer payload = connection.poll();
+
+        Assert.assertArrayEquals(new byte[]
+        {
+            1, 2, 3, 4, 5
+        }, remaining(payload));
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test several frames received with a single read, and a partial frame kept on compact.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testMergedFrames() throws IOException
+    {
+        final byte[] last = frame((byte) 4, (byte) 5);
+        send(UtilNetwork.concat(frame((byte) 1), frame(), frame((byte) 2, (byte) 3), new byte[]
+        {
+            last[0], last[1], last[2]
+        }));
+
+        Assert.assertArrayEquals(new byte[]
+        {
+            1
+        }, remaining(connection.poll()));
+        Assert.assertArrayEquals(new byte[0], remaining(connection.poll()));
+        Assert.assertArrayEquals(new byte[]
+        {
+            2, 3
+        }, remaining(connection.poll()));
+        Assert.assertNull(connection.poll());
+
+        connection.compact();
+        send(new byte[]
+        {
+            last[3], last[4], last[5]
+        });
+
+        Assert.assertArrayEquals(new byte[]
+        {
+            4, 5
+        }, remaining(connection.poll()));
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test a frame length above the maximum is rejected.
+     * 
+     * @throws IOException If success.
+     */
+    @Test(expected = IOException.class)
+    public void testFrameTooLarge() throws IOException
+    {
+        send(ByteBuffer.allocate(ChannelConnection.HEADER).putInt(ChannelConnection.MAX_FRAME + 1).array());
+
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test a negative frame length is rejected.
+     * 
+     * @throws IOException If success.
+     */
+    @Test(expected = IOException.class)
+    public void testFrameNegative() throws IOException
+    {
+        send(ByteBuffer.allocate(ChannelConnection.HEADER).putInt(-1).array());
+
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test the maximum frame length is accepted, waiting for its payload.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFrameMax() throws IOException
+    {
+        send(ByteBuffer.allocate(ChannelConnection.HEADER).putInt(ChannelConnection.MAX_FRAME).array());
+
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test a frame larger than the buffers capacity, growing the output buffer while the frame is written, and the
+     * input buffer while it is read.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final ChannelConnection output = new ChannelConnection(sender, (byte) 1);
+        final byte[] data = new byte[LARGE];
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte) i;
+        }
+        output.begin(NetworkMessageSystemId.PING);
+        output.end();
+        output.begin(NetworkMessageSystemId.USER_MESSAGE);
+        output.put((byte) 2);
+        output.put(data);
+        output.putInt(LARGE);
+        output.putString("test");
+        output.end();
+
+        Assert.assertTrue(output.hasPending());
+        Assert.assertTrue(output.flush());
+        Assert.assertFalse(output.hasPending());
+
+        ByteBuffer frame = connection.poll();
+        while (frame == null)
+        {
+            Assert.assertTrue(connection.read() > 0);
+            frame = connection.poll();
+        }
+        Assert.assertEquals(NetworkMessageSystemId.PING, frame.get());
+        Assert.assertFalse(frame.hasRemaining());
+
+        frame = connection.poll();
+        while (frame == null)
+        {
+            Assert.assertTrue(connection.read() > 0);
+            frame = connection.poll();
+        }
+        Assert.assertEquals(NetworkMessageSystemId.USER_MESSAGE, frame.get());
+        Assert.assertEquals(2, frame.get());
+        final byte[] received = new byte[LARGE];
+        frame.get(received);
+        Assert.assertArrayEquals(data, received);
+        Assert.assertEquals(LARGE, frame.getInt());
+        Assert.assertEquals("test", ChannelConnection.readString(frame));
+        Assert.assertFalse(frame.hasRemaining());
+        Assert.assertNull(connection.poll());
+    }
+
+    /**
+     * Test the queued frame and the shared buffers are written in order with a gathering write.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFlushGather() throws IOException
+    {
+        final ChannelConnection output = new ChannelConnection(sender, (byte) 1);
+        output.begin(NetworkMessageSystemId.PING);
+        output.end();
+        final ByteBuffer[] buffers = createShared(3, LARGE);
+        final byte[] expected = UtilNetwork.concat(frame(NetworkMessageSystemId.PING),
+                                                   UtilNetwork.remaining(buffers, 1, 2));
+
+        Assert.assertTrue(output.flush(buffers, 3));
+        Assert.assertNull(buffers[0]);
+        Assert.assertFalse(buffers[1].hasRemaining());
+        Assert.assertFalse(buffers[2].hasRemaining());
+        Assert.assertFalse(output.hasPending());
+        Assert.assertArrayEquals(expected, receive(expected.length));
+    }
+
+    /**
+     * Test the shared buffers above the gathering limit are copied, and written in order.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFlushScattered() throws IOException
+    {
+        final ChannelConnection output = new ChannelConnection(sender, (byte) 1);
+        output.begin(NetworkMessageSystemId.PING);
+        output.end();
+        final ByteBuffer[] buffers = createShared(SCATTERED, LARGE);
+        final byte[] expected = UtilNetwork.concat(frame(NetworkMessageSystemId.PING),
+                                                   UtilNetwork.remaining(buffers, 1, SCATTERED - 1));
+
+        Assert.assertTrue(output.flush(buffers, SCATTERED));
+        Assert.assertFalse(output.hasPending());
+        Assert.assertArrayEquals(expected, receive(expected.length));
+    }
+
+    /**
+     * Test a partial gathering write keeps a copy of the shared buffers remaining data, and resumes on next flush even
+     * if shared buffers have been reused.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFlushGatherPartial() throws IOException
+    {
+        sender.socket().setSendBufferSize(SOCKET_BUFFER);
+        sender.configureBlocking(false);
+
+        final ChannelConnection output = new ChannelConnection(sender, (byte) 1);
+        output.begin(NetworkMessageSystemId.PING);
+        output.end();
+        final ByteBuffer[] buffers = createShared(3, SHARED);
+        final byte[] expected = UtilNetwork.concat(frame(NetworkMessageSystemId.PING),
+                                                   UtilNetwork.remaining(buffers, 1, 2));
+
+        Assert.assertFalse(output.flush(buffers, 3));
+        Assert.assertTrue(output.hasPending());
+
+        for (int i = 1; i < 3; i++)
+        {
+            buffers[i].clear();
+            buffers[i].put(new byte[SHARED]);
+        }
+
+        final ByteBuffer received = ByteBuffer.allocate(expected.length);
+        while (received.hasRemaining())
+        {
+            receiver.read(received);
+            output.flush();
+        }
+        Assert.assertFalse(output.hasPending());
+        Assert.assertArrayEquals(expected, received.array());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+
+/**
+ * Test the shared channel frames.
+ */
+public class ChannelFramesTest
+{
+    /** Messages number, above the initial frames and views capacity. */
+    private static final int COUNT = 40;
+    /** Message length. */
+    private static final int LENGTH = 200;
+
+    /**
+     * Create a chat message.
+     * 
+     * @param dest The destination id.
+     * @param text The message text.
+     * @return The message.
+     */
+    private static NetworkMessage create(int dest, String text)
+    {
+        return new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, (byte) dest, text);
+    }
+
+    private final ChannelFrames frames = new ChannelFrames();
+
+    /**
+     * Get the data of the last gathered frames.
+     * 
+     * @param count The number of buffers returned by gather.
+     * @return The gathered data.
+     */
+    private byte[] gathered(int count)
+    {
+        final byte[] data = UtilNetwork.remaining(frames.getBuffers(), 1, count - 1);
+        Assert.assertNull(frames.getBuffers()[0]);
+        Assert.assertEquals(data.length, frames.getGathered());
+        return data;
+    }
+
+    /**
+     * Test each message is encoded once, and gathered byte for byte for each destination, consecutive frames merged.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGather() throws IOException
+    {
+        final NetworkMessage all1 = create(-1, "all1");
+        final NetworkMessage one = create(1, "one");
+        final NetworkMessage all2 = create(-1, "all2");
+        frames.add(all1);
+        frames.add(one);
+        frames.add(all2);
+
+        final byte[] frame1 = UtilNetwork.createFrame(all1);
+        final byte[] frame2 = UtilNetwork.createFrame(one);
+        final byte[] frame3 = UtilNetwork.createFrame(all2);
+        Assert.assertEquals(frame1.length + frame2.length + frame3.length, frames.getSize());
+
+        final int merged = frames.gather((byte) 1, null);
+        Assert.assertEquals(2, merged);
+        Assert.assertArrayEquals(UtilNetwork.concat(frame1, frame2, frame3), gathered(merged));
+
+        final int split = frames.gather((byte) 2, null);
+        Assert.assertEquals(3, split);
+        Assert.assertArrayEquals(UtilNetwork.concat(frame1, frame3), gathered(split));
+    }
+
+    /**
+     * Test the filter skips frames for the rejected client.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGatherFilter() throws IOException
+    {
+        final NetworkMessage accepted = create(-1, "accepted");
+        final NetworkMessage rejected = create(-1, "rejected");
+        frames.add(accepted);
+        frames.add(rejected);
+
+        final int count = frames.gather((byte) 1, new MessageFilter()
+        {
+            @Override
+            public boolean accept(NetworkMessage message, byte clientId)
+            {
+                return message != rejected;
+            }
+        });
+
+        Assert.assertArrayEquals(UtilNetwork.createFrame(accepted), gathered(count));
+    }
+
+    /**
+     * Test no frame is gathered for a client without message.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGatherNone() throws IOException
+    {
+        frames.add(create(1, "one"));
+
+        Assert.assertEquals(1, frames.gather((byte) 2, null));
+        Assert.assertEquals(0, frames.getGathered());
+    }
+
+    /**
+     * Test frames and views storage growth, and clear.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final List<byte[]> expected = new ArrayList<byte[]>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final NetworkMessage message = create(i % 2, UtilNetwork.createText(String.valueOf(i), LENGTH));
+            frames.add(message);
+            if (i % 2 == 1)
+            {
+                expected.add(UtilNetwork.createFrame(message));
+            }
+        }
+
+        final int count = frames.gather((byte) 1, null);
+
+        Assert.assertEquals(COUNT / 2 + 1, count);
+        Assert.assertArrayEquals(UtilNetwork.concat(expected.toArray(new byte[expected.size()][])), gathered(count));
+
+        frames.clear();
+
+        Assert.assertTrue(frames.isEmpty());
+        Assert.assertEquals(0, frames.getSize());
+        Assert.assertEquals(1, frames.gather((byte) 1, null));
+    }
+}
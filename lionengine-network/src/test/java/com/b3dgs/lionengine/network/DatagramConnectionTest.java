@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test the datagram connection channels over a loopback link, with simulated loss.
+ */
+public class DatagramConnectionTest
+{
+    /** Number of messages. */
+    private static final int COUNT = 200;
+    /** Simulated loss. */
+    private static final double LOSS = 0.25;
+    /** Delay above the reliable resend delay. */
+    private static final long RESEND = 150L;
+    /** Number of reliable frames kept while waiting for a missing one. */
+    private static final int WINDOW = 1024;
+    /** Reliable channel. */
+    private static final byte RELIABLE = 1;
+    /** Unreliable channel. */
+    private static final byte UNRELIABLE = 0;
+
+    /**
+     * Create the message data.
+     * 
+     * @param index The message index.
+     * @return The message data.
+     */
+    private static byte[] createData(int index)
+    {
+        return ByteBuffer.allocate(4).putInt(index).array();
+    }
+
+    /**
+     * Create a packet header.
+     * 
+     * @param sequence The packet sequence.
+     * @param acknowledged The next reliable frame expected by the remote.
+     * @return The packet, ready to put frames.
+     */
+    private static ByteBuffer createPacket(int sequence, int acknowledged)
+    {
+        final ByteBuffer packet = ByteBuffer.allocate(DatagramConnection.MAX_PACKET);
+        packet.putInt(sequence);
+        packet.putInt(acknowledged);
+        return packet;
+    }
+
+    /**
+     * Put a reliable frame.
+     * 
+     * @param packet The packet.
+     * @param id The reliable frame id.
+     * @param index The message index.
+     */
+    private static void putReliable(ByteBuffer packet, int id, int index)
+    {
+        packet.put(RELIABLE);
+        packet.putInt(id);
+        packet.putShort((short) 4);
+        packet.putInt(index);
+    }
+
+    /**
+     * Put an unreliable frame.
+     * 
+     * @param packet The packet.
+     * @param index The message index.
+     */
+    private static void putUnreliable(ByteBuffer packet, int index)
+    {
+        packet.put(UNRELIABLE);
+        packet.putShort((short) 4);
+        packet.putInt(index);
+    }
+
+    /**
+     * Receive the packet.
+     * 
+     * @param connection The receiving connection.
+     * @param packet The packet.
+     * @return The received messages indexes.
+     */
+    private static List<Integer> receive(DatagramConnection connection, ByteBuffer packet)
+    {
+        packet.flip();
+        final Collection<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        connection.receive(packet, frames);
+        final List<Integer> indexes = new ArrayList<Integer>();
+        for (final ByteBuffer frame : frames)
+        {
+            indexes.add(Integer.valueOf(frame.getInt()));
+        }
+        return indexes;
+    }
+
+    /**
+     * Create the expected indexes.
+     * 
+     * @param first The first index.
+     * @param count The number of indexes.
+     * @return The indexes.
+     */
+    private static List<Integer> createIndexes(int first, int count)
+    {
+        final List<Integer> indexes = new ArrayList<Integer>();
+        for (int i = first; i < first + count; i++)
+        {
+            indexes.add(Integer.valueOf(i));
+        }
+        return indexes;
+    }
+
+    private final DatagramLink sender = new DatagramLink();
+    private final DatagramLink receiver = new DatagramLink();
+    private final ByteBuffer packet = ByteBuffer.allocate(DatagramConnection.MAX_PACKET);
+    private final List<Integer> reliables = new ArrayList<Integer>();
+    private final List<Integer> unreliables = new ArrayList<Integer>();
+    private final List<Integer> returned = new ArrayList<Integer>();
+    private DatagramConnection output;
+    private DatagramConnection input;
+
+    /**
+     * Open the links, each connection sending to the other link.
+     * 
+     * @throws IOException If error.
+     */
+    @Before
+    public void prepare() throws IOException
+    {
+        sender.open(0);
+        receiver.open(0);
+        output = new DatagramConnection(new InetSocketAddress(UtilNetwork.LOCALHOST, receiver.getPort()), (byte) 0);
+        input = new DatagramConnection(new InetSocketAddress(UtilNetwork.LOCALHOST, sender.getPort()), (byte) 1);
+    }
+
+    /**
+     * Close the links.
+     */
+    @After
+    public void cleanup()
+    {
+        sender.close();
+        receiver.close();
+    }
+
+    /**
+     * Receive all pending packets, reliable messages with positive index, unreliable with negative index.
+     * 
+     * @param link The receiving link.
+     * @param connection The receiving connection.
+     * @param reliable The reliable messages indexes.
+     * @param unreliable The unreliable messages indexes.
+     * @throws IOException If error.
+     */
+    private void read(DatagramLink link, DatagramConnection connection, List<Integer> reliable, List<Integer> unreliable)
+            throws IOException
+    {
+        final Collection<ByteBuffer> frames = new ArrayList<ByteBuffer>();
+        while (link.receive(packet) != null)
+        {
+            connection.receive(packet, frames);
+            for (final ByteBuffer frame : frames)
+            {
+                final int index = frame.getInt();
+                if (index < 0)
+                {
+                    unreliable.add(Integer.valueOf(-1 - index));
+                }
+                else
+                {
+                    reliable.add(Integer.valueOf(index));
+                }
+            }
+            frames.clear();
+        }
+    }
+
+    /**
+     * Flush both connections and read both links.
+     * 
+     * @return The size sent by both connections.
+     * @throws IOException If error.
+     */
+    private int update() throws IOException
+    {
+        final int sent = output.flush(sender) + input.flush(receiver);
+        UtilNetwork.pause();
+        read(receiver, input, reliables, unreliables);
+        read(sender, output, returned, returned);
+        return sent;
+    }
+
+    /**
+     * Test the reliable messages arrive exactly once and in order, and the unreliable messages are dropped on loss and
+     * never sent again.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testLoss() throws IOException, InterruptedException
+    {
+        sender.setLoss(LOSS, 42L);
+        receiver.setLoss(LOSS, 43L);
+
+        for (int i = 0; i < COUNT; i++)
+        {
+            output.queue(createData(i), true);
+            output.queue(createData(-1 - i), false);
+            update();
+        }
+        while (reliables.size() < COUNT)
+        {
+            update();
+        }
+
+        sender.setLoss(0.0, 0L);
+        receiver.setLoss(0.0, 0L);
+        do
+        {
+            Thread.sleep(RESEND);
+        }
+        while (update() > 0);
+
+        Assert.assertEquals(createIndexes(0, COUNT), reliables);
+        Assert.assertTrue(returned.isEmpty());
+        Assert.assertTrue(unreliables.size() > 0);
+        Assert.assertTrue(unreliables.size() < COUNT);
+        for (int i = 1; i < unreliables.size(); i++)
+        {
+            Assert.assertTrue(unreliables.get(i).intValue() > unreliables.get(i - 1).intValue());
+        }
+    }
+
+    /**
+     * Test the unreliable messages lost are exactly the dropped packets, and are not sent again.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testUnreliableLoss() throws IOException, InterruptedException
+    {
+        final long seed = 7L;
+        sender.setLoss(LOSS, seed);
+
+        final Random random = new Random(seed);
+        final List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            if (random.nextDouble() >= LOSS)
+            {
+                expected.add(Integer.valueOf(i));
+            }
+            output.queue(createData(-1 - i), false);
+            Assert.assertTrue(output.flush(sender) > 0);
+        }
+        while (unreliables.size() < expected.size())
+        {
+            update();
+        }
+        Thread.sleep(RESEND);
+
+        Assert.assertEquals(0, update());
+        Assert.assertEquals(expected, unreliables);
+        Assert.assertTrue(reliables.isEmpty());
+    }
+
+    /**
+     * Test the reliable message is sent again after the resend delay until acknowledged by the packet header.
+     * 
+     * @throws IOException If error.
+     * @throws InterruptedException If interrupted.
+     */
+    @Test
+    public void testResend() throws IOException, InterruptedException
+    {
+        sender.setLoss(1.0, 0L);
+        output.queue(createData(0), true);
+        output.queue(createData(1), true);
+
+        Assert.assertEquals(2, output.getPending());
+        Assert.assertTrue(output.flush(sender) > 0);
+        Assert.assertEquals(0, output.flush(sender));
+
+        Thread.sleep(RESEND);
+        final int size = output.flush(sender);
+
+        Assert.assertTrue(size > 0);
+
+        Assert.assertTrue(receive(output, createPacket(0, 1)).isEmpty());
+        Thread.sleep(RESEND);
+
+        Assert.assertTrue(output.flush(sender) < size);
+        Assert.assertEquals(1, output.getPending());
+
+        Assert.assertTrue(receive(output, createPacket(1, 2)).isEmpty());
+        Thread.sleep(RESEND);
+
+        Assert.assertEquals(0, output.flush(sender));
+        Assert.assertEquals(0, output.getPending());
+    }
+
+    /**
+     * Test the reliable frames are delivered in order, the ones received after a missing frame kept within the window,
+     * duplicates ignored.
+     */
+    @Test
+    public void testReliableOrder()
+    {
+        final ByteBuffer ahead = createPacket(0, 0);
+        for (int id = 1; id <= WINDOW + 1; id++)
+        {
+            putReliable(ahead, id, id);
+        }
+
+        Assert.assertTrue(receive(input, ahead).isEmpty());
+
+        final ByteBuffer missing = createPacket(1, 0);
+        putReliable(missing, 0, 0);
+
+        Assert.assertEquals(createIndexes(0, WINDOW + 1), receive(input, missing));
+
+        final ByteBuffer resent = createPacket(2, 0);
+        putReliable(resent, 5, 5);
+        putReliable(resent, WINDOW + 1, WINDOW + 1);
+        putReliable(resent, 3, 3);
+
+        Assert.assertEquals(createIndexes(WINDOW + 1, 1), receive(input, resent));
+    }
+
+    /**
+     * Test the unreliable frames of an older packet are dropped, unlike its reliable frames.
+     */
+    @Test
+    public void testUnreliableOrder()
+    {
+        final ByteBuffer recent = createPacket(5, 0);
+        putUnreliable(recent, 1);
+
+        Assert.assertEquals(createIndexes(1, 1), receive(input, recent));
+
+        final ByteBuffer late = createPacket(3, 0);
+        putUnreliable(late, 2);
+        putReliable(late, 0, 3);
+        putUnreliable(late, 4);
+
+        Assert.assertEquals(createIndexes(3, 1), receive(input, late));
+
+        final ByteBuffer next = createPacket(6, 0);
+        putUnreliable(next, 5);
+
+        Assert.assertEquals(createIndexes(5, 1), receive(input, next));
+    }
+}
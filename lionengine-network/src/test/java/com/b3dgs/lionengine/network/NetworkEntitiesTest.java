@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.purview.Networkable;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+
+/**
+ * Test the networkable entities and the messages routing by entity id.
+ */
+public class NetworkEntitiesTest
+{
+    /** Entity id above the initial capacity. */
+    private static final int FAR_ID = 200;
+
+    /**
+     * Network without transport, providing the received messages.
+     */
+    private static final class Network extends NetworkModel<ClientListener>
+    {
+        /**
+         * Create network.
+         */
+        Network()
+        {
+            super(null);
+        }
+
+        /**
+         * Set the received messages.
+         * 
+         * @param messages The received messages.
+         */
+        void receive(NetworkMessage... messages)
+        {
+            messagesIn.clear();
+            messagesIn.addAll(Arrays.asList(messages));
+        }
+
+        @Override
+        public void disconnect()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void sendMessages()
+        {
+            messagesOut.clear();
+        }
+
+        @Override
+        public void receiveMessages()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public int getBandwidth()
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * World dispatching the network messages.
+     */
+    private static final class World extends NetworkedWorldModel<ClientListener, Network>
+    {
+        /**
+         * Create world.
+         * 
+         * @param network The network reference.
+         */
+        World(Network network)
+        {
+            super(network);
+        }
+
+        @Override
+        void receiveSnapshot(NetworkMessageSnapshot message)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void setSnapshotSchema(SnapshotSchema schema)
+        {
+            // Nothing to do
+        }
+    }
+
+    private final NetworkEntities entities = new NetworkEntities();
+
+    /**
+     * Test the entity retrieval from its id and from its messages.
+     */
+    @Test
+    public void testGet()
+    {
+        final NetworkableEntityMock entity = new NetworkableEntityMock(3);
+        entities.add(entity);
+
+        Assert.assertSame(entity, entities.get((short) 3));
+        Assert.assertSame(entity, entities.get(new NetworkMessageEntityMock(3)));
+        Assert.assertNull(entities.get((short) 2));
+        Assert.assertNull(entities.get((short) -1));
+        Assert.assertNull(entities.get(new NetworkMessageEntityMock(FAR_ID)));
+        Assert.assertNull(entities.get(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, "chat")));
+        Assert.assertEquals(-1, NetworkEntities.getEntityId(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, "")));
+    }
+
+    /**
+     * Test the storage growth for a large entity id.
+     */
+    @Test
+    public void testGrow()
+    {
+        final NetworkableEntityMock entity = new NetworkableEntityMock(FAR_ID);
+        entities.add(entity);
+
+        Assert.assertTrue(entities.getCapacity() > FAR_ID);
+        Assert.assertSame(entity, entities.get((short) FAR_ID));
+    }
+
+    /**
+     * Test an entity replaced by another one with the same id is not removed by the old one.
+     */
+    @Test
+    public void testReplaceRemove()
+    {
+        final NetworkableEntityMock old = new NetworkableEntityMock(1);
+        final NetworkableEntityMock entity = new NetworkableEntityMock(1);
+        entities.add(old);
+        entities.add(entity);
+
+        Assert.assertSame(entity, entities.get((short) 1));
+
+        entities.remove(old);
+
+        Assert.assertSame(entity, entities.get((short) 1));
+
+        entities.remove(entity);
+
+        Assert.assertNull(entities.get((short) 1));
+    }
+
+    /**
+     * Test a negative entity id is rejected.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testNegativeId()
+    {
+        entities.add(new NetworkableEntityMock(-1));
+    }
+
+    /**
+     * Test each entity message is applied only to its entity, while other networkables receive all messages.
+     */
+    @Test
+    public void testRouting()
+    {
+        final Network network = new Network();
+        final World world = new World(network);
+        final NetworkableEntityMock entity1 = new NetworkableEntityMock(1);
+        final NetworkableEntityMock entity2 = new NetworkableEntityMock(2);
+        final List<NetworkMessage> globals = new ArrayList<NetworkMessage>();
+        final Networkable global = new NetworkableModel()
+        {
+            @Override
+            public void applyMessage(NetworkMessage message)
+            {
+                globals.add(message);
+            }
+        };
+        world.addNetworkable(entity1);
+        world.addNetworkable(entity2);
+        world.addNetworkable(global);
+
+        final NetworkMessage message1 = new NetworkMessageEntityMock(1);
+        final NetworkMessage message2 = new NetworkMessageEntityMock(2);
+        final NetworkMessage unknown = new NetworkMessageEntityMock(FAR_ID);
+        final NetworkMessage chat = new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, "chat");
+        network.receive(message2, message1, unknown, chat);
+        world.receiveMessages();
+
+        Assert.assertEquals(Arrays.asList(message1), entity1.getApplied());
+        Assert.assertEquals(Arrays.asList(message2), entity2.getApplied());
+        Assert.assertEquals(Arrays.asList(message2, message1, unknown, chat), globals);
+
+        world.removeNetworkable(entity1);
+        network.receive(message1, message2);
+        world.receiveMessages();
+
+        Assert.assertEquals(Arrays.asList(message1), entity1.getApplied());
+        Assert.assertEquals(Arrays.asList(message2, message2), entity2.getApplied());
+        Assert.assertEquals(Arrays.asList(message2, message1, unknown, chat, message1, message2), globals);
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+
+/**
+ * Test the area of interest filter.
+ */
+public class NetworkInterestTest
+{
+    /** Interest range. */
+    private static final double RANGE = 10.0;
+    /** Client id. */
+    private static final byte CLIENT = 1;
+    /** Other client id. */
+    private static final byte OTHER = 2;
+
+    private final NetworkEntities entities = new NetworkEntities();
+    private final NetworkInterest interest = new NetworkInterest(entities);
+    private final NetworkableEntityMock entity = new NetworkableEntityMock(1);
+    private final NetworkableEntityMock client = new NetworkableEntityMock(0);
+    private final NetworkMessage message = new NetworkMessageEntityMock(1);
+
+    /**
+     * Prepare an entity owned by another client and the client location at origin.
+     */
+    @Before
+    public void prepare()
+    {
+        entity.setClientId(Byte.valueOf(OTHER));
+        entities.add(entity);
+        interest.setRange(RANGE);
+        interest.setLocation(CLIENT, client);
+    }
+
+    /**
+     * Test the client is included, excluded and included again as the entity crosses the range.
+     */
+    @Test
+    public void testCross()
+    {
+        entity.setLocation(3.0, 4.0);
+        Assert.assertTrue(interest.accept(message, CLIENT));
+
+        entity.setLocation(6.0, 8.0);
+        Assert.assertTrue(interest.accept(message, CLIENT));
+
+        entity.setLocation(6.0, 8.1);
+        Assert.assertFalse(interest.accept(message, CLIENT));
+
+        entity.setLocation(-20.0, 0.0);
+        Assert.assertFalse(interest.accept(message, CLIENT));
+
+        entity.setLocation(-9.0, 0.0);
+        Assert.assertTrue(interest.accept(message, CLIENT));
+    }
+
+    /**
+     * Test the client is included again when it moves toward the entity.
+     */
+    @Test
+    public void testClientMove()
+    {
+        entity.setLocation(50.0, 50.0);
+        Assert.assertFalse(interest.accept(message, CLIENT));
+
+        client.setLocation(45.0, 45.0);
+        Assert.assertTrue(interest.accept(message, CLIENT));
+    }
+
+    /**
+     * Test the owner of the entity always receives its messages.
+     */
+    @Test
+    public void testOwner()
+    {
+        entity.setLocation(100.0, 100.0);
+        interest.setLocation(OTHER, client);
+
+        Assert.assertTrue(interest.accept(message, OTHER));
+        Assert.assertFalse(interest.accept(message, CLIENT));
+    }
+
+    /**
+     * Test the messages not related to a known entity, and clients without location, are not filtered.
+     */
+    @Test
+    public void testUnfiltered()
+    {
+        entity.setLocation(100.0, 100.0);
+
+        Assert.assertTrue(interest.accept(new NetworkMessageChat(UtilNetwork.CHAT, OTHER, "chat"), CLIENT));
+        Assert.assertTrue(interest.accept(new NetworkMessageEntityMock(2), CLIENT));
+        Assert.assertTrue(interest.accept(message, (byte) 3));
+        Assert.assertTrue(interest.accept(message, (byte) -1));
+    }
+
+    /**
+     * Test the entity state is sent to the client each time the entity enters its range.
+     */
+    @Test
+    public void testState()
+    {
+        final ServerChannel server = new ServerChannel(UtilNetwork.createDecoder());
+        entity.setLocation(50.0, 0.0);
+        interest.update(server);
+
+        Assert.assertTrue(server.messagesOut.isEmpty());
+
+        entity.setLocation(5.0, 0.0);
+        interest.update(server);
+
+        Assert.assertEquals(1, server.messagesOut.size());
+        final NetworkMessage state = server.messagesOut.iterator().next();
+        Assert.assertEquals(CLIENT, state.getClientDestId());
+        Assert.assertEquals(1, NetworkEntities.getEntityId(state));
+        Assert.assertTrue(interest.accept(state, CLIENT));
+
+        server.messagesOut.clear();
+        entity.setLocation(-5.0, 0.0);
+        interest.update(server);
+
+        Assert.assertTrue(server.messagesOut.isEmpty());
+
+        entity.setLocation(-50.0, 0.0);
+        interest.update(server);
+        entity.setLocation(0.0, 10.0);
+        interest.update(server);
+
+        Assert.assertEquals(1, server.messagesOut.size());
+    }
+
+    /**
+     * Test the filter is disabled with an empty range.
+     */
+    @Test
+    public void testDisabled()
+    {
+        entity.setLocation(100.0, 100.0);
+        Assert.assertFalse(interest.accept(message, CLIENT));
+
+        interest.setRange(0.0);
+
+        Assert.assertTrue(interest.accept(message, CLIENT));
+    }
+
+    /**
+     * Test the gathered frames of a client only contain the messages of the entities in range.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGather() throws IOException
+    {
+        final NetworkableEntityMock far = new NetworkableEntityMock(2);
+        far.setClientId(Byte.valueOf(OTHER));
+        far.setLocation(100.0, 0.0);
+        entities.add(far);
+
+        final NetworkMessage near = new NetworkMessageEntityMock(1);
+        final NetworkMessage away = new NetworkMessageEntityMock(2);
+        final ChannelFrames frames = new ChannelFrames();
+        frames.add(near);
+        frames.add(away);
+
+        final int count = frames.gather(CLIENT, interest);
+        Assert.assertArrayEquals(UtilNetwork.createFrame(near), UtilNetwork.remaining(frames.getBuffers(), 1, count - 1));
+
+        final int all = frames.gather(OTHER, interest);
+        Assert.assertArrayEquals(UtilNetwork.concat(UtilNetwork.createFrame(near), UtilNetwork.createFrame(away)),
+                                 UtilNetwork.remaining(frames.getBuffers(), 1, all - 1));
+    }
+
+    /**
+     * Test a negative range is rejected.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testNegativeRange()
+    {
+        interest.setRange(-1.0);
+    }
+
+    /**
+     * Test a negative client id is rejected.
+     */
+    @Test(expected = LionEngineException.class)
+    public void testNegativeClient()
+    {
+        interest.setLocation((byte) -1, client);
+    }
+}
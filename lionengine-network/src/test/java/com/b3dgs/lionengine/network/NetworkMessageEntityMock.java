@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import com.b3dgs.lionengine.network.message.NetworkMessageEntity;
+
+/**
+ * Entity message mock, without action.
+ */
+class NetworkMessageEntityMock extends NetworkMessageEntity<NetworkMessageEntityMock.Action>
+{
+    /**
+     * Actions.
+     */
+    enum Action
+    {
+        /** Move action. */
+        MOVE;
+    }
+
+    /**
+     * Create mock.
+     * 
+     * @param entityId The entity id.
+     */
+    NetworkMessageEntityMock(int entityId)
+    {
+        super(UtilNetwork.CHAT, (short) entityId);
+    }
+
+    /**
+     * Create mock.
+     * 
+     * @param entityId The entity id.
+     * @param clientDestId The client destination id.
+     */
+    NetworkMessageEntityMock(int entityId, byte clientDestId)
+    {
+        super(UtilNetwork.CHAT, (short) entityId, clientDestId);
+    }
+
+    /*
+     * NetworkMessageEntity
+     */
+
+    @Override
+    protected void encode(ByteArrayOutputStream buffer, Action key) throws IOException
+    {
+        buffer.write(key.ordinal());
+    }
+
+    @Override
+    protected void decode(DataInputStream buffer, int i) throws IOException
+    {
+        addAction(Action.values()[buffer.readByte()], true);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.purview.NetworkableEntity;
+import com.b3dgs.lionengine.network.purview.NetworkableModel;
+
+/**
+ * Networkable entity mock, keeping the applied messages.
+ */
+class NetworkableEntityMock extends NetworkableModel implements NetworkableEntity
+{
+    /** Applied messages. */
+    private final List<NetworkMessage> applied = new ArrayList<NetworkMessage>();
+    /** Entity id. */
+    private final short id;
+    /** Horizontal location. */
+    private double x;
+    /** Vertical location. */
+    private double y;
+
+    /**
+     * Create mock.
+     * 
+     * @param id The entity id.
+     */
+    NetworkableEntityMock(int id)
+    {
+        super();
+
+        this.id = (short) id;
+    }
+
+    /**
+     * Set the location.
+     * 
+     * @param x The horizontal location.
+     * @param y The vertical location.
+     */
+    void setLocation(double x, double y)
+    {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Get the applied messages.
+     * 
+     * @return The applied messages.
+     */
+    List<NetworkMessage> getApplied()
+    {
+        return applied;
+    }
+
+    /*
+     * NetworkableEntity
+     */
+
+    @Override
+    public void applyMessage(NetworkMessage message)
+    {
+        applied.add(message);
+    }
+
+    @Override
+    public short getEntityId()
+    {
+        return id;
+    }
+
+    @Override
+    public NetworkMessage getStateMessage(byte clientId)
+    {
+        return new NetworkMessageEntityMock(id, clientId);
+    }
+
+    @Override
+    public double getX()
+    {
+        return x;
+    }
+
+    @Override
+    public double getY()
+    {
+        return y;
+    }
+}
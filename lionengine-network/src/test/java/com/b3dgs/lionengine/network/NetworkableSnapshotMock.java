@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import com.b3dgs.lionengine.network.purview.NetworkableSnapshot;
+
+/**
+ * Networkable snapshot mock, storing its state as the snapshot fields.
+ */
+class NetworkableSnapshotMock extends NetworkableEntityMock implements NetworkableSnapshot
+{
+    /** State fields. */
+    private final int[] state;
+
+    /**
+     * Create mock.
+     * 
+     * @param id The entity id.
+     * @param count The number of fields.
+     */
+    NetworkableSnapshotMock(int id, int count)
+    {
+        super(id);
+
+        state = new int[count];
+    }
+
+    /**
+     * Set the state.
+     * 
+     * @param fields The state fields.
+     */
+    void setState(int... fields)
+    {
+        System.arraycopy(fields, 0, state, 0, state.length);
+    }
+
+    /**
+     * Get the state.
+     * 
+     * @return The state fields.
+     */
+    int[] getState()
+    {
+        return state.clone();
+    }
+
+    /*
+     * NetworkableSnapshot
+     */
+
+    @Override
+    public void writeSnapshot(int[] fields)
+    {
+        System.arraycopy(state, 0, fields, 0, state.length);
+    }
+
+    @Override
+    public void readSnapshot(int[] fields)
+    {
+        System.arraycopy(fields, 0, state, 0, state.length);
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.util.UtilStream;
+
+/**
+ * Test the channel server and client over the loopback.
+ */
+public class ServerChannelTest
+{
+    /** Message of the day. */
+    private static final String MOTD = "motd";
+    /** Client name. */
+    private static final String NAME = "client";
+    /** Messages number. */
+    private static final int COUNT = 20;
+    /** Message length larger than the buffers capacity, split on several reads. */
+    private static final int LARGE = 10000;
+    /** Raw clients number. */
+    private static final int RAW = 2;
+    /** Connecting frame size (header, system id, client id). */
+    private static final int CONNECTING = ChannelConnection.HEADER + 2;
+    /** Raw client name. */
+    private static final String RAW_NAME = "raw";
+
+    private final ServerChannel server = new ServerChannel(UtilNetwork.createDecoder());
+    private final ClientChannel client = new ClientChannel(UtilNetwork.createDecoder());
+    private final List<NetworkMessage> serverReceived = new ArrayList<NetworkMessage>();
+    private final List<NetworkMessage> clientReceived = new ArrayList<NetworkMessage>();
+    private final List<String> events = new ArrayList<String>();
+
+    /**
+     * Start the server and connect the client.
+     */
+    @Before
+    public void prepare()
+    {
+        server.setMessageOfTheDay(MOTD);
+        server.addListener(new ClientListener()
+        {
+            @Override
+            public void notifyClientConnected(Byte id, String name)
+            {
+                events.add("connected " + id + " " + name);
+            }
+
+            @Override
+            public void notifyClientDisconnected(Byte id, String name)
+            {
+                events.add("disconnected " + id + " " + name);
+            }
+
+            @Override
+            public void notifyClientNameChanged(Byte id, String name)
+            {
+                events.add("renamed " + id + " " + name);
+            }
+        });
+        client.addListener(new ConnectionListener()
+        {
+            @Override
+            public void notifyClientConnected(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyClientDisconnected(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyClientNameChanged(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyConnectionEstablished(Byte id, String name)
+            {
+                events.add("established " + id + " " + name);
+            }
+
+            @Override
+            public void notifyMessageOfTheDay(String messageOfTheDay)
+            {
+                events.add(messageOfTheDay);
+            }
+
+            @Override
+            public void notifyConnectionTerminated(Byte id)
+            {
+                events.add("terminated " + id);
+            }
+        });
+        server.start(NAME, 0);
+        client.setName(NAME);
+        client.connect(UtilNetwork.LOCALHOST, server.getPort());
+        while (!events.contains("connected 0 " + NAME))
+        {
+            update();
+        }
+    }
+
+    /**
+     * Disconnect the client and stop the server.
+     */
+    @After
+    public void clean()
+    {
+        client.disconnect();
+        server.disconnect();
+    }
+
+    /**
+     * Perform a server and client update.
+     */
+    private void update()
+    {
+        server.receiveMessages();
+        serverReceived.addAll(server.getMessages());
+        server.sendMessages();
+        client.receiveMessages();
+        clientReceived.addAll(client.getMessages());
+        client.sendMessages();
+        UtilNetwork.pause();
+    }
+
+    /**
+     * Connect a raw client up to the connected state.
+     * 
+     * @return The raw client channel.
+     * @throws IOException If error.
+     */
+    private SocketChannel connectRaw() throws IOException
+    {
+        final SocketChannel raw = SocketChannel.open(new InetSocketAddress(UtilNetwork.LOCALHOST, server.getPort()));
+        while (server.getNumberOfClients() < 2)
+        {
+            update();
+        }
+        final ByteBuffer connecting = ByteBuffer.wrap(UtilNetwork.read(raw, CONNECTING));
+        connecting.position(ChannelConnection.HEADER + 1);
+        final byte id = connecting.get();
+
+        final byte[] name = RAW_NAME.getBytes(NetworkMessage.CHARSET);
+        final ByteBuffer frames = ByteBuffer.allocate(ChannelConnection.HEADER * 2 + 5 + name.length);
+        frames.putInt(3 + name.length);
+        frames.put(NetworkMessageSystemId.CONNECTING);
+        frames.put(id);
+        frames.put((byte) name.length);
+        frames.put(name);
+        frames.putInt(2);
+        frames.put(NetworkMessageSystemId.CONNECTED);
+        frames.put(id);
+        frames.flip();
+        raw.write(frames);
+        while (!events.contains("connected " + id + " " + RAW_NAME))
+        {
+            update();
+        }
+        return raw;
+    }
+
+    /**
+     * Test the connection handshake.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testConnect()
+    {
+        Assert.assertEquals(0, client.getId());
+        Assert.assertTrue(client.isConnected());
+        Assert.assertEquals(1, server.getNumberOfClients());
+        Assert.assertTrue(events.contains("established 0 " + NAME));
+        Assert.assertTrue(events.contains(MOTD));
+    }
+
+    /**
+     * Test the client messages are received by the server in order, including a message split on several reads.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testClientMessages()
+    {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final String text;
+            if (i == COUNT / 2)
+            {
+                text = UtilNetwork.createText(String.valueOf(i), LARGE);
+            }
+            else
+            {
+                text = String.valueOf(i);
+            }
+            expected.add(text);
+            client.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, client.getId(), text));
+        }
+        while (serverReceived.size() < COUNT)
+        {
+            update();
+        }
+
+        UtilNetwork.assertChats(expected, serverReceived);
+        Assert.assertEquals(client.getId(), serverReceived.get(0).getClientId());
+    }
+
+    /**
+     * Test the server messages are received by the client in order, sent with a single gathering write.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testServerMessages()
+    {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final String text = UtilNetwork.createText(String.valueOf(i), i * i);
+            expected.add(text);
+            server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) -1, text));
+        }
+        while (clientReceived.size() < COUNT)
+        {
+            update();
+        }
+
+        UtilNetwork.assertChats(expected, clientReceived);
+    }
+
+    /**
+     * Test each message encoded once reaches every destination client byte for byte, in order.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testBroadcast() throws IOException
+    {
+        final SocketChannel[] raws = new SocketChannel[RAW];
+        try
+        {
+            for (int i = 0; i < RAW; i++)
+            {
+                raws[i] = SocketChannel.open(new InetSocketAddress(UtilNetwork.LOCALHOST, server.getPort()));
+            }
+            while (server.getNumberOfClients() < RAW + 1)
+            {
+                update();
+            }
+
+            final List<NetworkMessage> messages = new ArrayList<NetworkMessage>();
+            messages.add(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, "all"));
+            messages.add(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, (byte) 1, "first"));
+            messages.add(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, (byte) 2, "second"));
+            messages.add(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, UtilNetwork.createText("large", LARGE)));
+            server.addMessages(messages);
+            server.sendMessages();
+
+            for (int i = 0; i < RAW; i++)
+            {
+                final byte id = (byte) (i + 1);
+                final ByteBuffer connecting = ByteBuffer.wrap(UtilNetwork.read(raws[i], CONNECTING));
+                Assert.assertEquals(2, connecting.getInt());
+                Assert.assertEquals(NetworkMessageSystemId.CONNECTING, connecting.get());
+                Assert.assertEquals(id, connecting.get());
+
+                final List<byte[]> expected = new ArrayList<byte[]>();
+                for (final NetworkMessage message : messages)
+                {
+                    if (message.getClientDestId() == -1 || message.getClientDestId() == id)
+                    {
+                        expected.add(UtilNetwork.createFrame(message));
+                    }
+                }
+                final byte[] frames = UtilNetwork.concat(expected.toArray(new byte[expected.size()][]));
+                Assert.assertArrayEquals(frames, UtilNetwork.read(raws[i], frames.length));
+            }
+        }
+        finally
+        {
+            for (final SocketChannel raw : raws)
+            {
+                UtilStream.safeClose(raw);
+            }
+        }
+    }
+
+    /**
+     * Test the messages of several updates are coalesced inside the flush window, and sent in order.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testFlushWindow()
+    {
+        server.setFlushWindow(UtilNetwork.TIMEOUT);
+        server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) -1, "delayed"));
+        for (int i = 0; i < COUNT; i++)
+        {
+            update();
+        }
+
+        Assert.assertTrue(clientReceived.isEmpty());
+
+        server.setFlushWindow(0L);
+        server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) -1, "flushed"));
+        while (clientReceived.size() < 2)
+        {
+            update();
+        }
+
+        final List<String> expected = new ArrayList<String>();
+        expected.add("delayed");
+        expected.add("flushed");
+        UtilNetwork.assertChats(expected, clientReceived);
+    }
+
+    /**
+     * Test a client sending a message size larger than its frame is dropped.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testInvalidSize() throws IOException
+    {
+        final SocketChannel raw = connectRaw();
+        try
+        {
+            final ByteBuffer frame = ByteBuffer.allocate(ChannelConnection.HEADER + DatagramConnection.USER_HEADER);
+            frame.putInt(DatagramConnection.USER_HEADER);
+            frame.put(NetworkMessageSystemId.USER_MESSAGE);
+            frame.put((byte) 1);
+            frame.put((byte) -1);
+            frame.put(UtilNetwork.CHAT);
+            frame.putInt(Integer.MAX_VALUE);
+            frame.flip();
+            raw.write(frame);
+            while (server.getNumberOfClients() > 1)
+            {
+                update();
+            }
+
+            Assert.assertTrue(serverReceived.isEmpty());
+            Assert.assertTrue(client.isConnected());
+        }
+        finally
+        {
+            UtilStream.safeClose(raw);
+        }
+    }
+
+    /**
+     * Test a client not reading is dropped once its queued data are too large, the others still receiving.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testNotReading() throws IOException
+    {
+        final SocketChannel raw = connectRaw();
+        try
+        {
+            final String text = UtilNetwork.createText("flood", LARGE);
+            while (server.getNumberOfClients() > 1)
+            {
+                server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) 0, (byte) 1, text));
+                update();
+            }
+            server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) -1, "alive"));
+            while (clientReceived.isEmpty())
+            {
+                update();
+            }
+
+            Assert.assertTrue(events.contains("disconnected 1 " + RAW_NAME));
+            UtilNetwork.assertChats(Arrays.asList("alive"), clientReceived);
+        }
+        finally
+        {
+            UtilStream.safeClose(raw);
+        }
+    }
+
+    /**
+     * Test the client rename and disconnection.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testRenameDisconnect()
+    {
+        client.setName("other");
+        while (!events.contains("renamed 0 other"))
+        {
+            update();
+        }
+        client.disconnect();
+        while (!events.contains("disconnected 0 other"))
+        {
+            update();
+        }
+
+        Assert.assertFalse(client.isConnected());
+        Assert.assertTrue(events.contains("terminated 0"));
+        Assert.assertEquals(0, server.getNumberOfClients());
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+
+/**
+ * Test the stream server and client over the loopback, using the shared {@link ServerProtocol}.
+ */
+public class ServerImplTest
+{
+    /** Message of the day. */
+    private static final String MOTD = "motd";
+    /** Client name. */
+    private static final String NAME = "client";
+    /** Messages number. */
+    private static final int COUNT = 20;
+
+    private final ServerImpl server = new ServerImpl(UtilNetwork.createDecoder());
+    private final ClientImpl client = new ClientImpl(UtilNetwork.createDecoder());
+    private final List<NetworkMessage> serverReceived = new ArrayList<NetworkMessage>();
+    private final List<NetworkMessage> clientReceived = new ArrayList<NetworkMessage>();
+    private final List<String> events = new ArrayList<String>();
+
+    /**
+     * Start the server and connect the client.
+     */
+    @Before
+    public void prepare()
+    {
+        server.setMessageOfTheDay(MOTD);
+        server.addListener(new ClientListener()
+        {
+            @Override
+            public void notifyClientConnected(Byte id, String name)
+            {
+                events.add("connected " + id + " " + name);
+            }
+
+            @Override
+            public void notifyClientDisconnected(Byte id, String name)
+            {
+                events.add("disconnected " + id + " " + name);
+            }
+
+            @Override
+            public void notifyClientNameChanged(Byte id, String name)
+            {
+                events.add("renamed " + id + " " + name);
+            }
+        });
+        client.addListener(new ConnectionListener()
+        {
+            @Override
+            public void notifyClientConnected(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyClientDisconnected(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyClientNameChanged(Byte id, String name)
+            {
+                // Nothing to do
+            }
+
+            @Override
+            public void notifyConnectionEstablished(Byte id, String name)
+            {
+                events.add("established " + id + " " + name);
+            }
+
+            @Override
+            public void notifyMessageOfTheDay(String messageOfTheDay)
+            {
+                events.add(messageOfTheDay);
+            }
+
+            @Override
+            public void notifyConnectionTerminated(Byte id)
+            {
+                events.add("terminated " + id);
+            }
+        });
+        server.start(NAME, 0);
+        client.setName(NAME);
+        client.connect(UtilNetwork.LOCALHOST, server.getPort());
+        while (!events.contains("connected 0 " + NAME))
+        {
+            update();
+        }
+    }
+
+    /**
+     * Disconnect the client and stop the server.
+     */
+    @After
+    public void clean()
+    {
+        client.disconnect();
+        server.disconnect();
+    }
+
+    /**
+     * Perform a server and client update.
+     */
+    private void update()
+    {
+        server.receiveMessages();
+        serverReceived.addAll(server.getMessages());
+        server.sendMessages();
+        client.receiveMessages();
+        clientReceived.addAll(client.getMessages());
+        client.sendMessages();
+        UtilNetwork.pause();
+    }
+
+    /**
+     * Test the connection handshake.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testConnect()
+    {
+        Assert.assertEquals(0, client.getId());
+        Assert.assertTrue(client.isConnected());
+        Assert.assertEquals(1, server.getNumberOfClients());
+        Assert.assertTrue(events.contains("established 0 " + NAME));
+        Assert.assertTrue(events.contains(MOTD));
+    }
+
+    /**
+     * Test the client messages are received by the server in order.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testClientMessages()
+    {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final String text = String.valueOf(i);
+            expected.add(text);
+            client.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, client.getId(), text));
+        }
+        while (serverReceived.size() < COUNT)
+        {
+            update();
+        }
+
+        UtilNetwork.assertChats(expected, serverReceived);
+        Assert.assertEquals(client.getId(), serverReceived.get(0).getClientId());
+    }
+
+    /**
+     * Test the server messages are received by the client in order.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testServerMessages()
+    {
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            final String text = String.valueOf(i);
+            expected.add(text);
+            server.addMessage(new NetworkMessageChat(UtilNetwork.CHAT, (byte) -1, text));
+        }
+        while (clientReceived.size() < COUNT)
+        {
+            update();
+        }
+
+        UtilNetwork.assertChats(expected, clientReceived);
+    }
+
+    /**
+     * Test the client rename and disconnection.
+     */
+    @Test(timeout = UtilNetwork.TIMEOUT)
+    public void testRenameDisconnect()
+    {
+        client.setName("other");
+        while (!events.contains("renamed 0 other"))
+        {
+            update();
+        }
+        client.disconnect();
+        while (!events.contains("disconnected 0 other"))
+        {
+            update();
+        }
+
+        Assert.assertFalse(client.isConnected());
+        Assert.assertEquals(0, server.getNumberOfClients());
+    }
+}
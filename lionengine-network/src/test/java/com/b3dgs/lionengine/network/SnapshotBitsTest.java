@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the snapshot bits writer and reader.
+ */
+public class SnapshotBitsTest
+{
+    private final SnapshotBits bits = new SnapshotBits();
+
+    /**
+     * Test the bits are packed most significant first, values spanning byte boundaries.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLayout() throws IOException
+    {
+        bits.clear();
+        bits.write(0x5, 3);
+        bits.write(0x1F, 5);
+        bits.write(0xABC, 12);
+
+        Assert.assertEquals(3, bits.getSize());
+        Assert.assertArrayEquals(new byte[]
+        {
+            (byte) 0xBF, (byte) 0xAB, (byte) 0xC0
+        }, bits.toArray());
+
+        bits.wrap(bits.toArray());
+
+        Assert.assertEquals(0x5, bits.read(3));
+        Assert.assertEquals(0x1F, bits.read(5));
+        Assert.assertEquals(0xABC, bits.read(12));
+    }
+
+    /**
+     * Test values of various sizes are read back as written, at any bit offset.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testRoundTrip() throws IOException
+    {
+        final int[] values =
+        {
+            1, 5, 0x7F, 0x1ABC, 0xDEADBEEF, 0, 0x155, -1, 0x3FFF
+        };
+        final int[] sizes =
+        {
+            1, 3, 7, 13, 32, 1, 9, 32, 15
+        };
+        for (int offset = 0; offset < Byte.SIZE; offset++)
+        {
+            bits.clear();
+            bits.write(0, offset);
+            for (int i = 0; i < values.length; i++)
+            {
+                bits.write(values[i], sizes[i]);
+            }
+            bits.write(true);
+
+            bits.wrap(bits.toArray());
+
+            Assert.assertEquals(0, bits.read(offset));
+            for (int i = 0; i < values.length; i++)
+            {
+                Assert.assertEquals(values[i], bits.read(sizes[i]));
+            }
+            Assert.assertTrue(bits.readFlag());
+        }
+    }
+
+    /**
+     * Test the only bits written are kept, higher ones being ignored.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testTruncateValue() throws IOException
+    {
+        bits.clear();
+        bits.write(0xFFF5, 4);
+        bits.write(false);
+
+        bits.wrap(bits.toArray());
+
+        Assert.assertEquals(0x5, bits.read(4));
+        Assert.assertFalse(bits.readFlag());
+    }
+
+    /**
+     * Test the buffer grows beyond its initial capacity.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testGrow() throws IOException
+    {
+        final int count = 3000;
+        bits.clear();
+        for (int i = 0; i < count; i++)
+        {
+            bits.write(i % 2048, 11);
+        }
+
+        Assert.assertEquals((count * 11 + 7) / 8, bits.getSize());
+
+        bits.wrap(bits.toArray());
+        for (int i = 0; i < count; i++)
+        {
+            Assert.assertEquals(i % 2048, bits.read(11));
+        }
+    }
+
+    /**
+     * Test the buffer is reset on clear.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testClear() throws IOException
+    {
+        bits.clear();
+        bits.write(0xFF, 8);
+        bits.clear();
+        bits.write(0x1, 4);
+
+        Assert.assertArrayEquals(new byte[]
+        {
+            0x10
+        }, bits.toArray());
+    }
+
+    /**
+     * Test reading beyond the data fails.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException
+    {
+        bits.wrap(new byte[]
+        {
+            0x12
+        });
+
+        Assert.assertEquals(0x12, bits.read(8));
+
+        bits.read(1);
+    }
+
+    /**
+     * Test the zigzag encoding keeps small signed values small.
+     */
+    @Test
+    public void testZigzag()
+    {
+        Assert.assertEquals(0, SnapshotBits.zigzag(0));
+        Assert.assertEquals(1, SnapshotBits.zigzag(-1));
+        Assert.assertEquals(2, SnapshotBits.zigzag(1));
+        Assert.assertEquals(63, SnapshotBits.zigzag(-32));
+
+        final int[] values =
+        {
+            0, 1, -1, 31, -32, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE
+        };
+        for (final int value : values)
+        {
+            Assert.assertEquals(value, SnapshotBits.unzigzag(SnapshotBits.zigzag(value)));
+        }
+    }
+}
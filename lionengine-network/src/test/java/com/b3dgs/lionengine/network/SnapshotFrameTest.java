@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the snapshot frame delta encoding.
+ */
+public class SnapshotFrameTest
+{
+    /** Fields schema: wide, medium, flag and full integer. */
+    private static final SnapshotSchema SCHEMA = new SnapshotSchema(16, 10, 1, 32);
+
+    /**
+     * Assert the frames contain the same entities with the same fields.
+     * 
+     * @param expected The expected frame.
+     * @param frame The decoded frame.
+     */
+    private static void assertFrame(SnapshotFrame expected, SnapshotFrame frame)
+    {
+        final int[] expectedFields = new int[SCHEMA.getCount()];
+        final int[] fields = new int[SCHEMA.getCount()];
+        final int limit = Math.max(expected.getLimit(), frame.getLimit());
+        for (int id = 0; id < limit; id++)
+        {
+            Assert.assertEquals(String.valueOf(id), expected.has(id), frame.has(id));
+            if (expected.has(id))
+            {
+                expected.get(id, expectedFields);
+                frame.get(id, fields);
+                Assert.assertArrayEquals(String.valueOf(id), expectedFields, fields);
+            }
+        }
+    }
+
+    /**
+     * Encode the frame against the baseline.
+     * 
+     * @param frame The frame to encode.
+     * @param baseline The baseline (<code>null</code> for a full frame).
+     * @return The encoded data.
+     */
+    private static byte[] write(SnapshotFrame frame, SnapshotFrame baseline)
+    {
+        final SnapshotBits bits = new SnapshotBits();
+        bits.clear();
+        frame.write(baseline, SCHEMA, bits);
+        return bits.toArray();
+    }
+
+    /**
+     * Decode the frame against the baseline.
+     * 
+     * @param sequence The frame sequence.
+     * @param data The encoded data.
+     * @param baseline The baseline (<code>null</code> for a full frame).
+     * @return The decoded frame.
+     * @throws IOException If error.
+     */
+    private static SnapshotFrame read(int sequence, byte[] data, SnapshotFrame baseline) throws IOException
+    {
+        final SnapshotBits bits = new SnapshotBits();
+        bits.wrap(data);
+        final SnapshotFrame frame = new SnapshotFrame(SCHEMA.getCount());
+        frame.read(sequence, baseline, SCHEMA, bits);
+        return frame;
+    }
+
+    /**
+     * Create the baseline frame.
+     * 
+     * @return The baseline frame.
+     */
+    private static SnapshotFrame createBaseline()
+    {
+        final SnapshotFrame frame = new SnapshotFrame(SCHEMA.getCount());
+        frame.clear(5);
+        frame.set(0, new int[]
+        {
+            100, -200, 1, 70000
+        }, SCHEMA);
+        frame.set(1, new int[]
+        {
+            -300, 400, 0, -1
+        }, SCHEMA);
+        frame.set(2, new int[]
+        {
+            0, 0, 0, 0
+        }, SCHEMA);
+        frame.set(3, new int[]
+        {
+            5, 5, 1, 5
+        }, SCHEMA);
+        frame.set(40, new int[]
+        {
+            1, 2, 1, 3
+        }, SCHEMA);
+        return frame;
+    }
+
+    /**
+     * Test a full frame is decoded to the exact state, sparse and beyond the initial capacity.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFull() throws IOException
+    {
+        final SnapshotFrame frame = createBaseline();
+        frame.set(100, new int[]
+        {
+            -32768, 511, 1, Integer.MIN_VALUE
+        }, SCHEMA);
+
+        final SnapshotFrame decoded = read(5, write(frame, null), null);
+
+        Assert.assertEquals(5, decoded.getSequence());
+        assertFrame(frame, decoded);
+    }
+
+    /**
+     * Test a delta against the acknowledged baseline is decoded to the exact current state, with changed, added and
+     * removed entities.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testDelta() throws IOException
+    {
+        final SnapshotFrame baseline = createBaseline();
+        final SnapshotFrame received = read(5, write(baseline, null), null);
+
+        final SnapshotFrame frame = new SnapshotFrame(SCHEMA.getCount());
+        frame.clear(6);
+        frame.set(0, new int[]
+        {
+            100, -200, 1, 70000
+        }, SCHEMA);
+        frame.set(1, new int[]
+        {
+            -297, 398, 1, -1
+        }, SCHEMA);
+        frame.set(2, new int[]
+        {
+            20000, -512, 0, 123456789
+        }, SCHEMA);
+        frame.set(40, new int[]
+        {
+            1, 2, 0, 3
+        }, SCHEMA);
+        frame.set(70, new int[]
+        {
+            -1, -1, 1, -1
+        }, SCHEMA);
+
+        final byte[] delta = write(frame, baseline);
+        final SnapshotFrame decoded = read(6, delta, received);
+
+        Assert.assertFalse(decoded.has(3));
+        assertFrame(frame, decoded);
+        Assert.assertTrue(delta.length < write(frame, null).length);
+    }
+
+    /**
+     * Test an unchanged frame is encoded as empty counts, and decoded to the baseline.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testUnchanged() throws IOException
+    {
+        final SnapshotFrame baseline = createBaseline();
+        final SnapshotFrame received = read(5, write(baseline, null), null);
+        final SnapshotFrame frame = createBaseline();
+        frame.clear(6);
+        frame.set(0, new int[]
+        {
+            100, -200, 1, 70000
+        }, SCHEMA);
+        frame.set(1, new int[]
+        {
+            -300, 400, 0, -1
+        }, SCHEMA);
+        frame.set(2, new int[4], SCHEMA);
+        frame.set(3, new int[]
+        {
+            5, 5, 1, 5
+        }, SCHEMA);
+        frame.set(40, new int[]
+        {
+            1, 2, 1, 3
+        }, SCHEMA);
+
+        final byte[] delta = write(frame, baseline);
+
+        Assert.assertEquals(4, delta.length);
+        assertFrame(baseline, read(6, delta, received));
+    }
+
+    /**
+     * Test values are stored in the field size, as signed values.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testNormalize() throws IOException
+    {
+        final SnapshotFrame frame = new SnapshotFrame(SCHEMA.getCount());
+        frame.clear(0);
+        frame.set(0, new int[]
+        {
+            0x18000, 0x3FF, 3, -1
+        }, SCHEMA);
+
+        final int[] fields = new int[SCHEMA.getCount()];
+        read(0, write(frame, null), null).get(0, fields);
+
+        Assert.assertArrayEquals(new int[]
+        {
+            -32768, -1, 1, -1
+        }, fields);
+    }
+
+    /**
+     * Test a truncated frame fails.
+     * 
+     * @throws IOException If error.
+     */
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException
+    {
+        final byte[] data = write(createBaseline(), null);
+        final byte[] truncated = new byte[data.length / 2];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+
+        Assert.assertNotNull(read(0, truncated, null));
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+
+/**
+ * Test the snapshots sent to a client, delta encoded against its acknowledged baseline.
+ */
+public class SnapshotSenderTest
+{
+    /** Client id. */
+    private static final byte CLIENT = 1;
+    /** Fields schema. */
+    private static final SnapshotSchema SCHEMA = new SnapshotSchema(16, 16, 1);
+
+    /**
+     * Transfer the message through its encoding.
+     * 
+     * @param message The message to transfer.
+     * @return The decoded message.
+     * @throws IOException If error.
+     */
+    private static NetworkMessageSnapshot transfer(NetworkMessage message) throws IOException
+    {
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(message.encode().toByteArray()));
+        final NetworkMessageSnapshot decoded = new NetworkMessageSnapshot();
+        decoded.decode(input.readByte(), input.readByte(), input.readByte(), input);
+        return decoded;
+    }
+
+    private final ServerChannel server = new ServerChannel(UtilNetwork.createDecoder());
+    private final ClientChannel client = new ClientChannel(UtilNetwork.createDecoder());
+    private final NetworkEntities serverEntities = new NetworkEntities();
+    private final NetworkEntities clientEntities = new NetworkEntities();
+    private final SnapshotSender sender = new SnapshotSender(serverEntities);
+    private final SnapshotReceiver receiver = new SnapshotReceiver(clientEntities);
+    private final NetworkableSnapshotMock serverFirst = new NetworkableSnapshotMock(0, SCHEMA.getCount());
+    private final NetworkableSnapshotMock serverSecond = new NetworkableSnapshotMock(5, SCHEMA.getCount());
+    private final NetworkableSnapshotMock clientFirst = new NetworkableSnapshotMock(0, SCHEMA.getCount());
+    private final NetworkableSnapshotMock clientSecond = new NetworkableSnapshotMock(5, SCHEMA.getCount());
+
+    /**
+     * Prepare the entities on both sides, and the client.
+     */
+    @Before
+    public void prepare()
+    {
+        serverFirst.setState(1000, -1000, 1);
+        serverSecond.setState(-5, 20000, 0);
+        serverEntities.add(serverFirst);
+        serverEntities.add(serverSecond);
+        clientEntities.add(clientFirst);
+        clientEntities.add(clientSecond);
+        sender.setSchema(SCHEMA);
+        receiver.setSchema(SCHEMA);
+        sender.addClient(CLIENT);
+    }
+
+    /**
+     * Send the snapshot of the current state.
+     * 
+     * @return The snapshot received by the client.
+     * @throws IOException If error.
+     */
+    private NetworkMessageSnapshot send() throws IOException
+    {
+        server.messagesOut.clear();
+        sender.send(server);
+
+        Assert.assertEquals(1, server.messagesOut.size());
+
+        final NetworkMessage message = server.messagesOut.iterator().next();
+        Assert.assertEquals(CLIENT, message.getClientDestId());
+        Assert.assertFalse(message.isReliable());
+
+        return transfer(message);
+    }
+
+    /**
+     * Receive the snapshot on client side.
+     * 
+     * @param message The snapshot message.
+     * @return The acknowledged sequence, <code>-1</code> if not acknowledged.
+     * @throws IOException If error.
+     */
+    private int receive(NetworkMessageSnapshot message) throws IOException
+    {
+        client.messagesOut.clear();
+        receiver.receive(message, client);
+        if (client.messagesOut.isEmpty())
+        {
+            return -1;
+        }
+        final NetworkMessageSnapshot ack = transfer(client.messagesOut.iterator().next());
+        Assert.assertTrue(ack.isAcknowledge());
+        return ack.getSequence();
+    }
+
+    /**
+     * Receive the snapshot on client side and acknowledge it on server side.
+     * 
+     * @param message The snapshot message.
+     * @throws IOException If error.
+     */
+    private void receiveAcknowledge(NetworkMessageSnapshot message) throws IOException
+    {
+        final int sequence = receive(message);
+
+        Assert.assertEquals(message.getSequence(), sequence);
+
+        sender.acknowledge(CLIENT, sequence);
+    }
+
+    /**
+     * Assert the client entities have the same state as the server entities.
+     */
+    private void assertState()
+    {
+        Assert.assertArrayEquals(serverFirst.getState(), clientFirst.getState());
+        Assert.assertArrayEquals(serverSecond.getState(), clientSecond.getState());
+    }
+
+    /**
+     * Test the first snapshot is a full one, decoded to the exact state.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testFull() throws IOException
+    {
+        final NetworkMessageSnapshot message = send();
+
+        Assert.assertEquals(0, message.getSequence());
+        Assert.assertEquals(-1, message.getBaseline());
+        Assert.assertEquals(0, receive(message));
+        assertState();
+    }
+
+    /**
+     * Test the snapshot is a delta against the last acknowledged one, decoded to the exact state.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testDelta() throws IOException
+    {
+        final NetworkMessageSnapshot full = send();
+        receiveAcknowledge(full);
+
+        serverFirst.setState(1003, -1001, 1);
+        serverSecond.setState(-5, 20000, 1);
+        final NetworkMessageSnapshot delta = send();
+
+        Assert.assertEquals(1, delta.getSequence());
+        Assert.assertEquals(0, delta.getBaseline());
+        Assert.assertTrue(delta.getData().length < full.getData().length);
+
+        receiveAcknowledge(delta);
+        assertState();
+
+        serverFirst.setState(-32768, 32767, 0);
+        final NetworkMessageSnapshot wide = send();
+
+        Assert.assertEquals(1, wide.getBaseline());
+
+        receiveAcknowledge(wide);
+        assertState();
+    }
+
+    /**
+     * Test the snapshots stay full while none is acknowledged.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testNotAcknowledged() throws IOException
+    {
+        Assert.assertEquals(0, receive(send()));
+
+        serverFirst.setState(1, 2, 0);
+        final NetworkMessageSnapshot message = send();
+
+        Assert.assertEquals(-1, message.getBaseline());
+        Assert.assertEquals(1, receive(message));
+        assertState();
+    }
+
+    /**
+     * Test the lost snapshots are not used as baseline, the delta staying against the acknowledged one.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testLost() throws IOException
+    {
+        receiveAcknowledge(send());
+
+        serverFirst.setState(1, 2, 0);
+        Assert.assertEquals(0, send().getBaseline());
+
+        serverSecond.setState(3, 4, 1);
+        final NetworkMessageSnapshot message = send();
+
+        Assert.assertEquals(2, message.getSequence());
+        Assert.assertEquals(0, message.getBaseline());
+
+        receiveAcknowledge(message);
+        assertState();
+    }
+
+    /**
+     * Test the snapshot falls back to a full one when the acknowledged baseline is out of the history.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testTooOld() throws IOException
+    {
+        receiveAcknowledge(send());
+
+        for (int i = 1; i < SnapshotFrame.HISTORY; i++)
+        {
+            serverFirst.setState(i, -i, i % 2);
+            Assert.assertEquals(0, send().getBaseline());
+        }
+
+        serverSecond.setState(7, 8, 1);
+        final NetworkMessageSnapshot message = send();
+
+        Assert.assertEquals(SnapshotFrame.HISTORY, message.getSequence());
+        Assert.assertEquals(-1, message.getBaseline());
+
+        receiveAcknowledge(message);
+        assertState();
+
+        serverFirst.setState(9, 9, 0);
+        final NetworkMessageSnapshot delta = send();
+
+        Assert.assertEquals(SnapshotFrame.HISTORY, delta.getBaseline());
+
+        receiveAcknowledge(delta);
+        assertState();
+    }
+
+    /**
+     * Test the client ignores a delta against a baseline it does not have, until the next full snapshot.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testMissingBaseline() throws IOException
+    {
+        send();
+        sender.acknowledge(CLIENT, 0);
+
+        final NetworkMessageSnapshot delta = send();
+        Assert.assertEquals(0, delta.getBaseline());
+        Assert.assertEquals(-1, receive(delta));
+        Assert.assertArrayEquals(new int[SCHEMA.getCount()], clientFirst.getState());
+
+        sender.addClient(CLIENT);
+        final NetworkMessageSnapshot full = send();
+
+        Assert.assertEquals(-1, full.getBaseline());
+
+        receiveAcknowledge(full);
+        assertState();
+    }
+
+    /**
+     * Test an older snapshot than the last received is ignored.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testOutOfOrder() throws IOException
+    {
+        final NetworkMessageSnapshot old = send();
+        serverFirst.setState(1, 2, 0);
+        receiveAcknowledge(send());
+
+        Assert.assertEquals(-1, receive(old));
+        assertState();
+    }
+
+    /**
+     * Test an acknowledge of a snapshot not sent is ignored.
+     * 
+     * @throws IOException If error.
+     */
+    @Test
+    public void testAcknowledgeInvalid() throws IOException
+    {
+        send();
+        sender.acknowledge(CLIENT, 1);
+        sender.acknowledge((byte) -1, 0);
+
+        Assert.assertEquals(-1, send().getBaseline());
+    }
+}
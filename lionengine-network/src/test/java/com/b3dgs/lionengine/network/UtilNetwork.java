@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2013-2016 Byron 3D Games Studio (www.b3dgs.com) Pierre-Alexandre (contact@b3dgs.com)
+ * 
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation; either version 2
+ * of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
+ */
+package com.b3dgs.lionengine.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+
+import org.junit.Assert;
+
+import com.b3dgs.lionengine.LionEngineException;
+import com.b3dgs.lionengine.network.message.NetworkMessage;
+import com.b3dgs.lionengine.network.message.NetworkMessageChat;
+import com.b3dgs.lionengine.network.message.NetworkMessageDecoder;
+
+/**
+ * Network test utilities.
+ */
+final class UtilNetwork
+{
+    /** Loopback address. */
+    static final String LOCALHOST = "127.0.0.1";
+    /** Chat message type. */
+    static final byte CHAT = 1;
+    /** Test timeout in milliseconds. */
+    static final long TIMEOUT = 10000L;
+
+    /**
+     * Create a decoder of chat messages.
+     * 
+     * @return The decoder.
+     */
+    static NetworkMessageDecoder createDecoder()
+    {
+        return new NetworkMessageDecoder()
+        {
+            @Override
+            public NetworkMessage getNetworkMessageFromType(int type)
+            {
+                return new NetworkMessageChat();
+            }
+        };
+    }
+
+    /**
+     * Create the expected channel frame of a user message.
+     * 
+     * @param message The message to encode.
+     * @return The frame data.
+     * @throws IOException If error when encoding.
+     */
+    static byte[] createFrame(NetworkMessage message) throws IOException
+    {
+        final byte[] data = message.encode().toByteArray();
+        final int header = 8;
+        final ByteBuffer frame = ByteBuffer.allocate(ChannelConnection.HEADER + header + data.length);
+        frame.putInt(header + data.length);
+        frame.put(NetworkMessageSystemId.USER_MESSAGE);
+        frame.put(message.getClientId());
+        frame.put(message.getClientDestId());
+        frame.put(message.getType());
+        frame.putInt(data.length);
+        frame.put(data);
+        return frame.array();
+    }
+
+    /**
+     * Concatenate data.
+     * 
+     * @param parts The data to concatenate.
+     * @return The concatenated data.
+     */
+    static byte[] concat(byte[]... parts)
+    {
+        int size = 0;
+        for (final byte[] part : parts)
+        {
+            size += part.length;
+        }
+        final ByteBuffer data = ByteBuffer.allocate(size);
+        for (final byte[] part : parts)
+        {
+            data.put(part);
+        }
+        return data.array();
+    }
+
+    /**
+     * Get the remaining data of buffers, without consuming them.
+     * 
+     * @param buffers The buffers to read.
+     * @param offset The first buffer index.
+     * @param count The number of buffers.
+     * @return The remaining data.
+     */
+    static byte[] remaining(ByteBuffer[] buffers, int offset, int count)
+    {
+        int size = 0;
+        for (int i = offset; i < offset + count; i++)
+        {
+            size += buffers[i].remaining();
+        }
+        final ByteBuffer data = ByteBuffer.allocate(size);
+        for (int i = offset; i < offset + count; i++)
+        {
+            data.put(buffers[i].duplicate());
+        }
+        return data.array();
+    }
+
+    /**
+     * Read data from a blocking channel.
+     * 
+     * @param channel The channel to read.
+     * @param size The number of bytes to read.
+     * @return The data read.
+     * @throws IOException If error when reading.
+     */
+    static byte[] read(SocketChannel channel, int size) throws IOException
+    {
+        final ByteBuffer data = ByteBuffer.allocate(size);
+        while (data.hasRemaining())
+        {
+            if (channel.read(data) < 0)
+            {
+                throw new IOException("End of stream");
+            }
+        }
+        return data.array();
+    }
+
+    /**
+     * Create a text of the specified length.
+     * 
+     * @param prefix The text prefix.
+     * @param length The text length.
+     * @return The text.
+     */
+    static String createText(String prefix, int length)
+    {
+        final StringBuilder text = new StringBuilder(prefix);
+        while (text.length() < length)
+        {
+            text.append((char) ('a' + text.length() % 26));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Check the received chat messages content, in order.
+     * 
+     * @param expected The expected texts.
+     * @param received The received messages.
+     */
+    static void assertChats(List<String> expected, List<NetworkMessage> received)
+    {
+        Assert.assertEquals(expected.size(), received.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            Assert.assertEquals(expected.get(i), ((NetworkMessageChat) received.get(i)).getMessage());
+        }
+    }
+
+    /**
+     * Wait a bit between two updates.
+     */
+    static void pause()
+    {
+        try
+        {
+            Thread.sleep(1L);
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Private constructor.
+     */
+    private UtilNetwork()
+    {
+        throw new LionEngineException(LionEngineException.ERROR_PRIVATE_CONSTRUCTOR);
+    }
+}